@@ -0,0 +1,62 @@
+package htsjdk.samtools;
+
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.samtools.util.RuntimeIOException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes SAMRecords to a BGZF stream in BAM format without a header or terminator block, as in the headerless parts of a
+ * BAM file written from Spark, while building a BAM index of what it writes. The virtual file offsets in the index are
+ * relative to the start of the stream.
+ *
+ * This class is in the htsjdk package because indexing a record requires setting its file source, which is not public.
+ */
+public final class IndexingBAMRecordEncoder {
+    private final BlockCompressedOutputStream compressedOutput;
+    private final BAMRecordCodec recordCodec;
+    private final BAMIndexer bamIndexer;
+
+    /**
+     * @param recordOutput stream to write the records to
+     * @param indexOutput stream to write the index to; it is closed by {@link #finish}
+     * @param header header of the records, which must be coordinate sorted
+     */
+    public IndexingBAMRecordEncoder(final OutputStream recordOutput, final OutputStream indexOutput, final SAMFileHeader header) {
+        compressedOutput = new BlockCompressedOutputStream(recordOutput, null);
+        recordCodec = new BAMRecordCodec(header);
+        recordCodec.setOutputStream(compressedOutput);
+        bamIndexer = new BAMIndexer(indexOutput, header);
+    }
+
+    /**
+     * Writes and indexes {@code record}, which must have a header and follow the previous record in coordinate order.
+     * Afterwards, the file source of the record is its span in the stream.
+     */
+    public void encode(final SAMRecord record) {
+        final long start = compressedOutput.getFilePointer();
+        recordCodec.encode(record);
+        record.setFileSource(new SAMFileSource(null, new BAMFileSpan(new Chunk(start, compressedOutput.getFilePointer()))));
+        bamIndexer.processAlignment(record);
+    }
+
+    /**
+     * @return the virtual file offset of the next record
+     */
+    public long getFilePointer() {
+        return compressedOutput.getFilePointer();
+    }
+
+    /**
+     * Flushes the records, without closing their stream or adding a terminator block, and writes the index.
+     */
+    public void finish() {
+        try {
+            compressedOutput.flush();
+        } catch (final IOException e) {
+            throw new RuntimeIOException(e);
+        }
+        bamIndexer.finish();
+    }
+}
@@ -1,6 +1,5 @@
 package org.broadinstitute.hellbender;
 
-import org.broadinstitute.barclay.argparser.ClassFinder;
 import org.broadinstitute.hellbender.cmdline.PicardCommandLineProgramExecutor;
 import com.google.cloud.storage.StorageException;
 import htsjdk.samtools.util.StringUtil;
@@ -10,6 +9,7 @@ import org.broadinstitute.barclay.argparser.CommandLineProgramGroup;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.ClassRegistry;
 import org.broadinstitute.hellbender.utils.ClassUtils;
 import org.broadinstitute.hellbender.utils.Utils;
 
@@ -249,13 +249,9 @@ public class Main {
     private static CommandLineProgram extractCommandLineProgram(final String[] args, final List<String> packageList, final List<Class<? extends CommandLineProgram>> classList, final String commandLineName) {
 
         /** Get the set of classes that are our command line programs **/
-        final ClassFinder classFinder = new ClassFinder();
-        for (final String pkg : packageList) {
-            classFinder.find(pkg, picard.cmdline.CommandLineProgram.class);
-            classFinder.find(pkg, CommandLineProgram.class);
-        }
+        final Set<Class<?>> toCheck = ClassRegistry.find(packageList, picard.cmdline.CommandLineProgram.class);
+        toCheck.addAll(ClassRegistry.find(packageList, CommandLineProgram.class));
         String missingAnnotationClasses = "";
-        final Set<Class<?>> toCheck = classFinder.getClasses();
         toCheck.addAll(classList);
         final Map<String, Class<?>> simpleNameToClass = new LinkedHashMap<>();
         for (final Class<?> clazz : toCheck) {
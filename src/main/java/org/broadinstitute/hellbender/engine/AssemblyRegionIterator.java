@@ -15,6 +15,7 @@ import org.broadinstitute.hellbender.utils.iterators.ReadCachingIterator;
 import org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
 import java.util.*;
 
@@ -51,6 +52,8 @@ public class AssemblyRegionIterator implements Iterator<AssemblyRegion> {
     private final Iterator<AlignmentContext> locusIterator;
     private final ActivityProfile activityProfile;
 
+    private static final InstrumentationRegistry.Timer IS_ACTIVE_TIMER = InstrumentationRegistry.global().timer("assemblyRegionWalker.isActive");
+
     /**
      * Constructs an AssemblyRegionIterator over a provided read shard
      *
@@ -156,7 +159,9 @@ public class AssemblyRegionIterator implements Iterator<AssemblyRegion> {
             final ReferenceContext pileupRefContext = new ReferenceContext(reference, pileupInterval);
             final FeatureContext pileupFeatureContext = new FeatureContext(features, pileupInterval);
 
+            final long isActiveStart = IS_ACTIVE_TIMER.start();
             final ActivityProfileState profile = evaluator.isActive(pileup, pileupRefContext, pileupFeatureContext);
+            IS_ACTIVE_TIMER.stop(isActiveStart);
             activityProfile.add(profile);
 
             // A pending region only becomes ready once our locus iterator has advanced beyond the end of its extended span
@@ -16,6 +16,7 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.activityprofile.ActivityProfileState;
 import org.broadinstitute.hellbender.utils.downsampling.PositionalDownsampler;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
 import java.io.File;
 import java.io.IOException;
@@ -60,6 +61,11 @@ public abstract class AssemblyRegionWalker extends GATKTool {
      */
     public static final int NO_INTERVAL_SHARDING = -1;
 
+    /**
+     * Default value for {@link #unfilteredDownsamplingFactor}
+     */
+    public static final int DEFAULT_UNFILTERED_DOWNSAMPLING_FACTOR = 0;
+
     @Advanced
     @Argument(fullName="readShardSize", shortName="readShardSize", doc = "Maximum size of each read shard, in bases. Set to " + NO_INTERVAL_SHARDING + " for one shard per interval (or one shard per contig, if intervals are not explicitly specified). For good performance, this should typically be much larger than the maximum assembly region size.", optional = true)
     protected int readShardSize = defaultReadShardSize();
@@ -80,6 +86,20 @@ public abstract class AssemblyRegionWalker extends GATKTool {
     @Argument(fullName = "maxReadsPerAlignmentStart", shortName = "maxReadsPerAlignmentStart", doc = "Maximum number of reads to retain per alignment start position. Reads above this threshold will be downsampled. Set to 0 to disable.", optional = true)
     protected int maxReadsPerAlignmentStart = defaultMaxReadsPerAlignmentStart();
 
+    /**
+     * When downsampling by alignment start, reads are first downsampled to this many times
+     * {@link #maxReadsPerAlignmentStart} as they are read, using only their positions. Reads discarded at this stage
+     * are never filtered, and therefore never fully decoded, which bounds the work done on very deep pileups (as in
+     * amplicon data). Since the reads retained are a uniform sample of the reads at each start position, the reads
+     * that pass the filters and the final downsampling are still a uniform sample of the reads that pass the filters.
+     * However, the reads selected are not the same as without this stage: its downsampler draws from the same random
+     * number generator as the rest of the tool, so enabling it changes the random draws made afterwards, and thus the
+     * output, even if no start position has more reads than the threshold.  Disabled (0) by default.
+     */
+    @Advanced
+    @Argument(fullName = "unfilteredDownsamplingFactor", shortName = "unfilteredDownsamplingFactor", doc = "When downsampling by alignment start, first downsample the unfiltered reads at each alignment start to this many times maxReadsPerAlignmentStart, before decoding and filtering them. Changes the reads selected by downsampling, and therefore the output. Set to 0 (the default) to disable.", optional = true)
+    protected int unfilteredDownsamplingFactor = DEFAULT_UNFILTERED_DOWNSAMPLING_FACTOR;
+
     @Advanced
     @Argument(fullName = "activeProbabilityThreshold", shortName = "activeProbabilityThreshold", doc="Minimum probability for a locus to be considered active.", optional = true)
     protected double activeProbThreshold = defaultActiveProbThreshold();
@@ -114,6 +134,12 @@ public abstract class AssemblyRegionWalker extends GATKTool {
 
     private PrintStream assemblyRegionOutStream;
 
+    // Time spent reading and segmenting the reads into regions (which includes isActive) vs. processing the regions
+    private static final InstrumentationRegistry.Timer REGION_DETERMINATION_TIMER = InstrumentationRegistry.global().timer("assemblyRegionWalker.determineRegions");
+    private static final InstrumentationRegistry.Timer APPLY_TIMER = InstrumentationRegistry.global().timer("assemblyRegionWalker.apply");
+    private static final InstrumentationRegistry.Counter ACTIVE_REGIONS_COUNTER = InstrumentationRegistry.global().counter("assemblyRegionWalker.activeRegions");
+    private static final InstrumentationRegistry.Counter INACTIVE_REGIONS_COUNTER = InstrumentationRegistry.global().counter("assemblyRegionWalker.inactiveRegions");
+
     /**
      * @return Default value for the {@link #readShardSize} parameter, if none is provided on the command line
      */
@@ -200,6 +226,10 @@ public abstract class AssemblyRegionWalker extends GATKTool {
             throw new CommandLineException.BadArgumentValue("assemblyRegionPadding must be <= readShardPadding");
         }
 
+        if ( unfilteredDownsamplingFactor < 0 ) {
+            throw new CommandLineException.BadArgumentValue("unfilteredDownsamplingFactor must be >= 0");
+        }
+
         final List<SimpleInterval> intervals = hasIntervals() ? intervalsForTraversal : IntervalUtils.getAllIntervalsForReference(getHeaderForReads().getSequenceDictionary());
         readShards = makeReadShards(intervals);
 
@@ -292,6 +322,8 @@ public abstract class AssemblyRegionWalker extends GATKTool {
             // Since reads in each shard are lazily fetched, we need to pass the filter to the window
             // instead of filtering the reads directly here
             readShard.setReadFilter(countedFilter);
+            readShard.setPreFilterDownsampler(maxReadsPerAlignmentStart > 0 && unfilteredDownsamplingFactor > 0 ?
+                    new PositionalDownsampler((int)Math.min(Integer.MAX_VALUE, (long)maxReadsPerAlignmentStart * unfilteredDownsamplingFactor), getHeaderForReads()) : null);
             readShard.setDownsampler(maxReadsPerAlignmentStart > 0 ? new PositionalDownsampler(maxReadsPerAlignmentStart, getHeaderForReads()) : null);
             currentReadShard = readShard;
 
@@ -299,6 +331,7 @@ public abstract class AssemblyRegionWalker extends GATKTool {
         }
 
         logger.info(countedFilter.getSummaryLine());
+        countedFilter.recordFilteredCounts(InstrumentationRegistry.global());
     }
 
     /**
@@ -313,19 +346,27 @@ public abstract class AssemblyRegionWalker extends GATKTool {
         final Iterator<AssemblyRegion> assemblyRegionIter = new AssemblyRegionIterator(shard, getHeaderForReads(), reference, features, assemblyRegionEvaluator(), minAssemblyRegionSize, maxAssemblyRegionSize, assemblyRegionPadding, activeProbThreshold, maxProbPropagationDistance, includeReadsWithDeletionsInIsActivePileups());
 
         // Call into the tool implementation to process each assembly region from this shard.
+        long regionStart = REGION_DETERMINATION_TIMER.start();
         while ( assemblyRegionIter.hasNext() ) {
             final AssemblyRegion assemblyRegion = assemblyRegionIter.next();
+            REGION_DETERMINATION_TIMER.stop(regionStart);
             
             logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size() + " in read shard " + shard.getInterval());
             writeAssemblyRegion(assemblyRegion);
 
+            final long applyStart = APPLY_TIMER.start();
             apply(assemblyRegion,
                     new ReferenceContext(reference, assemblyRegion.getExtendedSpan()),
                     new FeatureContext(features, assemblyRegion.getExtendedSpan()));
+            APPLY_TIMER.stop(applyStart);
+            (assemblyRegion.isActive() ? ACTIVE_REGIONS_COUNTER : INACTIVE_REGIONS_COUNTER).increment();
 
             // For this traversal, the progress meter unit is the assembly region rather than the read shard
             progressMeter.update(assemblyRegion.getSpan());
+            regionStart = REGION_DETERMINATION_TIMER.start();
         }
+        // the last hasNext() finishes the trailing work of the shard without returning a region
+        REGION_DETERMINATION_TIMER.stop(regionStart);
     }
 
     private void writeAssemblyRegion(final AssemblyRegion region) {
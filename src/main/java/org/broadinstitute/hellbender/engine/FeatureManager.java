@@ -13,6 +13,7 @@ import org.broadinstitute.barclay.argparser.ClassFinder;
 import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.ClassRegistry;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 
 import java.io.File;
@@ -70,12 +71,10 @@ public final class FeatureManager implements AutoCloseable {
      * in DISCOVERED_CODECS
      */
     static {
-        final ClassFinder finder = new ClassFinder();
-        for ( final String codecPackage : CODEC_PACKAGES ) {
-            finder.find(codecPackage, CODEC_BASE_CLASS);
-        }
+        final Set<Class<?>> codecs = ClassRegistry.find(CODEC_PACKAGES, CODEC_BASE_CLASS);
         // Exclude abstract classes and interfaces from the list of discovered codec classes
-        DISCOVERED_CODECS = Collections.unmodifiableSet(finder.getConcreteClasses());
+        codecs.removeIf(codec -> !ClassFinder.isConcrete(codec));
+        DISCOVERED_CODECS = Collections.unmodifiableSet(codecs);
     }
 
     /**
@@ -50,6 +50,7 @@ import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
 import org.broadinstitute.hellbender.utils.read.SAMFileGATKReadWriter;
 import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 import org.broadinstitute.hellbender.utils.variant.GATKVariantContextUtils;
 
 /**
@@ -77,6 +78,20 @@ public abstract class GATKTool extends CommandLineProgram {
     @Argument(fullName = SECONDS_BETWEEN_PROGRESS_UPDATES_NAME, shortName = SECONDS_BETWEEN_PROGRESS_UPDATES_NAME, doc = "Output traversal statistics every time this many seconds elapse", optional = true, common = true)
     private double secondsBetweenProgressUpdates = ProgressMeter.DEFAULT_SECONDS_BETWEEN_UPDATES;
 
+    public static final String INSTRUMENTATION_JSON_OUTPUT_NAME = "instrumentationJsonOutput";
+    @Argument(fullName = INSTRUMENTATION_JSON_OUTPUT_NAME, shortName = INSTRUMENTATION_JSON_OUTPUT_NAME, doc = "If specified, write engine phase timers and counters to this file as JSON with every progress update and at the end of the run", optional = true, common = true)
+    private File instrumentationJsonOutput = null;
+
+    public static final String INSTRUMENTATION_PROMETHEUS_OUTPUT_NAME = "instrumentationPrometheusOutput";
+    @Argument(fullName = INSTRUMENTATION_PROMETHEUS_OUTPUT_NAME, shortName = INSTRUMENTATION_PROMETHEUS_OUTPUT_NAME, doc = "If specified, write engine phase timers and counters to this file in the Prometheus text format with every progress update and at the end of the run", optional = true, common = true)
+    private File instrumentationPrometheusOutput = null;
+
+    private static final InstrumentationRegistry.Timer INITIALIZATION_TIMER = InstrumentationRegistry.global().timer("engine.initialize");
+    private static final InstrumentationRegistry.Timer ON_TRAVERSAL_START_TIMER = InstrumentationRegistry.global().timer("engine.onTraversalStart");
+    private static final InstrumentationRegistry.Timer TRAVERSAL_TIMER = InstrumentationRegistry.global().timer("engine.traverse");
+    private static final InstrumentationRegistry.Timer ON_TRAVERSAL_SUCCESS_TIMER = InstrumentationRegistry.global().timer("engine.onTraversalSuccess");
+    private static final InstrumentationRegistry.Timer CLOSE_TOOL_TIMER = InstrumentationRegistry.global().timer("engine.closeTool");
+
     @Argument(fullName = StandardArgumentDefinitions.DISABLE_SEQUENCE_DICT_VALIDATION_NAME, shortName = StandardArgumentDefinitions.DISABLE_SEQUENCE_DICT_VALIDATION_NAME, doc = "If specified, do not check the sequence dictionaries from our inputs for compatibility. Use at your own risk!", optional = true, common = true)
     private boolean disableSequenceDictionaryValidation = false;
 
@@ -557,6 +572,11 @@ public abstract class GATKTool extends CommandLineProgram {
     protected void onStartup() {
         super.onStartup();
 
+        final InstrumentationRegistry instrumentation = InstrumentationRegistry.global();
+        instrumentation.reset();
+        instrumentation.setEnabled(instrumentationJsonOutput != null || instrumentationPrometheusOutput != null);
+        final long initializationStart = INITIALIZATION_TIMER.start();
+
         loadMasterSequenceDictionary();
 
         initializeReference();
@@ -575,6 +595,11 @@ public abstract class GATKTool extends CommandLineProgram {
 
         progressMeter = new ProgressMeter(secondsBetweenProgressUpdates);
         progressMeter.setRecordLabel(getProgressMeterRecordLabel());
+        if ( instrumentation.isEnabled() ) {
+            progressMeter.setInstrumentation(instrumentation, instrumentationJsonOutput, instrumentationPrometheusOutput);
+        }
+
+        INITIALIZATION_TIMER.stop(initializationStart);
     }
 
     /**
@@ -854,13 +879,39 @@ public abstract class GATKTool extends CommandLineProgram {
     @Override
     protected final Object doWork() {
         try {
+            long phaseStart = ON_TRAVERSAL_START_TIMER.start();
             onTraversalStart();
+            ON_TRAVERSAL_START_TIMER.stop(phaseStart);
+
             progressMeter.start();
+            phaseStart = TRAVERSAL_TIMER.start();
             traverse();
+            TRAVERSAL_TIMER.stop(phaseStart);
             progressMeter.stop();
-            return onTraversalSuccess();
+
+            phaseStart = ON_TRAVERSAL_SUCCESS_TIMER.start();
+            final Object result = onTraversalSuccess();
+            ON_TRAVERSAL_SUCCESS_TIMER.stop(phaseStart);
+            return result;
         } finally {
-            closeTool();
+            try {
+                final long phaseStart = CLOSE_TOOL_TIMER.start();
+                closeTool();
+                CLOSE_TOOL_TIMER.stop(phaseStart);
+            } finally {
+                // Write a final snapshot that includes the post-traversal phases, and stop collecting so that tools run
+                // later in the same JVM without instrumentation pay nothing for it.  A failure to write the snapshot
+                // must not hide the outcome of the tool itself.
+                if ( InstrumentationRegistry.global().isEnabled() ) {
+                    try {
+                        progressMeter.writeInstrumentation();
+                    } catch ( final UserException.CouldNotCreateOutputFile e ) {
+                        logger.warn("Could not write the final instrumentation snapshot: " + e.getMessage());
+                    } finally {
+                        InstrumentationRegistry.global().setEnabled(false);
+                    }
+                }
+            }
         }
     }
 
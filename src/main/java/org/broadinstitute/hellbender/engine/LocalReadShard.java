@@ -34,6 +34,7 @@ public final class LocalReadShard implements Shard<GATKRead> {
     private final SimpleInterval paddedInterval;
     private final ReadsDataSource readsSource;
     private ReadFilter readFilter;
+    private ReadsDownsampler preFilterDownsampler;
     private ReadsDownsampler downsampler;
 
     /**
@@ -74,6 +75,21 @@ public final class LocalReadShard implements Shard<GATKRead> {
         this.readFilter = filter;
     }
 
+    /**
+     * Reads in this shard will be downsampled using this downsampler as they come out of the reads source, before
+     * any requested read filtering.
+     *
+     * Reads discarded at this stage are never looked at by the read filter, which usually needs the bases, qualities
+     * or tags of a read, so in very deep pileups most reads are never fully decoded. The downsampler should therefore
+     * only look at the fixed fields of the reads (position, flags, mapping quality), as {@link org.broadinstitute.hellbender.utils.downsampling.PositionalDownsampler}
+     * does, and should retain enough reads for the filtering and downsampling that follow.
+     *
+     * @param preFilterDownsampler downsampler to use (may be null, which signifies that no downsampling is to be performed before filtering)
+     */
+    public void setPreFilterDownsampler(final ReadsDownsampler preFilterDownsampler) {
+        this.preFilterDownsampler = preFilterDownsampler;
+    }
+
     /**
      * Reads in this shard will be downsampled using this downsampler before being returned.
      * Downsampling will be performed after any requested read filtering.
@@ -136,12 +152,17 @@ public final class LocalReadShard implements Shard<GATKRead> {
      * @return an iterator over reads in this shard, as filtered using the configured read filter
      *         and downsampled using the configured downsampler; reads are lazily loaded rather than pre-loaded
      *
-     * Note that any read filtering is always performed before any downsampling.
+     * Note that any read filtering is always performed before any downsampling, except for the downsampling
+     * requested via {@link #setPreFilterDownsampler}.
      */
     @Override
     public Iterator<GATKRead> iterator() {
         Iterator<GATKRead> readsIterator = readsSource.query(paddedInterval);
 
+        if ( preFilterDownsampler != null ) {
+            readsIterator = new ReadsDownsamplingIterator(readsIterator, preFilterDownsampler);
+        }
+
         if ( readFilter != null ) {
             readsIterator = new ReadFilteringIterator(readsIterator, readFilter);
         }
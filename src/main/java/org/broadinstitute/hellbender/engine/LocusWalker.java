@@ -14,6 +14,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.locusiterator.LIBSDownsamplingInfo;
 import org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -175,6 +176,7 @@ public abstract class LocusWalker extends GATKTool {
                 }
             );
         logger.info(countedFilter.getSummaryLine());
+        countedFilter.recordFilteredCounts(InstrumentationRegistry.global());
     }
 
     /**
@@ -6,7 +6,9 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
+import java.io.File;
 import java.util.function.LongSupplier;
 
 /**
@@ -21,7 +23,11 @@ import java.util.function.LongSupplier;
  * Note that {@link #start} must only be called once, before any {@link #update(Locatable)}.
  * Note no {@link #update(Locatable)} must be called after {@link #stop}.
  *
- * All output is made at INFO level via log4j.
+ * All output is made at INFO level via log4j. If an {@link InstrumentationRegistry} is attached via
+ * {@link #setInstrumentation}, a snapshot of its timers and counters is also written to the requested files
+ * every time a progress line is printed (including the last one, printed by {@link #stop}). The final snapshot,
+ * covering the phases after the traversal as well, is written by {@link #writeInstrumentation}, which
+ * {@link GATKTool} calls once the tool has been closed.
  */
 public final class ProgressMeter {
     protected static final Logger logger = LogManager.getLogger(ProgressMeter.class);
@@ -125,6 +131,17 @@ public final class ProgressMeter {
      */
     private String recordLabel = DEFAULT_RECORD_LABEL;
 
+    /**
+     * Registry to snapshot alongside each progress line, or null if none.
+     */
+    private InstrumentationRegistry instrumentation = null;
+
+    /**
+     * Files to which instrumentation snapshots are written in JSON and Prometheus text format. Either may be null.
+     */
+    private File instrumentationJsonOutput = null;
+    private File instrumentationPrometheusOutput = null;
+
     /**
      * Create a progress meter with the default update interval of {@link #DEFAULT_SECONDS_BETWEEN_UPDATES} seconds
      * and the default time function {@link #DEFAULT_TIME_FUNCTION}.
@@ -181,6 +198,22 @@ public final class ProgressMeter {
         this.recordLabel = label;
     }
 
+    /**
+     * Write snapshots of {@code registry} to the given files every time progress is printed, and whenever
+     * {@link #writeInstrumentation} is called.
+     * The number of records processed and the elapsed time are published into the registry as gauges.
+     *
+     * @param registry registry to snapshot. Not null.
+     * @param jsonOutput file to write JSON snapshots to, or null for no JSON output
+     * @param prometheusOutput file to write Prometheus text format snapshots to, or null for no Prometheus output
+     */
+    public void setInstrumentation( final InstrumentationRegistry registry, final File jsonOutput, final File prometheusOutput ) {
+        Utils.nonNull(registry);
+        this.instrumentation = registry;
+        this.instrumentationJsonOutput = jsonOutput;
+        this.instrumentationPrometheusOutput = prometheusOutput;
+    }
+
     /**
      * Start the progress meter and produce preliminary output such as column headings.
      * @throws IllegalStateException if the meter has been started before or has been stopped already
@@ -236,6 +269,24 @@ public final class ProgressMeter {
         logger.info(String.format("Traversal complete. Processed %d total %s in %.1f minutes.", numRecordsProcessed, recordLabel, elapsedTimeInMinutes()));
     }
 
+    /**
+     * Write a final instrumentation snapshot, if instrumentation was requested. Unlike {@link #stop}, this may be
+     * called after the traversal to capture the phases that follow it, and need not be preceded by {@link #start}.
+     */
+    public void writeInstrumentation() {
+        if ( instrumentation == null ) {
+            return;
+        }
+        instrumentation.gauge("progress." + recordLabel + "Processed").set(numRecordsProcessed);
+        instrumentation.gauge("progress.elapsedMinutes").set(started ? elapsedTimeInMinutes() : 0.0);
+        if ( instrumentationJsonOutput != null ) {
+            instrumentation.writeJson(instrumentationJsonOutput);
+        }
+        if ( instrumentationPrometheusOutput != null ) {
+            instrumentation.writePrometheus(instrumentationPrometheusOutput);
+        }
+    }
+
     /**
      * Print column headings labelling the output from {@link #printProgress}
      */
@@ -253,6 +304,7 @@ public final class ProgressMeter {
         ++numLoggerUpdates;
         logger.info(String.format("%20s  %15.1f  %20d  %15.1f",
                                   currentLocusString(), elapsedTimeInMinutes(), numRecordsProcessed, processingRate()));
+        writeInstrumentation();
     }
 
     /**
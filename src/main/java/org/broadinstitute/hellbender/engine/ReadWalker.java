@@ -9,6 +9,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
 import java.nio.file.Path;
 import java.util.Collections;
@@ -101,6 +102,7 @@ public abstract class ReadWalker extends GATKTool {
                 });
 
         logger.info(countedFilter.getSummaryLine());
+        countedFilter.recordFilteredCounts(InstrumentationRegistry.global());
     }
 
     /**
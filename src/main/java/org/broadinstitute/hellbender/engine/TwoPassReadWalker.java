@@ -9,6 +9,7 @@ import org.broadinstitute.hellbender.tools.walkers.rnaseq.SplitNCigarReads;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
 import java.util.Collections;
 import java.util.List;
@@ -48,6 +49,7 @@ public abstract class TwoPassReadWalker extends ReadWalker {
         logger.info("Starting second pass through the reads");
         traverseReads(countedFilter, this::secondPassApply);
         logger.info(countedFilter.getSummaryLine());
+        countedFilter.recordFilteredCounts(InstrumentationRegistry.global());
     }
 
     /**
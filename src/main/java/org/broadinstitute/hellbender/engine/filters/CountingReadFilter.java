@@ -5,6 +5,7 @@ import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.SAMFileHeader;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
 import java.util.List;
 import java.util.function.Predicate;
@@ -89,6 +90,16 @@ public class CountingReadFilter extends ReadFilter {
         }
     }
 
+    /**
+     * Add the number of reads filtered by each simple filter (or negation of one) in this filter to the counter
+     * {@code "readFilter.<filter name>"} of {@code registry}. Compound and/or filters are not recorded themselves,
+     * only their components.
+     */
+    public void recordFilteredCounts(final InstrumentationRegistry registry) {
+        Utils.nonNull(registry);
+        registry.counter("readFilter." + getName()).add(filteredCount);
+    }
+
     protected String getIndentString(final int indentLevel) {
         final StringBuilder bldr = new StringBuilder();
         IntStream.range(0, indentLevel).forEach(i -> bldr.append("  "));
@@ -194,6 +205,12 @@ public class CountingReadFilter extends ReadFilter {
             this.rhs.resetFilteredCount();
         }
 
+        @Override
+        public void recordFilteredCounts(final InstrumentationRegistry registry) {
+            lhs.recordFilteredCounts(registry);
+            rhs.recordFilteredCounts(registry);
+        }
+
         @Override
         public abstract String getName();
     }
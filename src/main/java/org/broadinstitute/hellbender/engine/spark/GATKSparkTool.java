@@ -85,6 +85,11 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
     @Argument(doc = "For tools that write an output, write the output in multiple pieces (shards)", shortName = "shardedOutput", fullName = "shardedOutput", optional = true)
     protected boolean shardedOutput = false;
 
+    @Argument(fullName=StandardArgumentDefinitions.CREATE_OUTPUT_BAM_INDEX_LONG_NAME,
+            shortName=StandardArgumentDefinitions.CREATE_OUTPUT_BAM_INDEX_SHORT_NAME,
+            doc = "If true, create a BAM index when writing a coordinate-sorted BAM file that is not sharded.", optional=true)
+    public boolean createOutputBamIndex = true;
+
     @Argument(doc="For tools that shuffle data or write an output, sets the number of reducers. Defaults to 0, which gives one partition per 10MB of input.",
             shortName = "numReducers", fullName = "numReducers", optional = true)
     protected int numReducers = 0;
@@ -259,7 +264,7 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
             ReadsSparkSink.writeReads(ctx, outputFile,
                     hasReference() ? referenceArguments.getReferenceFile().getAbsolutePath() : null,
                     reads, readsHeader, shardedOutput ? ReadsWriteFormat.SHARDED : ReadsWriteFormat.SINGLE,
-                    getRecommendedNumReducers());
+                    getRecommendedNumReducers(), createOutputBamIndex);
         } catch (IOException e) {
             throw new UserException.CouldNotCreateOutputFile(outputFile,"writing failed", e);
         }
@@ -0,0 +1,273 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import htsjdk.samtools.BAMIndex;
+import htsjdk.samtools.GenomicIndexUtil;
+import htsjdk.samtools.util.BinaryCodec;
+import htsjdk.samtools.util.RuntimeEOFException;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Combines the partial BAM indexes written next to the headerless parts of a single-file BAM written from Spark into
+ * the index of the merged file, so that the merged file doesn't need to be read again to index it.
+ *
+ * Each partial index is a regular BAI for its part, so its virtual file offsets are relative to the start of the part.
+ * The merged file consists of the header followed by the parts in order, so the offsets of each part are shifted by
+ * the position of the part in the merged file, and the bins, linear indexes and metadata of the parts are combined
+ * reference by reference.
+ *
+ * Since a part has no header, its first record is at virtual offset 0, which is also the value that a BAI gives to
+ * the windows of the linear index before the first one with a record. Both are told apart using the bin of the
+ * record at offset 0, and windows are marked as they are set rather than by their value. Windows of a part that no
+ * record of the part overlaps repeat the previous entry of the part; they get the previous entry of the merged index
+ * instead, as they would if the merged file were indexed directly.
+ */
+public final class PartialBAMIndexMerger {
+
+    /**
+     * Prefix of the name of the partial index of a part. Part files are matched by name when they are merged, so the
+     * name of the index must not start with the name of its part.
+     */
+    public static final String PARTIAL_INDEX_PREFIX = "index-";
+
+    private static final byte[] BAI_MAGIC = "BAI\1".getBytes(StandardCharsets.US_ASCII);
+
+    // pseudo-bin that holds the file span of a reference and its number of aligned and unaligned reads
+    private static final int METADATA_BIN = 37450;
+
+    private PartialBAMIndexMerger() {}
+
+    /**
+     * @return the name of the partial index of the part called {@code partName}
+     */
+    public static String getPartialIndexName(final String partName) {
+        return PARTIAL_INDEX_PREFIX + partName + BAMIndex.BAMIndexSuffix;
+    }
+
+    /**
+     * Writes the index of a BAM file that consists of a header of {@code headerLength} bytes followed by the parts
+     * indexed by {@code partialIndexes}, in order.
+     *
+     * @param partialIndexes the partial index of each part, in the same order as the parts in the merged file
+     * @param partLengths the length in bytes of each part
+     * @param headerLength the length in bytes of the header of the merged file
+     * @param output stream to write the merged index to; it is not closed
+     */
+    public static void mergePartialIndexes(final List<Path> partialIndexes, final List<Long> partLengths, final long headerLength,
+                                           final OutputStream output) throws IOException {
+        Utils.nonNull(partialIndexes);
+        Utils.nonNull(partLengths);
+        Utils.nonNull(output);
+        Utils.validateArg(partialIndexes.size() == partLengths.size(), "there must be one partial index per part");
+        Utils.validateArg(headerLength >= 0, "header length must be non-negative");
+
+        final List<BinaryCodec> inputs = new ArrayList<>(partialIndexes.size());
+        try {
+            final long[] partOffsets = new long[partialIndexes.size()];
+            long partOffset = headerLength;
+            int numReferences = -1;
+            for (int i = 0; i < partialIndexes.size(); i++) {
+                partOffsets[i] = partOffset;
+                partOffset += partLengths.get(i);
+
+                final BinaryCodec input = new BinaryCodec(new BufferedInputStream(Files.newInputStream(partialIndexes.get(i))));
+                inputs.add(input);
+                final byte[] magic = new byte[BAI_MAGIC.length];
+                input.readBytes(magic);
+                if (!Arrays.equals(magic, BAI_MAGIC)) {
+                    throw new UserException.MalformedFile("Partial BAM index " + partialIndexes.get(i).toUri() + " is not a BAI file");
+                }
+                final int partNumReferences = input.readInt();
+                if (numReferences != -1 && partNumReferences != numReferences) {
+                    throw new UserException.MalformedFile("Partial BAM index " + partialIndexes.get(i).toUri() + " has " +
+                            partNumReferences + " references rather than " + numReferences);
+                }
+                numReferences = partNumReferences;
+            }
+
+            final BinaryCodec out = new BinaryCodec(output);
+            out.writeBytes(BAI_MAGIC);
+            out.writeInt(Math.max(numReferences, 0));
+            for (int reference = 0; reference < numReferences; reference++) {
+                final ReferenceIndex referenceIndex = new ReferenceIndex();
+                for (int i = 0; i < inputs.size(); i++) {
+                    referenceIndex.add(inputs.get(i), partOffsets[i]);
+                }
+                referenceIndex.write(out);
+            }
+
+            long numNoCoordinateReads = 0;
+            for (final BinaryCodec input : inputs) {
+                numNoCoordinateReads += readOptionalNoCoordinateCount(input);
+            }
+            out.writeLong(numNoCoordinateReads);
+            output.flush();
+        } finally {
+            inputs.forEach(BinaryCodec::close);
+        }
+    }
+
+    // the number of reads with no coordinate is optional at the end of a BAI
+    private static long readOptionalNoCoordinateCount(final BinaryCodec input) {
+        try {
+            return input.readLong();
+        } catch (final RuntimeEOFException e) {
+            return 0;
+        }
+    }
+
+    // the block address is in the upper 48 bits of a virtual offset
+    private static long shiftVirtualOffset(final long virtualOffset, final long partOffset) {
+        return virtualOffset + (partOffset << 16);
+    }
+
+    // each level of bins splits the bins of the previous level in 8, down to the 16 kb windows of the linear index
+    private static int getFirstWindowOfBin(final int bin) {
+        final int[] levelStarts = GenomicIndexUtil.LEVEL_STARTS;
+        int level = levelStarts.length - 1;
+        while (bin < levelStarts[level]) {
+            level--;
+        }
+        return (bin - levelStarts[level]) << (3 * (levelStarts.length - 1 - level));
+    }
+
+    private static boolean isWindowInAnyBin(final int window, final BitSet bins) {
+        final int[] levelStarts = GenomicIndexUtil.LEVEL_STARTS;
+        for (int level = 0; level < levelStarts.length; level++) {
+            if (bins.get(levelStarts[level] + (window >> (3 * (levelStarts.length - 1 - level))))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Index content of one reference, accumulated over the parts in file order.
+     */
+    private static final class ReferenceIndex {
+        // chunks of each bin as consecutive begin and end virtual offsets
+        private final SortedMap<Integer, LongArrayList> bins = new TreeMap<>();
+        private long[] linearIndex = new long[0];
+        // windows of the linear index set by some part
+        private final BitSet windowsSet = new BitSet();
+
+        private boolean hasMetadata = false;
+        private long firstOffset;
+        private long lastOffset;
+        private long numAlignedReads = 0;
+        private long numUnalignedReads = 0;
+
+        void add(final BinaryCodec input, final long partOffset) {
+            // the linear index of the part has entries from this window on, if its first record is on this reference
+            int firstWindowWithEntry = Integer.MAX_VALUE;
+            final BitSet partBins = new BitSet();
+            final int numBins = input.readInt();
+            for (int i = 0; i < numBins; i++) {
+                final int bin = (int) input.readUInt();
+                final int numChunks = input.readInt();
+                if (bin == METADATA_BIN) {
+                    final long partFirstOffset = shiftVirtualOffset(input.readLong(), partOffset);
+                    final long partLastOffset = shiftVirtualOffset(input.readLong(), partOffset);
+                    if (!hasMetadata) {
+                        firstOffset = partFirstOffset;
+                        hasMetadata = true;
+                    }
+                    lastOffset = partLastOffset;
+                    // the second "chunk" holds read counts rather than offsets
+                    numAlignedReads += input.readLong();
+                    numUnalignedReads += input.readLong();
+                } else {
+                    partBins.set(bin);
+                    final LongArrayList chunks = bins.computeIfAbsent(bin, b -> new LongArrayList());
+                    for (int j = 0; j < numChunks; j++) {
+                        final long partBegin = input.readLong();
+                        if (partBegin == 0) {
+                            firstWindowWithEntry = getFirstWindowOfBin(bin);
+                        }
+                        final long begin = shiftVirtualOffset(partBegin, partOffset);
+                        final long end = shiftVirtualOffset(input.readLong(), partOffset);
+                        addChunk(chunks, begin, end);
+                    }
+                }
+            }
+
+            final int numWindows = input.readInt();
+            if (numWindows > linearIndex.length) {
+                linearIndex = Arrays.copyOf(linearIndex, numWindows);
+            }
+            boolean previousWindowHasEntry = false;
+            long previousOffset = 0;
+            for (int window = 0; window < numWindows; window++) {
+                final long offset = input.readLong();
+                // windows of the bin of the first record that come before it get its offset as well, which is safe
+                // since no record of this part or a later one overlaps them
+                final boolean hasEntry = offset != 0 || window >= firstWindowWithEntry;
+                // parts come in file order, so the first part with an entry for a window has the smallest offset
+                if (hasEntry && !windowsSet.get(window)) {
+                    // a window that no record of the part can overlap repeats the entry of the previous window of the
+                    // part, so take the previous window of the merged index instead, which is never larger
+                    final boolean repeatsPreviousWindow = previousWindowHasEntry && offset == previousOffset
+                            && !isWindowInAnyBin(window, partBins);
+                    linearIndex[window] = repeatsPreviousWindow ? linearIndex[window - 1] : shiftVirtualOffset(offset, partOffset);
+                    windowsSet.set(window);
+                }
+                previousWindowHasEntry = hasEntry;
+                previousOffset = offset;
+            }
+        }
+
+        private static void addChunk(final LongArrayList chunks, final long begin, final long end) {
+            final int size = chunks.size();
+            if (size > 0 && begin <= chunks.getLong(size - 1)) {
+                chunks.set(size - 1, Math.max(end, chunks.getLong(size - 1)));
+            } else {
+                chunks.add(begin);
+                chunks.add(end);
+            }
+        }
+
+        void write(final BinaryCodec out) {
+            out.writeInt(bins.size() + (hasMetadata ? 1 : 0));
+            for (final Map.Entry<Integer, LongArrayList> bin : bins.entrySet()) {
+                out.writeUInt(bin.getKey());
+                final LongArrayList chunks = bin.getValue();
+                out.writeInt(chunks.size() / 2);
+                for (int i = 0; i < chunks.size(); i++) {
+                    out.writeLong(chunks.getLong(i));
+                }
+            }
+            if (hasMetadata) {
+                out.writeUInt(METADATA_BIN);
+                out.writeInt(2);
+                out.writeLong(firstOffset);
+                out.writeLong(lastOffset);
+                out.writeLong(numAlignedReads);
+                out.writeLong(numUnalignedReads);
+            }
+            // as in a BAI written by htsjdk, windows without an entry get the entry of the previous window
+            out.writeInt(linearIndex.length);
+            long previousOffset = 0;
+            for (int window = 0; window < linearIndex.length; window++) {
+                if (windowsSet.get(window)) {
+                    previousOffset = linearIndex[window];
+                }
+                out.writeLong(previousOffset);
+            }
+        }
+    }
+}
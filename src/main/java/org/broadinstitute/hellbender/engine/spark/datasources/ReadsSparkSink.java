@@ -1,10 +1,15 @@
 package org.broadinstitute.hellbender.engine.spark.datasources;
 
+import com.google.common.io.ByteStreams;
+import com.google.common.io.CountingOutputStream;
+import htsjdk.samtools.BAMIndex;
 import htsjdk.samtools.BamFileIoUtils;
+import htsjdk.samtools.IndexingBAMRecordEncoder;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.cram.build.CramIO;
 import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileSystem;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.io.NullWritable;
 import org.apache.hadoop.mapred.FileAlreadyExistsException;
@@ -26,12 +31,20 @@ import org.broadinstitute.hellbender.utils.read.HeaderlessSAMRecordCoordinateCom
 import org.broadinstitute.hellbender.utils.read.ReadsWriteFormat;
 import org.broadinstitute.hellbender.utils.spark.SparkUtils;
 import org.seqdoop.hadoop_bam.*;
+import org.seqdoop.hadoop_bam.util.NIOFileUtil;
 import org.seqdoop.hadoop_bam.util.SAMFileMerger;
+import org.seqdoop.hadoop_bam.util.SAMOutputPreparer;
 import scala.Tuple2;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Comparator;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * ReadsSparkSink writes GATKReads to a file. This code lifts from the HadoopGenomics/Hadoop-BAM
@@ -39,6 +52,14 @@ import java.util.Comparator;
  */
 public final class ReadsSparkSink {
 
+    /**
+     * Configuration property that makes each headerless BAM part also write a partial BAM index, so that the index of
+     * the merged file can be assembled from them (see {@link PartialBAMIndexMerger}).
+     */
+    public static final String WRITE_PARTIAL_BAI = "hellbender.bam.write-partial-bai";
+
+    private static final String PARTS_GLOB = "glob:**/part-[mr]-[0-9][0-9][0-9][0-9][0-9]*";
+
     // Output format class for writing BAM files through saveAsNewAPIHadoopFile. Must be public.
     public static class SparkBAMOutputFormat extends KeyIgnoringBAMOutputFormat<NullWritable> {
         public static SAMFileHeader bamHeader = null;
@@ -70,6 +91,53 @@ public final class ReadsSparkSink {
         public SparkHeaderlessBAMOutputFormat() {
             setWriteHeader(false);
         }
+
+        @Override
+        public RecordWriter<NullWritable, SAMRecordWritable> getRecordWriter(TaskAttemptContext ctx) throws IOException {
+            if (!ctx.getConfiguration().getBoolean(WRITE_PARTIAL_BAI, false)) {
+                return super.getRecordWriter(ctx);
+            }
+            setSAMHeader(bamHeader);
+            return new IndexingHeaderlessBAMRecordWriter(getDefaultWorkFile(ctx, BamFileIoUtils.BAM_FILE_EXTENSION), bamHeader, ctx);
+        }
+    }
+
+    /**
+     * Writes a headerless BAM part together with a BAM index of the part, whose virtual file offsets are relative to
+     * the start of the part, and with a splitting index if {@link BAMOutputFormat#WRITE_SPLITTING_BAI} is set.
+     */
+    static final class IndexingHeaderlessBAMRecordWriter extends RecordWriter<NullWritable, SAMRecordWritable> {
+        private final OutputStream partOutput;
+        private final IndexingBAMRecordEncoder encoder;
+        private final SplittingBAMIndexer splittingBAMIndexer;
+
+        IndexingHeaderlessBAMRecordWriter(final Path part, final SAMFileHeader header, final TaskAttemptContext ctx) throws IOException {
+            final FileSystem fs = part.getFileSystem(ctx.getConfiguration());
+            partOutput = fs.create(part);
+            encoder = new IndexingBAMRecordEncoder(partOutput,
+                    fs.create(new Path(part.getParent(), PartialBAMIndexMerger.getPartialIndexName(part.getName()))), header);
+            splittingBAMIndexer = ctx.getConfiguration().getBoolean(BAMOutputFormat.WRITE_SPLITTING_BAI, false) ?
+                    new SplittingBAMIndexer(fs.create(part.suffix(SplittingBAMIndexer.OUTPUT_FILE_EXTENSION))) : null;
+        }
+
+        @Override
+        public void write(final NullWritable ignored, final SAMRecordWritable recordWritable) throws IOException {
+            final SAMRecord record = recordWritable.get();
+            encoder.encode(record);
+            if (splittingBAMIndexer != null) {
+                // uses the file source set by the encoder
+                splittingBAMIndexer.processAlignment(record);
+            }
+        }
+
+        @Override
+        public void close(final TaskAttemptContext ctx) throws IOException {
+            encoder.finish();
+            if (splittingBAMIndexer != null) {
+                splittingBAMIndexer.finish(encoder.getFilePointer());
+            }
+            partOutput.close();
+        }
     }
 
     // Output format class for writing CRAM files through saveAsNewAPIHadoopFile. Must be public.
@@ -134,6 +202,26 @@ public final class ReadsSparkSink {
     public static void writeReads(
             final JavaSparkContext ctx, final String outputFile, final String referenceFile, final JavaRDD<GATKRead> reads,
             final SAMFileHeader header, ReadsWriteFormat format, final int numReducers) throws IOException {
+        writeReads(ctx, outputFile, referenceFile, reads, header, format, numReducers, false);
+    }
+
+    /**
+     * writeReads writes rddReads to outputFile with header as the file header.
+     * @param ctx the JavaSparkContext to write.
+     * @param outputFile path to the output bam.
+     * @param referenceFile path to the reference. required for cram output, otherwise may be null.
+     * @param reads reads to write.
+     * @param header the header to put at the top of the files
+     * @param format should the output be a single file, sharded, ADAM, etc.
+     * @param numReducers the number of reducers to use when writing a single file. A value of zero indicates that the default
+     *                    should be used.
+     * @param writeBamIndex whether to write a BAM index (.bai) next to a single-file, coordinate-sorted BAM output.
+     *                      The index is assembled from indexes of the parts written along with them, so the output is
+     *                      not read again. Ignored for other outputs.
+     */
+    public static void writeReads(
+            final JavaSparkContext ctx, final String outputFile, final String referenceFile, final JavaRDD<GATKRead> reads,
+            final SAMFileHeader header, ReadsWriteFormat format, final int numReducers, final boolean writeBamIndex) throws IOException {
 
         SAMFormat samOutputFormat = IOUtils.isCramFileName(outputFile) ? SAMFormat.CRAM : SAMFormat.BAM;
 
@@ -141,7 +229,8 @@ public final class ReadsSparkSink {
         String absoluteReferenceFile = referenceFile != null ?
                                         BucketUtils.makeFilePathAbsolute(referenceFile) :
                                         referenceFile;
-        setHadoopBAMConfigurationProperties(ctx, absoluteOutputFile, absoluteReferenceFile, format);
+        setHadoopBAMConfigurationProperties(ctx, absoluteOutputFile, absoluteReferenceFile, format,
+                writeBamIndex && header.getSortOrder() == SAMFileHeader.SortOrder.coordinate);
 
         // The underlying reads are required to be in SAMRecord format in order to be
         // written out, so we convert them to SAMRecord explicitly here. If they're already
@@ -228,9 +317,45 @@ public final class ReadsSparkSink {
         final JavaRDD<SAMRecord> sortedReads = SparkUtils.sortReads(reads, header, numReducers);
         final String outputPartsDirectory = outputFile + ".parts/";
         saveAsShardedHadoopFiles(ctx, outputPartsDirectory, referenceFile, samOutputFormat, sortedReads,  header, false);
+        if (ctx.hadoopConfiguration().getBoolean(WRITE_PARTIAL_BAI, false)) {
+            // the parts are deleted once merged, so assemble the index first
+            writeMergedBAMIndex(outputPartsDirectory, outputFile, header);
+        }
         SAMFileMerger.mergeParts(outputPartsDirectory, outputFile, samOutputFormat, header);
     }
 
+    /**
+     * Writes the index of the BAM file that {@link SAMFileMerger#mergeParts} makes from the parts in
+     * {@code outputPartsDirectory}, by combining the partial indexes written next to the parts.
+     */
+    private static void writeMergedBAMIndex(final String outputPartsDirectory, final String outputFile, final SAMFileHeader header) throws IOException {
+        final java.nio.file.Path partsDirectory = NIOFileUtil.asPath(outputPartsDirectory);
+        final PathMatcher partsMatcher = partsDirectory.getFileSystem().getPathMatcher(PARTS_GLOB);
+        // same parts, in the same order, as SAMFileMerger
+        final List<java.nio.file.Path> parts;
+        try (final Stream<java.nio.file.Path> files = Files.walk(partsDirectory)) {
+            parts = files.filter(partsMatcher::matches)
+                    .filter(path -> !path.toString().endsWith(SplittingBAMIndexer.OUTPUT_FILE_EXTENSION))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        final List<java.nio.file.Path> partialIndexes = new ArrayList<>(parts.size());
+        final List<Long> partLengths = new ArrayList<>(parts.size());
+        for (final java.nio.file.Path part : parts) {
+            partialIndexes.add(part.resolveSibling(PartialBAMIndexMerger.getPartialIndexName(part.getFileName().toString())));
+            partLengths.add(Files.size(part));
+        }
+
+        // the merged file starts with the header written in the same way as SAMFileMerger does
+        final CountingOutputStream headerOutput = new CountingOutputStream(ByteStreams.nullOutputStream());
+        new SAMOutputPreparer().prepareForRecords(headerOutput, SAMFormat.BAM, header);
+
+        final String indexFile = outputFile.substring(0, outputFile.length() - BamFileIoUtils.BAM_FILE_EXTENSION.length()) + BAMIndex.BAMIndexSuffix;
+        try (final OutputStream indexOutput = Files.newOutputStream(NIOFileUtil.asPath(indexFile))) {
+            PartialBAMIndexMerger.mergePartialIndexes(partialIndexes, partLengths, headerOutput.getCount(), indexOutput);
+        }
+    }
+
     private static Class<? extends OutputFormat<NullWritable, SAMRecordWritable>> getOutputFormat(final SAMFormat samFormat, final boolean writeHeader) {
         if (samFormat == SAMFormat.CRAM) {
             return writeHeader ? SparkCRAMOutputFormat.class : SparkHeaderlessCRAMOutputFormat.class;
@@ -264,18 +389,22 @@ public final class ReadsSparkSink {
      *     with different outputs but the same Spark context
      */
     private static void setHadoopBAMConfigurationProperties(final JavaSparkContext ctx, final String outputName,
-                                                            final String referenceName, final ReadsWriteFormat format) {
+                                                            final String referenceName, final ReadsWriteFormat format,
+                                                            final boolean writeBamIndex) {
         final Configuration conf = ctx.hadoopConfiguration();
 
         if (!IOUtils.isCramFileName(outputName)) { // only set the reference for CRAM output
             conf.unset(CRAMInputFormat.REFERENCE_SOURCE_PATH_PROPERTY);
             if (format == ReadsWriteFormat.SINGLE && IOUtils.isBamFileName(outputName)) {
                 conf.setBoolean(BAMOutputFormat.WRITE_SPLITTING_BAI, true);
+                conf.setBoolean(WRITE_PARTIAL_BAI, writeBamIndex);
             } else {
                 conf.setBoolean(BAMOutputFormat.WRITE_SPLITTING_BAI, false);
+                conf.setBoolean(WRITE_PARTIAL_BAI, false);
             }
         }
         else {
+            conf.setBoolean(WRITE_PARTIAL_BAI, false);
             if (null == referenceName) {
                 throw new UserException.MissingReference("A reference is required for CRAM output");
             }
@@ -11,14 +11,18 @@ import org.broadinstitute.hellbender.engine.AlignmentContext;
 import org.broadinstitute.hellbender.engine.FeatureContext;
 import org.broadinstitute.hellbender.engine.LocusWalker;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.MappingQualityReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.tools.copynumber.allelic.alleliccount.AllelicCountCollector;
+import org.broadinstitute.hellbender.tools.copynumber.allelic.alleliccount.SiteBaseCounter;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SampleMetadata;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SampleNameUtils;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SimpleSampleMetadata;
 import org.broadinstitute.hellbender.utils.Nucleotide;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
 import java.io.File;
 import java.util.List;
@@ -79,6 +83,12 @@ import java.util.List;
  *     2	15629	5	3	T	C
  * </pre>
  *
+ * <p>
+ *     Unless downsampling is requested with --maxDepthPerSample, counts are collected directly from the stream of reads
+ *     (see {@link SiteBaseCounter}) rather than from a pileup at every site, which gives the same counts much faster
+ *     for large numbers of sites.
+ * </p>
+ *
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  */
 @CommandLineProgramProperties(
@@ -153,6 +163,34 @@ public final class CollectAllelicCounts extends LocusWalker {
         return("SUCCESS");
     }
 
+    /**
+     * Counts bases at the sites directly from the reads, bypassing the pileups of {@link LocusWalker#traverse()}, which
+     * is only used if reads are to be downsampled.  A negative --maxDepthPerSample is rejected before either traversal
+     * is chosen.
+     */
+    @Override
+    public void traverse() {
+        if (getDownsamplingInfo().isPerformDownsampling()) {
+            super.traverse();
+            return;
+        }
+        final CountingReadFilter countedFilter = makeReadFilter();
+        try (final ReferenceDataSource referenceDataSource = ReferenceDataSource.of(referenceArguments.getReferenceFile())) {
+            final SiteBaseCounter siteBaseCounter = new SiteBaseCounter(
+                    intervalArgumentCollection.getIntervals(getBestAvailableSequenceDictionary()),
+                    getHeaderForReads().getSequenceDictionary(),
+                    minimumBaseQuality,
+                    (interval, baseCounts) -> {
+                        allelicCountCollector.collectAtInterval(referenceDataSource.queryAndPrefetch(interval).getBases(), baseCounts, interval);
+                        progressMeter.update(interval);
+                    });
+            getTransformedReadStream(countedFilter).forEach(siteBaseCounter::addRead);
+            siteBaseCounter.finish();
+        }
+        logger.info(countedFilter.getSummaryLine());
+        countedFilter.recordFilteredCounts(InstrumentationRegistry.global());
+    }
+
     @Override
     public void apply(AlignmentContext alignmentContext, ReferenceContext referenceContext, FeatureContext featureContext) {
         final byte refAsByte = referenceContext.getBase();
@@ -49,12 +49,6 @@ public final class AllelicCountCollector {
         Utils.nonNull(locus);
         ParamUtils.isPositiveOrZero(minBaseQuality, "Minimum base quality must be zero or higher.");
 
-        if (!BASES.contains(refBase)) {
-            logger.warn(String.format("The reference position at %s has an unknown base call (value: %s). Skipping...",
-                    locus, refBase.toString()));
-            return;
-        }
-
         final Nucleotide.Counter nucleotideCounter = new Nucleotide.Counter();
 
         Utils.stream(pileup.iterator())
@@ -62,10 +56,50 @@ public final class AllelicCountCollector {
                 .filter(r -> r.getQual() >= minBaseQuality)
                 .forEach(r -> nucleotideCounter.add(r.getBase()));
 
-        final int totalBaseCount = BASES.stream().mapToInt(b -> (int) nucleotideCounter.get(b)).sum();  //only include total ACGT counts (exclude N, etc.)
-        final int refReadCount = (int) nucleotideCounter.get(refBase);
+        final int[] baseCounts = BASES.stream().mapToInt(b -> (int) nucleotideCounter.get(b)).toArray();
+        collectAtLocus(refBase, baseCounts, 0, locus);
+    }
+
+    /**
+     * Add counts to this class for each locus of an interval, given the counts of each of {@link #BASES} at each locus
+     * (e.g., as collected by {@link SiteBaseCounter}).
+     *
+     * @param refBases reference bases of the interval.  Not {@code null}
+     * @param baseCounts counts of {@link #BASES} at each locus of the interval, in that order, with {@code BASES.size()}
+     *                   consecutive elements per locus.  Not {@code null}
+     * @param interval interval of loci to collect allelic counts.  Not {@code null}
+     */
+    public void collectAtInterval(final byte[] refBases, final int[] baseCounts, final SimpleInterval interval) {
+        Utils.nonNull(refBases);
+        Utils.nonNull(baseCounts);
+        Utils.nonNull(interval);
+        Utils.validateArg(refBases.length == interval.size(), "Number of reference bases must match the interval size.");
+        Utils.validateArg(baseCounts.length == interval.size() * BASES.size(), "Number of base counts must match the interval size.");
+
+        for (int i = 0; i < refBases.length; i++) {
+            final int position = interval.getStart() + i;
+            collectAtLocus(Nucleotide.valueOf(refBases[i]), baseCounts, i * BASES.size(),
+                    new SimpleInterval(interval.getContig(), position, position));
+        }
+    }
+
+    /**
+     * Add counts for a locus given the counts of {@link #BASES} starting at {@code offset} in {@code baseCounts}.
+     */
+    private void collectAtLocus(final Nucleotide refBase, final int[] baseCounts, final int offset, final Locatable locus) {
+        if (!BASES.contains(refBase)) {
+            logger.warn(String.format("The reference position at %s has an unknown base call (value: %s). Skipping...",
+                    locus, refBase.toString()));
+            return;
+        }
+
+        int totalBaseCount = 0;                                                                         //only include total ACGT counts (exclude N, etc.)
+        for (int i = 0; i < BASES.size(); i++) {
+            totalBaseCount += baseCounts[offset + i];
+        }
+        final int refReadCount = baseCounts[offset + BASES.indexOf(refBase)];
         final int altReadCount = totalBaseCount - refReadCount;                                         //we take alt = total - ref instead of the actual alt count
-        final Nucleotide altBase = altReadCount == 0 ? Nucleotide.N : inferAltFromPileupBaseCounts(nucleotideCounter, refBase);
+        final Nucleotide altBase = altReadCount == 0 ? Nucleotide.N : inferAltFromBaseCounts(baseCounts, offset, refBase);
 
         allelicCounts.add(new AllelicCount(
                 new SimpleInterval(locus.getContig(), locus.getStart(), locus.getEnd()),
@@ -85,11 +119,17 @@ public final class AllelicCountCollector {
      * Returns the non-ref base with highest count (if there is a tie, the first base in the order given in
      * {@link AllelicCountCollector#BASES} will be returned).
      */
-    private static Nucleotide inferAltFromPileupBaseCounts(final Nucleotide.Counter baseCounts,
-                                                           final Nucleotide refNucleotide) {
-        return BASES.stream()
-                .filter(b -> b != refNucleotide)
-                .sorted((b1, b2) -> Long.compare(baseCounts.get(b2), baseCounts.get(b1)))
-                .findFirst().get();
+    private static Nucleotide inferAltFromBaseCounts(final int[] baseCounts,
+                                                     final int offset,
+                                                     final Nucleotide refNucleotide) {
+        Nucleotide altBase = null;
+        int altBaseCount = -1;
+        for (int i = 0; i < BASES.size(); i++) {
+            if (BASES.get(i) != refNucleotide && baseCounts[offset + i] > altBaseCount) {
+                altBase = BASES.get(i);
+                altBaseCount = baseCounts[offset + i];
+            }
+        }
+        return altBase;
     }
 }
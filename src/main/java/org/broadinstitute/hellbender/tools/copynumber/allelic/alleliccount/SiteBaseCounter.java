@@ -0,0 +1,240 @@
+package org.broadinstitute.hellbender.tools.copynumber.allelic.alleliccount;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.samtools.CigarElement;
+import htsjdk.samtools.CigarOperator;
+import htsjdk.samtools.SAMSequenceDictionary;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import org.broadinstitute.hellbender.utils.Nucleotide;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Counts the bases of {@link AllelicCountCollector#BASES} at every site in a list of intervals directly from a
+ * coordinate-sorted stream of reads, as an alternative to building a pileup at every site.
+ *
+ * <p>
+ *     The sites and the reads are walked together: each read is only compared to the intervals it overlaps, its
+ *     bases at the sites are found by walking its CIGAR once, and counts are kept in primitive arrays.  The counts
+ *     of an interval are handed to the {@link IntervalBaseCountsConsumer} (in interval order, including intervals
+ *     without any reads) as soon as no later read can overlap it.
+ * </p>
+ *
+ * <p>
+ *     Intervals longer than {@link #MAX_BLOCK_SIZE} sites (e.g., whole contigs) are counted and handed on in
+ *     consecutive blocks of at most that many sites, and the counts of a block are only allocated once a read overlaps
+ *     it, so that memory use depends on the span of the reads being counted rather than on the size of the intervals.
+ * </p>
+ *
+ * <p>
+ *     A base is counted under the same conditions as it would be included in the pileup of
+ *     {@link org.broadinstitute.hellbender.utils.locusiterator.LocusIteratorByState} (without downsampling) and
+ *     counted by {@link AllelicCountCollector#collectAtLocus}: it must be aligned to the site (not deleted or skipped)
+ *     and not inside the adaptor (see {@link ReadUtils#isBaseInsideAdaptor}), and its quality must be at least the
+ *     minimum base quality.
+ * </p>
+ */
+public final class SiteBaseCounter {
+
+    private static final int NUM_BASES = AllelicCountCollector.BASES.size();
+
+    /**
+     * Maximum number of sites whose counts are kept and handed on together
+     */
+    public static final int MAX_BLOCK_SIZE = 1 << 16;
+
+    /**
+     * Index in {@link AllelicCountCollector#BASES} of the {@link Nucleotide} of each base byte, or -1 for other bytes
+     */
+    private static final int[] BASE_INDICES = new int[Byte.MAX_VALUE + 1];
+
+    static {
+        for (int base = 0; base < BASE_INDICES.length; base++) {
+            BASE_INDICES[base] = AllelicCountCollector.BASES.indexOf(Nucleotide.valueOf((byte) base));
+        }
+    }
+
+    /**
+     * Receives the base counts of an interval, or of a block of consecutive sites of a longer interval.
+     */
+    @FunctionalInterface
+    public interface IntervalBaseCountsConsumer {
+        /**
+         * @param interval   interval of sites, with at most {@link #MAX_BLOCK_SIZE} sites
+         * @param baseCounts counts of {@link AllelicCountCollector#BASES} at each site of the interval, in that order,
+         *                   with {@code AllelicCountCollector.BASES.size()} consecutive elements per site
+         */
+        void accept(final SimpleInterval interval, final int[] baseCounts);
+    }
+
+    /**
+     * The intervals split into blocks of at most {@link #MAX_BLOCK_SIZE} sites
+     */
+    private final List<SimpleInterval> blocks;
+    private final int[] blockContigIndices;
+    private final SAMSequenceDictionary dictionary;
+    private final int minBaseQuality;
+    private final IntervalBaseCountsConsumer consumer;
+
+    /**
+     * Counts of the blocks overlapped by reads so far; allocated when first needed and released once passed on
+     */
+    private final int[][] baseCounts;
+
+    /**
+     * Index of the first block that has not been passed on yet
+     */
+    private int firstOpenBlock = 0;
+
+    /**
+     * @param intervals intervals of sites; must be sorted in the order of {@code dictionary} and non-overlapping
+     * @param dictionary sequence dictionary by which both the intervals and the reads are sorted
+     * @param minBaseQuality minimum base quality of the bases to count
+     * @param consumer receives the counts of each interval, or of each block of a longer interval
+     */
+    public SiteBaseCounter(final List<SimpleInterval> intervals,
+                           final SAMSequenceDictionary dictionary,
+                           final int minBaseQuality,
+                           final IntervalBaseCountsConsumer consumer) {
+        this(intervals, dictionary, minBaseQuality, consumer, MAX_BLOCK_SIZE);
+    }
+
+    /**
+     * @param maxBlockSize maximum number of sites whose counts are kept and handed on together
+     */
+    @VisibleForTesting
+    SiteBaseCounter(final List<SimpleInterval> intervals,
+                    final SAMSequenceDictionary dictionary,
+                    final int minBaseQuality,
+                    final IntervalBaseCountsConsumer consumer,
+                    final int maxBlockSize) {
+        Utils.nonNull(intervals);
+        Utils.nonNull(dictionary);
+        ParamUtils.isPositiveOrZero(minBaseQuality, "Minimum base quality must be zero or higher.");
+        ParamUtils.isPositive(maxBlockSize, "Maximum block size must be positive.");
+        this.dictionary = dictionary;
+        this.minBaseQuality = minBaseQuality;
+        this.consumer = Utils.nonNull(consumer);
+        blocks = new ArrayList<>(intervals.size());
+        final IntArrayList blockContigIndexList = new IntArrayList(intervals.size());
+        SimpleInterval previousInterval = null;
+        int previousContigIndex = -1;
+        for (final SimpleInterval interval : intervals) {
+            Utils.nonNull(interval);
+            final int contigIndex = dictionary.getSequenceIndex(interval.getContig());
+            Utils.validateArg(contigIndex >= 0, () -> "Interval " + interval + " is not on a contig of the sequence dictionary.");
+            Utils.validateArg(previousInterval == null || previousContigIndex < contigIndex
+                            || (previousContigIndex == contigIndex && previousInterval.getEnd() < interval.getStart()),
+                    "Intervals must be sorted and non-overlapping.");
+            for (int blockStart = interval.getStart(); blockStart <= interval.getEnd(); blockStart += maxBlockSize) {
+                final int blockEnd = (int) Math.min((long) blockStart + maxBlockSize - 1, interval.getEnd());
+                blocks.add(blockStart == interval.getStart() && blockEnd == interval.getEnd() ? interval
+                        : new SimpleInterval(interval.getContig(), blockStart, blockEnd));
+                blockContigIndexList.add(contigIndex);
+                if (blockEnd == interval.getEnd()) {
+                    break;
+                }
+            }
+            previousInterval = interval;
+            previousContigIndex = contigIndex;
+        }
+        blockContigIndices = blockContigIndexList.toIntArray();
+        baseCounts = new int[blocks.size()][];
+    }
+
+    /**
+     * Counts the bases of a read at the sites it overlaps, after passing on the counts of all intervals that end
+     * before the start of the read.  Reads must be added in coordinate order.
+     */
+    public void addRead(final GATKRead read) {
+        Utils.nonNull(read);
+        if (read.isUnmapped()) {
+            return;
+        }
+        final int contigIndex = dictionary.getSequenceIndex(read.getContig());
+        if (contigIndex < 0) {
+            return;
+        }
+        final int readStart = read.getStart();
+        final int readEnd = read.getEnd();
+        while (firstOpenBlock < blocks.size() && isBefore(firstOpenBlock, contigIndex, readStart)) {
+            passOn(firstOpenBlock++);
+        }
+        for (int i = firstOpenBlock; i < blocks.size(); i++) {
+            final SimpleInterval block = blocks.get(i);
+            if (blockContigIndices[i] != contigIndex || block.getStart() > readEnd) {
+                break;
+            }
+            if (baseCounts[i] == null) {
+                baseCounts[i] = new int[block.size() * NUM_BASES];
+            }
+            countBases(read, block, baseCounts[i]);
+        }
+    }
+
+    /**
+     * Passes on the counts of all the remaining intervals.  Must be called once all reads have been added.
+     */
+    public void finish() {
+        while (firstOpenBlock < blocks.size()) {
+            passOn(firstOpenBlock++);
+        }
+    }
+
+    /**
+     * Does the block end before the given position?
+     */
+    private boolean isBefore(final int blockIndex, final int contigIndex, final int position) {
+        return blockContigIndices[blockIndex] < contigIndex
+                || (blockContigIndices[blockIndex] == contigIndex && blocks.get(blockIndex).getEnd() < position);
+    }
+
+    private void passOn(final int blockIndex) {
+        final int[] counts = baseCounts[blockIndex] != null ? baseCounts[blockIndex]
+                : new int[blocks.get(blockIndex).size() * NUM_BASES];
+        baseCounts[blockIndex] = null;
+        consumer.accept(blocks.get(blockIndex), counts);
+    }
+
+    /**
+     * Walks the CIGAR of the read and counts its bases aligned to sites of the interval.
+     */
+    private void countBases(final GATKRead read, final SimpleInterval interval, final int[] counts) {
+        final int intervalStart = interval.getStart();
+        final int intervalEnd = interval.getEnd();
+        int referencePosition = read.getStart();
+        int readOffset = 0;
+        for (final CigarElement element : read.getCigar().getCigarElements()) {
+            if (referencePosition > intervalEnd) {
+                return;
+            }
+            final CigarOperator operator = element.getOperator();
+            final int length = element.getLength();
+            if (operator.consumesReadBases() && operator.consumesReferenceBases()) {
+                final int from = Math.max(referencePosition, intervalStart);
+                final int to = Math.min(referencePosition + length - 1, intervalEnd);
+                for (int position = from; position <= to; position++) {
+                    final int offset = readOffset + position - referencePosition;
+                    final byte base = read.getBase(offset);
+                    final int baseIndex = base >= 0 ? BASE_INDICES[base] : -1;
+                    if (baseIndex >= 0 && read.getBaseQuality(offset) >= minBaseQuality
+                            && !ReadUtils.isBaseInsideAdaptor(read, position)) {
+                        counts[(position - intervalStart) * NUM_BASES + baseIndex]++;
+                    }
+                }
+            }
+            if (operator.consumesReferenceBases()) {
+                referencePosition += length;
+            }
+            if (operator.consumesReadBases()) {
+                readOffset += length;
+            }
+        }
+    }
+}
@@ -8,6 +8,7 @@ import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -149,51 +150,78 @@ public final class HDF5Utils {
                                                 final String path,
                                                 final double[][] matrix,
                                                 final int chunkDivisor) {
-        Utils.nonNull(file);
-        IOUtils.canReadFile(file.getFile());
-        Utils.nonNull(path);
         Utils.nonNull(matrix);
-        Utils.validateArg(chunkDivisor > 0, "Chunk divisor must be positive.");
-        final int maxNumValuesPerChunk = MAX_NUMBER_OF_VALUES_PER_HDF5_MATRIX / chunkDivisor;
-        final long numRows = matrix.length;
-        Utils.validateArg(numRows > 0, "Matrix must contain at least one row.");
-        final long numColumns = matrix[0].length;
-        Utils.validateArg(numColumns > 0, "Matrix must contain at least one column.");
-        Utils.validateArg(numColumns <= maxNumValuesPerChunk,
-                String.format("Number of columns (%d) exceeds the maximum number of values allowed per chunk (%d).",
-                        numColumns, maxNumValuesPerChunk));
-
-        final int numRowsPerFilledChunk = (int) (maxNumValuesPerChunk / numColumns);
-        final int numFilledChunks = numRowsPerFilledChunk == 0 ? 0 : (int) numRows / numRowsPerFilledChunk;
-        final boolean needPartialChunk = numFilledChunks == 0 || numRows % numRowsPerFilledChunk != 0;
-
-        logger.debug("Number of values in matrix / maximum number allowed for HDF5 matrix: " + (double) numRows * numColumns / MAX_NUMBER_OF_VALUES_PER_HDF5_MATRIX);
-        logger.debug("Maximum number of values per chunk: " + maxNumValuesPerChunk);
-        logger.debug("Number of filled chunks: " + numFilledChunks);
-        logger.debug("Number of rows per filled chunk: " + numRowsPerFilledChunk);
-        logger.debug("Partial chunk needed: " + needPartialChunk);
+        Utils.validateArg(matrix.length > 0, "Matrix must contain at least one row.");
+        final ChunkedDoubleMatrixWriter writer = new ChunkedDoubleMatrixWriter(file, path, matrix[0].length, chunkDivisor);
+        writer.writeRows(matrix);
+        writer.finish();
+    }
 
-        final String numRowsPath = path + NUMBER_OF_ROWS_SUB_PATH;
-        final String numColumnsPath = path + NUMBER_OF_COLUMNS_SUB_PATH;
-        final String numChunksPath = path + NUMBER_OF_CHUNKS_SUB_PATH;
-        file.makeDouble(numRowsPath, numRows);
-        file.makeDouble(numColumnsPath, numColumns);
-        file.makeDouble(numChunksPath, needPartialChunk ? numFilledChunks + 1 : numFilledChunks);
-
-        //TODO we could add makeDoubleMatrix(path, matrix, startRow, endRow, startCol, endCol) method to avoid copying
-        int numRowsWritten = 0;
-        for (int chunkIndex = 0; chunkIndex < numFilledChunks; chunkIndex++) {
-            final double[][] matrixChunk = new double[numRowsPerFilledChunk][(int) numColumns];
-            System.arraycopy(matrix, numRowsWritten, matrixChunk, 0, numRowsPerFilledChunk);
-            file.makeDoubleMatrix(path + CHUNK_INDEX_PATH_SUFFIX + chunkIndex, matrixChunk);    //write filled chunks
-            numRowsWritten += numRowsPerFilledChunk;
+    /**
+     * Writes a large matrix in the format read by {@link #readChunkedDoubleMatrix} a few rows at a time,
+     * so that the whole matrix never needs to be held in memory.  Rows are written as chunks of the size
+     * determined by {@code chunkDivisor} (see {@link #writeChunkedDoubleMatrix}); the number of rows and chunks
+     * is only written by {@link #finish}.
+     */
+    public static final class ChunkedDoubleMatrixWriter {
+        private final HDF5File file;
+        private final String path;
+        private final int numColumns;
+        private final int numRowsPerFilledChunk;
+        private long numRows = 0;
+        private int numChunks = 0;
+
+        public ChunkedDoubleMatrixWriter(final HDF5File file,
+                                         final String path,
+                                         final int numColumns,
+                                         final int chunkDivisor) {
+            Utils.nonNull(file);
+            IOUtils.canReadFile(file.getFile());
+            Utils.nonNull(path);
+            Utils.validateArg(chunkDivisor > 0, "Chunk divisor must be positive.");
+            Utils.validateArg(numColumns > 0, "Matrix must contain at least one column.");
+            final int maxNumValuesPerChunk = MAX_NUMBER_OF_VALUES_PER_HDF5_MATRIX / chunkDivisor;
+            Utils.validateArg(numColumns <= maxNumValuesPerChunk,
+                    String.format("Number of columns (%d) exceeds the maximum number of values allowed per chunk (%d).",
+                            numColumns, maxNumValuesPerChunk));
+            this.file = file;
+            this.path = path;
+            this.numColumns = numColumns;
+            numRowsPerFilledChunk = maxNumValuesPerChunk / numColumns;
+            logger.debug("Maximum number of values per chunk: " + maxNumValuesPerChunk);
+            logger.debug("Number of rows per filled chunk: " + numRowsPerFilledChunk);
+        }
+
+        /**
+         * Appends rows to the matrix, in as many chunks as needed.
+         */
+        public void writeRows(final double[][] rows) {
+            Utils.nonNull(rows);
+            Utils.validateArg(Arrays.stream(rows).allMatch(row -> row.length == numColumns),
+                    "All rows must have the number of columns of the matrix.");
+            //TODO we could add makeDoubleMatrix(path, matrix, startRow, endRow, startCol, endCol) method to avoid copying
+            for (int numRowsWritten = 0; numRowsWritten < rows.length; numRowsWritten += numRowsPerFilledChunk) {
+                final int numRowsInChunk = Math.min(numRowsPerFilledChunk, rows.length - numRowsWritten);
+                final double[][] matrixChunk = numRowsInChunk == rows.length ? rows : new double[numRowsInChunk][];
+                if (matrixChunk != rows) {
+                    System.arraycopy(rows, numRowsWritten, matrixChunk, 0, numRowsInChunk);
+                }
+                file.makeDoubleMatrix(path + CHUNK_INDEX_PATH_SUFFIX + numChunks, matrixChunk);
+                numChunks++;
+                numRows += numRowsInChunk;
+            }
         }
-        if (needPartialChunk) {
-            final int numRowsPartialChunk = (int) numRows - numRowsWritten;
-            logger.debug("Number of rows in partial chunk: " + numRowsPartialChunk);
-            final double[][] matrixChunk = new double[numRowsPartialChunk][(int) numColumns];
-            System.arraycopy(matrix, numRowsWritten, matrixChunk, 0, numRowsPartialChunk);
-            file.makeDoubleMatrix(path + CHUNK_INDEX_PATH_SUFFIX + numFilledChunks, matrixChunk);    //write final partially filled chunk
+
+        /**
+         * Writes the matrix dimensions; no more rows can be written afterwards.
+         */
+        public void finish() {
+            Utils.validateArg(numRows > 0, "Matrix must contain at least one row.");
+            logger.debug("Number of values in matrix / maximum number allowed for HDF5 matrix: " + (double) numRows * numColumns / MAX_NUMBER_OF_VALUES_PER_HDF5_MATRIX);
+            logger.debug("Number of chunks: " + numChunks);
+            file.makeDouble(path + NUMBER_OF_ROWS_SUB_PATH, numRows);
+            file.makeDouble(path + NUMBER_OF_COLUMNS_SUB_PATH, numColumns);
+            file.makeDouble(path + NUMBER_OF_CHUNKS_SUB_PATH, numChunks);
         }
     }
 }
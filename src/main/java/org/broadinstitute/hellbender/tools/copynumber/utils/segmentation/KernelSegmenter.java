@@ -61,6 +61,8 @@ import java.util.stream.IntStream;
  *     calculate the cost change for removing each of the changepoints individually,
  *     remove the changepoint with the minimum cost change, and repeat.
  *     This gives the global cost as a function of the number of changepoints <i>C</i>.
+ *     Removing a changepoint only changes the cost change for removing the changepoints adjacent to it,
+ *     so only these are recalculated, and the changepoints are kept in a priority queue keyed by cost change.
  * </ol>
  * <ol>
  *     6) Add a penalty <i>A * C + B * C * log (N / C)</i> to the global cost and find the minimum to determine the
@@ -70,6 +72,11 @@ import java.util.stream.IntStream;
  * </p>
  *
  * <p>
+ * The local costs for the different window sizes are calculated concurrently.  Independent data sequences
+ * (e.g., the data on different contigs) can also be segmented concurrently using {@link #findChangepointsInParallel}.
+ * </p>
+ *
+ * <p>
  * See discussion at <a href="https://github.com/broadinstitute/gatk/issues/2858#issuecomment-324125586">https://github.com/broadinstitute/gatk/issues/2858#issuecomment-324125586</a>
  * and accompanying plots for more detail.
  * </p>
@@ -153,25 +160,29 @@ public final class KernelSegmenter<DATA> {
                 .collect(Collectors.toList());
     }
 
-    private static final class Segment {
-        private final int start;    //inclusive index of start point
-        private final int end;      //inclusive index of end point
-        private final double cost;
-
-        private Segment(final int start,
-                        final int end,
-                        final double cost) {
-            this.start = start;
-            this.end = end;
-            this.cost = cost;
-        }
-
-        private Segment(final int start,
-                        final int end,
-                        final RealMatrix reducedObservationMatrix,
-                        final double[] kernelApproximationDiagonal) {
-            this(start, end, calculateSegmentCost(start, end, reducedObservationMatrix, kernelApproximationDiagonal).C);
-        }
+    /**
+     * Segments several independent data sequences (e.g., the data on each contig) concurrently, using the same
+     * parameters for all of them.  The changepoints found for each sequence are the same as those returned by
+     * {@link #findChangepoints} for that sequence alone; the kernel must therefore be thread-safe.
+     * @param dataSequences                         data sequences to segment
+     * @return the changepoints of each data sequence, in the same order as {@code dataSequences}
+     * @see #findChangepoints for the other parameters
+     */
+    public static <DATA> List<List<Integer>> findChangepointsInParallel(final List<List<DATA>> dataSequences,
+                                                                        final int maxNumChangepoints,
+                                                                        final BiFunction<DATA, DATA, Double> kernel,
+                                                                        final int kernelApproximationDimension,
+                                                                        final List<Integer> windowSizes,
+                                                                        final double numChangepointsPenaltyLinearFactor,
+                                                                        final double numChangepointsPenaltyLogLinearFactor,
+                                                                        final ChangepointSortOrder changepointSortOrder) {
+        Utils.nonNull(dataSequences);
+        Utils.validateArg(dataSequences.stream().allMatch(Objects::nonNull), "Data sequences must all be non-null.");
+        return dataSequences.parallelStream()
+                .map(data -> new KernelSegmenter<>(data).findChangepoints(maxNumChangepoints, kernel,
+                        kernelApproximationDimension, windowSizes, numChangepointsPenaltyLinearFactor,
+                        numChangepointsPenaltyLogLinearFactor, changepointSortOrder))
+                .collect(Collectors.toList());
     }
 
     //represents some quantities used to calculate segment costs iteratively
@@ -258,27 +269,14 @@ public final class KernelSegmenter<DATA> {
                                                                   final double[] kernelApproximationDiagonal,
                                                                   final int maxNumChangepoints,
                                                                   final List<Integer> windowSizes) {
-        final List<Integer> changepointCandidates = new ArrayList<>(windowSizes.size() * maxNumChangepoints);
-
         //for each window size, calculate local changepoint costs at each point and add maxNumChangepoints candidates
         //(this is overkill, but we cannot guarantee that the most significant maxNumChangepoints changepoints
-        //do not all appear at only a single window size)
-        for (final int windowSize : windowSizes) {
-            logger.debug(String.format("Calculating local changepoints costs for window size %d...", windowSize));
-            if (windowSize > data.size()) {
-                logger.warn(String.format("Number of points needed to calculate local changepoint costs (2 * window size = %d) " +
-                        "exceeds number of data points %d.  Local changepoint costs will not be calculated for this window size.",
-                        2 * windowSize, data.size()));
-                continue;
-            }
-            final double[] windowCosts = calculateWindowCosts(reducedObservationMatrix, kernelApproximationDiagonal, windowSize);
-
-            logger.debug(String.format("Finding local minima of local changepoint costs for window size %d...", windowSize));
-            final List<Integer> windowCostLocalMinima = new ArrayList<>(new PersistenceOptimizer(windowCosts).getMinimaIndices());
-            windowCostLocalMinima.remove(Integer.valueOf(0));                //remove first data point if present
-            windowCostLocalMinima.remove(Integer.valueOf(data.size() - 1));  //remove last data point if present
-            changepointCandidates.addAll(windowCostLocalMinima.subList(0, Math.min(maxNumChangepoints, windowCostLocalMinima.size())));
-        }
+        //do not all appear at only a single window size); window sizes are independent, so we process them concurrently
+        //and concatenate their candidates in the order of the window sizes
+        final List<Integer> changepointCandidates = windowSizes.parallelStream()
+                .map(windowSize -> findWindowChangepointCandidates(data, reducedObservationMatrix, kernelApproximationDiagonal, maxNumChangepoints, windowSize))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
 
         if (changepointCandidates.isEmpty()) {
             throw new GATKException.ShouldNeverReachHereException("No changepoint candidates found.");
@@ -287,6 +285,28 @@ public final class KernelSegmenter<DATA> {
         return changepointCandidates;
     }
 
+    //finds indices of (up to) maxNumChangepoints changepoint candidates for a single window size
+    private static <DATA> List<Integer> findWindowChangepointCandidates(final List<DATA> data,
+                                                                        final RealMatrix reducedObservationMatrix,
+                                                                        final double[] kernelApproximationDiagonal,
+                                                                        final int maxNumChangepoints,
+                                                                        final int windowSize) {
+        logger.debug(String.format("Calculating local changepoints costs for window size %d...", windowSize));
+        if (windowSize > data.size()) {
+            logger.warn(String.format("Number of points needed to calculate local changepoint costs (2 * window size = %d) " +
+                    "exceeds number of data points %d.  Local changepoint costs will not be calculated for this window size.",
+                    2 * windowSize, data.size()));
+            return Collections.emptyList();
+        }
+        final double[] windowCosts = calculateWindowCosts(reducedObservationMatrix, kernelApproximationDiagonal, windowSize);
+
+        logger.debug(String.format("Finding local minima of local changepoint costs for window size %d...", windowSize));
+        final List<Integer> windowCostLocalMinima = new ArrayList<>(new PersistenceOptimizer(windowCosts).getMinimaIndices());
+        windowCostLocalMinima.remove(Integer.valueOf(0));                //remove first data point if present
+        windowCostLocalMinima.remove(Integer.valueOf(data.size() - 1));  //remove last data point if present
+        return windowCostLocalMinima.subList(0, Math.min(maxNumChangepoints, windowCostLocalMinima.size()));
+    }
+
     //performs backward model selection to order changepoints by increasing change to the global segmentation cost
     //and returns the requested number
     private static List<Integer> selectChangepoints(final List<Integer> changepointCandidates,
@@ -295,8 +315,6 @@ public final class KernelSegmenter<DATA> {
                                                     final double numChangepointsPenaltyLogLinearFactor,
                                                     final RealMatrix reducedObservationMatrix,
                                                     final double[] kernelApproximationDiagonal) {
-        final List<Integer> changepoints = new ArrayList<>(changepointCandidates.size());
-
         //calculate penalties as a function of the number of changepoints
         final int numData = reducedObservationMatrix.getRowDimension();
         final List<Double> changepointPenalties = IntStream.range(0, maxNumChangepoints + 1).boxed()
@@ -304,70 +322,124 @@ public final class KernelSegmenter<DATA> {
                         numChangepoints, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, numData))
                 .collect(Collectors.toList());
 
-        //construct initial list of all segments and initialize costs
+        //construct initial list of all segments and initialize costs;
+        //segments are identified by their index in this initial list and linked to their current neighbors
         final List<Integer> candidateStarts = changepointCandidates.stream().sorted().distinct()
                 .map(i -> Math.min(i + 1, numData - 1)).collect(Collectors.toList());
         candidateStarts.add(0, 0);
         final List<Integer> candidateEnds = changepointCandidates.stream().sorted().distinct().collect(Collectors.toList());
         candidateEnds.add(numData - 1);
         final int numSegments = candidateStarts.size();
-        final List<Segment> segments = IntStream.range(0, numSegments).boxed()
-                .map(i -> new Segment(candidateStarts.get(i), candidateEnds.get(i), reducedObservationMatrix, kernelApproximationDiagonal))
-                .collect(Collectors.toList());
-        final List<Double> totalSegmentationCosts = new ArrayList<>(Collections.singletonList(segments.stream().mapToDouble(s -> s.cost).sum()));
-        final List<Double> costsForSegmentPairs = IntStream.range(0, numSegments - 1).boxed()
-                .map(i -> segments.get(i).cost + segments.get(i + 1).cost)
-                .collect(Collectors.toList());  //sum of the costs for the segments in each adjacent pair
-        final List<Double> costsForMergedSegmentPairs = IntStream.range(0, numSegments - 1).boxed()
-                .map(i -> new Segment(candidateStarts.get(i), candidateEnds.get(i + 1), reducedObservationMatrix, kernelApproximationDiagonal).cost)
-                .collect(Collectors.toList());  //cost of each adjacent pair when considered as a single segment
-        final List<Double> costsForMergingSegmentPairs = IntStream.range(0, numSegments - 1).boxed()
-                .map(i -> costsForSegmentPairs.get(i) - costsForMergedSegmentPairs.get(i))
-                .collect(Collectors.toList());  //cost for merging each adjacent pair into a single segment
-
-        //iteratively merge the segment pair with greatest merge cost and update all costs until only a single segment remains
+        final int[] segmentStarts = candidateStarts.stream().mapToInt(Integer::intValue).toArray();
+        final int[] segmentEnds = candidateEnds.stream().mapToInt(Integer::intValue).toArray();
+        final double[] segmentCosts = IntStream.range(0, numSegments)
+                .mapToDouble(i -> calculateSegmentCost(segmentStarts[i], segmentEnds[i], reducedObservationMatrix, kernelApproximationDiagonal).C)
+                .toArray();
+        final int[] nextSegments = IntStream.range(0, numSegments).map(i -> i + 1 < numSegments ? i + 1 : -1).toArray();
+        final int[] previousSegments = IntStream.range(0, numSegments).map(i -> i - 1).toArray();
+
+        //queue of adjacent segment pairs (identified by the left segment) by decreasing cost for merging them into a single segment,
+        //ties broken by position as the leftmost pair is merged first; entries for pairs that have changed since they were queued
+        //are stale (detected by version) and skipped
+        final double[] costsForMergedSegmentPairs = new double[numSegments];   //cost of each adjacent pair when considered as a single segment
+        final int[] segmentPairVersions = new int[numSegments];
+        final PriorityQueue<SegmentPair> segmentPairQueue = new PriorityQueue<>(Math.max(1, numSegments - 1));
         for (int i = 0; i < numSegments - 1; i++) {
-            //find segment pair to merge and calculate quantities for resulting merged segment
-            final int indexOfLeftSegmentToMerge = costsForMergingSegmentPairs.indexOf(Collections.max(costsForMergingSegmentPairs));
-            final double newCost = costsForMergedSegmentPairs.get(indexOfLeftSegmentToMerge);
-            final int newStart = segments.get(indexOfLeftSegmentToMerge).start;
-            final int mergepoint = segments.get(indexOfLeftSegmentToMerge).end;
-            final int newEnd = segments.get(indexOfLeftSegmentToMerge + 1).end;
-
-            //remove segment pair and insert merged segment into list of segments
-            segments.remove(indexOfLeftSegmentToMerge);
-            segments.remove(indexOfLeftSegmentToMerge);
-            segments.add(indexOfLeftSegmentToMerge, new Segment(newStart, newEnd, newCost));
-
-            //update segment-pair quantities
-            costsForSegmentPairs.remove(indexOfLeftSegmentToMerge);
-            costsForMergedSegmentPairs.remove(indexOfLeftSegmentToMerge);
-            costsForMergingSegmentPairs.remove(indexOfLeftSegmentToMerge);
-            if (indexOfLeftSegmentToMerge > 0) {                    //if segment pair that was merged was not the first pair, update segment-pair quantities using segment to left
-                costsForSegmentPairs.set(indexOfLeftSegmentToMerge - 1, segments.get(indexOfLeftSegmentToMerge - 1).cost + segments.get(indexOfLeftSegmentToMerge).cost);
-                costsForMergedSegmentPairs.set(indexOfLeftSegmentToMerge - 1, new Segment(segments.get(indexOfLeftSegmentToMerge - 1).start, newEnd, reducedObservationMatrix, kernelApproximationDiagonal).cost);
-                costsForMergingSegmentPairs.set(indexOfLeftSegmentToMerge - 1, costsForSegmentPairs.get(indexOfLeftSegmentToMerge - 1) - costsForMergedSegmentPairs.get(indexOfLeftSegmentToMerge - 1));
+            costsForMergedSegmentPairs[i] = calculateSegmentCost(segmentStarts[i], segmentEnds[i + 1], reducedObservationMatrix, kernelApproximationDiagonal).C;
+            segmentPairQueue.add(new SegmentPair(i, segmentCosts[i] + segmentCosts[i + 1] - costsForMergedSegmentPairs[i], 0));
+        }
+
+        //iteratively merge the segment pair with greatest merge cost and update the costs of the adjacent pairs until only a single segment remains;
+        //total segmentation costs and changepoints are filled in from the last (no changepoints) to the first (all changepoints)
+        final double[] totalSegmentationCosts = new double[numSegments];
+        final int[] changepoints = new int[numSegments - 1];
+        double totalSegmentationCost = Arrays.stream(segmentCosts).sum();
+        totalSegmentationCosts[numSegments - 1] = totalSegmentationCost;
+        for (int i = numSegments - 2; i >= 0; i--) {
+            //find segment pair to merge
+            SegmentPair segmentPairToMerge;
+            do {
+                segmentPairToMerge = segmentPairQueue.poll();
+            } while (segmentPairToMerge.version != segmentPairVersions[segmentPairToMerge.left]);
+            final int left = segmentPairToMerge.left;
+            final int right = nextSegments[left];
+            final double newCost = costsForMergedSegmentPairs[left];
+            final int mergepoint = segmentEnds[left];
+
+            //merge right segment into left segment and invalidate the queue entries of both
+            totalSegmentationCost += newCost - segmentCosts[left] - segmentCosts[right];
+            segmentEnds[left] = segmentEnds[right];
+            segmentCosts[left] = newCost;
+            nextSegments[left] = nextSegments[right];
+            if (nextSegments[left] != -1) {
+                previousSegments[nextSegments[left]] = left;
+            }
+            segmentPairVersions[left]++;
+            segmentPairVersions[right]++;
+
+            //update segment-pair quantities for the pairs formed with the adjacent segments
+            final int previous = previousSegments[left];
+            if (previous != -1) {
+                updateSegmentPair(previous, segmentStarts, segmentEnds, segmentCosts, nextSegments, costsForMergedSegmentPairs,
+                        segmentPairVersions, segmentPairQueue, reducedObservationMatrix, kernelApproximationDiagonal);
             }
-            if (indexOfLeftSegmentToMerge < segments.size() - 1) {  //if segment pair that was merged was not the last pair, update segment-pair quantities using segment to right
-                costsForSegmentPairs.set(indexOfLeftSegmentToMerge, segments.get(indexOfLeftSegmentToMerge).cost + segments.get(indexOfLeftSegmentToMerge + 1).cost);
-                costsForMergedSegmentPairs.set(indexOfLeftSegmentToMerge, new Segment(newStart, segments.get(indexOfLeftSegmentToMerge + 1).end, reducedObservationMatrix, kernelApproximationDiagonal).cost);
-                costsForMergingSegmentPairs.set(indexOfLeftSegmentToMerge, costsForSegmentPairs.get(indexOfLeftSegmentToMerge) - costsForMergedSegmentPairs.get(indexOfLeftSegmentToMerge));
+            if (nextSegments[left] != -1) {
+                updateSegmentPair(left, segmentStarts, segmentEnds, segmentCosts, nextSegments, costsForMergedSegmentPairs,
+                        segmentPairVersions, segmentPairQueue, reducedObservationMatrix, kernelApproximationDiagonal);
             }
 
             //update total segmentation costs and changepoints
-            totalSegmentationCosts.add(0, segments.stream().mapToDouble(s -> s.cost).sum());
-            changepoints.add(0, mergepoint);
+            totalSegmentationCosts[i] = totalSegmentationCost;
+            changepoints[i] = mergepoint;
         }
 
         //find optimal number of changepoints according to penalty function
-        final int effectiveMaxNumChangepoints = Math.min(maxNumChangepoints, changepoints.size());
+        final int effectiveMaxNumChangepoints = Math.min(maxNumChangepoints, changepoints.length);
         final List<Double> totalSegmentationCostsPlusPenalties = IntStream.range(0, effectiveMaxNumChangepoints + 1).boxed()
-                .map(i -> totalSegmentationCosts.get(i) + changepointPenalties.get(i))
+                .map(i -> totalSegmentationCosts[i] + changepointPenalties.get(i))
                 .collect(Collectors.toList());
         final int numChangepointsOptimal = totalSegmentationCostsPlusPenalties.indexOf(Collections.min(totalSegmentationCostsPlusPenalties));
 
         logger.info(String.format("Found %d changepoints after applying the changepoint penalty.", numChangepointsOptimal));
-        return changepoints.subList(0, numChangepointsOptimal);
+        return Arrays.stream(changepoints, 0, numChangepointsOptimal).boxed().collect(Collectors.toList());
+    }
+
+    //an adjacent segment pair in the backward-selection queue
+    private static final class SegmentPair implements Comparable<SegmentPair> {
+        private final int left;                 //index of the left segment
+        private final double costForMerging;    //sum of the costs of the two segments minus the cost of the merged segment
+        private final int version;
+
+        private SegmentPair(final int left,
+                            final double costForMerging,
+                            final int version) {
+            this.left = left;
+            this.costForMerging = costForMerging;
+            this.version = version;
+        }
+
+        @Override
+        public int compareTo(final SegmentPair other) {
+            final int costComparison = Double.compare(other.costForMerging, costForMerging);
+            return costComparison != 0 ? costComparison : Integer.compare(left, other.left);
+        }
+    }
+
+    //recalculates the merge cost of the pair formed by a segment and the next one and queues it
+    private static void updateSegmentPair(final int left,
+                                          final int[] segmentStarts,
+                                          final int[] segmentEnds,
+                                          final double[] segmentCosts,
+                                          final int[] nextSegments,
+                                          final double[] costsForMergedSegmentPairs,
+                                          final int[] segmentPairVersions,
+                                          final PriorityQueue<SegmentPair> segmentPairQueue,
+                                          final RealMatrix reducedObservationMatrix,
+                                          final double[] kernelApproximationDiagonal) {
+        final int right = nextSegments[left];
+        costsForMergedSegmentPairs[left] = calculateSegmentCost(segmentStarts[left], segmentEnds[right], reducedObservationMatrix, kernelApproximationDiagonal).C;
+        segmentPairVersions[left]++;
+        segmentPairQueue.add(new SegmentPair(left, segmentCosts[left] + segmentCosts[right] - costsForMergedSegmentPairs[left], segmentPairVersions[left]));
     }
 
     private static double calculateChangepointPenalty(final int numChangepoints,
@@ -32,6 +32,11 @@ import java.util.stream.IntStream;
  * This class represents an immutable block of data containers, query methods and cloners corresponding to
  * a partition of the target space.
  *
+ * A block may instead be created with in-place updates (see {@link ImmutableComputableGraph}), in which case
+ * the cloners update the block and its cache graph and return the same instance. This avoids copying the graph
+ * nodes on every update and is meant for the single compute block of the local (non-Spark) mode, whose previous
+ * states are never retained.
+ *
  * TODO github/gatk-protected issue #853 -- logging in spark mode (log4j is not serializable)
  * TODO github/gatk-protected issue #853 -- use instrumentation to measure memory consumption
  *
@@ -96,9 +101,9 @@ public final class CoverageModelEMComputeBlock {
     private final boolean biasCovariatesEnabled;
 
     /**
-     * The latest signal from calling an M-step subroutine
+     * The latest signal from calling an M-step subroutine (only reassigned if {@link #icg} updates in place)
      */
-    private final SubroutineSignal latestMStepSignal;
+    private SubroutineSignal latestMStepSignal;
 
     /**
      * Immutable computable graph cache nodes
@@ -182,14 +187,19 @@ public final class CoverageModelEMComputeBlock {
      *
      * @param biasCovariatesEnabled whether or not create nodes relating to bias covariates
      * @param ardEnabled whether or not create nodes for ARD calculation of bias bias covariates
+     * @param inPlaceUpdates whether or not the graph is updated in place
      * @return an instance of {@link ImmutableComputableGraph}
      */
     private static ImmutableComputableGraph createEmptyCacheGraph(final boolean biasCovariatesEnabled,
-                                                                  final boolean ardEnabled) {
+                                                                  final boolean ardEnabled,
+                                                                  final boolean inPlaceUpdates) {
         Utils.validateArg(!ardEnabled || biasCovariatesEnabled, "If ARD is enabled, bias covariates must be" +
                 " enabled as well");
         final ImmutableComputableGraphUtils.ImmutableComputableGraphBuilder cgbuilder =
                 ImmutableComputableGraph.builder();
+        if (inPlaceUpdates) {
+            cgbuilder.withInPlaceUpdates();
+        }
         /*
          * Data nodes
          */
@@ -459,8 +469,23 @@ public final class CoverageModelEMComputeBlock {
     public CoverageModelEMComputeBlock(@Nonnull final LinearlySpacedIndexBlock targetBlock,
                                        final int numSamples, final int numLatents,
                                        final boolean ardEnabled) {
+        this(targetBlock, numSamples, numLatents, ardEnabled, false);
+    }
+
+    /**
+     * Public constructor.
+     *
+     * @param targetBlock target space block
+     * @param numSamples number of samples
+     * @param numLatents dimension of the bias latent space
+     * @param ardEnabled enable/disable ARD for bias covariates
+     * @param inPlaceUpdates if true, cloners update and return this instance instead of creating a new one
+     */
+    public CoverageModelEMComputeBlock(@Nonnull final LinearlySpacedIndexBlock targetBlock,
+                                       final int numSamples, final int numLatents,
+                                       final boolean ardEnabled, final boolean inPlaceUpdates) {
         this(targetBlock, numSamples, numLatents, ardEnabled,
-                createEmptyCacheGraph(numLatents > 0, ardEnabled),
+                createEmptyCacheGraph(numLatents > 0, ardEnabled, inPlaceUpdates),
                 SubroutineSignal.EMPTY_SIGNAL);
     }
 
@@ -1167,8 +1192,7 @@ public final class CoverageModelEMComputeBlock {
      */
     public CoverageModelEMComputeBlock cloneWithUpdatedPrimitive(@Nonnull final CoverageModelICGCacheNode key,
                                                                  @Nullable final INDArray value) {
-        return new CoverageModelEMComputeBlock(targetBlock, numSamples, numLatents, ardEnabled,
-                icg.setValue(key.key, new DuplicableNDArray(value)), latestMStepSignal);
+        return cloneWithUpdatedGraphAndSignal(icg.setValue(key.key, new DuplicableNDArray(value)), latestMStepSignal);
     }
 
     /**
@@ -1184,11 +1208,9 @@ public final class CoverageModelEMComputeBlock {
                                                                           @Nullable final INDArray value,
                                                                           @Nonnull final SubroutineSignal latestMStepSignal) {
         if (value == null) {
-            return new CoverageModelEMComputeBlock(targetBlock, numSamples, numLatents, ardEnabled,
-                    icg.setValue(key.key, new DuplicableNDArray()), latestMStepSignal);
+            return cloneWithUpdatedGraphAndSignal(icg.setValue(key.key, new DuplicableNDArray()), latestMStepSignal);
         } else {
-            return new CoverageModelEMComputeBlock(targetBlock, numSamples, numLatents, ardEnabled,
-                    icg.setValue(key.key, new DuplicableNDArray(value)), latestMStepSignal);
+            return cloneWithUpdatedGraphAndSignal(icg.setValue(key.key, new DuplicableNDArray(value)), latestMStepSignal);
         }
     }
 
@@ -1200,7 +1222,7 @@ public final class CoverageModelEMComputeBlock {
      * @return a new instance of {@link CoverageModelEMComputeBlock}
      */
     public CoverageModelEMComputeBlock cloneWithUpdatedSignal(@Nonnull final SubroutineSignal latestMStepSignal) {
-        return new CoverageModelEMComputeBlock(targetBlock, numSamples, numLatents, ardEnabled, icg, latestMStepSignal);
+        return cloneWithUpdatedGraphAndSignal(icg, latestMStepSignal);
     }
 
     /**
@@ -1210,8 +1232,26 @@ public final class CoverageModelEMComputeBlock {
      * @return a new instance of {@link CoverageModelEMComputeBlock}
      */
     public CoverageModelEMComputeBlock cloneWithUpdatedCachesByTag(final CoverageModelICGCacheTag tag) {
-        return new CoverageModelEMComputeBlock(targetBlock, numSamples, numLatents, ardEnabled,
-                icg.updateCachesForTag(tag.tag), latestMStepSignal);
+        return cloneWithUpdatedGraphAndSignal(icg.updateCachesForTag(tag.tag), latestMStepSignal);
+    }
+
+    /**
+     * Creates a new instance of this compute block with a given cache graph and subroutine signal, or updates
+     * this instance if its cache graph updates in place (in which case {@code newIcg} is the same graph)
+     *
+     * @param newIcg the cache graph
+     * @param newLatestMStepSignal the M-step signal
+     * @return an instance of {@link CoverageModelEMComputeBlock}
+     */
+    private CoverageModelEMComputeBlock cloneWithUpdatedGraphAndSignal(@Nonnull final ImmutableComputableGraph newIcg,
+                                                                       @Nonnull final SubroutineSignal newLatestMStepSignal) {
+        if (icg.updatesInPlace()) {
+            latestMStepSignal = newLatestMStepSignal;
+            return this;
+        } else {
+            return new CoverageModelEMComputeBlock(targetBlock, numSamples, numLatents, ardEnabled, newIcg,
+                    newLatestMStepSignal);
+        }
     }
 
     /**
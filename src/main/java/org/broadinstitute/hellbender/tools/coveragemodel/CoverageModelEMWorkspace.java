@@ -2054,7 +2054,8 @@ public final class CoverageModelEMWorkspace<STATE extends AlleleMetadataProducer
 
     /**
      * Instantiate compute block(s). If Spark is disabled, a single {@link CoverageModelEMComputeBlock} is
-     * instantiated. Otherwise, a {@link JavaPairRDD} of compute nodes will be created.
+     * instantiated; since it is only ever replaced by the result of mapping it, it is updated in place.
+     * Otherwise, a {@link JavaPairRDD} of (immutable) compute nodes will be created.
      */
     private void instantiateWorkers() {
         if (sparkContextIsAvailable) {
@@ -2067,7 +2068,7 @@ public final class CoverageModelEMWorkspace<STATE extends AlleleMetadataProducer
                     .cache();
         } else {
             logger.info("Initializing a local compute block");
-            localComputeBlock = new CoverageModelEMComputeBlock(targetBlocks.get(0), numSamples, numLatents, ardEnabled);
+            localComputeBlock = new CoverageModelEMComputeBlock(targetBlocks.get(0), numSamples, numLatents, ardEnabled, true);
         }
         prevCheckpointedComputeRDD = null;
         cacheCallCounter = 0;
@@ -147,6 +147,29 @@ final class ComputableCacheNode extends CacheNode {
         return new ComputableCacheNode(getKey(), getTags(), getParents(), func, isCaching, null, false);
     }
 
+    /**
+     * Updates the cached value of the node in place, with the same semantics as {@link #duplicateWithUpdatedValue}.
+     * The new value is not duplicated and is stored by reference.
+     *
+     * @param newValue the cache value to be replaced with the old value
+     */
+    void setUpdatedValue(final Duplicable newValue) {
+        if (isCaching && newValue != null && newValue.hasValue()) {
+            cachedValue = newValue;
+            isCacheCurrent = true;
+        } else {
+            setOutdatedCacheStatus();
+        }
+    }
+
+    /**
+     * Sets the cache status to outdated in place, with the same semantics as {@link #duplicateWithOutdatedCacheStatus}.
+     */
+    void setOutdatedCacheStatus() {
+        cachedValue = null;
+        isCacheCurrent = false;
+    }
+
     /**
      * This exception will be thrown if a computable function can not be computed
      */
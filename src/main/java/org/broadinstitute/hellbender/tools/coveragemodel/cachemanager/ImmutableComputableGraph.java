@@ -107,6 +107,18 @@ import java.util.stream.Collectors;
  * Note: the new {@link ImmutableComputableGraph} instance returned by {@link #setValue(CacheNode.NodeKey, Duplicable)} is <b>not</b> a
  * deep copy and may hold references to {@link CacheNode}s contained the previous instance(s).
  *
+ * In-place updates:
+ * =================
+ *
+ * If the graph is built with {@link ImmutableComputableGraphBuilder#withInPlaceUpdates()}, mutations and cache updates
+ * change the state of the existing nodes instead: the updated values are stored by reference, the descendants of a
+ * mutated node are marked as outdated (and their cached values released), and the same instance of
+ * {@link ImmutableComputableGraph} is returned. The bookkeeping and the values are the same as in the default mode,
+ * but no node or node map is copied on each update. This is suitable when there is a single owner of the graph that
+ * always replaces its reference with the returned instance (e.g. a compute block in local mode), and <b>not</b> if
+ * previous instances are to be retained (e.g. as elements of a {@link org.apache.spark.api.java.JavaRDD}).
+ * An in-place graph is not thread-safe.
+ *
  * @author Mehrtash Babadi &lt;mehrtash@broadinstitute.org&gt;
  */
 public final class ImmutableComputableGraph implements Serializable {
@@ -117,6 +129,7 @@ public final class ImmutableComputableGraph implements Serializable {
 
     private final Map<CacheNode.NodeKey, CacheNode> nodesMap;
     private final boolean cacheAutoUpdate;
+    private final boolean inPlaceUpdates;
     private final ComputableGraphStructure cgs;
 
     public static ImmutableComputableGraphBuilder builder() {
@@ -127,11 +140,15 @@ public final class ImmutableComputableGraph implements Serializable {
      * Package-private constructor from a node collection (used by the builder).
      *
      * @param nodeSet a collection of {@link CacheNode}s
+     * @param cacheAutoUpdate whether caches are updated automatically after each mutation
+     * @param inPlaceUpdates whether mutations and cache updates change this instance rather than create a new one
      */
     ImmutableComputableGraph(@Nonnull final Set<CacheNode> nodeSet,
-                             final boolean cacheAutoUpdate) {
+                             final boolean cacheAutoUpdate,
+                             final boolean inPlaceUpdates) {
         Utils.nonNull(nodeSet, "The nodes collection must be non-null.");
         this.cacheAutoUpdate = cacheAutoUpdate;
+        this.inPlaceUpdates = inPlaceUpdates;
         nodesMap = nodeSet.stream().collect(Collectors.toMap(CacheNode::getKey, Function.identity()));
         cgs = new ComputableGraphStructure(nodeSet);
     }
@@ -148,6 +165,14 @@ public final class ImmutableComputableGraph implements Serializable {
         this.nodesMap = nodesMap;
         this.cgs = cgs;
         this.cacheAutoUpdate = cacheAutoUpdate;
+        this.inPlaceUpdates = false;
+    }
+
+    /**
+     * Whether or not mutations and cache updates change this instance in place (see the class documentation)
+     */
+    public boolean updatesInPlace() {
+        return inPlaceUpdates;
     }
 
     /**
@@ -155,7 +180,7 @@ public final class ImmutableComputableGraph implements Serializable {
      * @param nodeKey the key of the node
      * @param newValue the new value of the node (note: it will not be duplicated; the user is responsible for duplicating)
      * @return a new instance of {@link ImmutableComputableGraph} with reference to unchanged nodes and duplicated
-     *         changed nodes
+     *         changed nodes (or this instance, updated, if it updates in place)
      * @throws IllegalArgumentException if the node does not exist
      * @throws UnsupportedOperationException if the node is non-primitive
      */
@@ -166,6 +191,9 @@ public final class ImmutableComputableGraph implements Serializable {
         if (!node.isExternallyComputed()) {
             throw new UnsupportedOperationException("Can not explicitly set the value of a non-primitive cache node.");
         }
+        if (inPlaceUpdates) {
+            return setValueInPlace(node, newValue);
+        }
         final Map<CacheNode.NodeKey, CacheNode> updatedNodesMap = new HashMap<>();
         updatedNodesMap.put(nodeKey, node.duplicateWithUpdatedValue(newValue));
         final ImmutableComputableGraph out = duplicateWithUpdatedNodes(
@@ -183,6 +211,33 @@ public final class ImmutableComputableGraph implements Serializable {
         return out;
     }
 
+    /**
+     * In-place counterpart of {@link #setValue(CacheNode.NodeKey, Duplicable)}
+     */
+    private ImmutableComputableGraph setValueInPlace(@Nonnull final CacheNode node,
+                                                     @Nonnull final Duplicable newValue) {
+        final CacheNode.NodeKey nodeKey = node.getKey();
+        if (node.isPrimitive()) {
+            node.set(newValue);
+        } else {
+            ((ComputableCacheNode)node).setUpdatedValue(newValue);
+        }
+        for (final CacheNode.NodeKey descendant : cgs.getDescendants(nodeKey)) {
+            /* all of the descendants are computable nodes and can be safely up-casted */
+            ((ComputableCacheNode)nodesMap.get(descendant)).setOutdatedCacheStatus();
+        }
+        if (cacheAutoUpdate) {
+            try { /* try to update caches; it is not guaranteed if some of the nodes are not initialized */
+                return updateCachesFromAccumulatedValues(evaluateInTopologicalOrder(
+                        cgs.getTopologicalOrderForNodeMutation(nodeKey)));
+            } catch (final PrimitiveCacheNode.PrimitiveValueNotInitializedException |
+                    ComputableCacheNode.ExternallyComputableNodeValueUnavailableException ex) {
+                /* cache auto-update failed; the updated node and outdated descendents remain */
+            }
+        }
+        return this;
+    }
+
     /**
      * Make a key -> node map containing new instances of the nodes that go out of date as a result of
      * updating node {@code key}
@@ -303,21 +358,28 @@ public final class ImmutableComputableGraph implements Serializable {
      *
      * @param accumulatedValues a nodekey -> duplicable map for possibly affected nodes
      * @return a new instance of {@link ImmutableComputableGraph} with new instances of updated nodes
+     *         (or this instance, updated, if it updates in place)
      */
     private ImmutableComputableGraph updateCachesFromAccumulatedValues(
             @Nonnull final Map<CacheNode.NodeKey, Duplicable> accumulatedValues) {
         /* since accumulatedValues may contain unchanged values (by reference), we filter and only update
          * the affected nodes */
-        return duplicateWithUpdatedNodes(
-                accumulatedValues.keySet().stream()
-                        /* filter out primitives and caching nodes that are current */
-                        .filter(node -> !(nodesMap.get(node).isPrimitive() ||
-                                nodesMap.get(node).hasValue() ||
-                                !((ComputableCacheNode)nodesMap.get(node)).isCaching()))
-                        /* collect to a map: key -> duplicated node with updated value */
-                        .collect(Collectors.toMap(Function.identity(), node ->
-                                ((ComputableCacheNode)nodesMap.get(node))
-                                        .duplicateWithUpdatedValue(accumulatedValues.get(node)))));
+        final List<CacheNode.NodeKey> affectedNodeKeys = accumulatedValues.keySet().stream()
+                /* filter out primitives and caching nodes that are current */
+                .filter(node -> !(nodesMap.get(node).isPrimitive() ||
+                        nodesMap.get(node).hasValue() ||
+                        !((ComputableCacheNode)nodesMap.get(node)).isCaching()))
+                .collect(Collectors.toList());
+        if (inPlaceUpdates) {
+            affectedNodeKeys.forEach(node -> ((ComputableCacheNode)nodesMap.get(node))
+                    .setUpdatedValue(accumulatedValues.get(node)));
+            return this;
+        }
+        return duplicateWithUpdatedNodes(affectedNodeKeys.stream()
+                /* collect to a map: key -> duplicated node with updated value */
+                .collect(Collectors.toMap(Function.identity(), node ->
+                        ((ComputableCacheNode)nodesMap.get(node))
+                                .duplicateWithUpdatedValue(accumulatedValues.get(node)))));
     }
 
     /**
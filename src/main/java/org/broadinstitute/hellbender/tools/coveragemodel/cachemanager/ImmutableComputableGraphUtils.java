@@ -28,11 +28,13 @@ public final class ImmutableComputableGraphUtils {
         private final Set<CacheNode> nodes;
         private final Set<CacheNode.NodeKey> keys;
         private boolean cacheAutoUpdate;
+        private boolean inPlaceUpdates;
 
         ImmutableComputableGraphBuilder() {
             nodes = new HashSet<>();
             keys = new HashSet<>();
             cacheAutoUpdate = false;
+            inPlaceUpdates = false;
         }
 
         /**
@@ -102,6 +104,22 @@ public final class ImmutableComputableGraphUtils {
             return this;
         }
 
+        /**
+         * Mutate the graph in place instead of creating new instances on updates; see {@link ImmutableComputableGraph}
+         */
+        public ImmutableComputableGraphBuilder withInPlaceUpdates() {
+            inPlaceUpdates = true;
+            return this;
+        }
+
+        /**
+         * Create new instances of the graph on updates (default)
+         */
+        public ImmutableComputableGraphBuilder withoutInPlaceUpdates() {
+            inPlaceUpdates = false;
+            return this;
+        }
+
         private void assertKeyUniqueness(@Nonnull final CacheNode.NodeKey key) {
             if (keys.contains(key)) {
                 throw new DuplicateNodeKeyException("A node with key " + quote(key.toString()) + " already exists");
@@ -112,7 +130,7 @@ public final class ImmutableComputableGraphUtils {
             if (nodes.size() == 0) {
                 throw new IllegalStateException("Can not make an empty cache node collection");
             } else {
-                return new ImmutableComputableGraph(nodes, cacheAutoUpdate);
+                return new ImmutableComputableGraph(nodes, cacheAutoUpdate, inPlaceUpdates);
             }
         }
 
@@ -65,6 +65,10 @@ import java.util.stream.IntStream;
  *     Target intervals do NOT overlap. Use the {@link PadTargets} tool to generate non-overlapping padded intervals from exome targets.
  *     Do NOT use BED format. See {@link ConvertBedToTargetFile}.
  * </p>
+ * <p>
+ *     With --outputFormat HDF5 the counts are written as a binary HDF5 file instead of a tab-separated table.
+ *     This requires that all targets have a name and is read back by downstream tools without any text parsing.
+ * </p>
  *
  * <p>For whole genome sequencing (WGS) data, use {@link SparkGenomeReadCounts} instead.</p>
  *
@@ -112,6 +116,8 @@ public final class CalculateTargetCoverage extends ReadWalker {
     protected static final String TARGET_FILE_SHORT_NAME = "T";
     protected static final String TARGET_OUT_INFO_FULL_NAME = "targetInformationColumns";
     protected static final String TARGET_OUT_INFO_SHORT_NAME = "targetInfo";
+    protected static final String OUTPUT_FORMAT_FULL_NAME = "outputFormat";
+    protected static final String OUTPUT_FORMAT_SHORT_NAME = "fmt";
 
     private static final String PCOV_OUTPUT_DOUBLE_FORMAT = "%.4g";
 
@@ -175,6 +181,14 @@ public final class CalculateTargetCoverage extends ReadWalker {
     )
     protected TargetOutInfo targetOutInfo = TargetOutInfo.COORDS;
 
+    @Argument(
+            doc = "Format of the main output file; HDF5 ignores the target information columns argument",
+            shortName = OUTPUT_FORMAT_SHORT_NAME,
+            fullName = OUTPUT_FORMAT_FULL_NAME,
+            optional = true
+    )
+    protected OutputFormat outputFormat = OutputFormat.TSV;
+
     /**
      * Writer to the main output file indicated by {@link #output}.
      */
@@ -240,7 +254,9 @@ public final class CalculateTargetCoverage extends ReadWalker {
         counts = new int[columnCount][targetCollection.targetCount()];
 
         // Open output files and write headers:
-        outputWriter = openOutputWriter(output, composeMatrixOutputHeader(getCommandLine(), targetOutInfo, groupBy, countColumns.columnNames()));
+        if (outputFormat == OutputFormat.TSV) {
+            outputWriter = openOutputWriter(output, composeMatrixOutputHeader(getCommandLine(), targetOutInfo, groupBy, countColumns.columnNames()));
+        }
         if (columnSummaryOutput != null) {
             columnSummaryOutputWriter = openOutputWriter(columnSummaryOutput,
                     composeColumnSummaryHeader(getCommandLine(), groupBy, targetCollection.targetCount(), targetCollection.totalSize()));
@@ -275,7 +291,7 @@ public final class CalculateTargetCoverage extends ReadWalker {
         } else {
             throw new UserException(String.format("You must indicate the set of target as input intervals (e.g. -L target-intervals.list) or a target feature file (e.g. -%s my-targets.tsv) ", TARGET_FILE_SHORT_NAME));
         }
-        if (targetOutInfo.requiresUniqueTargetName()) {
+        if (targetOutInfo.requiresUniqueTargetName() || outputFormat == OutputFormat.HDF5) {
             checkAllTargetsHaveName(result);
         }
         return result;
@@ -288,7 +304,7 @@ public final class CalculateTargetCoverage extends ReadWalker {
      */
     private void checkAllTargetsHaveName(TargetCollection<Target> result) {
         if (result.targets().stream().anyMatch(t -> t.getName() == null || t.getName().equals(""))) {
-            throw new UserException(String.format("Target output info requested '%s' requires that each target has a designated unique name/id but there are some with no names: %s", targetOutInfo.name(),
+            throw new UserException(String.format("Target output info requested '%s' (or HDF5 output) requires that each target has a designated unique name/id but there are some with no names: %s", targetOutInfo.name(),
                     result.targets().stream().filter(t -> t.getName() == null || t.getName().equals("")).limit(10).map(e -> result.location(e).toString()).collect(Collectors.joining(", "))));
         }
     }
@@ -344,6 +360,9 @@ public final class CalculateTargetCoverage extends ReadWalker {
             final int[] countBuffer = IntStream.range(0, counts.length).map(column -> counts[column][target]).toArray();
             writeOutputRows(countBuffer, columnTotals, target);
         });
+        if (outputFormat == OutputFormat.HDF5) {
+            writeHDF5Output(columnTotals);
+        }
         logger.log(Level.INFO, "Writing counts done.");
 
         writeColumnSummaryOutput();
@@ -402,7 +421,24 @@ public final class CalculateTargetCoverage extends ReadWalker {
     }
 
     /**
-     * Writes the row in the main matrix output file for a target and, if requested,
+     * Writes the whole main output matrix in HDF5 format, one count column at a time, so that only the transformed
+     * values of a single column are held in memory besides the counts.
+     *
+     * @param columnTotals the column totals.
+     */
+    private void writeHDF5Output(final long[] columnTotals) {
+        try (final HDF5ReadCountCollection.Writer writer =
+                     new HDF5ReadCountCollection.Writer(output, targetCollection.targets(), countColumns.columnNames())) {
+            for (int i = 0; i < counts.length; i++) {
+                final long columnTotal = columnTotals[i];
+                final double[] columnValues = IntStream.of(counts[i]).mapToDouble(count -> transform.value(count, columnTotal)).toArray();
+                writer.writeColumns(new double[][]{columnValues});
+            }
+        }
+    }
+
+    /**
+     * Writes the row in the main matrix output file (unless in HDF5 format) for a target and, if requested,
      * the corresponding row in the row summary output file.
      *
      * @param countBuffer  the counts for the target.
@@ -410,11 +446,13 @@ public final class CalculateTargetCoverage extends ReadWalker {
      */
     private void writeOutputRows(final int[] countBuffer, final long[] columnTotals,
                                  final int index) {
-        final String countString = IntStream.range(0, countBuffer.length).mapToObj(
-                i -> transform.apply(countBuffer[i], columnTotals[i])).collect(Collectors.joining(COLUMN_SEPARATOR));
         final String targetInfoString = targetOutInfo.composeTargetOutInfoString(index, targetCollection);
 
-        outputWriter.println(String.join(COLUMN_SEPARATOR, targetInfoString, countString));
+        if (outputWriter != null) {
+            final String countString = IntStream.range(0, countBuffer.length).mapToObj(
+                    i -> transform.apply(countBuffer[i], columnTotals[i])).collect(Collectors.joining(COLUMN_SEPARATOR));
+            outputWriter.println(String.join(COLUMN_SEPARATOR, targetInfoString, countString));
+        }
 
         if (rowSummaryOutputWriter != null) {
             final long sum = MathUtils.sum(countBuffer);
@@ -685,7 +723,7 @@ public final class CalculateTargetCoverage extends ReadWalker {
         /**
          * Raw integer read-count (non-)transformation.
          */
-        RAW((count, columnTotal) -> Integer.toString(count)),
+        RAW((count, columnTotal) -> Integer.toString(count), (count, columnTotal) -> count),
 
         /**
          * Proportional coverage transformation.
@@ -693,7 +731,8 @@ public final class CalculateTargetCoverage extends ReadWalker {
          * count across the enclosing column.</p>
          */
         PCOV((count, columnTotal) ->
-                String.format(PCOV_OUTPUT_DOUBLE_FORMAT, count / (double) columnTotal));
+                String.format(PCOV_OUTPUT_DOUBLE_FORMAT, count / (double) columnTotal),
+                (count, columnTotal) -> count / (double) columnTotal);
 
         /**
          * Functional interface for the count transformation.
@@ -714,18 +753,42 @@ public final class CalculateTargetCoverage extends ReadWalker {
             String apply(final int count, final long columnTotal);
         }
 
+        /**
+         * Functional interface for the count transformation into a numeric value, used for binary outputs.
+         */
+        @FunctionalInterface
+        protected interface ValueOperator {
+
+            /**
+             * Output matrix value transformer method.
+             * <p>Same contract as {@link Operator#apply} but returns the unformatted transformed value.</p>
+             *
+             * @param count       the individual count for a target and count group
+             * @param columnTotal the total count for the enclosing count group.
+             * @return the transformed value.
+             */
+            double apply(final int count, final long columnTotal);
+        }
+
         /**
          * Holds a reference to the transformation operator.
          */
         private final Operator operator;
 
         /**
-         * Creates a {@link Transform} instance given the corresponding transformation operator.
+         * Holds a reference to the numeric transformation operator.
+         */
+        private final ValueOperator valueOperator;
+
+        /**
+         * Creates a {@link Transform} instance given the corresponding transformation operators.
          *
          * @param operator the value transformation operator.
+         * @param valueOperator the numeric value transformation operator.
          */
-        Transform(final Operator operator) {
+        Transform(final Operator operator, final ValueOperator valueOperator) {
             this.operator = operator;
+            this.valueOperator = valueOperator;
         }
 
         /**
@@ -743,6 +806,35 @@ public final class CalculateTargetCoverage extends ReadWalker {
             Utils.validateArg(count <= columnTotal, "the count cannot be larger than the column total");
             return operator.apply(count, columnTotal);
         }
+
+        /**
+         * Transforms an individual count into its numeric output value.
+         *
+         * @param count       the individual count value.
+         * @param columnTotal the corresponding column total sum.
+         * @return the transformed value.
+         * @throws IllegalArgumentException if {@code count} is less than 0 or greater than {@code columnTotal}.
+         */
+        protected double value(final int count, final long columnTotal) {
+            ParamUtils.isPositiveOrZero(count, "the count cannot less than 0");
+            Utils.validateArg(count <= columnTotal, "the count cannot be larger than the column total");
+            return valueOperator.apply(count, columnTotal);
+        }
+    }
+
+    /**
+     * Format of the main output file.
+     */
+    protected enum OutputFormat {
+        /**
+         * Tab-separated table with a header (the default).
+         */
+        TSV,
+
+        /**
+         * HDF5 file as read by {@link ReadCountCollectionUtils#parse(File, TargetCollection, boolean)}.
+         */
+        HDF5
     }
 
     /**
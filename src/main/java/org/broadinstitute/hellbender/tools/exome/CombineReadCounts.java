@@ -47,6 +47,17 @@ import java.util.stream.IntStream;
  * </p>
  *
  * <p>
+ *   Alternatively, the output can be written in HDF5 format using the {@value #OUTPUT_FORMAT_SHORT_NAME} argument.
+ *   Then there are no intermediate merge files: input files are read, in parallel, in groups of at most
+ *   {@value #MAX_GROUP_SIZE_SHORT_NAME} files and their counts are appended to the output as each group is done,
+ *   so that only the counts of one group are held in memory at any time. This is the recommended mode for
+ *   large cohorts. In this mode read count columns are sorted within each input file and input files
+ *   are sorted by their first read count column name, which yields sorted columns when each input file
+ *   contains a single sample, and all targets must have coordinates. Input files may be in HDF5 format
+ *   themselves (e.g. those produced by {@link CalculateTargetCoverage}).
+ * </p>
+ *
+ * <p>
  *    Follow these rules:
  *
  *    <ul>
@@ -141,6 +152,8 @@ public final class CombineReadCounts extends CommandLineProgram {
     public static final String MAX_GROUP_SIZE_SHORT_NAME = "MOF";
     public static final String MAX_GROUP_SIZE_FULL_NAME = "maxOpenFiles";
     public static final int DEFAULT_MAX_GROUP_SIZE = 100;
+    public static final String OUTPUT_FORMAT_SHORT_NAME = "fmt";
+    public static final String OUTPUT_FORMAT_FULL_NAME = "outputFormat";
 
     private static final String READ_COUNT_FILES_DOCUMENTATION =
             "Coverage files to combine, they must contain all the targets in the input file (" +
@@ -183,12 +196,39 @@ public final class CombineReadCounts extends CommandLineProgram {
     )
     protected File outputFile;
 
+    @Argument(
+            doc = "Output file format",
+            shortName = OUTPUT_FORMAT_SHORT_NAME,
+            fullName = OUTPUT_FORMAT_FULL_NAME,
+            optional = true
+    )
+    protected OutputFormat outputFormat = OutputFormat.TSV;
+
+    /**
+     * Output file formats.
+     */
+    protected enum OutputFormat {
+        /**
+         * Tab-separated table, merged in a balanced tree fashion through temporary files.
+         */
+        TSV,
+
+        /**
+         * HDF5 file, written incrementally as groups of input files are read.
+         */
+        HDF5
+    }
+
     @Override
     public Object doWork() {
         final Set<File> temporaryFiles = new HashSet<>();
         final List<File> coverageFiles = composeAndCheckInputReadCountFiles(this.coverageFiles, coverageFileList);
 
         final TargetCollection<Target> targets = targetArguments.readTargetCollection(false);
+        if (outputFormat == OutputFormat.HDF5) {
+            doMergeIntoHDF5(targets, coverageFiles);
+            return "SUCCESS";
+        }
         final int optimalMergingFileCount = calculateOptimalMergingFileCount(coverageFiles.size());
         logger.info(String.format("Merging %d read count files, maximum %d file at a time", coverageFiles.size(), optimalMergingFileCount));
 
@@ -322,6 +362,98 @@ public final class CombineReadCounts extends CommandLineProgram {
         }
     }
 
+    /**
+     * Merges all input files into an HDF5 output file.
+     * <p>
+     *     Input files are read in parallel in groups of at most {@link #maxMergeSize} and each group's counts are
+     *     appended to the output before the next group is read.
+     * </p>
+     * @param targets the targets to merge in the input.
+     * @param filesToMerge input files to be merged.
+     */
+    private void doMergeIntoHDF5(final TargetCollection<Target> targets, final List<File> filesToMerge) {
+        final List<List<String>> sortedCountColumnNamesByFile = filesToMerge.parallelStream()
+                .map(file -> {
+                    final List<String> names = ReadCountCollectionUtils.retrieveSampleNamesFromReadCountsFile(file);
+                    if (names.isEmpty()) {
+                        throw new UserException.BadInput(String.format("there are no read count columns in %s", file));
+                    }
+                    return names.stream().sorted().collect(Collectors.toList());
+                })
+                .collect(Collectors.toList());
+        final List<Integer> fileOrder = IntStream.range(0, filesToMerge.size()).boxed()
+                .sorted(Comparator.comparing(i -> sortedCountColumnNamesByFile.get(i).get(0)))
+                .collect(Collectors.toList());
+        final List<String> countColumnNames = fileOrder.stream()
+                .flatMap(i -> sortedCountColumnNamesByFile.get(i).stream())
+                .collect(Collectors.toList());
+        final Set<String> distinctCountColumnNames = new HashSet<>(countColumnNames.size());
+        for (final String name : countColumnNames) {
+            if (!distinctCountColumnNames.add(name)) {
+                throw new UserException.BadInput("the input contains the sample repeated, e.g.:" + name);
+            }
+        }
+
+        // as in the TSV merge, targets are output in the order of the input files:
+        final File firstFile = filesToMerge.get(fileOrder.get(0));
+        final List<Target> outputTargets = readCounts(firstFile, targets).targets();
+
+        logger.info(String.format("Merging %d read count files into HDF5, maximum %d file at a time", filesToMerge.size(), maxMergeSize));
+        try (final HDF5ReadCountCollection.Writer writer = new HDF5ReadCountCollection.Writer(outputFile, outputTargets, countColumnNames)) {
+            for (int groupStart = 0; groupStart < fileOrder.size(); groupStart += maxMergeSize) {
+                final List<Integer> group = fileOrder.subList(groupStart, Math.min(fileOrder.size(), groupStart + maxMergeSize));
+                final double[][] groupCounts = group.parallelStream()
+                        .map(i -> readTransposedCounts(filesToMerge.get(i), sortedCountColumnNamesByFile.get(i), targets, outputTargets, firstFile))
+                        .flatMap(Arrays::stream)
+                        .toArray(double[][]::new);
+                writer.writeColumns(groupCounts);
+                logger.debug(String.format("Merged %d of %d", groupStart + group.size(), fileOrder.size()));
+            }
+        }
+    }
+
+    /**
+     * Reads the counts of the targets to merge in an input file.
+     * @param file the input file.
+     * @param targets the targets to merge in the input.
+     * @return never {@code null}.
+     */
+    private static ReadCountCollection readCounts(final File file, final TargetCollection<Target> targets) {
+        final ReadCountCollection counts;
+        try {
+            counts = ReadCountCollectionUtils.parse(file, targets, true);
+        } catch (final IOException ex) {
+            throw new UserException.CouldNotReadInputFile(file, ex);
+        }
+        if (counts.targets().size() != targets.targetCount()) {
+            throw new UserException.BadInput(String.format("End of file %s reached without finding all requested targets.", file));
+        }
+        return counts;
+    }
+
+    /**
+     * Reads the counts of an input file.
+     * @param file the input file.
+     * @param countColumnNames the count column names in the order they are to be returned.
+     * @param targets the targets to merge in the input.
+     * @param outputTargets the targets to merge in the order they are output.
+     * @param outputTargetsFile the input file that determined the order of {@code outputTargets}.
+     * @return an array with the counts of each column in {@code countColumnNames}, in the same order as
+     *   the targets in {@code outputTargets}.
+     */
+    private static double[][] readTransposedCounts(final File file, final List<String> countColumnNames,
+                                                   final TargetCollection<Target> targets,
+                                                   final List<Target> outputTargets, final File outputTargetsFile) {
+        final ReadCountCollection counts = readCounts(file, targets);
+        if (!counts.targets().equals(outputTargets)) {
+            throw new UserException.BadInput(String.format("the targets in %s are not in the same order as in %s", file, outputTargetsFile));
+        }
+        return countColumnNames.stream()
+                .mapToInt(counts.columnNames()::indexOf)
+                .mapToObj(counts.counts()::getColumn)
+                .toArray(double[][]::new);
+    }
+
     private File createMergeTemporalFile() {
         final File result;
         try {
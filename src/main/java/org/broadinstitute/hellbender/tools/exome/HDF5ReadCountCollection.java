@@ -0,0 +1,196 @@
+package org.broadinstitute.hellbender.tools.exome;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.broadinstitute.hdf5.HDF5File;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.copynumber.utils.HDF5Utils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Helper class for {@link ReadCountCollection} used to read/write HDF5.
+ *
+ * <p>
+ *     Targets are stored as a name array plus intervals (in the format of {@link HDF5Utils#writeIntervals}),
+ *     and the counts are stored transposed, with one row per count column (i.e. per sample or read group),
+ *     so that each column's counts are written and read as a contiguous block.
+ * </p>
+ */
+final class HDF5ReadCountCollection {
+    private static final String TARGET_NAMES_PATH = "/targets/names";
+    private static final String TARGET_INTERVALS_GROUP_NAME = "/targets/intervals";
+    private static final String COLUMN_NAMES_PATH = "/counts/column_names";
+    private static final String TRANSPOSED_COUNTS_PATH = "/counts/transposed_values";
+
+    /**
+     * Chunk divisor passed to {@link HDF5Utils#writeChunkedDoubleMatrix}; allows for up to 16777215 targets.
+     */
+    private static final int CHUNK_DIVISOR = 16;
+
+    /**
+     * The signature that starts every HDF5 file (with no user block).
+     */
+    private static final byte[] HDF5_SIGNATURE = {(byte) 0x89, 'H', 'D', 'F', '\r', '\n', 0x1a, '\n'};
+
+    private HDF5ReadCountCollection() {}
+
+    /**
+     * Checks whether a file is in HDF5 format by looking at its first bytes.
+     *
+     * @param file the query file.
+     * @return {@code true} iff {@code file} is a regular file that starts with the HDF5 signature.
+     */
+    static boolean isHDF5File(final File file) {
+        Utils.nonNull(file, "the input file cannot be null");
+        if (!file.isFile()) {
+            return false;
+        }
+        final byte[] buffer = new byte[HDF5_SIGNATURE.length];
+        try (final InputStream inputStream = new FileInputStream(file)) {
+            int numRead = 0;
+            int n;
+            while (numRead < buffer.length && (n = inputStream.read(buffer, numRead, buffer.length - numRead)) > 0) {
+                numRead += n;
+            }
+            return numRead == buffer.length && Arrays.equals(buffer, HDF5_SIGNATURE);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(file, e);
+        }
+    }
+
+    /**
+     * Reads the count column names of a read-count collection written by {@link #write}.
+     */
+    static List<String> readColumnNames(final HDF5File file) {
+        Utils.nonNull(file, "the input file cannot be null");
+        return Arrays.asList(file.readStringArray(COLUMN_NAMES_PATH));
+    }
+
+    /**
+     * Reads the targets of a read-count collection written by {@link #write}.
+     */
+    static List<Target> readTargets(final HDF5File file) {
+        Utils.nonNull(file, "the input file cannot be null");
+        final String[] targetNames = file.readStringArray(TARGET_NAMES_PATH);
+        final List<SimpleInterval> intervals = HDF5Utils.readIntervals(file, TARGET_INTERVALS_GROUP_NAME);
+        if (targetNames.length != intervals.size()) {
+            throw new UserException.BadInput(String.format("the number of target names (%d) and intervals (%d) in %s do not match",
+                    targetNames.length, intervals.size(), file.getFile()));
+        }
+        return IntStream.range(0, targetNames.length)
+                .mapToObj(i -> new Target(targetNames[i], intervals.get(i)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Reads a read-count collection written by {@link #write}.
+     */
+    static ReadCountCollection read(final HDF5File file) {
+        final List<Target> targets = readTargets(file);
+        final List<String> columnNames = readColumnNames(file);
+        final double[][] transposedCounts = HDF5Utils.readChunkedDoubleMatrix(file, TRANSPOSED_COUNTS_PATH);
+        if (transposedCounts.length != columnNames.size() || transposedCounts[0].length != targets.size()) {
+            throw new UserException.BadInput(String.format("the count matrix in %s does not match the number of targets and columns",
+                    file.getFile()));
+        }
+        return new ReadCountCollection(targets, columnNames, new Array2DRowRealMatrix(transposedCounts, false).transpose());
+    }
+
+    /**
+     * Writes read counts given in column-major order.
+     *
+     * @param outFile the output file.
+     * @param targets the targets, which must all have a name and an interval.
+     * @param columnNames the count column names.
+     * @param transposedCounts the counts with one row per column and one value per target in each row.
+     */
+    static void write(final File outFile,
+                      final List<Target> targets,
+                      final List<String> columnNames,
+                      final double[][] transposedCounts) {
+        Utils.nonNull(transposedCounts);
+        try (final Writer writer = new Writer(outFile, targets, columnNames)) {
+            writer.writeColumns(transposedCounts);
+        }
+    }
+
+    /**
+     * Writes a read-count collection.
+     */
+    static void write(final File outFile, final ReadCountCollection readCounts) {
+        Utils.nonNull(readCounts);
+        write(outFile, readCounts.targets(), readCounts.columnNames(), readCounts.counts().transpose().getData());
+    }
+
+    /**
+     * Writes a read-count collection a few count columns at a time, so that the whole count matrix
+     * never needs to be held in memory.
+     */
+    static final class Writer implements AutoCloseable {
+        private final HDF5File file;
+        private final int numTargets;
+        private final int numColumns;
+        private final HDF5Utils.ChunkedDoubleMatrixWriter countsWriter;
+        private int numColumnsWritten = 0;
+
+        /**
+         * Creates the output file and writes the targets and count column names.
+         *
+         * @param outFile the output file.
+         * @param targets the targets, which must all have a name and an interval.
+         * @param columnNames the count column names, in the order their counts are going to be written.
+         */
+        Writer(final File outFile, final List<Target> targets, final List<String> columnNames) {
+            Utils.nonNull(outFile);
+            Utils.nonEmpty(targets);
+            Utils.nonEmpty(columnNames);
+            Utils.validateArg(targets.stream().allMatch(t -> t.getInterval() != null), "Targets must all have an interval.");
+            numTargets = targets.size();
+            numColumns = columnNames.size();
+            file = new HDF5File(outFile, HDF5File.OpenMode.CREATE);
+            file.makeStringArray(TARGET_NAMES_PATH, targets.stream().map(Target::getName).toArray(String[]::new));
+            HDF5Utils.writeIntervals(file, TARGET_INTERVALS_GROUP_NAME,
+                    targets.stream().map(Target::getInterval).collect(Collectors.toList()));
+            file.makeStringArray(COLUMN_NAMES_PATH, columnNames.toArray(new String[columnNames.size()]));
+            countsWriter = new HDF5Utils.ChunkedDoubleMatrixWriter(file, TRANSPOSED_COUNTS_PATH, numTargets, CHUNK_DIVISOR);
+        }
+
+        /**
+         * Writes the counts of the next count columns.
+         *
+         * @param transposedCounts the counts with one row per column and one value per target in each row.
+         */
+        void writeColumns(final double[][] transposedCounts) {
+            Utils.nonNull(transposedCounts);
+            Utils.validateArg(numColumnsWritten + transposedCounts.length <= numColumns, "Number of count columns and column names must match.");
+            Utils.validateArg(Arrays.stream(transposedCounts).allMatch(row -> row.length == numTargets),
+                    "Number of targets and counts in each column must match.");
+            countsWriter.writeRows(transposedCounts);
+            numColumnsWritten += transposedCounts.length;
+        }
+
+        /**
+         * Finishes the count matrix and closes the file.
+         *
+         * @throws IllegalStateException if the counts of some count columns have not been written.
+         */
+        @Override
+        public void close() {
+            try {
+                Utils.validate(numColumnsWritten == numColumns, "Number of count columns and column names must match.");
+                countsWriter.finish();
+            } finally {
+                file.close();
+            }
+        }
+    }
+}
@@ -12,6 +12,7 @@ import org.apache.commons.math3.stat.descriptive.rank.Median;
 import org.apache.commons.math3.stat.descriptive.rank.Percentile;
 import org.apache.commons.math3.util.FastMath;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hdf5.HDF5File;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.exome.samplenamefinder.SampleNameFinder;
 import org.broadinstitute.hellbender.utils.MatrixSummaryUtils;
@@ -120,6 +121,21 @@ public final class ReadCountCollectionUtils {
         }
     }
 
+    /**
+     * Writes the content of a collection into a file in HDF5 format, which can be read back by
+     * {@link #parse(File, TargetCollection, boolean)} without any text parsing.
+     *
+     * @param file           the output file.
+     * @param collection     the output collection; all its targets must have an interval.
+     * @throws IllegalArgumentException if any of the input parameters is {@code null}
+     *                                  or {@code collection} has targets without intervals.
+     */
+    public static void writeHDF5(final File file, final ReadCountCollection collection) {
+        Utils.nonNull(file, "output file cannot be null");
+        Utils.nonNull(collection, "the collection cannot be null");
+        HDF5ReadCountCollection.write(file, collection);
+    }
+
     private static void performWriting(ReadCountCollection collection, TableWriter<ReadCountRecord> tableWriter, String[] headerComments) throws IOException {
         // print the header comments
         for (final String comment : headerComments) {
@@ -238,10 +254,50 @@ public final class ReadCountCollectionUtils {
     public static ReadCountCollection parse(final File file, final TargetCollection<Target> targets,
                                                 final boolean ignoreMissingTargets) throws IOException {
         Utils.nonNull(file, "the input file cannot be null");
+        if (HDF5ReadCountCollection.isHDF5File(file)) {
+            return parseHDF5(file, targets, ignoreMissingTargets);
+        }
         final ReadCountsReader reader = new ReadCountsReader(file, targets, ignoreMissingTargets);
         return readCounts(file.getPath(), reader, reader.getCountColumnNames());
     }
 
+    /**
+     * Reads an HDF5 read-count file written by {@link #writeHDF5}, resolving its targets against a target collection
+     * (if any) the same way as {@link ReadCountsReader} does for tables with both target names and intervals.
+     */
+    private static ReadCountCollection parseHDF5(final File file, final TargetCollection<Target> targets,
+                                                 final boolean ignoreMissingTargets) {
+        Utils.validateArg(!(targets == null && ignoreMissingTargets), "When ignore missing targets is true, targets cannot be null");
+        final ReadCountCollection readCounts;
+        try (final HDF5File hdf5File = new HDF5File(file)) {
+            readCounts = HDF5ReadCountCollection.read(hdf5File);
+        }
+        if (targets == null) {
+            return readCounts;
+        }
+        final Set<Target> targetsToKeep = new LinkedHashSet<>(readCounts.targets().size());
+        for (final Target target : readCounts.targets()) {
+            final Target collectionTarget = targets.target(target.getInterval());
+            if (collectionTarget == null) {
+                if (!ignoreMissingTargets) {
+                    targetsToKeep.add(target);
+                }
+            } else if (!collectionTarget.getInterval().equals(target.getInterval())) {
+                throw new UserException.BadInput(String.format("mismatching yet overlapping intervals in the input (%s) and the target collection (%s) in %s",
+                        target.getInterval(), collectionTarget.getInterval(), file));
+            } else if (!collectionTarget.getName().equals(target.getName())) {
+                throw new UserException.BadInput(String.format("conflicting target resolution from the name (%s) and interval (%s) provided in %s",
+                        target.getName(), target.getInterval(), file));
+            } else {
+                targetsToKeep.add(target);
+            }
+        }
+        if (targetsToKeep.isEmpty()) {
+            throw new UserException.BadInput("there is no counts (zero targets) in the input source " + file);
+        }
+        return targetsToKeep.size() == readCounts.targets().size() ? readCounts : readCounts.subsetTargets(targetsToKeep);
+    }
+
     /**
      * Reads the content of a source reader into a {@link ReadCountCollection}.
      * <p>
@@ -285,14 +341,15 @@ public final class ReadCountCollectionUtils {
                                                   final List<String> columnNames) throws IOException {
         final Buffer buffer = new Buffer();
 
-        ReadCountRecord record;
-        while ((record = tableReader.readRecord()) != null) {
+        // records are independent of each other, so they can be created concurrently; they are added to the
+        // buffer a batch at a time so that only the counts, and not all the records, are held at once:
+        tableReader.forEachInParallel(record -> {
             final Target target = record.getTarget();
             final double[] lineCounts = record.getDoubleCounts();
             if (!buffer.add(target, lineCounts)) {
                 throw new UserException.BadInput(String.format("duplicated target with name %s in %s", target.getName(), sourceName));
             }
-        }
+        });
         if (buffer.getTargets().isEmpty()) {
             throw new UserException.BadInput("there is no counts (zero targets) in the input source " + sourceName);
         }
@@ -306,6 +363,11 @@ public final class ReadCountCollectionUtils {
      * targets themselves.
      */
     public static List<String> retrieveSampleNamesFromReadCountsFile(final File readCountsFile) {
+        if (HDF5ReadCountCollection.isHDF5File(readCountsFile)) {
+            try (final HDF5File hdf5File = new HDF5File(readCountsFile)) {
+                return HDF5ReadCountCollection.readColumnNames(hdf5File);
+            }
+        }
         try  {
             return new ReadCountsReader(readCountsFile).getCountColumnNames();
         } catch (final IOException e) {
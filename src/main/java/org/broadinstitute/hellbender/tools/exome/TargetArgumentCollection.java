@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.exome;
 
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineException;
+import org.broadinstitute.hdf5.HDF5File;
 import org.broadinstitute.hellbender.cmdline.ExomeStandardArgumentDefinitions;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
@@ -231,20 +232,28 @@ public final class TargetArgumentCollection {
      *         provided.
      */
     public static TargetCollection<Target> readTargetCollection(final File file) {
-        try (final TargetTableReader reader = new TargetTableReader(file)) {
-            return new HashedListTargetCollection<Target>(Utils.nonNull(reader.stream().collect(Collectors.toList()), "the input feature list cannot be null")) {
-                @Override
-                public String name(final Target target) {
-                    return Utils.nonNull(target,"the input target cannot be null").getName();
-                }
-
-                @Override
-                public SimpleInterval location(final Target target) {
-                    return Utils.nonNull(target, "the input target cannot be null").getInterval();
-                }
-            };
-        } catch (final IOException | UncheckedIOException ex) {
-            throw new UserException.CouldNotReadInputFile(file, ex.getMessage());
+        final List<Target> targets;
+        if (HDF5ReadCountCollection.isHDF5File(file)) {
+            try (final HDF5File hdf5File = new HDF5File(file)) {
+                targets = HDF5ReadCountCollection.readTargets(hdf5File);
+            }
+        } else {
+            try (final TargetTableReader reader = new TargetTableReader(file)) {
+                targets = Utils.nonNull(reader.stream().collect(Collectors.toList()), "the input feature list cannot be null");
+            } catch (final IOException | UncheckedIOException ex) {
+                throw new UserException.CouldNotReadInputFile(file, ex.getMessage());
+            }
         }
+        return new HashedListTargetCollection<Target>(targets) {
+            @Override
+            public String name(final Target target) {
+                return Utils.nonNull(target,"the input target cannot be null").getName();
+            }
+
+            @Override
+            public SimpleInterval location(final Target target) {
+                return Utils.nonNull(target, "the input target cannot be null").getInterval();
+            }
+        };
     }
 }
@@ -2,12 +2,12 @@ package org.broadinstitute.hellbender.tools.exome.allelefraction;
 
 import org.apache.commons.math3.random.RandomGenerator;
 import org.broadinstitute.hellbender.tools.pon.allelic.AllelicPanelOfNormals;
+import org.broadinstitute.hellbender.utils.mcmc.ParallelBlockSampler;
 import org.broadinstitute.hellbender.utils.mcmc.ParameterSampler;
 import org.broadinstitute.hellbender.utils.mcmc.SliceSampler;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Sampler classes for the allele-fraction model.
@@ -126,8 +126,9 @@ final class AlleleFractionSamplers {
 
         @Override
         public AlleleFractionState.MinorFractions sample(final RandomGenerator rng, final AlleleFractionState state, final AlleleFractionData data) {
-            return new AlleleFractionState.MinorFractions(perSegmentSamplers.stream()
-                    .map(sampler -> sampler.sample(rng, state, data)).collect(Collectors.toList()));
+            //minor fractions are conditionally independent given the global parameters
+            return new AlleleFractionState.MinorFractions(ParallelBlockSampler.sample(rng, perSegmentSamplers.size(),
+                    (segmentRng, segment) -> perSegmentSamplers.get(segment).sample(segmentRng, state, data)));
         }
     }
 }
@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.exome.copyratio;
 import org.apache.commons.math3.distribution.BetaDistribution;
 import org.apache.commons.math3.random.RandomGenerator;
 import org.broadinstitute.hellbender.utils.MathUtils;
+import org.broadinstitute.hellbender.utils.mcmc.ParallelBlockSampler;
 import org.broadinstitute.hellbender.utils.mcmc.ParameterSampler;
 import org.broadinstitute.hellbender.utils.mcmc.SliceSampler;
 
@@ -94,22 +95,21 @@ final class CopyRatioSamplers {
 
         @Override
         public CopyRatioState.SegmentMeans sample(final RandomGenerator rng, final CopyRatioState state, final CopyRatioData dataCollection) {
-            final List<Double> means = new ArrayList<>(dataCollection.getNumSegments());
-            for (int segment = 0; segment < dataCollection.getNumSegments(); segment++) {
+            //segment means are conditionally independent given the variance and the outlier indicators
+            final List<Double> means = ParallelBlockSampler.sample(rng, dataCollection.getNumSegments(), (segmentRng, segment) -> {
                 final List<CopyRatioData.IndexedCoverage> indexedCoveragesInSegment = dataCollection.getIndexedCoveragesInSegment(segment);
                 if (indexedCoveragesInSegment.isEmpty()) {
-                    means.add(Double.NaN);
-                } else {
-                    final Function<Double, Double> logConditionalPDF = newMean ->
-                            indexedCoveragesInSegment.stream()
-                                    .filter(c -> !state.targetOutlierIndicator(c.getTargetIndex()))
-                                    .mapToDouble(c -> -normalTerm(c.getCoverage(), newMean, state.variance()))
-                                    .sum();
-                    //slice sample within range given by minimum and maximum coverages
-                    final SliceSampler sampler = new SliceSampler(rng, logConditionalPDF, coverageMin, coverageMax, meanSliceSamplingWidth);
-                    means.add(sampler.sample(state.segmentMean(segment)));
+                    return Double.NaN;
                 }
-            }
+                final Function<Double, Double> logConditionalPDF = newMean ->
+                        indexedCoveragesInSegment.stream()
+                                .filter(c -> !state.targetOutlierIndicator(c.getTargetIndex()))
+                                .mapToDouble(c -> -normalTerm(c.getCoverage(), newMean, state.variance()))
+                                .sum();
+                //slice sample within range given by minimum and maximum coverages
+                final SliceSampler sampler = new SliceSampler(segmentRng, logConditionalPDF, coverageMin, coverageMax, meanSliceSamplingWidth);
+                return sampler.sample(state.segmentMean(segment));
+            });
             return new CopyRatioState.SegmentMeans(means);
         }
     }
@@ -135,9 +135,10 @@ final class CopyRatioSamplers {
                     Math.log(state.outlierProbability()) + outlierUniformLogLikelihood;
             final double notOutlierUnnormalizedLogProbabilityPrefactor =
                     Math.log(1. - state.outlierProbability()) - 0.5 * Math.log(2 * Math.PI * state.variance());
-            final List<Boolean> indicators = new ArrayList<>();
-            for (int segment = 0; segment < dataCollection.getNumSegments(); segment++) {
+            //indicators are conditionally independent given the other parameters, so we sample them a segment at a time
+            final List<List<Boolean>> indicatorsPerSegment = ParallelBlockSampler.sample(rng, dataCollection.getNumSegments(), (segmentRng, segment) -> {
                 final List<CopyRatioData.IndexedCoverage> indexedCoveragesInSegment = dataCollection.getIndexedCoveragesInSegment(segment);
+                final List<Boolean> indicatorsInSegment = new ArrayList<>(indexedCoveragesInSegment.size());
                 for (final CopyRatioData.IndexedCoverage c : indexedCoveragesInSegment) {
                     final double notOutlierUnnormalizedLogProbability =
                             notOutlierUnnormalizedLogProbabilityPrefactor
@@ -147,9 +148,12 @@ final class CopyRatioSamplers {
                             MathUtils.normalizeFromLog10ToLinearSpace(new double[]{
                                     MathUtils.logToLog10(outlierUnnormalizedLogProbability),
                                     MathUtils.logToLog10(notOutlierUnnormalizedLogProbability)})[0];
-                    indicators.add(rng.nextDouble() < conditionalProbability);
+                    indicatorsInSegment.add(segmentRng.nextDouble() < conditionalProbability);
                 }
-            }
+                return indicatorsInSegment;
+            });
+            final List<Boolean> indicators = new ArrayList<>(dataCollection.getNumTargets());
+            indicatorsPerSegment.forEach(indicators::addAll);
             return new CopyRatioState.OutlierIndicators(indicators);
         }
     }
@@ -1,5 +1,7 @@
 package org.broadinstitute.hellbender.tools.exome.germlinehmm.xhmm;
 
+import org.apache.commons.lang3.tuple.ImmutablePair;
+import org.apache.commons.lang3.tuple.Pair;
 import org.apache.commons.math3.linear.DefaultRealMatrixChangingVisitor;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.broadinstitute.barclay.argparser.Argument;
@@ -22,6 +24,7 @@ import java.io.IOException;
 import java.util.*;
 import java.util.stream.Collectors;
 import java.util.stream.DoubleStream;
+import java.util.stream.IntStream;
 
 /**
  * Parent class for those tools that make CNV segment calls based on a {@link XHMMModel}.
@@ -103,7 +106,7 @@ public abstract class XHMMSegmentCallerBase extends CommandLineProgram {
     }
 
     /**
-     * Run forward-backward algorithm and Viterbi algorithm on each sample
+     * Run forward-backward algorithm and Viterbi algorithm on each sample; samples are processed concurrently.
      *
      * @param model an instance of {@link XHMMModel}
      * @param targets input target collection
@@ -111,18 +114,21 @@ public abstract class XHMMSegmentCallerBase extends CommandLineProgram {
      */
     private void runForwardBackwardAndViterbi(final XHMMModel model, final TargetCollection<Target> targets,
                                               final ReadCountCollection inputCounts) {
-        sampleForwardBackwardResults = new ArrayList<>(inputCounts.columnNames().size());
-        sampleBestPaths = new ArrayList<>(inputCounts.columnNames().size());
-        for (int sampleIndex = 0; sampleIndex < inputCounts.columnNames().size(); sampleIndex++) {
-            final List<XHMMEmissionData> emissionData = DoubleStream.of(inputCounts.counts().getColumn(sampleIndex))
-                    .mapToObj(XHMMEmissionData::new)
-                    .collect(Collectors.toList());
-            final ForwardBackwardAlgorithm.Result<XHMMEmissionData, Target, CopyNumberTriState> fbResult =
-                    ForwardBackwardAlgorithm.apply(emissionData, targets.targets(), model);
-            final List<CopyNumberTriState> bestPath = ViterbiAlgorithm.apply(emissionData, targets.targets(), model);
-            sampleForwardBackwardResults.add(fbResult);
-            sampleBestPaths.add(bestPath);
-        }
+        final int numSamples = inputCounts.columnNames().size();
+        final List<Pair<ForwardBackwardAlgorithm.Result<XHMMEmissionData, Target, CopyNumberTriState>, List<CopyNumberTriState>>> results =
+                IntStream.range(0, numSamples).parallel()
+                        .mapToObj(sampleIndex -> {
+                            final List<XHMMEmissionData> emissionData = DoubleStream.of(inputCounts.counts().getColumn(sampleIndex))
+                                    .mapToObj(XHMMEmissionData::new)
+                                    .collect(Collectors.toList());
+                            final ForwardBackwardAlgorithm.Result<XHMMEmissionData, Target, CopyNumberTriState> fbResult =
+                                    ForwardBackwardAlgorithm.apply(emissionData, targets.targets(), model);
+                            final List<CopyNumberTriState> bestPath = ViterbiAlgorithm.apply(emissionData, targets.targets(), model);
+                            return new ImmutablePair<>(fbResult, bestPath);
+                        })
+                        .collect(Collectors.toList());
+        sampleForwardBackwardResults = results.stream().map(Pair::getLeft).collect(Collectors.toList());
+        sampleBestPaths = results.stream().map(Pair::getRight).collect(Collectors.toList());
     }
 
     /**
@@ -9,7 +9,8 @@ import org.apache.commons.math3.special.Gamma;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.utils.*;
-import org.broadinstitute.hellbender.utils.hmm.ForwardBackwardAlgorithm;
+import org.broadinstitute.hellbender.utils.hmm.IndexedForwardBackwardAlgorithm;
+import org.broadinstitute.hellbender.utils.hmm.IndexedHMM;
 import org.broadinstitute.hellbender.utils.hmm.ViterbiAlgorithm;
 
 import java.util.*;
@@ -230,10 +231,10 @@ public abstract class ClusteringGenomicHMMSegmenter<DATA, HIDDEN> {
     // exact model log-likelihood
     private void attemptBigChangeInMemoryLength() {
         final double memoryLengthMultiplier = Math.exp(random.nextGaussian()/2);
-        final double currentLogLikelihood = ForwardBackwardAlgorithm.apply(data, positions, makeModel()).logDataLikelihood();
+        final double currentLogLikelihood = IndexedForwardBackwardAlgorithm.logDataLikelihood(IndexedHMM.of(makeModel(), data, positions));
         final double oldMemoryLength = memoryLength;
         memoryLength = memoryLength * memoryLengthMultiplier;
-        final double proposalLogLikelihood = ForwardBackwardAlgorithm.apply(data, positions, makeModel()).logDataLikelihood();
+        final double proposalLogLikelihood = IndexedForwardBackwardAlgorithm.logDataLikelihood(IndexedHMM.of(makeModel(), data, positions));
         if (proposalLogLikelihood < currentLogLikelihood) {
             memoryLength = oldMemoryLength;
         }
@@ -260,30 +261,30 @@ public abstract class ClusteringGenomicHMMSegmenter<DATA, HIDDEN> {
         private final double[] transitionCountsByState = new double[K];
 
         public ExpectationStep() {
-            final ForwardBackwardAlgorithm.Result<DATA, SimpleInterval, Integer> fbResult =
-                    ForwardBackwardAlgorithm.apply(data, positions, makeModel());
-
-            IntStream.range(0, K).forEach(state ->
-                    pStateByPosition[state] = IntStream.range(0, N).mapToDouble(n -> Math.exp(fbResult.logProbability(n, state))).toArray());
-
-            for (int n = 0; n < N-1; n++) {
-                for (int from = 0; from < K; from++) {
-                    for (int to = 0; to < K; to++) {
-                        // probability that from -> to transition occurred going from position n to n + 1
-                        final double pTransition = Math.exp(fbResult.logProbability(n, Arrays.asList(from, to)));
-                        if (to != from ) {
-                            transitionCountsByState[to] += pTransition;
-                            pForget[n] += pTransition;
-                        } else {
-                            final double priorPForget = 1 - Math.exp(-distances[n] / memoryLength);
-                            // Bayes' Rule gives the probability that the state was forgotten given that toState == fromState
-                            final double pForgetAndTransition = pTransition * (priorPForget * getWeight(to) / ((1-priorPForget) + priorPForget * getWeight(to)));
-                            transitionCountsByState[to] += pForgetAndTransition;
-                            pForget[n] += pForgetAndTransition;
+            IndexedForwardBackwardAlgorithm.apply(IndexedHMM.of(makeModel(), data, positions),
+                    (n, logPosteriors) -> {
+                        for (int state = 0; state < K; state++) {
+                            pStateByPosition[state][n] = Math.exp(logPosteriors[state]);
                         }
-                    }
-                }
-            }
+                    },
+                    (n, logTransitionPosteriors) -> {
+                        final double priorPForget = 1 - Math.exp(-distances[n] / memoryLength);
+                        for (int from = 0; from < K; from++) {
+                            for (int to = 0; to < K; to++) {
+                                // probability that from -> to transition occurred going from position n to n + 1
+                                final double pTransition = Math.exp(logTransitionPosteriors[from * K + to]);
+                                if (to != from ) {
+                                    transitionCountsByState[to] += pTransition;
+                                    pForget[n] += pTransition;
+                                } else {
+                                    // Bayes' Rule gives the probability that the state was forgotten given that toState == fromState
+                                    final double pForgetAndTransition = pTransition * (priorPForget * getWeight(to) / ((1-priorPForget) + priorPForget * getWeight(to)));
+                                    transitionCountsByState[to] += pForgetAndTransition;
+                                    pForget[n] += pForgetAndTransition;
+                                }
+                            }
+                        }
+                    });
         }
 
         public double pForget(final int position) { return pForget[position]; }
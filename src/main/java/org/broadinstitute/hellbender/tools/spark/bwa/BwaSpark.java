@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.spark.bwa;
 
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.BetaFeature;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
@@ -29,6 +30,7 @@ public final class BwaSpark extends GATKSparkTool {
     public static final String SINGLE_END_ALIGNMENT_SHORT_NAME = "SE";
     public static final String BWA_MEM_INDEX_IMAGE_FULL_NAME = "bwaMemIndexImage";
     public static final String BWA_MEM_INDEX_IMAGE_SHORT_NAME = "image";
+    public static final String BATCH_SIZE_IN_BASES_FULL_NAME = "batchSizeInBases";
 
     @Argument(doc = "the output bam",
             shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
@@ -47,6 +49,12 @@ public final class BwaSpark extends GATKSparkTool {
               optional = true)
     private boolean singleEndAlignment = false;
 
+    @Advanced
+    @Argument(doc = "approximate number of bases aligned together by each call into BWA; the reads of each partition are aligned in batches of this size, which bounds the memory used on the executors",
+              fullName = BATCH_SIZE_IN_BASES_FULL_NAME,
+              optional = true)
+    private long batchSizeInBases = BwaSparkEngine.DEFAULT_BATCH_SIZE_IN_BASES;
+
     @Override
     public boolean requiresReference() {
         return true;
@@ -60,7 +68,7 @@ public final class BwaSpark extends GATKSparkTool {
     @Override
     protected void runTool(final JavaSparkContext ctx) {
         try ( final BwaSparkEngine engine =
-                      new BwaSparkEngine(ctx, referenceArguments.getReferenceFileName(), indexImageFile, getHeaderForReads(), getReferenceSequenceDictionary()) ) {
+                      new BwaSparkEngine(ctx, referenceArguments.getReferenceFileName(), indexImageFile, getHeaderForReads(), getReferenceSequenceDictionary(), batchSizeInBases) ) {
             final JavaRDD<GATKRead> reads = !singleEndAlignment ? engine.alignPaired(getReads()) : engine.alignUnpaired(getReads());
 
             try {
@@ -1,9 +1,12 @@
 package org.broadinstitute.hellbender.tools.spark.bwa;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SAMSequenceDictionary;
 import org.apache.spark.SparkFiles;
+import org.apache.spark.TaskContext;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
@@ -15,6 +18,10 @@ import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The BwaSparkEngine provides a simple interface for transforming a JavaRDD<GATKRead> in which the reads are paired
@@ -29,10 +36,18 @@ import java.util.*;
  */
 public final class BwaSparkEngine implements AutoCloseable {
     private static final String REFERENCE_INDEX_IMAGE_FILE_SUFFIX = ".img";
+
+    /**
+     * Default number of bases aligned together by a call into BWA, the same as the per-thread default of bwa mem.
+     * The insert size distribution used for pairing is estimated separately for each such batch.
+     */
+    public static final long DEFAULT_BATCH_SIZE_IN_BASES = 10_000_000L;
+
     private final JavaSparkContext ctx;
     private final String indexFileName;
     private final boolean resolveIndexFileName;
     private final Broadcast<SAMFileHeader> broadcastHeader;
+    private final long batchSizeInBases;
 
     /**
      * @param ctx           the Spark context
@@ -45,14 +60,39 @@ public final class BwaSparkEngine implements AutoCloseable {
     public BwaSparkEngine(final JavaSparkContext ctx,
                           final String referenceFile,
                           final String indexFileName,
-                          SAMFileHeader inputHeader,
+                          final SAMFileHeader inputHeader,
                           final SAMSequenceDictionary refDictionary) {
+        this(ctx, referenceFile, indexFileName, inputHeader, refDictionary, DEFAULT_BATCH_SIZE_IN_BASES);
+    }
+
+    /**
+     * @param ctx           the Spark context
+     * @param referenceFile the path to the reference file named <i>_prefix_.fa</i>, which is used to find the image file with name <i>_prefix_.fa.img</i>.
+     *                      Can be <code>null</code> if the indexFileName is provided.
+     * @param indexFileName the index image file name that already exists, or <code>null</code> to have the image file automatically distributed.
+     *                      An existing image should be on node-local disk at the same path on every executor, so that
+     *                      the executors on a node share one copy of it in memory. It is loaded by every executor here.
+     * @param inputHeader   the SAM file header to use for reads
+     * @param refDictionary the sequence dictionary to use for reads if the SAM file header doesn't have one (or it's empty)
+     * @param batchSizeInBases the approximate number of bases to align at once; each partition is aligned in batches
+     *                         of this size, so this bounds the memory used by the aligner on each executor
+     */
+    public BwaSparkEngine(final JavaSparkContext ctx,
+                          final String referenceFile,
+                          final String indexFileName,
+                          SAMFileHeader inputHeader,
+                          final SAMSequenceDictionary refDictionary,
+                          final long batchSizeInBases) {
         Utils.nonNull(referenceFile);
         Utils.nonNull(inputHeader);
+        Utils.validateArg(batchSizeInBases > 0, "batchSizeInBases must be positive");
         this.ctx = ctx;
+        this.batchSizeInBases = batchSizeInBases;
         if (indexFileName != null) {
             this.indexFileName = indexFileName;
             this.resolveIndexFileName = false;
+            // load the image, which is shared through the page cache, on every executor before any reads arrive
+            BwaMemIndexCache.openAllDistributedInstances(ctx, indexFileName);
         } else {
             String indexFile = referenceFile + REFERENCE_INDEX_IMAGE_FILE_SUFFIX;
             ctx.addFile(indexFile); // distribute index file to all executors
@@ -99,8 +139,9 @@ public final class BwaSparkEngine implements AutoCloseable {
         final Broadcast<SAMFileHeader> broadcastHeader = this.broadcastHeader;
         final String indexFileName = this.indexFileName;
         final boolean resolveIndexFileName = this.resolveIndexFileName;
+        final long batchSizeInBases = this.batchSizeInBases;
         return unalignedReads.mapPartitions(itr ->
-                new ReadAligner(resolveIndexFileName ? SparkFiles.get(indexFileName) : indexFileName, broadcastHeader.value(), pairedAlignment).apply(itr));
+                new ReadAligner(resolveIndexFileName ? SparkFiles.get(indexFileName) : indexFileName, broadcastHeader.value(), pairedAlignment, batchSizeInBases).apply(itr));
     }
 
     @Override
@@ -109,64 +150,163 @@ public final class BwaSparkEngine implements AutoCloseable {
         BwaMemIndexCache.closeAllDistributedInstances(ctx);
     }
 
+    /**
+     * Pulls reads from the input until they add up to at least {@code batchSizeInBases} bases, ending on a whole pair
+     * if we're aligning pairs.
+     *
+     * @return the reads of the batch, which is empty only when the input is exhausted
+     */
+    @VisibleForTesting
+    static List<GATKRead> readBatch( final Iterator<GATKRead> readItr, final long batchSizeInBases, final boolean alignsPairs ) {
+        final List<GATKRead> batch = new ArrayList<>();
+        long nBases = 0;
+        while ( readItr.hasNext() && (nBases < batchSizeInBases || (alignsPairs && (batch.size() & 1) != 0)) ) {
+            final GATKRead read = readItr.next();
+            nBases += read.getLength();
+            batch.add(read);
+        }
+        if ( alignsPairs && (batch.size() & 1) != 0 ) {
+            throw new GATKException("We're supposed to be aligning paired reads, but there are an odd number of them.");
+        }
+        return batch;
+    }
+
+    /**
+     * Aligns the reads of a partition in batches of about {@code batchSizeInBases} bases, as they are pulled from the
+     * input, so that memory use doesn't depend on the size of the partition. Each batch is aligned on a background
+     * thread while the next one is read, and the aligned reads of a batch are handed out while the next one is aligned.
+     * When aligning pairs, batches always hold whole pairs.
+     */
     private static final class ReadAligner {
         private final BwaMemIndex bwaMemIndex;
         private final SAMFileHeader readsHeader;
         private final boolean alignsPairs;
+        private final long batchSizeInBases;
 
-        // assumes 128Mb partitions, with reads needing about 100bytes each when BAM compressed
-        private static final int READS_PER_PARTITION_GUESS = 1500000;
-
-        ReadAligner( final String indexFileName, final SAMFileHeader readsHeader, final boolean alignsPairs) {
+        ReadAligner( final String indexFileName, final SAMFileHeader readsHeader, final boolean alignsPairs, final long batchSizeInBases ) {
             this.bwaMemIndex = BwaMemIndexCache.getInstance(indexFileName);
             this.readsHeader = readsHeader;
             this.alignsPairs = alignsPairs;
+            this.batchSizeInBases = batchSizeInBases;
         }
 
         Iterator<GATKRead> apply( final Iterator<GATKRead> readItr ) {
-            final List<GATKRead> inputReads = new ArrayList<>(READS_PER_PARTITION_GUESS);
-            while ( readItr.hasNext() ) {
-                inputReads.add(readItr.next());
+            return new AlignedReadsIterator(readItr);
+        }
+
+        private final class AlignedReadsIterator implements Iterator<GATKRead> {
+            private final Iterator<GATKRead> readItr;
+            private final BwaMemAligner aligner;
+            private final List<String> refNames;
+            private ExecutorService alignmentExecutor;
+            private Future<List<GATKRead>> pendingBatch;
+            private Iterator<GATKRead> alignedReads = Collections.emptyIterator();
+
+            AlignedReadsIterator( final Iterator<GATKRead> readItr ) {
+                this.readItr = readItr;
+                this.aligner = new BwaMemAligner(bwaMemIndex);
+                // we are dealing with interleaved, paired reads.  tell BWA that they're paired.
+                if ( alignsPairs ) {
+                    aligner.alignPairs();
+                }
+                this.refNames = bwaMemIndex.getReferenceContigNames();
+                final List<GATKRead> firstBatch = readBatch();
+                if ( !firstBatch.isEmpty() ) {
+                    alignmentExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                            .setNameFormat("bwa-batch-aligner-%d")
+                            .setDaemon(true)
+                            .build());
+                    // Spark may stop pulling from this iterator before it's exhausted (e.g., for take() or when the
+                    // task fails), so make sure the aligner thread goes away with the task
+                    final TaskContext taskContext = TaskContext.get();
+                    if ( taskContext != null ) {
+                        final ExecutorService executor = alignmentExecutor;
+                        taskContext.addTaskCompletionListener(context -> { executor.shutdownNow(); });
+                    }
+                    pendingBatch = alignmentExecutor.submit(() -> alignBatch(firstBatch));
+                }
             }
-            final int nReads = inputReads.size();
-            if (alignsPairs && (nReads & 1) != 0 ) {
-                throw new GATKException("We're supposed to be aligning paired reads, but there are an odd number of them.");
+
+            @Override
+            public boolean hasNext() {
+                while ( !alignedReads.hasNext() && pendingBatch != null ) {
+                    // read the next batch while the pending one is being aligned
+                    final List<GATKRead> nextBatch = readBatch();
+                    final List<GATKRead> batchResult = getAlignedBatch();
+                    if ( nextBatch.isEmpty() ) {
+                        pendingBatch = null;
+                        alignmentExecutor.shutdown();
+                    } else {
+                        pendingBatch = alignmentExecutor.submit(() -> alignBatch(nextBatch));
+                    }
+                    alignedReads = batchResult.iterator();
+                }
+                return alignedReads.hasNext();
             }
-            final List<List<BwaMemAlignment>> allAlignments;
-            if ( nReads == 0 ) allAlignments = Collections.emptyList();
-            else {
-                final List<byte[]> seqs = new ArrayList<>(nReads);
-                for (final GATKRead read : inputReads) {
-                    seqs.add(read.getBases());
+
+            @Override
+            public GATKRead next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException("No more aligned reads in this partition");
                 }
-                final BwaMemAligner aligner = new BwaMemAligner(bwaMemIndex);
-                // we are dealing with interleaved, paired reads.  tell BWA that they're paired.
-                if (alignsPairs) {
-                    aligner.alignPairs();
+                return alignedReads.next();
+            }
+
+            private List<GATKRead> readBatch() {
+                try {
+                    return BwaSparkEngine.readBatch(readItr, batchSizeInBases, alignsPairs);
+                } catch ( final GATKException e ) {
+                    if ( alignmentExecutor != null ) {
+                        alignmentExecutor.shutdownNow();
+                    }
+                    throw e;
                 }
-                allAlignments = aligner.alignSeqs(seqs);
             }
-            final List<String> refNames = bwaMemIndex.getReferenceContigNames();
-            final List<GATKRead> outputReads = new ArrayList<>(allAlignments.stream().mapToInt(List::size).sum());
-            for ( int idx = 0; idx != nReads; ++idx ) {
-                final GATKRead originalRead = inputReads.get(idx);
-                final String readName = originalRead.getName();
-                final byte[] bases = originalRead.getBases();
-                final byte[] quals = originalRead.getBaseQualities();
-                final String readGroup = originalRead.getReadGroup();
-                final List<BwaMemAlignment> alignments = allAlignments.get(idx);
-                final Map<BwaMemAlignment,String> saTagMap = BwaMemAlignmentUtils.createSATags(alignments,refNames);
-                for ( final BwaMemAlignment alignment : alignments ) {
-                    final SAMRecord samRecord =
-                            BwaMemAlignmentUtils.applyAlignment(readName, bases, quals, readGroup,
-                                                                alignment, refNames, readsHeader, false, true);
-                    final GATKRead rec = SAMRecordToGATKReadAdapter.headerlessReadAdapter(samRecord);
-                    final String saTag = saTagMap.get(alignment);
-                    if ( saTag != null ) rec.setAttribute("SA", saTag);
-                    outputReads.add(rec);
+
+            private List<GATKRead> getAlignedBatch() {
+                try {
+                    return pendingBatch.get();
+                } catch ( final ExecutionException e ) {
+                    alignmentExecutor.shutdownNow();
+                    if ( e.getCause() instanceof RuntimeException ) {
+                        throw (RuntimeException)e.getCause();
+                    }
+                    throw new GATKException("Failed to align a batch of reads", e.getCause());
+                } catch ( final InterruptedException e ) {
+                    alignmentExecutor.shutdownNow();
+                    Thread.currentThread().interrupt();
+                    throw new GATKException("Interrupted while aligning a batch of reads", e);
+                }
+            }
+
+            private List<GATKRead> alignBatch( final List<GATKRead> inputReads ) {
+                final int nReads = inputReads.size();
+                final List<byte[]> seqs = new ArrayList<>(nReads);
+                for ( final GATKRead read : inputReads ) {
+                    seqs.add(read.getBases());
+                }
+                final List<List<BwaMemAlignment>> allAlignments = aligner.alignSeqs(seqs);
+                final List<GATKRead> outputReads = new ArrayList<>(allAlignments.stream().mapToInt(List::size).sum());
+                for ( int idx = 0; idx != nReads; ++idx ) {
+                    final GATKRead originalRead = inputReads.get(idx);
+                    final String readName = originalRead.getName();
+                    final byte[] bases = originalRead.getBases();
+                    final byte[] quals = originalRead.getBaseQualities();
+                    final String readGroup = originalRead.getReadGroup();
+                    final List<BwaMemAlignment> alignments = allAlignments.get(idx);
+                    final Map<BwaMemAlignment,String> saTagMap = BwaMemAlignmentUtils.createSATags(alignments,refNames);
+                    for ( final BwaMemAlignment alignment : alignments ) {
+                        final SAMRecord samRecord =
+                                BwaMemAlignmentUtils.applyAlignment(readName, bases, quals, readGroup,
+                                                                    alignment, refNames, readsHeader, false, true);
+                        final GATKRead rec = SAMRecordToGATKReadAdapter.headerlessReadAdapter(samRecord);
+                        final String saTag = saTagMap.get(alignment);
+                        if ( saTag != null ) rec.setAttribute("SA", saTag);
+                        outputReads.add(rec);
+                    }
                 }
+                return outputReads;
             }
-            return outputReads.iterator();
         }
     }
 }
@@ -40,4 +40,11 @@ public final class PSBwaArgumentCollection implements Serializable {
             optional = true)
     public int scoreThreshold = 30;
 
+    @Argument(doc = "Maximum number of BWA images (e.g. host and pathogen) that each executor keeps loaded while no task is using them. " +
+            "The least recently used ones are closed first. Lower it when the images don't fit in executor memory together.",
+            fullName = "maxIdleBwaImages",
+            minValue = 0,
+            optional = true)
+    public int maxIdleImages = Integer.MAX_VALUE;
+
 }
\ No newline at end of file
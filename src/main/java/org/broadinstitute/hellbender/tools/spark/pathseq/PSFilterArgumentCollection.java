@@ -18,7 +18,8 @@ public final class PSFilterArgumentCollection implements Serializable {
             fullName = "isHostAligned",
             optional = true)
     public boolean alignedInput = false;
-    @Argument(doc = "Path to host kmer library generated with PathSeqBuildKmers. Skipped if not specified.",
+    @Argument(doc = "Path to host kmer library generated with PathSeqBuildKmers. Skipped if not specified. A sorted " +
+            "kmer table (" + PSKmerUtils.SORTED_TABLE_EXTENSION + ") must be at this path on the local disk of every executor.",
             fullName = "kmerLibraryPath",
             optional = true)
     public String kmerLibPath = null;
@@ -0,0 +1,316 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.PriorityQueue;
+
+/**
+ * Kmer set that is memory-mapped from a file rather than deserialized, so that loading it takes no time and its pages
+ * are shared by all the tasks (and processes) on a machine.
+ *
+ * The file holds the sorted, distinct masked kmers, a directory of where each range of kmer values starts in the sorted
+ * array, and a blocked Bloom filter. Each Bloom filter block is one 64-byte cache line, so a lookup of a kmer that isn't
+ * in the set usually costs a single cache miss; a kmer that passes the Bloom filter is looked up exactly with a binary
+ * search within its (small) directory range.
+ *
+ * File layout (big-endian): a header of {@link #HEADER_LENGTH} bytes holding the magic number, kmer size, directory bits,
+ * kmer mask, number of kmers, Bloom filter blocks (log2) and Bloom filter hashes; then the kmers; then the directory
+ * (2^directoryBits + 1 offsets into the kmers); then the Bloom filter blocks.
+ */
+public final class PSKmerSortedTable extends PSKmerCollection {
+
+    static final long MAGIC = 0x50534b4d45525442L; // "PSKMERTB"
+    static final int HEADER_LENGTH = 40;
+
+    private static final int BLOOM_BLOCK_LONGS = 8; // 512 bits, one cache line
+    private static final int BLOOM_BLOCK_BITS_LOG2 = 9;
+    private static final int BLOOM_BITS_PER_KMER = 12;
+    private static final int BLOOM_HASHES = 6;
+    private static final int MAX_BLOOM_BLOCKS_LOG2 = 27;
+    private static final int KMERS_PER_DIRECTORY_ENTRY = 8;
+    private static final int MAX_DIRECTORY_BITS = 26;
+
+    private final int kmerSize;
+    private final SVKmerShort kmerMask;
+    private final long numKmers;
+    private final int directoryShift;
+    private final int bloomBlocksLog2;
+    private final int bloomHashes;
+    private final MappedLongs kmers;
+    private final MappedLongs directory;
+    private final MappedLongs bloomFilter;
+
+    private PSKmerSortedTable(final File file) {
+        try (final RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            final FileChannel channel = input.getChannel();
+            if (channel.size() < HEADER_LENGTH) {
+                throw new UserException.BadInput("File " + file + " is not a kmer table");
+            }
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_LENGTH).order(ByteOrder.BIG_ENDIAN);
+            if (header.getLong() != MAGIC) {
+                throw new UserException.BadInput("File " + file + " is not a kmer table");
+            }
+            kmerSize = header.getInt();
+            final int directoryBits = header.getInt();
+            kmerMask = new SVKmerShort(header.getLong());
+            numKmers = header.getLong();
+            bloomBlocksLog2 = header.getInt();
+            bloomHashes = header.getInt();
+            directoryShift = 2 * kmerSize - directoryBits;
+
+            final long directoryLength = (1L << directoryBits) + 1;
+            final long bloomFilterLength = (long) BLOOM_BLOCK_LONGS << bloomBlocksLog2;
+            final long expectedFileLength = HEADER_LENGTH + 8 * (numKmers + directoryLength + bloomFilterLength);
+            if (channel.size() != expectedFileLength) {
+                throw new UserException.BadInput("Kmer table " + file + " is truncated or corrupt: expected " +
+                        expectedFileLength + " bytes but found " + channel.size());
+            }
+            long offset = HEADER_LENGTH;
+            kmers = new MappedLongs(channel, offset, numKmers);
+            offset += 8 * numKmers;
+            directory = new MappedLongs(channel, offset, directoryLength);
+            offset += 8 * directoryLength;
+            bloomFilter = new MappedLongs(channel, offset, bloomFilterLength);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(file, e);
+        }
+    }
+
+    /**
+     * Memory-maps a table written by {@link #write}. The file must be on a local file system.
+     */
+    public static PSKmerSortedTable open(final String path) {
+        Utils.nonNull(path);
+        return new PSKmerSortedTable(new File(path));
+    }
+
+    /**
+     * Input should not be canonicalized/masked
+     */
+    @Override
+    public boolean contains(final SVKmerShort rawKmer) {
+        final long kmer = canonicalizeAndMask(rawKmer, kmerSize, kmerMask);
+        if (!bloomFilterContains(kmer)) {
+            return false;
+        }
+        final int bucket = (int) (kmer >>> directoryShift);
+        long low = directory.get(bucket);
+        long high = directory.get(bucket + 1) - 1;
+        while (low <= high) {
+            final long mid = (low + high) >>> 1;
+            final long midKmer = kmers.get(mid);
+            if (midKmer < kmer) {
+                low = mid + 1;
+            } else if (midKmer > kmer) {
+                high = mid - 1;
+            } else {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean bloomFilterContains(final long kmer) {
+        final long hash = mix(kmer);
+        final long blockStart = bloomBlocksLog2 == 0 ? 0 : (hash >>> (Long.SIZE - bloomBlocksLog2)) * BLOOM_BLOCK_LONGS;
+        long bitHash = mix(hash);
+        for (int i = 0; i < bloomHashes; i++) {
+            final int bit = (int) bitHash & ((1 << BLOOM_BLOCK_BITS_LOG2) - 1);
+            if ((bloomFilter.get(blockStart + (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+            bitHash >>>= BLOOM_BLOCK_BITS_LOG2;
+        }
+        return true;
+    }
+
+    @Override
+    public int kmerSize() {
+        return kmerSize;
+    }
+
+    @Override
+    public SVKmerShort getMask() {
+        return kmerMask;
+    }
+
+    /**
+     * The Bloom filter only speeds up rejecting kmers; membership is exact.
+     */
+    @Override
+    public double getFalsePositiveProbability() {
+        return 0;
+    }
+
+    public long setSize() {
+        return numKmers;
+    }
+
+    /**
+     * Writes a table of the given kmers, which should have been run through PSKmerCollection's canonicalizeAndMask().
+     * Duplicates are allowed. Note that the arrays are sorted in place.
+     */
+    public static void write(final Collection<long[]> maskedKmers, final int kmerSize, final SVKmerShort kmerMask,
+                             final OutputStream outputStream) throws IOException {
+        Utils.nonNull(maskedKmers);
+        Utils.nonNull(kmerMask);
+        Utils.nonNull(outputStream);
+        Utils.validateArg(kmerSize > 0 && kmerSize < 32, "kmer size must be between 1 and 31");
+
+        for (final long[] array : maskedKmers) {
+            Arrays.parallelSort(array);
+        }
+        long numKmers = 0;
+        for (final SortedKmerMerger merger = new SortedKmerMerger(maskedKmers); merger.hasNext(); merger.next()) {
+            numKmers++;
+        }
+
+        final int directoryBits = Math.min(Math.min(MAX_DIRECTORY_BITS, 2 * kmerSize),
+                Math.max(1, ceilLog2(numKmers / KMERS_PER_DIRECTORY_ENTRY)));
+        final int directoryShift = 2 * kmerSize - directoryBits;
+        final int bloomBlocksLog2 = Math.min(MAX_BLOOM_BLOCKS_LOG2,
+                ceilLog2(numKmers * BLOOM_BITS_PER_KMER >>> BLOOM_BLOCK_BITS_LOG2));
+        final long[] directory = new long[(1 << directoryBits) + 1];
+        final long[] bloomFilter = new long[BLOOM_BLOCK_LONGS << bloomBlocksLog2];
+
+        final DataOutputStream output = new DataOutputStream(outputStream);
+        output.writeLong(MAGIC);
+        output.writeInt(kmerSize);
+        output.writeInt(directoryBits);
+        output.writeLong(kmerMask.getLong());
+        output.writeLong(numKmers);
+        output.writeInt(bloomBlocksLog2);
+        output.writeInt(BLOOM_HASHES);
+
+        // write the kmers, counting the kmers in each directory bucket and filling the Bloom filter as we go
+        for (final SortedKmerMerger merger = new SortedKmerMerger(maskedKmers); merger.hasNext(); ) {
+            final long kmer = merger.next();
+            if (kmer >>> directoryShift >= (1L << directoryBits)) {
+                throw new IllegalArgumentException("kmer value " + kmer + " has more than " + 2 * kmerSize + " bits");
+            }
+            output.writeLong(kmer);
+            directory[(int) (kmer >>> directoryShift) + 1]++;
+            final long hash = mix(kmer);
+            final int blockStart = bloomBlocksLog2 == 0 ? 0 : (int) (hash >>> (Long.SIZE - bloomBlocksLog2)) * BLOOM_BLOCK_LONGS;
+            long bitHash = mix(hash);
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                final int bit = (int) bitHash & ((1 << BLOOM_BLOCK_BITS_LOG2) - 1);
+                bloomFilter[blockStart + (bit >>> 6)] |= 1L << bit;
+                bitHash >>>= BLOOM_BLOCK_BITS_LOG2;
+            }
+        }
+        for (int i = 1; i < directory.length; i++) {
+            directory[i] += directory[i - 1];
+        }
+        for (final long offset : directory) {
+            output.writeLong(offset);
+        }
+        for (final long word : bloomFilter) {
+            output.writeLong(word);
+        }
+        output.flush();
+    }
+
+    private static int ceilLog2(final long value) {
+        return value <= 1 ? 0 : Long.SIZE - Long.numberOfLeadingZeros(value - 1);
+    }
+
+    // 64-bit finalizer of MurmurHash3
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /**
+     * Iterates over the distinct values of a collection of sorted arrays in ascending order.
+     */
+    private static final class SortedKmerMerger {
+        private final PriorityQueue<long[]> heads; // {value, array index, position}
+        private final long[][] arrays;
+        private boolean hasLast = false;
+        private long last;
+
+        SortedKmerMerger(final Collection<long[]> sortedArrays) {
+            arrays = sortedArrays.toArray(new long[sortedArrays.size()][]);
+            heads = new PriorityQueue<>(Math.max(1, arrays.length), (a, b) -> Long.compare(a[0], b[0]));
+            for (int i = 0; i < arrays.length; i++) {
+                if (arrays[i].length > 0) {
+                    heads.add(new long[]{arrays[i][0], i, 0});
+                }
+            }
+            skipDuplicates();
+        }
+
+        boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        long next() {
+            final long[] head = heads.poll();
+            last = head[0];
+            hasLast = true;
+            advance(head);
+            skipDuplicates();
+            return last;
+        }
+
+        private void skipDuplicates() {
+            while (hasLast && !heads.isEmpty() && heads.peek()[0] == last) {
+                advance(heads.poll());
+            }
+        }
+
+        private void advance(final long[] head) {
+            final long[] array = arrays[(int) head[1]];
+            int position = (int) head[2] + 1;
+            while (position < array.length && array[position] == head[0]) {
+                position++;
+            }
+            if (position < array.length) {
+                head[0] = array[position];
+                head[2] = position;
+                heads.add(head);
+            }
+        }
+    }
+
+    /**
+     * Read-only view of a section of a file as an array of longs, which may have more than 2^31 elements.
+     */
+    private static final class MappedLongs {
+        private static final int CHUNK_LONGS_LOG2 = 27; // 1 GiB per mapping
+        private static final long CHUNK_LONGS = 1L << CHUNK_LONGS_LOG2;
+
+        private final LongBuffer[] chunks;
+
+        MappedLongs(final FileChannel channel, final long offset, final long length) throws IOException {
+            chunks = new LongBuffer[(int) ((length + CHUNK_LONGS - 1) >>> CHUNK_LONGS_LOG2)];
+            for (int i = 0; i < chunks.length; i++) {
+                final long chunkLength = Math.min(CHUNK_LONGS, length - i * CHUNK_LONGS);
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + 8 * i * CHUNK_LONGS, 8 * chunkLength)
+                        .order(ByteOrder.BIG_ENDIAN).asLongBuffer();
+            }
+        }
+
+        long get(final long index) {
+            return chunks[(int) (index >>> CHUNK_LONGS_LOG2)].get((int) (index & (CHUNK_LONGS - 1)));
+        }
+    }
+}
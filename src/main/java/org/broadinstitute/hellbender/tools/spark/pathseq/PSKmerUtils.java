@@ -15,7 +15,9 @@ import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
@@ -27,6 +29,7 @@ public class PSKmerUtils {
 
     public static final String HOPSCOTCH_SET_EXTENSION = ".hss";
     public static final String BLOOM_FILTER_EXTENSION = ".bfi";
+    public static final String SORTED_TABLE_EXTENSION = ".kst";
     private static final Logger logger = LogManager.getLogger(PSKmerUtils.class);
 
     /**
@@ -127,7 +130,29 @@ public class PSKmerUtils {
         writeKryoObject(bloomFilter, filePath);
     }
 
+    /**
+     * Writes the kmers as a PSKmerSortedTable. Note that the arrays are sorted in place.
+     */
+    public static void writeKmerSortedTable(final String uri, final Collection<long[]> maskedKmers, final int kmerSize,
+                                            final SVKmerShort kmerMask) {
+        String filePath = uri;
+        if (!uri.toLowerCase().endsWith(SORTED_TABLE_EXTENSION.toLowerCase())) {
+            filePath = filePath + SORTED_TABLE_EXTENSION;
+        }
+        try (final OutputStream outputStream = new BufferedOutputStream(BucketUtils.createFile(filePath))) {
+            PSKmerSortedTable.write(maskedKmers, kmerSize, kmerMask, outputStream);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(filePath, "could not write kmer table", e);
+        }
+    }
+
+    /**
+     * Loads a kmer library. Sorted tables are memory-mapped, so they must be on a local file system.
+     */
     public static PSKmerCollection readKmerFilter(final String uri) {
+        if (uri.endsWith(SORTED_TABLE_EXTENSION)) {
+            return PSKmerSortedTable.open(uri);
+        }
         final Input input = new Input(BucketUtils.openFile(uri));
         final Kryo kryo = new Kryo();
         if (uri.endsWith(HOPSCOTCH_SET_EXTENSION)) {
@@ -3,12 +3,14 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Input;
 import htsjdk.samtools.*;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.storage.StorageLevel;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
 import org.broadinstitute.hellbender.utils.Utils;
@@ -30,11 +32,17 @@ public final class PSScorer {
     private static final Logger logger = LogManager.getLogger(PSScorer.class);
 
     private final PSScoreArgumentCollection scoreArgs;
+    private JavaRDD<?> scoredReads = null;
 
     public PSScorer(final PSScoreArgumentCollection scoreArgs) {
         this.scoreArgs = scoreArgs;
     }
 
+    /**
+     * Sets the pathseq hit tags of the reads and writes the taxonomic scores file. The reads are scored and tagged in
+     * a single pass over the input, and the tagged reads are persisted so that using the result doesn't repeat it.
+     * Call {@link #unpersistScoredReads} once the returned reads have been used.
+     */
     public JavaRDD<GATKRead> scoreReads(final JavaSparkContext ctx,
                                         final JavaRDD<GATKRead> pairedReads,
                                         final JavaRDD<GATKRead> unpairedReads,
@@ -53,22 +61,25 @@ public final class PSScorer {
             writeMissingReferenceAccessions(scoreArgs.headerWarningFile, header, taxDB, logger);
         }
 
-        //Determine which alignments are valid hits and return their tax IDs in PSPathogenAlignmentHit
-        //Also adds pathseq tags containing the hit IDs to the reads
-        final JavaRDD<Tuple2<Iterable<GATKRead>, PSPathogenAlignmentHit>> readHits = mapGroupedReadsToTax(groupedReads,
-                scoreArgs.minIdentity, scoreArgs.identityMargin, taxonomyDatabaseBroadcast);
+        //Determine which alignments are valid hits, add pathseq tags containing the hit IDs to the reads, and
+        // compute the taxonomic scores of each partition from the hits
+        final double minIdentity = scoreArgs.minIdentity; //To prevent serialization of PSScorer
+        final double identityMargin = scoreArgs.identityMargin;
+        final boolean divideByGenomeLength = scoreArgs.divideByGenomeLength;
+        final JavaRDD<Tuple2<GATKRead, Map<Integer, PSPathogenTaxonScore>>> scoredPartitions = groupedReads
+                .mapPartitions(iter -> scorePartition(iter, taxonomyDatabaseBroadcast.value(), minIdentity, identityMargin, divideByGenomeLength));
 
-        //Get the original reads, now with their pathseq hit tags set
-        final JavaRDD<GATKRead> readsFinal = flattenIterableKeys(readHits);
+        //Cache the tagged reads so that the scores and the reads come from the same traversal
+        scoredPartitions.persist(StorageLevel.MEMORY_AND_DISK_SER());
+        unpersistScoredReads();
+        scoredReads = scoredPartitions;
 
-        //Compute taxonomic scores from the alignment hits
-        final JavaRDD<PSPathogenAlignmentHit> alignmentHits = readHits.map(Tuple2::_2);
-        final boolean divideByGenomeLength = scoreArgs.divideByGenomeLength; //To prevent serialization of PSScorer
-        final JavaPairRDD<Integer, PSPathogenTaxonScore> taxScoresRdd = alignmentHits
-                .mapPartitionsToPair(iter -> computeTaxScores(iter, taxonomyDatabaseBroadcast.value(), divideByGenomeLength));
+        //Get the original reads, now with their pathseq hit tags set
+        final JavaRDD<GATKRead> readsFinal = scoredPartitions.filter(tuple -> tuple._1 != null).map(Tuple2::_1);
 
-        //Reduce scores by taxon and compute normalized scores
-        Map<Integer, PSPathogenTaxonScore> taxScoresMap = new HashMap<>(taxScoresRdd.reduceByKey(PSPathogenTaxonScore::add).collectAsMap());
+        //Sum scores by taxon and compute normalized scores
+        Map<Integer, PSPathogenTaxonScore> taxScoresMap = scoredPartitions.filter(tuple -> tuple._2 != null).map(Tuple2::_2)
+                .treeAggregate(new HashMap<>(), PSScorer::addTaxScores, PSScorer::addTaxScores);
         taxScoresMap = computeNormalizedScores(taxScoresMap, taxDB.tree, scoreArgs.notNormalizedByKingdom);
 
         //Write scores to file
@@ -77,6 +88,17 @@ public final class PSScorer {
         return readsFinal;
     }
 
+    /**
+     * Releases the cached reads of the last call to {@link #scoreReads}. Run this after invoking a Spark action on the
+     * reads it returned.
+     */
+    public void unpersistScoredReads() {
+        if (scoredReads != null) {
+            scoredReads.unpersist();
+            scoredReads = null;
+        }
+    }
+
     /**
      * Collects the second elements of all tuples in an RDD
      */
@@ -168,41 +190,87 @@ public final class PSScorer {
                                                                                             final double minIdentity,
                                                                                             final double identityMargin,
                                                                                             final Broadcast<PSTaxonomyDatabase> taxonomyDatabaseBroadcast) {
-        return pairs.map(readIter -> {
+        return pairs.map(readIter -> new Tuple2<>(readIter, getPairHits(readIter, taxonomyDatabaseBroadcast.value(), minIdentity, identityMargin)));
+    }
 
-            //Number of reads in the pair (1 for unpaired reads)
-            final int numReads = (int) Utils.stream(readIter).count();
+    /**
+     * Tags and scores the reads of a partition of read pairs in one pass, as in {@link #mapGroupedReadsToTax} followed by
+     * {@link #computeTaxScores}. Returns each read of the partition with {@code null} scores, followed by a single tuple
+     * of a {@code null} read and the partition's scores by taxonomic ID. The reads are tagged as they are pulled from
+     * the returned iterator, so the partition is never held in memory at once.
+     */
+    static Iterator<Tuple2<GATKRead, Map<Integer, PSPathogenTaxonScore>>> scorePartition(final Iterator<Iterable<GATKRead>> pairs,
+                                                                                         final PSTaxonomyDatabase taxonomyDatabase,
+                                                                                         final double minIdentity,
+                                                                                         final double identityMargin,
+                                                                                         final boolean divideByGenomeLength) {
+        final Int2ObjectMap<PSPathogenTaxonScore> taxIdsToScores = new Int2ObjectOpenHashMap<>();
+        final Set<Integer> invalidIds = new HashSet<>();
+        final Stream<Tuple2<GATKRead, Map<Integer, PSPathogenTaxonScore>>> taggedReads = Utils.stream(pairs)
+                .flatMap(readIter -> {
+                    final PSPathogenAlignmentHit hit = getPairHits(readIter, taxonomyDatabase, minIdentity, identityMargin);
+                    addHitScores(hit, taxonomyDatabase.tree, divideByGenomeLength, taxIdsToScores, invalidIds);
+                    return Utils.stream(readIter).map(read -> new Tuple2<>(read, null));
+                });
+        //The scores are complete once all the reads have been pulled
+        final Stream<Tuple2<GATKRead, Map<Integer, PSPathogenTaxonScore>>> partitionScores = Stream.generate(() -> {
+            logInvalidTaxIds(invalidIds);
+            //Boxed keys so that the scores can be serialized by Spark
+            return new Tuple2<GATKRead, Map<Integer, PSPathogenTaxonScore>>(null, new HashMap<>(taxIdsToScores));
+        }).limit(1);
+        return Stream.concat(taggedReads, partitionScores).iterator();
+    }
 
-            //Get tax IDs of all alignments in all reads that meet the coverage/identity criteria.
-            final Stream<Integer> taxIds = Utils.stream(readIter)
-                    .flatMap(read -> getValidHits(read, taxonomyDatabaseBroadcast.value(), minIdentity, identityMargin).stream());
+    /**
+     * Adds the scores in {@code other} to those in {@code scores} and returns {@code scores}
+     */
+    static Map<Integer, PSPathogenTaxonScore> addTaxScores(final Map<Integer, PSPathogenTaxonScore> scores,
+                                                          final Map<Integer, PSPathogenTaxonScore> other) {
+        for (final Map.Entry<Integer, PSPathogenTaxonScore> entry : other.entrySet()) {
+            scores.merge(entry.getKey(), entry.getValue(), PSPathogenTaxonScore::add);
+        }
+        return scores;
+    }
 
-            //Get list of tax IDs that are hits in all reads
-            final List<Integer> hitTaxIds;
-            if (numReads > 1) {
+    /**
+     * Helper for mapGroupedReadsToTax() and scorePartition() that gets the hits of a single read or pair and tags the reads
+     */
+    private static PSPathogenAlignmentHit getPairHits(final Iterable<GATKRead> readIter,
+                                                      final PSTaxonomyDatabase taxonomyDatabase,
+                                                      final double minIdentity,
+                                                      final double identityMargin) {
+        //Number of reads in the pair (1 for unpaired reads)
+        final int numReads = (int) Utils.stream(readIter).count();
 
-                //Group the flattened stream by tax id, e.g. 3453 -> {3453, 3453}, 938 -> {938}, etc., so that the
-                // length of the list is the number of reads with that tax ID. Then map the lists to list lengths.
-                final Map<Integer, Long> taxIdCounts = taxIds.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
+        //Get tax IDs of all alignments in all reads that meet the coverage/identity criteria.
+        final Stream<Integer> taxIds = Utils.stream(readIter)
+                .flatMap(read -> getValidHits(read, taxonomyDatabase, minIdentity, identityMargin).stream());
 
-                //Filter hits that didn't occur in all reads
-                hitTaxIds = taxIdCounts.entrySet().stream().map(entry -> entry.getValue() == numReads ? entry.getKey() : null)
-                        .filter(Objects::nonNull).collect(Collectors.toList());
+        //Get list of tax IDs that are hits in all reads
+        final List<Integer> hitTaxIds;
+        if (numReads > 1) {
 
-            } else {
-                //Unpaired reads
-                hitTaxIds = taxIds.collect(Collectors.toList());
-            }
+            //Group the flattened stream by tax id, e.g. 3453 -> {3453, 3453}, 938 -> {938}, etc., so that the
+            // length of the list is the number of reads with that tax ID. Then map the lists to list lengths.
+            final Map<Integer, Long> taxIdCounts = taxIds.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
 
-            final PSPathogenAlignmentHit info = new PSPathogenAlignmentHit(hitTaxIds, numReads);
+            //Filter hits that didn't occur in all reads
+            hitTaxIds = taxIdCounts.entrySet().stream().map(entry -> entry.getValue() == numReads ? entry.getKey() : null)
+                    .filter(Objects::nonNull).collect(Collectors.toList());
 
-            //If there was at least one hit, append a tag to each read with the list of hits
-            if (hitTaxIds.size() > 0) {
-                final String hitString = String.join(",", hitTaxIds.stream().map(String::valueOf).collect(Collectors.toList()));
-                Utils.stream(readIter).forEach(read -> read.setAttribute(HITS_TAG, hitString));
-            }
-            return new Tuple2<>(readIter, info);
-        });
+        } else {
+            //Unpaired reads
+            hitTaxIds = taxIds.collect(Collectors.toList());
+        }
+
+        final PSPathogenAlignmentHit info = new PSPathogenAlignmentHit(hitTaxIds, numReads);
+
+        //If there was at least one hit, append a tag to each read with the list of hits
+        if (hitTaxIds.size() > 0) {
+            final String hitString = String.join(",", hitTaxIds.stream().map(String::valueOf).collect(Collectors.toList()));
+            Utils.stream(readIter).forEach(read -> read.setAttribute(HITS_TAG, hitString));
+        }
+        return info;
     }
 
 
@@ -283,58 +351,67 @@ public final class PSScorer {
     public static Iterator<Tuple2<Integer, PSPathogenTaxonScore>> computeTaxScores(final Iterator<PSPathogenAlignmentHit> taxonHits,
                                                                                   final PSTaxonomyDatabase taxonomyDatabase,
                                                                                   final boolean divideByGenomeLength) {
-        final PSTree tree = taxonomyDatabase.tree;
-        final Map<Integer, PSPathogenTaxonScore> taxIdsToScores = new HashMap<>();
+        final Int2ObjectMap<PSPathogenTaxonScore> taxIdsToScores = new Int2ObjectOpenHashMap<>();
         final Set<Integer> invalidIds = new HashSet<>();
         while (taxonHits.hasNext()) {
-            final PSPathogenAlignmentHit hit = taxonHits.next();
-            final Set<Integer> hitTaxIds = new HashSet<>(hit.taxIDs);
-            final Set<Integer> hitInvalidTaxIds = new HashSet<>(SVUtils.hashMapCapacity(hitTaxIds.size()));
-            for (final int taxId : hitTaxIds) {
-                if (!tree.hasNode(taxId) || tree.getLengthOf(taxId) == 0) hitInvalidTaxIds.add(taxId);
-            }
-            hitTaxIds.removeAll(hitInvalidTaxIds);
-            invalidIds.addAll(hitInvalidTaxIds);
-
-            //Number of genomes hit by this read and number of mates in the tuple (1 for single, 2 for pair)
-            final int numHits = hitTaxIds.size();
-            if (numHits == 0) continue;
-
-            //Unambiguous read scores for the lowest common ancestor and its ancestors
-            final int lowestCommonAncestor = tree.getLCA(hitTaxIds);
-            final List<Integer> lcaPath = tree.getPathOf(lowestCommonAncestor);
-            for (final int taxId : lcaPath) {
-                getOrAddScoreInfo(taxId, taxIdsToScores, tree).addUnambiguousReads(hit.numMates);
-            }
+            addHitScores(taxonHits.next(), taxonomyDatabase.tree, divideByGenomeLength, taxIdsToScores, invalidIds);
+        }
+        logInvalidTaxIds(invalidIds);
+        return taxIdsToScores.int2ObjectEntrySet().stream().map(entry -> new Tuple2<>(entry.getIntKey(), entry.getValue())).iterator();
+    }
 
-            //Scores normalized by genome length and degree of ambiguity (number of hits)
-            final Set<Integer> hitPathNodes = new HashSet<>(); //Set of all unique hits and ancestors
-            for (final int taxId : hitTaxIds) {
-                double score = hit.numMates / (double) numHits;
-                if (divideByGenomeLength) score *= SCORE_GENOME_LENGTH_UNITS / tree.getLengthOf(taxId);
-                //Get list containing this node and its ancestors
-                final List<Integer> path = tree.getPathOf(taxId);
-                hitPathNodes.addAll(path);
-                for (final int pathTaxId : path) {
-                    final PSPathogenTaxonScore info = getOrAddScoreInfo(pathTaxId, taxIdsToScores, tree);
-                    if (pathTaxId == taxId) {
-                        info.addSelfScore(score);
-                    } else {
-                        info.addDescendentScore(score);
-                    }
-                    taxIdsToScores.put(pathTaxId, info);
+    /**
+     * Adds the scores of one read or pair to taxIdsToScores, and collects the hits missing from the tree in invalidIds
+     */
+    private static void addHitScores(final PSPathogenAlignmentHit hit, final PSTree tree, final boolean divideByGenomeLength,
+                                     final Int2ObjectMap<PSPathogenTaxonScore> taxIdsToScores, final Set<Integer> invalidIds) {
+        final Set<Integer> hitTaxIds = new HashSet<>(hit.taxIDs);
+        final Set<Integer> hitInvalidTaxIds = new HashSet<>(SVUtils.hashMapCapacity(hitTaxIds.size()));
+        for (final int taxId : hitTaxIds) {
+            if (!tree.hasNode(taxId) || tree.getLengthOf(taxId) == 0) hitInvalidTaxIds.add(taxId);
+        }
+        hitTaxIds.removeAll(hitInvalidTaxIds);
+        invalidIds.addAll(hitInvalidTaxIds);
+
+        //Number of genomes hit by this read and number of mates in the tuple (1 for single, 2 for pair)
+        final int numHits = hitTaxIds.size();
+        if (numHits == 0) return;
+
+        //Unambiguous read scores for the lowest common ancestor and its ancestors
+        final int lowestCommonAncestor = tree.getLCA(hitTaxIds);
+        final List<Integer> lcaPath = tree.getPathOf(lowestCommonAncestor);
+        for (final int taxId : lcaPath) {
+            getOrAddScoreInfo(taxId, taxIdsToScores, tree).addUnambiguousReads(hit.numMates);
+        }
+
+        //Scores normalized by genome length and degree of ambiguity (number of hits)
+        final Set<Integer> hitPathNodes = new HashSet<>(); //Set of all unique hits and ancestors
+        for (final int taxId : hitTaxIds) {
+            double score = hit.numMates / (double) numHits;
+            if (divideByGenomeLength) score *= SCORE_GENOME_LENGTH_UNITS / tree.getLengthOf(taxId);
+            //Get list containing this node and its ancestors
+            final List<Integer> path = tree.getPathOf(taxId);
+            hitPathNodes.addAll(path);
+            for (final int pathTaxId : path) {
+                final PSPathogenTaxonScore info = getOrAddScoreInfo(pathTaxId, taxIdsToScores, tree);
+                if (pathTaxId == taxId) {
+                    info.addSelfScore(score);
+                } else {
+                    info.addDescendentScore(score);
                 }
             }
+        }
 
-            //"reads" score is the number of reads that COULD belong to each node i.e. an upper-bound
-            for (final int taxId : hitPathNodes) {
-                getOrAddScoreInfo(taxId, taxIdsToScores, tree).addTotalReads(hit.numMates);
-            }
+        //"reads" score is the number of reads that COULD belong to each node i.e. an upper-bound
+        for (final int taxId : hitPathNodes) {
+            getOrAddScoreInfo(taxId, taxIdsToScores, tree).addTotalReads(hit.numMates);
         }
+    }
+
+    private static void logInvalidTaxIds(final Set<Integer> invalidIds) {
         PSUtils.logItemizedWarning(logger, invalidIds, "The following taxonomic ID hits were ignored because " +
                 "they either could not be found in the tree or had a reference length of 0 (this may happen when " +
                 "the catalog file, taxdump file, and/or pathogen reference are inconsistent)");
-        return taxIdsToScores.entrySet().stream().map(entry -> new Tuple2<>(entry.getKey(), entry.getValue())).iterator();
     }
 
     /**
@@ -402,12 +479,10 @@ public final class PSScorer {
      * Helper function for handling PSPathogenTaxonScore retrieval from the taxScores map
      */
     private static PSPathogenTaxonScore getOrAddScoreInfo(final int taxId,
-                                                          final Map<Integer, PSPathogenTaxonScore> taxScores,
+                                                          final Int2ObjectMap<PSPathogenTaxonScore> taxScores,
                                                           final PSTree tree) {
-        final PSPathogenTaxonScore score;
-        if (taxScores.containsKey(taxId)) {
-            score = taxScores.get(taxId);
-        } else {
+        PSPathogenTaxonScore score = taxScores.get(taxId);
+        if (score == null) {
             score = new PSPathogenTaxonScore();
             score.setReferenceLength(tree.getLengthOf(taxId));
             taxScores.put(taxId, score);
@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.BetaFeature;
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
@@ -22,7 +23,9 @@ import java.util.Collection;
         "PathSeqFilterSpark tool. By default, it builds a hash set of k-mers. If --bloomFalsePositiveProbability is " +
         "specified and greater than zero, it will build a Bloom filter of the k-mers. Bloom filters are smaller and " +
         "faster than hash sets, but cause some non-host reads to be incorrectly filtered. For --bloomFalsePositiveProbability " +
-        "<= 0.001, the fraction of lost non-host reads is typically < 1% using the default filter tool settings.",
+        "<= 0.001, the fraction of lost non-host reads is typically < 1% using the default filter tool settings. " +
+        "If --sortedKmerTable is specified instead, it will build a sorted table of the k-mers with a Bloom filter in " +
+        "front of it, which is memory-mapped rather than deserialized by the filter tool and gives exact results.",
         oneLineSummary = "Builds a hash set or Bloom filter of host reference k-mers",
         programGroup = PathSeqProgramGroup.class)
 @BetaFeature
@@ -30,7 +33,8 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
 
     @Argument(doc = "File for kmer library output. Extension will be automatically added if not present ("
             + PSKmerUtils.HOPSCOTCH_SET_EXTENSION + " for hash set or "
-            + PSKmerUtils.BLOOM_FILTER_EXTENSION + " for Bloom filter)",
+            + PSKmerUtils.BLOOM_FILTER_EXTENSION + " for Bloom filter, "
+            + PSKmerUtils.SORTED_TABLE_EXTENSION + " for sorted table)",
             shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
             fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME)
     public String outputFile;
@@ -47,6 +51,12 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
             optional = true)
     public double bloomFpp = 0;
 
+    @Argument(doc = "If true, creates a sorted k-mer table, which must be on a local disk when it is used. Cannot be " +
+            "used with --bloomFalsePositiveProbability",
+            fullName = "sortedKmerTable",
+            optional = true)
+    public boolean sortedTable = false;
+
     @Argument(doc = "Kmer size, must be odd and less than 32",
             fullName = "kSize",
             minValue = 1,
@@ -71,6 +81,11 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
     @Override
     protected Object doWork() {
 
+        if (sortedTable && bloomFpp > 0) {
+            throw new CommandLineException.BadArgumentValue("sortedKmerTable", "true",
+                    "cannot build a sorted table and a Bloom filter at the same time");
+        }
+
         final ReferenceFileSource reference = new ReferenceFileSource(referencePath);
 
         final byte[] maskBytes = PSUtils.parseMask(kmerMaskString, kmerSize);
@@ -79,7 +94,10 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
         logger.info("Loading reference kmers...");
         final Collection<long[]> maskedKmerCollection = PSKmerUtils.getMaskedKmersFromLocalReference(reference, kmerSize, kmerSpacing, kmerMask);
         final long numLongs = PSKmerUtils.longArrayCollectionSize(maskedKmerCollection);
-        if (bloomFpp > 0) {
+        if (sortedTable) {
+            logger.info("Building sorted kmer table...");
+            PSKmerUtils.writeKmerSortedTable(outputFile, maskedKmerCollection, kmerSize, kmerMask);
+        } else if (bloomFpp > 0) {
             logger.info("Building Bloom filter with false positive probability " + bloomFpp + "...");
             final LongBloomFilter bloomFilter = PSKmerUtils.longArrayCollectionToBloomFilter(maskedKmerCollection, numLongs, bloomFpp);
             final PSKmerBloomFilter kmerBloomFilter = new PSKmerBloomFilter(bloomFilter, kmerSize, kmerMask, numLongs);
@@ -166,6 +166,7 @@ public class PathSeqPipelineSpark extends GATKSparkTool {
                 throw new UserException.CouldNotCreateOutputFile(outputPath, "writing failed", e);
             }
         }
+        scorer.unpersistScoredReads();
         aligner.close();
     }
 
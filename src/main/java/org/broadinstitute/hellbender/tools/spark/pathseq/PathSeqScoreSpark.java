@@ -177,6 +177,7 @@ public class PathSeqScoreSpark extends GATKSparkTool {
                 throw new UserException.CouldNotCreateOutputFile(outputPath, "writing failed", e);
             }
         }
+        scorer.unpersistScoredReads();
     }
 
 
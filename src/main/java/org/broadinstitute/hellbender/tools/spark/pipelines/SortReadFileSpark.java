@@ -13,8 +13,7 @@ import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.spark.GATKSparkTool;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
-import org.broadinstitute.hellbender.utils.read.ReadCoordinateComparator;
-import scala.Tuple2;
+import org.broadinstitute.hellbender.utils.spark.SparkUtils;
 
 import java.util.Collections;
 import java.util.List;
@@ -45,17 +44,13 @@ public final class SortReadFileSpark extends GATKSparkTool {
         logger.info("Using %s reducers", numReducers);
 
         final SAMFileHeader readsHeader = getHeaderForReads();
-        ReadCoordinateComparator comparator = new ReadCoordinateComparator(readsHeader);
+        readsHeader.setSortOrder(SAMFileHeader.SortOrder.coordinate);
         JavaRDD<GATKRead> sortedReads;
         if (shardedOutput) {
-            sortedReads = reads
-                    .mapToPair(read -> new Tuple2<>(read, null))
-                    .sortByKey(comparator, true, numReducers)
-                    .keys();
+            sortedReads = SparkUtils.coordinateSortReads(reads, readsHeader, numReducers);
         } else {
             sortedReads = reads; // sorting is done by writeReads below
         }
-        readsHeader.setSortOrder(SAMFileHeader.SortOrder.coordinate);
         writeReads(ctx, outputFile, sortedReads);
     }
 }
@@ -160,6 +160,28 @@ public class StructuralVariationDiscoveryArgumentCollection implements Serializa
                 fullName = "crossContigsToIgnore", optional = true)
         public String crossContigsToIgnoreFile;
 
+        /**
+         * Evidence gathering makes many passes over the reads. With this option, the first pass keeps the reads that
+         * any later pass can use (i.e., all but duplicate or vendor-failed secondary and supplementary alignments),
+         * stripped of the tags that evidence gathering doesn't look at, in a serialized cache that spills to local disk
+         * when it doesn't fit in memory. The later passes then read the cache rather than re-reading and re-decoding
+         * the input.
+         */
+        @Argument(doc = "cache the reads used to gather evidence after the first pass over the input",
+                fullName = "cacheEvidenceReads", optional = true)
+        public boolean cacheEvidenceReads = false;
+
+        /**
+         * The read metadata, and the evidence and template names gathered for assembly, are saved in this directory.
+         * A later run on reads with the same header, with the same input files and the same values for the arguments
+         * that affect a stage, restores that stage's results instead of recomputing them.  Changing only the
+         * assembly arguments therefore skips all the passes over the reads.  Optional outputs written during a stage
+         * that's restored aren't rewritten.
+         */
+        @Argument(doc = "directory in which to save the results of evidence gathering, so that a rerun can resume from them",
+                fullName = "checkpointDir", optional = true)
+        public String checkpointDir;
+
         private static final String OUTPUT_ORDER_SHORT_NAME = "sort";
         private static final String OUTPUT_ORDER_FULL_NAME = "assembliesSortOrder";
 
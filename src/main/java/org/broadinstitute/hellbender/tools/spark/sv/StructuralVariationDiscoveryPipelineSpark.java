@@ -98,6 +98,8 @@ public class StructuralVariationDiscoveryPipelineSpark extends GATKSparkTool {
                                 evidenceAndAssemblyArgs,
                                 header,
                                 getUnfilteredReads(),
+                                readArguments.getReadFilesNames(),
+                                getIntervals(),
                                 outputAssemblyAlignments,
                                 localLogger);
 
@@ -17,7 +17,6 @@ import org.broadinstitute.hellbender.engine.spark.GATKSparkTool;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.*;
-import org.broadinstitute.hellbender.tools.spark.utils.HopscotchMap;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import scala.Tuple2;
@@ -99,7 +98,8 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
 
     /**
      * Do a map/reduce on an RDD of genomic sequences:
-     * Kmerize, mapping to a pair <kmer,1>, reduce by summing values by key, filter out <kmer,N> where
+     * Kmerize each partition into packed counts, which are sorted and collapsed, and split by kmer hash.
+     * Shuffle the parts to partitions by hash, merge the parts in each partition, filter out kmers with counts
      * N <= MAX_KMER_FREQ, and collect the high frequency kmers back in the driver.
      */
     @VisibleForTesting
@@ -113,36 +113,35 @@ public final class FindBadGenomicKmersSpark extends GATKSparkTool {
         Utils.validateArg(maxKmerFreq > 0, "provided kmer frequency is non positive");
 
         final int nPartitions = refRDD.getNumPartitions();
-        final int hashSize = 2*REF_RECORDS_PER_PARTITION;
+        // a quarter of the kmers in a partition -- the counts are collapsed when they fill up, and grow if necessary
+        final int countsSize = REF_RECORDS_PER_PARTITION*REF_RECORD_LEN/4;
         return refRDD
-                .mapPartitions(seqItr -> {
-                    final HopscotchMap<SVKmer, Integer, KmerAndCount> kmerCounts = new HopscotchMap<>(hashSize);
+                .mapPartitionsToPair(seqItr -> {
+                    final PackedKmerCounts kmerCounts = new PackedKmerCounts(countsSize);
                     while ( seqItr.hasNext() ) {
                         final byte[] seq = seqItr.next();
                         SVDUSTFilteredKmerizer.canonicalStream(seq, kSize, maxDUSTScore, new SVKmerLong())
-                                .forEach(kmer -> {
-                                    final KmerAndCount entry = kmerCounts.find(kmer);
-                                    if ( entry == null ) kmerCounts.add(new KmerAndCount((SVKmerLong)kmer));
-                                    else entry.bumpCount();
-                                });
+                                .forEach(kmer -> kmerCounts.add((SVKmerLong)kmer));
                     }
-                    return kmerCounts.iterator();
+                    final PackedKmerCounts[] parts = kmerCounts.split(nPartitions);
+                    final List<Tuple2<Integer, PackedKmerCounts>> partsAndIndices = new ArrayList<>(nPartitions);
+                    for ( int partIdx = 0; partIdx != nPartitions; ++partIdx ) {
+                        if ( parts[partIdx].size() > 0 ) partsAndIndices.add(new Tuple2<>(partIdx, parts[partIdx]));
+                    }
+                    return partsAndIndices.iterator();
                 })
-                .mapToPair(entry -> new Tuple2<>(entry.getKey(), entry.getValue()))
                 .partitionBy(new HashPartitioner(nPartitions))
-                .mapPartitions(pairItr -> {
-                    final HopscotchMap<SVKmer, Integer, KmerAndCount> kmerCounts = new HopscotchMap<>(hashSize);
-                    while ( pairItr.hasNext() ) {
-                        final Tuple2<SVKmer, Integer> pair = pairItr.next();
-                        final SVKmer kmer = pair._1();
-                        final int count = pair._2();
-                        KmerAndCount entry = kmerCounts.find(kmer);
-                        if ( entry == null ) kmerCounts.add(new KmerAndCount((SVKmerLong)kmer, count));
-                        else entry.bumpCount(count);
+                .mapPartitions(partItr -> {
+                    final PackedKmerCounts kmerCounts = new PackedKmerCounts(countsSize);
+                    while ( partItr.hasNext() ) {
+                        kmerCounts.addAll(partItr.next()._2());
+                    }
+                    kmerCounts.collapse();
+                    final List<SVKmer> ubiquitousKmers = new ArrayList<>();
+                    for ( int idx = 0; idx != kmerCounts.size(); ++idx ) {
+                        if ( kmerCounts.getCount(idx) > maxKmerFreq ) ubiquitousKmers.add(kmerCounts.getKmer(idx));
                     }
-                    return kmerCounts.stream()
-                            .filter(kmerAndCount -> kmerAndCount.grabCount() > maxKmerFreq)
-                            .map(KmerAndCount::getKey).iterator();
+                    return ubiquitousKmers.iterator();
                 })
                 .collect();
     }
@@ -3,11 +3,13 @@ package org.broadinstitute.hellbender.tools.spark.sv.evidence;
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMTag;
 import htsjdk.tribble.Feature;
 import org.apache.logging.log4j.Logger;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.broadcast.Broadcast;
+import org.apache.spark.storage.StorageLevel;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.BetaFeature;
@@ -22,6 +24,7 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.*;
 import org.broadinstitute.hellbender.tools.spark.utils.FlatMapGluer;
 import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
@@ -58,6 +61,10 @@ import static org.broadinstitute.hellbender.tools.spark.sv.evidence.BreakpointEv
 public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
     private static final long serialVersionUID = 1L;
 
+    /** tags of a read that are used by evidence gathering or that end up in the FASTQs for assembly */
+    private static final List<String> EVIDENCE_READ_TAGS =
+            Arrays.asList(SAMTag.RG.name(), SAMTag.SA.name(), SAMTag.MD.name(), SAMTag.MC.name());
+
     @ArgumentCollection
     private final FindBreakpointEvidenceSparkArgumentCollection params =
             new FindBreakpointEvidenceSparkArgumentCollection();
@@ -77,7 +84,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
     protected void runTool( final JavaSparkContext ctx ) {
 
         gatherEvidenceAndWriteContigSamFile(ctx, params, getHeaderForReads(), getUnfilteredReads(),
-                outputAssemblyAlignments, logger);
+                readArguments.getReadFilesNames(), getIntervals(), outputAssemblyAlignments, logger);
 
     }
 
@@ -92,6 +99,8 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final FindBreakpointEvidenceSparkArgumentCollection params,
             final SAMFileHeader header,
             final JavaRDD<GATKRead> unfilteredReads,
+            final List<String> readInputs,
+            final List<SimpleInterval> traversalIntervals,
             final String outputAssemblyAlignments,
             final Logger logger) {
 
@@ -100,44 +109,73 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
 
         final SVReadFilter filter = new SVReadFilter(params);
 
-        final Set<Integer> crossContigsToIgnoreSet;
-        if ( params.crossContigsToIgnoreFile == null ) crossContigsToIgnoreSet = Collections.emptySet();
-        else crossContigsToIgnoreSet = readCrossContigsToIgnoreFile(params.crossContigsToIgnoreFile,
-                header.getSequenceDictionary());
-        final ReadMetadata readMetadata =
-                new ReadMetadata(crossContigsToIgnoreSet, header, params.maxTrackedFragmentLength, unfilteredReads, filter, logger);
+        // optionally, read the input just once and let all the passes below share a compact cache of it
+        final JavaRDD<GATKRead> evidenceReads =
+                params.cacheEvidenceReads ? extractEvidenceReads(unfilteredReads, filter) : unfilteredReads;
+
+        // optionally, restore the results of stages completed by an earlier run with the same inputs and parameters
+        final SVStageCheckpoints checkpoints =
+                params.checkpointDir == null ? null
+                        : new SVStageCheckpoints(params.checkpointDir, header, readInputs, traversalIntervals, filter, params);
+
+        ReadMetadata readMetadata = checkpoints == null ? null : checkpoints.loadReadMetadata();
+        if ( readMetadata != null ) {
+            log("Metadata restored from checkpoint.", logger);
+        } else {
+            final Set<Integer> crossContigsToIgnoreSet;
+            if ( params.crossContigsToIgnoreFile == null ) crossContigsToIgnoreSet = Collections.emptySet();
+            else crossContigsToIgnoreSet = readCrossContigsToIgnoreFile(params.crossContigsToIgnoreFile,
+                    header.getSequenceDictionary());
+            readMetadata = new ReadMetadata(crossContigsToIgnoreSet, header, params.maxTrackedFragmentLength,
+                                            evidenceReads, filter, logger);
+            if ( checkpoints != null ) checkpoints.saveReadMetadata(readMetadata);
+        }
         if ( params.metadataFile != null ) {
             ReadMetadata.writeMetadata(readMetadata, params.metadataFile);
         }
         log("Metadata retrieved.", logger);
 
-        // develop evidence, intervals, and, finally, a set of template names for each interval
-        final EvidenceScanResults
-                evidenceScanResults = getMappedQNamesSet(params, readMetadata, ctx, header, unfilteredReads, filter, logger);
-        final List<SVInterval> intervals = evidenceScanResults.intervals;
-        if ( intervals.isEmpty() ) return new AssembledEvidenceResults(
-                evidenceScanResults.readMetadata,
-                intervals,
-                new ArrayList<>(),
-                evidenceScanResults.evidenceTargetLinks);
-
-        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap = evidenceScanResults.qNamesForAssemblyMultiMap;
-
-        // supplement the template names with other reads that share kmers
+        // develop evidence, intervals, and, finally, a set of template names for each interval,
+        // and supplement the template names with other reads that share kmers
+        final Tuple2<EvidenceScanResults, List<AlignedAssemblyOrExcuse>> checkpointedEvidence =
+                checkpoints == null ? null : checkpoints.loadEvidence(readMetadata);
+        final EvidenceScanResults evidenceScanResults;
         final List<AlignedAssemblyOrExcuse> alignedAssemblyOrExcuseList;
-        if ( params.intervalOnlyAssembly ) {
-            alignedAssemblyOrExcuseList = new ArrayList<>();
+        if ( checkpointedEvidence != null ) {
+            evidenceScanResults = checkpointedEvidence._1();
+            alignedAssemblyOrExcuseList = checkpointedEvidence._2();
+            log("Evidence and template names restored from checkpoint.", logger);
         } else {
-            alignedAssemblyOrExcuseList = addAssemblyQNames(params, readMetadata, ctx, qNamesMultiMap, intervals.size(),
-                    unfilteredReads, filter, logger);
+            evidenceScanResults = getMappedQNamesSet(params, readMetadata, ctx, header, evidenceReads, filter, logger);
+            if ( evidenceScanResults.intervals.isEmpty() || params.intervalOnlyAssembly ) {
+                alignedAssemblyOrExcuseList = new ArrayList<>();
+            } else {
+                alignedAssemblyOrExcuseList =
+                        addAssemblyQNames(params, readMetadata, ctx, evidenceScanResults.qNamesForAssemblyMultiMap,
+                                evidenceScanResults.intervals.size(), evidenceReads, filter, logger);
+            }
+            if ( checkpoints != null ) checkpoints.saveEvidence(evidenceScanResults, alignedAssemblyOrExcuseList);
         }
 
+        final List<SVInterval> intervals = evidenceScanResults.intervals;
+        if ( intervals.isEmpty() ) {
+            if ( params.cacheEvidenceReads ) evidenceReads.unpersist();
+            return new AssembledEvidenceResults(
+                    evidenceScanResults.readMetadata,
+                    intervals,
+                    new ArrayList<>(),
+                    evidenceScanResults.evidenceTargetLinks);
+        }
+
+        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap = evidenceScanResults.qNamesForAssemblyMultiMap;
+
         // write a FASTQ file for each interval
         final FermiLiteAssemblyHandler fermiLiteAssemblyHandler =
                 new FermiLiteAssemblyHandler(params.alignerIndexImageFile, params.maxFASTQSize, params.fastqDir, params.writeGFAs);
         alignedAssemblyOrExcuseList.addAll(
-                handleAssemblies(ctx, qNamesMultiMap, unfilteredReads, filter, intervals.size(),
+                handleAssemblies(ctx, qNamesMultiMap, evidenceReads, filter, intervals.size(),
                         params.includeMappingLocation, fermiLiteAssemblyHandler));
+        if ( params.cacheEvidenceReads ) evidenceReads.unpersist();
 
         alignedAssemblyOrExcuseList.sort(Comparator.comparingInt(AlignedAssemblyOrExcuse::getAssemblyId));
 
@@ -154,6 +192,34 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                                             evidenceScanResults.evidenceTargetLinks);
     }
 
+    /**
+     * Drop reads that none of the passes over the reads can use and strip the remaining reads of unused tags,
+     * and persist the result in serialized form, spilling to local disk if necessary.
+     * The partitioning of the input is preserved, so the cached reads can stand in for the input in every pass.
+     * The reads are cached as they're first computed, i.e., during the first pass that uses them.
+     */
+    @VisibleForTesting static JavaRDD<GATKRead> extractEvidenceReads( final JavaRDD<GATKRead> unfilteredReads,
+                                                                     final SVReadFilter filter ) {
+        final JavaRDD<GATKRead> evidenceReads =
+                unfilteredReads
+                    .filter(read -> filter.notJunk(read) || filter.isPrimaryLine(read))
+                    .map(FindBreakpointEvidenceSpark::stripUnusedTags);
+        evidenceReads.persist(StorageLevel.MEMORY_AND_DISK_SER());
+        return evidenceReads;
+    }
+
+    private static GATKRead stripUnusedTags( final GATKRead read ) {
+        final GATKRead strippedRead = read.copy();
+        strippedRead.clearAttributes();
+        for ( final String tag : EVIDENCE_READ_TAGS ) {
+            final String value = read.getAttributeAsString(tag);
+            if ( value != null ) strippedRead.setAttribute(tag, value);
+        }
+        final Integer mateMapQ = read.getAttributeAsInteger(SAMTag.MQ.name());
+        if ( mateMapQ != null ) strippedRead.setAttribute(SAMTag.MQ.name(), mateMapQ);
+        return strippedRead;
+    }
+
     public static final class AssembledEvidenceResults {
         final ReadMetadata readMetadata;
         final List<SVInterval> assembledIntervals;
@@ -23,6 +23,13 @@ public class SVReadFilter implements Serializable {
         allowedShortFragmentOverhang = params.allowedShortFragmentOverhang;
     }
 
+    /** Lists the settings of the filter, which identify the reads it passes. */
+    @Override
+    public String toString() {
+        return "SVReadFilter(minEvidenceMapQ=" + minEvidenceMapQ + ", minEvidenceMatchLength=" + minEvidenceMatchLength +
+                ", allowedShortFragmentOverhang=" + allowedShortFragmentOverhang + ")";
+    }
+
     public boolean notJunk( final GATKRead read ) {
         return !read.isDuplicate() && !read.failsVendorQualityCheck();
     }
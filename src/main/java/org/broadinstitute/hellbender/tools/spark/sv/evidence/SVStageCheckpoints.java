@@ -0,0 +1,275 @@
+package org.broadinstitute.hellbender.tools.spark.sv.evidence;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMTextHeaderCodec;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.FileStatus;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection.FindBreakpointEvidenceSparkArgumentCollection;
+import org.broadinstitute.hellbender.tools.spark.sv.evidence.FindBreakpointEvidenceSpark.EvidenceScanResults;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVInterval;
+import org.broadinstitute.hellbender.tools.spark.utils.HopscotchUniqueMultiMap;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import scala.Tuple2;
+
+import java.io.*;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Saves and restores the results of the stages of FindBreakpointEvidenceSpark that precede assembly, so that a rerun
+ * can skip the passes over the reads that it has already made.
+ * <p>
+ * There are two stages: the read metadata, and the evidence (the intervals, evidence target links, and template names
+ * for assembly, after kmer cleaning).  Each stage's results are identified by a hash of everything that can affect
+ * them:  the reads, the contents of the input files named by the arguments, the values of the arguments that the
+ * stage uses, and the hash of the previous stage.  Changing assembly-only arguments, like the aligner index or the
+ * FASTQ size limit, therefore reuses both stages, while changing an evidence argument reuses only the metadata.
+ * </p>
+ * <p>
+ * The reads themselves are too big to hash, so they're identified by their header, the path, size and modification
+ * time of each reads input, the intervals they're restricted to, and the settings of the read filter.  Optional
+ * outputs that are written during a stage (such as the breakpoint evidence directory) aren't rewritten when the stage
+ * is restored.
+ * </p>
+ */
+public final class SVStageCheckpoints {
+    private static final String METADATA_STAGE = "readMetadata";
+    private static final String EVIDENCE_STAGE = "evidence";
+    private static final String RESULTS_EXTENSION = ".kryo";
+    private static final String DONE_EXTENSION = ".done";
+
+    /** arguments that affect the read metadata */
+    private static final Set<String> METADATA_ARGUMENTS = new HashSet<>(Arrays.asList(
+            "maxTrackedFragmentLength", "crossContigsToIgnore",
+            "minEvidenceMapQ", "minEvidenceMatchLength", "allowedShortFragmentOverhang"));
+
+    /** arguments that don't affect the evidence stage: names of optional outputs, and assembly parameters */
+    private static final Set<String> NON_EVIDENCE_ARGUMENTS = new HashSet<>(Arrays.asList(
+            "readMetadata", "breakpointEvidenceDir", "unfilteredBreakpointEvidenceDir", "breakpointIntervals",
+            "qnameIntervalsMapped", "kmerIntervals", "qnameIntervalsForAssembly", "fastqDir", "targetLinkFile",
+            "maxFASTQSize", "includeMappingLocation", "writeGFAs", "alignerIndexImage", "cacheEvidenceReads",
+            "checkpointDir", "assembliesSortOrder"));
+
+    /** arguments that name input files, whose contents are hashed along with their names */
+    private static final Set<String> INPUT_FILE_ARGUMENTS = new HashSet<>(Arrays.asList(
+            "crossContigsToIgnore", "externalEvidence", "exclusionIntervals", "kmersToIgnore"));
+
+    private final String checkpointDir;
+    private final String metadataKey;
+    private final String evidenceKey;
+
+    /**
+     * @param readInputs the paths of the reads inputs
+     * @param intervals the intervals that the reads are restricted to, or null for all the reads
+     * @param readFilter the filter that selects the reads used
+     */
+    public SVStageCheckpoints( final String checkpointDir,
+                               final SAMFileHeader header,
+                               final List<String> readInputs,
+                               final List<SimpleInterval> intervals,
+                               final SVReadFilter readFilter,
+                               final FindBreakpointEvidenceSparkArgumentCollection params ) {
+        this.checkpointDir = Utils.nonNull(checkpointDir, "checkpoint directory cannot be null");
+        Utils.nonNull(header, "header cannot be null");
+        Utils.nonNull(readInputs, "reads inputs cannot be null");
+        Utils.nonNull(readFilter, "read filter cannot be null");
+        Utils.nonNull(params, "arguments cannot be null");
+        final String readsKey = hashReads(header, readInputs, intervals, readFilter);
+        metadataKey = hashArguments(readsKey, params, METADATA_ARGUMENTS::contains);
+        evidenceKey = hashArguments(metadataKey, params, name -> !NON_EVIDENCE_ARGUMENTS.contains(name));
+        if ( !BucketUtils.isCloudStorageUrl(checkpointDir) && !BucketUtils.isHadoopUrl(checkpointDir) ) {
+            final File dir = new File(checkpointDir);
+            if ( !dir.isDirectory() && !dir.mkdirs() ) {
+                throw new UserException.CouldNotCreateOutputFile(dir, "unable to create checkpoint directory");
+            }
+        }
+    }
+
+    /** Returns the checkpointed read metadata, or null if there isn't any for these reads and arguments. */
+    public ReadMetadata loadReadMetadata() {
+        final List<Object> results = load(METADATA_STAGE, metadataKey);
+        return results == null ? null : (ReadMetadata)results.get(0);
+    }
+
+    public void saveReadMetadata( final ReadMetadata readMetadata ) {
+        save(METADATA_STAGE, metadataKey, readMetadata);
+    }
+
+    /**
+     * Returns the checkpointed evidence scan results, and the excuses for intervals killed during kmer cleaning,
+     * or null if there aren't any for these reads and arguments.
+     */
+    @SuppressWarnings("unchecked")
+    Tuple2<EvidenceScanResults, List<AlignedAssemblyOrExcuse>> loadEvidence( final ReadMetadata readMetadata ) {
+        final List<Object> results = load(EVIDENCE_STAGE, evidenceKey);
+        if ( results == null ) return null;
+        final EvidenceScanResults evidenceScanResults =
+                new EvidenceScanResults(readMetadata,
+                        (List<SVInterval>)results.get(0),
+                        (List<EvidenceTargetLink>)results.get(1),
+                        (HopscotchUniqueMultiMap<String, Integer, QNameAndInterval>)results.get(2));
+        return new Tuple2<>(evidenceScanResults, (List<AlignedAssemblyOrExcuse>)results.get(3));
+    }
+
+    void saveEvidence( final EvidenceScanResults evidenceScanResults,
+                       final List<AlignedAssemblyOrExcuse> alignedAssemblyOrExcuseList ) {
+        save(EVIDENCE_STAGE, evidenceKey,
+                new ArrayList<>(evidenceScanResults.intervals),
+                new ArrayList<>(evidenceScanResults.evidenceTargetLinks),
+                evidenceScanResults.qNamesForAssemblyMultiMap,
+                new ArrayList<>(alignedAssemblyOrExcuseList));
+    }
+
+    private String getResultsPath( final String stage, final String key ) {
+        return checkpointDir + "/" + stage + "." + key + RESULTS_EXTENSION;
+    }
+
+    private String getDonePath( final String stage, final String key ) {
+        return checkpointDir + "/" + stage + "." + key + DONE_EXTENSION;
+    }
+
+    /** The results are written first, and the "done" file last, so a stage interrupted while saving isn't loaded. */
+    private void save( final String stage, final String key, final Object... results ) {
+        final String resultsPath = getResultsPath(stage, key);
+        final Kryo kryo = new Kryo();
+        try ( final Output output = new Output(BucketUtils.createFile(resultsPath)) ) {
+            output.writeInt(results.length);
+            for ( final Object result : results ) {
+                kryo.writeClassAndObject(output, result);
+            }
+        }
+        try ( final Writer writer =
+                      new OutputStreamWriter(BucketUtils.createFile(getDonePath(stage, key)), StandardCharsets.UTF_8) ) {
+            writer.write(resultsPath);
+            writer.write('\n');
+        } catch ( final IOException ioe ) {
+            throw new UserException.CouldNotCreateOutputFile(getDonePath(stage, key), "unable to write checkpoint", ioe);
+        }
+    }
+
+    private List<Object> load( final String stage, final String key ) {
+        if ( !BucketUtils.fileExists(getDonePath(stage, key)) ) return null;
+        final String resultsPath = getResultsPath(stage, key);
+        final Kryo kryo = new Kryo();
+        try ( final Input input = new Input(BucketUtils.openFile(resultsPath)) ) {
+            final int nResults = input.readInt();
+            final List<Object> results = new ArrayList<>(nResults);
+            for ( int idx = 0; idx != nResults; ++idx ) {
+                results.add(kryo.readClassAndObject(input));
+            }
+            return results;
+        } catch ( final RuntimeException e ) {
+            throw new UserException.CouldNotReadInputFile(
+                    "can't restore the " + stage + " checkpoint from " + resultsPath + "; delete it to recompute the stage", e);
+        }
+    }
+
+    private static String getHeaderText( final SAMFileHeader header ) {
+        final StringWriter writer = new StringWriter();
+        new SAMTextHeaderCodec().encode(writer, header);
+        return writer.toString();
+    }
+
+    private static String hashReads( final SAMFileHeader header,
+                                     final List<String> readInputs,
+                                     final List<SimpleInterval> intervals,
+                                     final SVReadFilter readFilter ) {
+        final MessageDigest digest = newDigest();
+        digest.update(getHeaderText(header).getBytes(StandardCharsets.UTF_8));
+        for ( final String readInput : readInputs ) {
+            digest.update(("input=" + describeFile(readInput) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        if ( intervals == null ) {
+            digest.update("intervals=all\n".getBytes(StandardCharsets.UTF_8));
+        } else {
+            for ( final SimpleInterval interval : intervals ) {
+                digest.update(("interval=" + interval + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        digest.update(("readFilter=" + readFilter + "\n").getBytes(StandardCharsets.UTF_8));
+        return toHex(digest);
+    }
+
+    /** Returns the path, size and modification time of a file or directory. */
+    private static String describeFile( final String path ) {
+        try {
+            if ( BucketUtils.isCloudStorageUrl(path) ) {
+                final java.nio.file.Path gcsPath = BucketUtils.getPathOnGcs(path);
+                return path + " " + Files.size(gcsPath) + " " + Files.getLastModifiedTime(gcsPath).toMillis();
+            }
+            final org.apache.hadoop.fs.Path hadoopPath = new org.apache.hadoop.fs.Path(path);
+            final FileStatus status = hadoopPath.getFileSystem(new Configuration()).getFileStatus(hadoopPath);
+            return path + " " + BucketUtils.dirSize(path) + " " + status.getModificationTime();
+        } catch ( final IOException ioe ) {
+            throw new UserException.CouldNotReadInputFile(path, ioe);
+        }
+    }
+
+    /**
+     * Hashes the previous stage's key along with the values of the selected arguments (in order of name),
+     * and the contents of any of those arguments that name input files.
+     */
+    private static String hashArguments( final String previousKey,
+                                         final FindBreakpointEvidenceSparkArgumentCollection params,
+                                         final java.util.function.Predicate<String> isSelected ) {
+        final MessageDigest digest = newDigest();
+        digest.update(previousKey.getBytes(StandardCharsets.UTF_8));
+        final SortedMap<String, Object> values = new TreeMap<>();
+        for ( final Field field : params.getClass().getFields() ) {
+            final Argument argument = field.getAnnotation(Argument.class);
+            if ( argument == null || !isSelected.test(argument.fullName()) ) continue;
+            try {
+                values.put(argument.fullName(), field.get(params));
+            } catch ( final IllegalAccessException iae ) {
+                throw new GATKException("can't read argument " + argument.fullName(), iae);
+            }
+        }
+        for ( final Map.Entry<String, Object> entry : values.entrySet() ) {
+            digest.update((entry.getKey() + "=" + entry.getValue() + "\n").getBytes(StandardCharsets.UTF_8));
+            if ( entry.getValue() != null && INPUT_FILE_ARGUMENTS.contains(entry.getKey()) ) {
+                hashFile(digest, entry.getValue().toString());
+            }
+        }
+        return toHex(digest);
+    }
+
+    private static String toHex( final MessageDigest digest ) {
+        final StringBuilder sb = new StringBuilder();
+        for ( final byte b : digest.digest() ) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static void hashFile( final MessageDigest digest, final String path ) {
+        try ( final InputStream is = BucketUtils.openFile(path) ) {
+            final byte[] buffer = new byte[64 * 1024];
+            int nRead;
+            while ( (nRead = is.read(buffer)) > 0 ) {
+                digest.update(buffer, 0, nRead);
+            }
+        } catch ( final IOException ioe ) {
+            throw new UserException.CouldNotReadInputFile(path, ioe);
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch ( final NoSuchAlgorithmException nsae ) {
+            throw new GATKException("SHA-256 is not available", nsae);
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+
+/**
+ * Counts of SVKmerLongs, kept as parallel primitive arrays of the kmers' packed values and their counts.
+ * Kmers are appended as they're seen, and duplicates are combined by sorting (with a radix sort) and collapsing runs
+ * of equal kmers, rather than by hashing.  That also happens whenever the arrays fill up, so the memory used is
+ * proportional to the number of distinct kmers rather than the number of kmers added.
+ * Not thread-safe.
+ */
+@DefaultSerializer(PackedKmerCounts.Serializer.class)
+public final class PackedKmerCounts {
+    private static final int RADIX_BITS = 16;
+    private static final int RADIX_MASK = (1 << RADIX_BITS) - 1;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] highs;
+    private long[] lows;
+    private int[] counts;
+    private int size;
+    private boolean collapsed; // the entries are distinct and in sorted order
+
+    public PackedKmerCounts( final int capacity ) {
+        Utils.validateArg(capacity >= 0, "capacity must be non-negative");
+        final int initialCapacity = Math.max(capacity, MIN_CAPACITY);
+        highs = new long[initialCapacity];
+        lows = new long[initialCapacity];
+        counts = new int[initialCapacity];
+        size = 0;
+        collapsed = true;
+    }
+
+    private PackedKmerCounts( final Kryo kryo, final Input input ) {
+        size = input.readInt();
+        highs = input.readLongs(size);
+        lows = input.readLongs(size);
+        counts = input.readInts(size);
+        collapsed = input.readBoolean();
+    }
+
+    private void serialize( final Kryo kryo, final Output output ) {
+        trim();
+        output.writeInt(size);
+        output.writeLongs(highs);
+        output.writeLongs(lows);
+        output.writeInts(counts);
+        output.writeBoolean(collapsed);
+    }
+
+    /** The number of entries, which may include duplicate kmers unless {@link #collapse} was just called. */
+    public int size() { return size; }
+
+    public SVKmerLong getKmer( final int idx ) {
+        Utils.validIndex(idx, size);
+        return new SVKmerLong(highs[idx], lows[idx]);
+    }
+
+    public int getCount( final int idx ) {
+        Utils.validIndex(idx, size);
+        return counts[idx];
+    }
+
+    /** Count one more occurrence of a kmer. */
+    public void add( final SVKmerLong kmer ) { add(kmer.getValHigh(), kmer.getValLow(), 1); }
+
+    /** Add the counts of another collection to this one. */
+    public void addAll( final PackedKmerCounts that ) {
+        Utils.nonNull(that, "the kmer counts to add cannot be null");
+        for ( int idx = 0; idx != that.size; ++idx ) {
+            add(that.highs[idx], that.lows[idx], that.counts[idx]);
+        }
+    }
+
+    private void add( final long high, final long low, final int count ) {
+        if ( size == highs.length ) {
+            // make room by combining duplicates, and grow only if that doesn't free up at least half the space
+            collapse();
+            if ( 2 * size > highs.length ) {
+                resize(2 * highs.length);
+            }
+        }
+        highs[size] = high;
+        lows[size] = low;
+        counts[size] = count;
+        size += 1;
+        collapsed = false;
+    }
+
+    /** Sort the entries, and combine the counts of equal kmers, so that each kmer appears just once. */
+    public void collapse() {
+        if ( collapsed ) return;
+        sort();
+        int newSize = 0;
+        for ( int idx = 0; idx != size; ++idx ) {
+            if ( newSize > 0 && highs[newSize - 1] == highs[idx] && lows[newSize - 1] == lows[idx] ) {
+                counts[newSize - 1] += counts[idx];
+            } else {
+                highs[newSize] = highs[idx];
+                lows[newSize] = lows[idx];
+                counts[newSize] = counts[idx];
+                newSize += 1;
+            }
+        }
+        size = newSize;
+        collapsed = true;
+    }
+
+    /**
+     * Collapse the entries, and deal them out into nParts collections according to the hash of the kmer
+     * (the same way a HashPartitioner would distribute SVKmerLongs).  The parts are collapsed, too.
+     */
+    public PackedKmerCounts[] split( final int nParts ) {
+        Utils.validateArg(nParts > 0, "number of parts must be positive");
+        collapse();
+        final int[] partSizes = new int[nParts];
+        final int[] partIndices = new int[size];
+        for ( int idx = 0; idx != size; ++idx ) {
+            final int hashCode = (int)SVUtils.fnvLong64(SVUtils.fnvLong64(highs[idx]), lows[idx]);
+            final int part = Math.floorMod(hashCode, nParts);
+            partIndices[idx] = part;
+            partSizes[part] += 1;
+        }
+        final PackedKmerCounts[] parts = new PackedKmerCounts[nParts];
+        for ( int part = 0; part != nParts; ++part ) {
+            parts[part] = new PackedKmerCounts(partSizes[part]);
+        }
+        for ( int idx = 0; idx != size; ++idx ) {
+            final PackedKmerCounts part = parts[partIndices[idx]];
+            part.highs[part.size] = highs[idx];
+            part.lows[part.size] = lows[idx];
+            part.counts[part.size] = counts[idx];
+            part.size += 1;
+        }
+        return parts;
+    }
+
+    private void trim() {
+        if ( size != highs.length ) resize(size);
+    }
+
+    private void resize( final int capacity ) {
+        highs = Arrays.copyOf(highs, capacity);
+        lows = Arrays.copyOf(lows, capacity);
+        counts = Arrays.copyOf(counts, capacity);
+    }
+
+    /**
+     * LSD radix sort on the 128-bit value (high, low), skipping digits that are the same for every entry.
+     * Kmer values are non-negative, so this is the same order as SVKmerLong.compareTo.
+     */
+    private void sort() {
+        if ( size < 2 ) return;
+        long highDiffs = 0;
+        long lowDiffs = 0;
+        for ( int idx = 1; idx != size; ++idx ) {
+            highDiffs |= highs[idx] ^ highs[0];
+            lowDiffs |= lows[idx] ^ lows[0];
+        }
+        long[] srcHighs = highs, srcLows = lows, dstHighs = new long[highs.length], dstLows = new long[lows.length];
+        int[] srcCounts = counts, dstCounts = new int[counts.length];
+        final int[] bucketStarts = new int[RADIX_MASK + 2];
+        for ( int pass = 0; pass != 2 * Long.SIZE / RADIX_BITS; ++pass ) {
+            final boolean sortOnLow = pass < Long.SIZE / RADIX_BITS;
+            final int shift = (pass * RADIX_BITS) % Long.SIZE;
+            if ( (((sortOnLow ? lowDiffs : highDiffs) >>> shift) & RADIX_MASK) == 0 ) continue;
+            final long[] keys = sortOnLow ? srcLows : srcHighs;
+            Arrays.fill(bucketStarts, 0);
+            for ( int idx = 0; idx != size; ++idx ) {
+                bucketStarts[(int)((keys[idx] >>> shift) & RADIX_MASK) + 1] += 1;
+            }
+            for ( int bucket = 1; bucket != bucketStarts.length; ++bucket ) {
+                bucketStarts[bucket] += bucketStarts[bucket - 1];
+            }
+            for ( int idx = 0; idx != size; ++idx ) {
+                final int dstIdx = bucketStarts[(int)((keys[idx] >>> shift) & RADIX_MASK)]++;
+                dstHighs[dstIdx] = srcHighs[idx];
+                dstLows[dstIdx] = srcLows[idx];
+                dstCounts[dstIdx] = srcCounts[idx];
+            }
+            final long[] tmpHighs = srcHighs; srcHighs = dstHighs; dstHighs = tmpHighs;
+            final long[] tmpLows = srcLows; srcLows = dstLows; dstLows = tmpLows;
+            final int[] tmpCounts = srcCounts; srcCounts = dstCounts; dstCounts = tmpCounts;
+        }
+        highs = srcHighs;
+        lows = srcLows;
+        counts = srcCounts;
+    }
+
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<PackedKmerCounts> {
+        @Override
+        public void write( final Kryo kryo, final Output output, final PackedKmerCounts kmerCounts ) {
+            kmerCounts.serialize(kryo, output);
+        }
+
+        @Override
+        public PackedKmerCounts read( final Kryo kryo, final Input input, final Class<PackedKmerCounts> klass ) {
+            return new PackedKmerCounts(kryo, input);
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable collection of intervals and their values that answers the same overlap queries as {@link SVIntervalTree},
+ * built all at once from intervals in sorted order.
+ * <p>
+ * The intervals are kept in parallel int arrays, and the index is an implicit augmented binary tree over the sorted
+ * array: the node at index i has level k if i has exactly k trailing 1 bits, its children are at i &plusmn; 2<sup>k-1</sup>,
+ * and maxEnds[i] is the greatest end in its subtree.  There are no node objects, so an index is much smaller to
+ * keep in memory, to broadcast, and to serialize (just the arrays and the values) than a tree of the same intervals.
+ * Use an SVIntervalTree to build a collection incrementally, and convert it into one of these if it's going to be
+ * queried a lot.
+ * <p>
+ * Unlike an SVIntervalTree, an index may have several entries with the same interval.
+ */
+@DefaultSerializer(SVIntervalIndex.Serializer.class)
+public final class SVIntervalIndex<V> implements Iterable<SVIntervalTree.Entry<V>> {
+    private final int[] contigs;
+    private final int[] starts;
+    private final int[] ends;
+    private final Object[] values;
+    private final long[] maxEnds; // greatest end in each subtree, as a location key
+    private final int rootLevel;
+
+    /**
+     * Makes an index of the entries of a tree.
+     */
+    public SVIntervalIndex( final SVIntervalTree<V> tree ) {
+        Utils.nonNull(tree, "the tree cannot be null");
+        final int size = tree.size();
+        contigs = new int[size];
+        starts = new int[size];
+        ends = new int[size];
+        values = new Object[size];
+        int idx = 0;
+        for ( final SVIntervalTree.Entry<V> entry : tree ) {
+            setEntry(idx++, entry.getInterval(), entry.getValue());
+        }
+        maxEnds = new long[size];
+        rootLevel = buildIndex();
+    }
+
+    /**
+     * Makes an index of intervals that must be in {@link SVInterval#compareTo sorted order}, with a value for each.
+     */
+    public SVIntervalIndex( final List<SVInterval> intervals, final List<V> intervalValues ) {
+        Utils.nonNull(intervals, "the intervals cannot be null");
+        Utils.nonNull(intervalValues, "the values cannot be null");
+        Utils.validateArg(intervals.size() == intervalValues.size(), "there must be one value per interval");
+        final int size = intervals.size();
+        contigs = new int[size];
+        starts = new int[size];
+        ends = new int[size];
+        values = new Object[size];
+        SVInterval prevInterval = null;
+        for ( int idx = 0; idx != size; ++idx ) {
+            final SVInterval interval = Utils.nonNull(intervals.get(idx), "the intervals cannot contain null");
+            if ( prevInterval != null && prevInterval.compareTo(interval) > 0 ) {
+                throw new IllegalArgumentException("the intervals are not sorted: " + interval + " follows " + prevInterval);
+            }
+            setEntry(idx, interval, intervalValues.get(idx));
+            prevInterval = interval;
+        }
+        maxEnds = new long[size];
+        rootLevel = buildIndex();
+    }
+
+    private SVIntervalIndex( final Kryo kryo, final Input input ) {
+        final int size = input.readInt();
+        contigs = input.readInts(size);
+        starts = input.readInts(size);
+        ends = input.readInts(size);
+        values = new Object[size];
+        for ( int idx = 0; idx != size; ++idx ) {
+            values[idx] = kryo.readClassAndObject(input);
+        }
+        maxEnds = new long[size];
+        rootLevel = buildIndex();
+    }
+
+    private void serialize( final Kryo kryo, final Output output ) {
+        final int size = size();
+        output.writeInt(size);
+        output.writeInts(contigs);
+        output.writeInts(starts);
+        output.writeInts(ends);
+        for ( final Object value : values ) {
+            kryo.writeClassAndObject(output, value);
+        }
+    }
+
+    /** The number of entries. */
+    public int size() { return contigs.length; }
+
+    /** The interval of the entry at the specified index, in sorted order. */
+    public SVInterval getInterval( final int idx ) {
+        return new SVInterval(contigs[idx], starts[idx], ends[idx]);
+    }
+
+    /** The value of the entry at the specified index, in sorted order. */
+    @SuppressWarnings("unchecked")
+    public V getValue( final int idx ) { return (V)values[idx]; }
+
+    /** Does any entry overlap the specified interval? */
+    public boolean hasOverlapper( final SVInterval interval ) {
+        return new OverlapIterator(interval).hasNext();
+    }
+
+    /** Iterates over the entries in sorted order. */
+    @Override
+    public Iterator<SVIntervalTree.Entry<V>> iterator() {
+        return new Iterator<SVIntervalTree.Entry<V>>() {
+            private int idx = 0;
+
+            @Override
+            public boolean hasNext() { return idx < size(); }
+
+            @Override
+            public SVIntervalTree.Entry<V> next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException("No next element.");
+                }
+                return new IndexEntry(idx++);
+            }
+        };
+    }
+
+    /** Iterates, in sorted order, over the entries that overlap the specified interval. */
+    public Iterator<SVIntervalTree.Entry<V>> overlappers( final SVInterval interval ) {
+        return new OverlapIterator(interval);
+    }
+
+    private void setEntry( final int idx, final SVInterval interval, final V value ) {
+        contigs[idx] = interval.getContig();
+        starts[idx] = interval.getStart();
+        ends[idx] = interval.getEnd();
+        values[idx] = value;
+    }
+
+    /** A single number that orders locations by contig, and then by position. */
+    private static long locationKey( final int contig, final int position ) {
+        return ((long)contig << 32) + position;
+    }
+
+    private long startKey( final int idx ) { return locationKey(contigs[idx], starts[idx]); }
+    private long endKey( final int idx ) { return locationKey(contigs[idx], ends[idx]); }
+
+    /**
+     * Fills in maxEnds, level by level from the leaves up, and returns the level of the root.
+     * The tree is complete, so nodes at the end of the array may have a right child beyond the last entry.  Such a
+     * child is treated as having the max end of the rightmost real node at its level.
+     */
+    private int buildIndex() {
+        final int size = size();
+        if ( size == 0 ) return -1;
+        int lastIdx = 0; // the rightmost node at the current level
+        long lastMaxEnd = 0L; // and its max end
+        for ( int idx = 0; idx < size; idx += 2 ) {
+            lastIdx = idx;
+            lastMaxEnd = maxEnds[idx] = endKey(idx);
+        }
+        int level;
+        for ( level = 1; 1L << level <= size; ++level ) {
+            final int halfWidth = 1 << (level - 1);
+            final long step = (long)halfWidth << 2;
+            for ( long idx = (halfWidth << 1) - 1; idx < size; idx += step ) {
+                final int node = (int)idx;
+                final long leftMaxEnd = maxEnds[node - halfWidth];
+                final long rightMaxEnd = node + halfWidth < size ? maxEnds[node + halfWidth] : lastMaxEnd;
+                maxEnds[node] = Math.max(endKey(node), Math.max(leftMaxEnd, rightMaxEnd));
+            }
+            // move up to the parent of the last node
+            lastIdx = ((lastIdx >> level) & 1) != 0 ? lastIdx - halfWidth : lastIdx + halfWidth;
+            if ( lastIdx < size && maxEnds[lastIdx] > lastMaxEnd ) {
+                lastMaxEnd = maxEnds[lastIdx];
+            }
+        }
+        return level - 1;
+    }
+
+    private final class IndexEntry implements SVIntervalTree.Entry<V> {
+        private final int idx;
+
+        IndexEntry( final int idx ) { this.idx = idx; }
+
+        @Override
+        public SVInterval getInterval() { return SVIntervalIndex.this.getInterval(idx); }
+
+        @Override
+        public V getValue() { return SVIntervalIndex.this.getValue(idx); }
+
+        @Override
+        public V setValue( final V value ) {
+            throw new UnsupportedOperationException("SVIntervalIndex is immutable.");
+        }
+    }
+
+    /**
+     * Walks the implicit tree from the root, skipping subtrees that end before the query and stopping at the first
+     * node that starts after it.  The entries are found in sorted order.
+     */
+    private final class OverlapIterator implements Iterator<SVIntervalTree.Entry<V>> {
+        // subtrees no bigger than this are scanned rather than walked
+        private static final int SCAN_LEVEL = 3;
+
+        private final long queryStart;
+        private final long queryEnd;
+        // the stack of subtrees to visit: node index, level, and whether its left child has been visited
+        private final long[] nodeStack = new long[2 * Integer.SIZE];
+        private final int[] levelStack = new int[2 * Integer.SIZE];
+        private final boolean[] leftDoneStack = new boolean[2 * Integer.SIZE];
+        private int stackSize = 0;
+        // the range of a subtree being scanned
+        private long scanIdx = 0;
+        private long scanEnd = 0;
+        private int nextIdx;
+
+        OverlapIterator( final SVInterval interval ) {
+            Utils.nonNull(interval, "the interval cannot be null");
+            queryStart = locationKey(interval.getContig(), interval.getStart());
+            queryEnd = locationKey(interval.getContig(), interval.getEnd());
+            if ( rootLevel >= 0 ) {
+                push((1L << rootLevel) - 1, rootLevel, false);
+            }
+            nextIdx = advance();
+        }
+
+        @Override
+        public boolean hasNext() { return nextIdx >= 0; }
+
+        @Override
+        public SVIntervalTree.Entry<V> next() {
+            if ( !hasNext() ) {
+                throw new NoSuchElementException("No next element.");
+            }
+            final SVIntervalTree.Entry<V> entry = new IndexEntry(nextIdx);
+            nextIdx = advance();
+            return entry;
+        }
+
+        private void push( final long node, final int level, final boolean leftDone ) {
+            nodeStack[stackSize] = node;
+            levelStack[stackSize] = level;
+            leftDoneStack[stackSize] = leftDone;
+            stackSize += 1;
+        }
+
+        /** Returns the index of the next overlapping entry, or -1 if there isn't one. */
+        private int advance() {
+            final int size = size();
+            while ( true ) {
+                while ( scanIdx < scanEnd ) {
+                    final int idx = (int)scanIdx++;
+                    if ( startKey(idx) >= queryEnd ) {
+                        scanEnd = scanIdx;
+                    } else if ( queryStart < endKey(idx) ) {
+                        return idx;
+                    }
+                }
+                if ( stackSize == 0 ) {
+                    return -1;
+                }
+                stackSize -= 1;
+                final long node = nodeStack[stackSize];
+                final int level = levelStack[stackSize];
+                if ( level <= SCAN_LEVEL ) {
+                    scanIdx = node >> level << level;
+                    scanEnd = Math.min(scanIdx + (1L << (level + 1)) - 1, size);
+                } else if ( !leftDoneStack[stackSize] ) {
+                    push(node, level, true);
+                    final long leftChild = node - (1L << (level - 1));
+                    if ( leftChild >= size || maxEnds[(int)leftChild] > queryStart ) {
+                        push(leftChild, level - 1, false);
+                    }
+                } else if ( node < size && startKey((int)node) < queryEnd ) {
+                    push(node + (1L << (level - 1)), level - 1, false);
+                    if ( queryStart < endKey((int)node) ) {
+                        return (int)node;
+                    }
+                }
+            }
+        }
+    }
+
+    public static final class Serializer<T> extends com.esotericsoftware.kryo.Serializer<SVIntervalIndex<T>> {
+        @Override
+        public void write( final Kryo kryo, final Output output, final SVIntervalIndex<T> index ) {
+            index.serialize(kryo, output);
+        }
+
+        @Override
+        public SVIntervalIndex<T> read( final Kryo kryo, final Input input, final Class<SVIntervalIndex<T>> klass ) {
+            return new SVIntervalIndex<>(kryo, input);
+        }
+    }
+}
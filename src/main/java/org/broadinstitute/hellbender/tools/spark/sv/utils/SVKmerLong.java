@@ -38,7 +38,7 @@ public class SVKmerLong extends SVKmer implements Comparable<SVKmerLong>  {
         this.valLow = thatLong.valLow;
     }
 
-    private SVKmerLong( final long valHigh, final long valLow ) { this.valHigh = valHigh; this.valLow = valLow; }
+    SVKmerLong( final long valHigh, final long valLow ) { this.valHigh = valHigh; this.valLow = valLow; }
 
     protected SVKmerLong( final Kryo kryo, final Input input ) {
         valHigh = input.readLong();
@@ -123,6 +123,11 @@ public class SVKmerLong extends SVKmer implements Comparable<SVKmerLong>  {
     public final Base lastBase() { return Base.values()[(int)(valLow & 3)]; }
     public final int firstTrimer(final int kSize ) { return (int)(valHigh >>> (kSize-6)); }
     public final int lastTrimer() { return (int)valLow & 0x3F; }
+
+    // the packed representation, for PackedKmerCounts
+    final long getValHigh() { return valHigh; }
+    final long getValLow() { return valLow; }
+
     @Override
     public boolean equals( final Object obj ) {
         return obj instanceof SVKmerLong && equals((SVKmerLong)obj);
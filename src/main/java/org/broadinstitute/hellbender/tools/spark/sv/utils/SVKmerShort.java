@@ -14,6 +14,11 @@ import org.broadinstitute.hellbender.utils.Utils;
  */
 @DefaultSerializer(SVKmerShort.Serializer.class)
 public class SVKmerShort extends SVKmer implements Comparable<SVKmerShort> {
+    /**
+     * The largest K that fits in a single long.
+     */
+    public static final int MAX_KSIZE = 31;
+
     // these are treated as K-bit unsigned integers
     private final long valLow; // Kmer bits
 
@@ -55,12 +60,7 @@ public class SVKmerShort extends SVKmer implements Comparable<SVKmerShort> {
      * @param base must be 0, 1, 2, or 3, corresponding to A, C, G, or T.
      */
     public final SVKmerShort successor( final Base base, final int kSize ) {
-        // bit hack to make a long value with the kSize least significant bits set to 1
-        // note we multiply kSize by two in SVKmerShort because we no longer divide the bits into two longs
-        final long mask = (1L << kSize * 2) - 1L;
-        // move all the bits up two places, OR in the pair of successor bits at the bottom, and mask to kSize bits
-        final long newV2 = ((valLow << 2) | (base.value & 3L)) & mask;
-        return new SVKmerShort(newV2);
+        return new SVKmerShort(successor(valLow, base.value, kSizeMask(kSize)));
     }
 
     /**
@@ -135,6 +135,77 @@ public class SVKmerShort extends SVKmer implements Comparable<SVKmerShort> {
         return Long.compare(this.valLow, that.valLow);
     }
 
+    /**
+     * Returns a long value with the 2*kSize least significant bits set to 1, i.e. the bits used by a kmer of size kSize.
+     */
+    public static long kSizeMask( final int kSize ) {
+        // note we multiply kSize by two in SVKmerShort because we no longer divide the bits into two longs
+        return (1L << kSize * 2) - 1L;
+    }
+
+    /**
+     * Primitive version of {@link #successor(Base, int)} for callers that roll a kmer along a sequence without
+     * allocating a SVKmerShort for each position.
+     *
+     * @param val the bits of a kmer
+     * @param baseValue the 2-bit value of the base to append, as given by {@link #baseValue}
+     * @param mask the mask for the kmer size, as given by {@link #kSizeMask}
+     */
+    public static long successor( final long val, final long baseValue, final long mask ) {
+        // move all the bits up two places, OR in the pair of successor bits at the bottom, and mask to kSize bits
+        return ((val << 2) | (baseValue & 3L)) & mask;
+    }
+
+    /**
+     * Returns the 2-bit value of an upper-case call (A, C, G or T), or -1 for any other byte (including lower-case calls and N).
+     */
+    public static long baseValue( final byte base ) {
+        switch ( base ) {
+            case 'A': return Base.A.value;
+            case 'C': return Base.C.value;
+            case 'G': return Base.G.value;
+            case 'T': return Base.T.value;
+            default: return -1L;
+        }
+    }
+
+    /**
+     * Returns the bits of the kmer made of the kSize bases of {@code bases} that start at {@code start},
+     * or -1 if any of these bases is not an upper-case call (see {@link #baseValue}).
+     */
+    public static long toLong( final byte[] bases, final int start, final int kSize ) {
+        Utils.validateArg(kSize >= 1 && kSize <= MAX_KSIZE, "Kmer length must be between 1 and 31.");
+        long val = 0;
+        for ( int idx = start; idx != start + kSize; ++idx ) {
+            final long baseValue = baseValue(bases[idx]);
+            if ( baseValue < 0 ) {
+                return -1L;
+            }
+            val = (val << 2) | baseValue;
+        }
+        return val;
+    }
+
+    /**
+     * Writes the kSize upper-case calls of the kmer with bits {@code val} into {@code dest}, starting at {@code destStart}.
+     */
+    public static void toBases( final long val, final int kSize, final byte[] dest, final int destStart ) {
+        long bits = val;
+        for ( int idx = destStart + kSize - 1; idx >= destStart; --idx ) {
+            dest[idx] = (byte)BaseUtils.BASE_CHARS[(int) bits & 3];
+            bits >>= 2;
+        }
+    }
+
+    /**
+     * Returns the number of positions at which the kmers with bits {@code val1} and {@code val2} have different bases.
+     */
+    public static int hammingDistance( final long val1, final long val2 ) {
+        final long diff = val1 ^ val2;
+        // fold each pair of bits into its low bit, so that each differing base contributes a single 1
+        return Long.bitCount((diff | (diff >>> 1)) & 0x5555555555555555L);
+    }
+
     //Creates kmer mask given an array of base 0-based positions and the kmer size
     public static SVKmerShort getMask(final byte[] positions, final int kSize) {
         long mask = 0;
@@ -37,6 +37,11 @@ public final class BaseQualityRankSumTest extends RankSumTest implements Standar
         return getReadBaseQuality(read, refLoc);
     }
 
+    @Override
+    protected OptionalDouble getElementForRead(final ReadAlleleSummaries summaries, final int sampleIndex, final int readIndex) {
+        return summaries.getBaseQuality(sampleIndex, readIndex);
+    }
+
     public static OptionalDouble getReadBaseQuality(final GATKRead read, final int refLoc) {
         Utils.nonNull(read);
         return OptionalDouble.of(read.getBaseQuality(ReadUtils.getReadCoordinateForReferenceCoordinateUpToEndOfRead(read, refLoc, ReadUtils.ClippingTail.RIGHT_TAIL)));
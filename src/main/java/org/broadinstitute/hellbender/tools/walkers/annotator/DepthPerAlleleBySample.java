@@ -75,6 +75,37 @@ public final class DepthPerAlleleBySample extends GenotypeAnnotation implements
         gb.AD(counts);
     }
 
+    @Override
+    public void annotate(final ReferenceContext ref,
+                         final VariantContext vc,
+                         final Genotype g,
+                         final GenotypeBuilder gb,
+                         final ReadLikelihoods<Allele> likelihoods,
+                         final ReadAlleleSummaries summaries) {
+        // the shared best alleles can only be reused if they were chosen among exactly the alleles of the vc
+        if ( summaries == null || !summaries.likelihoodAllelesMatchVariant() ) {
+            annotate(ref, vc, g, gb, likelihoods);
+            return;
+        }
+        Utils.nonNull(gb, "gb is null");
+        Utils.nonNull(vc, "vc is null");
+
+        if ( g == null || !g.isCalled() ) {
+            return;
+        }
+
+        final List<Allele> alleles = vc.getAlleles();
+        final int[] counts = new int[alleles.size()];
+        final int sampleIndex = summaries.indexOfSample(g.getSampleName());
+        for (int r = 0; r < summaries.sampleReadCount(sampleIndex); r++) {
+            if (summaries.isInformative(sampleIndex, r)) {
+                counts[alleles.indexOf(summaries.getAllele(sampleIndex, r))]++; //first one in AD is always ref
+            }
+        }
+
+        gb.AD(counts);
+    }
+
     @Override
     public List<String> getKeyNames() { return Collections.singletonList(VCFConstants.GENOTYPE_ALLELE_DEPTHS); }
 
@@ -8,7 +8,6 @@ import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.utils.FisherExactTest;
 import org.broadinstitute.hellbender.utils.QualityUtils;
-import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
@@ -60,9 +59,9 @@ public final class FisherStrand extends StrandBiasTest implements StandardAnnota
     }
 
     @Override
-    protected Map<String, Object> calculateAnnotationFromLikelihoods(final ReadLikelihoods<Allele> likelihoods,
-                                                                     final VariantContext vc){
-        final int[][] table = getContingencyTable(likelihoods, vc, MIN_COUNT);
+    protected Map<String, Object> calculateAnnotationFromSummaries(final ReadAlleleSummaries summaries,
+                                                                   final VariantContext vc){
+        final int[][] table = getContingencyTable(summaries, vc, MIN_COUNT);
         return annotationForOneTable(pValueForContingencyTable(table));
     }
 
@@ -31,6 +31,27 @@ public abstract class GenotypeAnnotation extends VariantAnnotation{
                                   final GenotypeBuilder gb,
                                   final ReadLikelihoods<Allele> likelihoods);
 
+    /**
+     * Computes the annotation for the given genotype using the per-read summaries shared across annotations.
+     * By default it ignores the summaries and delegates to
+     * {@link #annotate(ReferenceContext, VariantContext, Genotype, GenotypeBuilder, ReadLikelihoods)}.
+     *
+     * @param ref Reference context, may be null
+     * @param vc Variant to be annotated. Not null.
+     * @param g the genotype to annotate. May be null.
+     * @param gb the builder to modify and annotations to. Not null.
+     * @param likelihoods matrix of likelihoods indexed by allele and read. May be null.
+     * @param summaries per-read summaries computed from {@code likelihoods}; null if and only if {@code likelihoods} is null.
+     */
+    public void annotate(final ReferenceContext ref,
+                         final VariantContext vc,
+                         final Genotype g,
+                         final GenotypeBuilder gb,
+                         final ReadLikelihoods<Allele> likelihoods,
+                         final ReadAlleleSummaries summaries) {
+        annotate(ref, vc, g, gb, likelihoods);
+    }
+
     /**
      * Return the descriptions used for the VCF FORMAT meta field.
      * Subclasses must ensure that this list is not null and does not contain null.
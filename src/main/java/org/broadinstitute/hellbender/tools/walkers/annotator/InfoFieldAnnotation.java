@@ -29,6 +29,23 @@ public abstract class InfoFieldAnnotation extends VariantAnnotation{
                                                  final VariantContext vc,
                                                  final ReadLikelihoods<Allele> likelihoods);
 
+    /**
+     * Computes the annotation for the given variant using the per-read summaries shared across annotations.
+     * Annotations that need the best allele or simple features of every read should override this method;
+     * by default it ignores the summaries and delegates to {@link #annotate(ReferenceContext, VariantContext, ReadLikelihoods)}.
+     *
+     * @param ref Reference context, may be null
+     * @param vc Variant to be annotated. Not null.
+     * @param likelihoods likelihoods indexed by sample, allele, and read within sample. May be null.
+     * @param summaries per-read summaries computed from {@code likelihoods}; null if and only if {@code likelihoods} is null.
+     */
+    public Map<String, Object> annotate(final ReferenceContext ref,
+                                        final VariantContext vc,
+                                        final ReadLikelihoods<Allele> likelihoods,
+                                        final ReadAlleleSummaries summaries) {
+        return annotate(ref, vc, likelihoods);
+    }
+
     /**
      * Returns the descriptions used for the VCF INFO meta field.
      * Subclasses must ensure that this list is not null and does not contain null.
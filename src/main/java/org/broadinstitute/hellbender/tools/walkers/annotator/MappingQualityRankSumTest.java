@@ -42,4 +42,9 @@ public final class MappingQualityRankSumTest extends RankSumTest implements Stan
         Utils.nonNull(read);
         return OptionalDouble.of(read.getMappingQuality());
     }
+
+    @Override
+    protected OptionalDouble getElementForRead(final ReadAlleleSummaries summaries, final int sampleIndex, final int readIndex) {
+        return OptionalDouble.of(summaries.getMappingQuality(sampleIndex, readIndex));
+    }
 }
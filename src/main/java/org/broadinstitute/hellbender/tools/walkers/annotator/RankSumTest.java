@@ -35,6 +35,15 @@ public abstract class RankSumTest extends InfoFieldAnnotation {
                                         final VariantContext vc,
                                         final ReadLikelihoods<Allele> likelihoods) {
         Utils.nonNull(vc, "vc is null");
+        return annotate(ref, vc, likelihoods, likelihoods == null ? null : new ReadAlleleSummaries(vc, likelihoods));
+    }
+
+    @Override
+    public Map<String, Object> annotate(final ReferenceContext ref,
+                                        final VariantContext vc,
+                                        final ReadLikelihoods<Allele> likelihoods,
+                                        final ReadAlleleSummaries summaries) {
+        Utils.nonNull(vc, "vc is null");
 
         final GenotypesContext genotypes = vc.getGenotypes();
         if (genotypes == null || genotypes.isEmpty()) {
@@ -46,18 +55,19 @@ public abstract class RankSumTest extends InfoFieldAnnotation {
 
         final int refLoc = vc.getStart();
 
-        if( likelihoods != null) {
-            for (final ReadLikelihoods<Allele>.BestAllele bestAllele : likelihoods.bestAlleles()) {
-                final GATKRead read = bestAllele.read;
-                final Allele allele = bestAllele.allele;
-                if (bestAllele.isInformative() && isUsableRead(read, refLoc)) {
-                    final OptionalDouble value = getElementForRead(read, refLoc, bestAllele);
-                    // Bypass read if the clipping goal is not reached or the refloc is inside a spanning deletion
-                    if (value.isPresent() && value.getAsDouble() != INVALID_ELEMENT_FROM_READ) {
-                        if (allele.isReference()) {
-                            refQuals.add(value.getAsDouble());
-                        } else if (vc.hasAllele(allele)) {
-                            altQuals.add(value.getAsDouble());
+        if( summaries != null) {
+            for (int s = 0; s < summaries.numberOfSamples(); s++) {
+                for (int r = 0; r < summaries.sampleReadCount(s); r++) {
+                    if (summaries.isInformative(s, r) && isUsableRead(summaries.getRead(s, r), refLoc)) {
+                        final OptionalDouble value = getElementForRead(summaries, s, r);
+                        // Bypass read if the clipping goal is not reached or the refloc is inside a spanning deletion
+                        if (value.isPresent() && value.getAsDouble() != INVALID_ELEMENT_FROM_READ) {
+                            final Allele allele = summaries.getAllele(s, r);
+                            if (allele.isReference()) {
+                                refQuals.add(value.getAsDouble());
+                            } else if (vc.hasAllele(allele)) {
+                                altQuals.add(value.getAsDouble());
+                            }
                         }
                     }
                 }
@@ -82,6 +92,20 @@ public abstract class RankSumTest extends InfoFieldAnnotation {
         }
     }
 
+    /**
+     * Get the element for a read from the per-site read summaries.
+     * Subclasses whose element is one of the features kept in {@link ReadAlleleSummaries} should override this
+     * to reuse it; by default the element is computed from the read itself.
+     *
+     * @param summaries   the per-read summaries for the site
+     * @param sampleIndex the index of the read's sample
+     * @param readIndex   the index of the read within its sample
+     * @return an OptionalDouble representing the element to be used in the rank sum test, empty if it should not be used
+     */
+    protected OptionalDouble getElementForRead(final ReadAlleleSummaries summaries, final int sampleIndex, final int readIndex) {
+        return getElementForRead(summaries.getRead(sampleIndex, readIndex), summaries.getRefLoc(), summaries.getBestAllele(sampleIndex, readIndex));
+    }
+
     /**
      * Get the element for the given read at the given reference position
      *
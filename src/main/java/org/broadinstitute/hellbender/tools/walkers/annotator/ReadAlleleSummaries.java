@@ -0,0 +1,191 @@
+package org.broadinstitute.hellbender.tools.walkers.annotator;
+
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.OptionalDouble;
+
+/**
+ * Per-site table of read summaries shared by all the annotations computed for a variant.
+ *
+ * <p>Many annotations (rank sum tests, strand bias tests, allele depths...) need the best allele of every read
+ * together with a handful of read features. Finding the best allele requires a scan over the likelihoods of every
+ * allele for every read, so rather than having each annotation redo that work, {@link VariantAnnotatorEngine} creates
+ * one of these tables per site and hands it to every annotation.</p>
+ *
+ * <p>The best allele, informativeness, strand, mapping quality and number of hard-clipped bases of every read are
+ * computed together in a single pass the first time any of them is requested. Base qualities and read positions at
+ * the variant start depend on walking the read cigar, so they are computed on demand for each read and then cached.</p>
+ *
+ * <p>Reads are indexed by sample index and by read index within the sample, following the order in
+ * {@link ReadLikelihoods}. This class is not thread-safe.</p>
+ */
+public final class ReadAlleleSummaries {
+
+    private final ReadLikelihoods<Allele> likelihoods;
+    private final int refLoc;
+    private final boolean likelihoodAllelesMatchVariant;
+
+    private List<List<ReadLikelihoods<Allele>.BestAllele>> bestAlleles;
+    private boolean[][] informative;
+    private boolean[][] reverseStrand;
+    private int[][] mappingQualities;
+    private int[][] hardClippedBases;
+
+    private OptionalDouble[][] baseQualities;
+    private OptionalDouble[][] readPositions;
+
+    /**
+     * Creates the summaries for the reads in {@code likelihoods} at the start of {@code vc}.
+     * No work is done until the summaries are first accessed.
+     *
+     * @param vc the variant being annotated. Not null.
+     * @param likelihoods likelihoods indexed by sample, allele, and read within sample. Not null.
+     */
+    public ReadAlleleSummaries(final VariantContext vc, final ReadLikelihoods<Allele> likelihoods) {
+        Utils.nonNull(vc, "vc is null");
+        this.likelihoods = Utils.nonNull(likelihoods, "likelihoods is null");
+        this.refLoc = vc.getStart();
+        this.likelihoodAllelesMatchVariant = likelihoods.numberOfAlleles() == vc.getNAlleles()
+                && new HashSet<>(likelihoods.alleles()).containsAll(vc.getAlleles());
+    }
+
+    /**
+     * Returns the likelihoods these summaries were computed from.
+     */
+    public ReadLikelihoods<Allele> getLikelihoods() {
+        return likelihoods;
+    }
+
+    /**
+     * Returns the reference position at which the per-read features are computed.
+     */
+    public int getRefLoc() {
+        return refLoc;
+    }
+
+    /**
+     * Whether the alleles in the likelihoods are exactly the alleles of the variant (in any order).
+     * When this holds, the best allele of each read is also its best allele among the variant alleles.
+     */
+    public boolean likelihoodAllelesMatchVariant() {
+        return likelihoodAllelesMatchVariant;
+    }
+
+    public int numberOfSamples() {
+        return likelihoods.numberOfSamples();
+    }
+
+    public int indexOfSample(final String sample) {
+        return likelihoods.indexOfSample(sample);
+    }
+
+    public int sampleReadCount(final int sampleIndex) {
+        computeSummaries();
+        Utils.validIndex(sampleIndex, bestAlleles.size());
+        return bestAlleles.get(sampleIndex).size();
+    }
+
+    public ReadLikelihoods<Allele>.BestAllele getBestAllele(final int sampleIndex, final int readIndex) {
+        computeSummaries();
+        return bestAlleles.get(sampleIndex).get(readIndex);
+    }
+
+    /**
+     * Returns the most likely allele for the read; {@code null} if there is none.
+     */
+    public Allele getAllele(final int sampleIndex, final int readIndex) {
+        return getBestAllele(sampleIndex, readIndex).allele;
+    }
+
+    public GATKRead getRead(final int sampleIndex, final int readIndex) {
+        return getBestAllele(sampleIndex, readIndex).read;
+    }
+
+    public boolean isInformative(final int sampleIndex, final int readIndex) {
+        computeSummaries();
+        return informative[sampleIndex][readIndex];
+    }
+
+    public boolean isReverseStrand(final int sampleIndex, final int readIndex) {
+        computeSummaries();
+        return reverseStrand[sampleIndex][readIndex];
+    }
+
+    public int getMappingQuality(final int sampleIndex, final int readIndex) {
+        computeSummaries();
+        return mappingQualities[sampleIndex][readIndex];
+    }
+
+    public int getHardClippedBases(final int sampleIndex, final int readIndex) {
+        computeSummaries();
+        return hardClippedBases[sampleIndex][readIndex];
+    }
+
+    /**
+     * Returns the base quality of the read at the variant start, as given by {@link BaseQualityRankSumTest#getReadBaseQuality}.
+     */
+    public OptionalDouble getBaseQuality(final int sampleIndex, final int readIndex) {
+        computeSummaries();
+        if (baseQualities[sampleIndex][readIndex] == null) {
+            baseQualities[sampleIndex][readIndex] = BaseQualityRankSumTest.getReadBaseQuality(getRead(sampleIndex, readIndex), refLoc);
+        }
+        return baseQualities[sampleIndex][readIndex];
+    }
+
+    /**
+     * Returns the position of the variant start within the read, as given by {@link ReadPosRankSumTest#getReadPosition}.
+     */
+    public OptionalDouble getReadPosition(final int sampleIndex, final int readIndex) {
+        computeSummaries();
+        if (readPositions[sampleIndex][readIndex] == null) {
+            readPositions[sampleIndex][readIndex] = ReadPosRankSumTest.getReadPosition(getRead(sampleIndex, readIndex), refLoc);
+        }
+        return readPositions[sampleIndex][readIndex];
+    }
+
+    /**
+     * Fills all the eagerly computed columns in one pass over the reads.
+     */
+    private void computeSummaries() {
+        if (bestAlleles != null) {
+            return;
+        }
+        final int numberOfSamples = likelihoods.numberOfSamples();
+        final List<List<ReadLikelihoods<Allele>.BestAllele>> bestAllelesBySample = new ArrayList<>(numberOfSamples);
+        informative = new boolean[numberOfSamples][];
+        reverseStrand = new boolean[numberOfSamples][];
+        mappingQualities = new int[numberOfSamples][];
+        hardClippedBases = new int[numberOfSamples][];
+        baseQualities = new OptionalDouble[numberOfSamples][];
+        readPositions = new OptionalDouble[numberOfSamples][];
+
+        for (int s = 0; s < numberOfSamples; s++) {
+            final List<ReadLikelihoods<Allele>.BestAllele> sampleBestAlleles = new ArrayList<>(likelihoods.bestAlleles(likelihoods.getSample(s)));
+            final int readCount = sampleBestAlleles.size();
+            informative[s] = new boolean[readCount];
+            reverseStrand[s] = new boolean[readCount];
+            mappingQualities[s] = new int[readCount];
+            hardClippedBases[s] = new int[readCount];
+            baseQualities[s] = new OptionalDouble[readCount];
+            readPositions[s] = new OptionalDouble[readCount];
+            for (int r = 0; r < readCount; r++) {
+                final ReadLikelihoods<Allele>.BestAllele bestAllele = sampleBestAlleles.get(r);
+                final GATKRead read = bestAllele.read;
+                informative[s][r] = bestAllele.isInformative();
+                reverseStrand[s][r] = read.isReverseStrand();
+                mappingQualities[s][r] = read.getMappingQuality();
+                hardClippedBases[s][r] = AlignmentUtils.getNumHardClippedBases(read);
+            }
+            bestAllelesBySample.add(sampleBestAlleles);
+        }
+        bestAlleles = bestAllelesBySample;
+    }
+}
@@ -41,6 +41,11 @@ public final class ReadPosRankSumTest extends RankSumTest implements StandardAnn
         return getReadPosition(read, refLoc);
     }
 
+    @Override
+    protected OptionalDouble getElementForRead(final ReadAlleleSummaries summaries, final int sampleIndex, final int readIndex) {
+        return summaries.getReadPosition(sampleIndex, readIndex);
+    }
+
     @Override
     public boolean isUsableRead(final GATKRead read, final int refLoc) {
         Utils.nonNull(read);
@@ -60,15 +60,26 @@ public final class StrandBiasBySample extends GenotypeAnnotation {
                          final GenotypeBuilder gb,
                          final ReadLikelihoods<Allele> likelihoods) {
         Utils.nonNull(vc);
+        annotate(ref, vc, g, gb, likelihoods, likelihoods == null ? null : new ReadAlleleSummaries(vc, likelihoods));
+    }
+
+    @Override
+    public void annotate(final ReferenceContext ref,
+                         final VariantContext vc,
+                         final Genotype g,
+                         final GenotypeBuilder gb,
+                         final ReadLikelihoods<Allele> likelihoods,
+                         final ReadAlleleSummaries summaries) {
+        Utils.nonNull(vc);
         Utils.nonNull(g);
         Utils.nonNull(gb);
 
-        if ( likelihoods == null || !g.isCalled() ) {
+        if ( summaries == null || !g.isCalled() ) {
             logger.warn("Annotation will not be calculated, genotype is not called or alleleLikelihoodMap is null");
             return;
         }
 
-        final int[][] table = FisherStrand.getContingencyTable(likelihoods, vc, 0, Arrays.asList(g.getSampleName()));
+        final int[][] table = FisherStrand.getContingencyTable(summaries, vc, 0, Arrays.asList(g.getSampleName()));
 
         gb.attribute(GATKVCFConstants.STRAND_BIAS_BY_SAMPLE_KEY, getContingencyArray(table));
     }
@@ -8,7 +8,6 @@ import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
-import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 
 import java.util.*;
@@ -27,6 +26,15 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
                                         final VariantContext vc,
                                         final ReadLikelihoods<Allele> likelihoods) {
         Utils.nonNull(vc);
+        return annotate(ref, vc, likelihoods, likelihoods == null ? null : new ReadAlleleSummaries(vc, likelihoods));
+    }
+
+    @Override
+    public Map<String, Object> annotate(final ReferenceContext ref,
+                                        final VariantContext vc,
+                                        final ReadLikelihoods<Allele> likelihoods,
+                                        final ReadAlleleSummaries summaries) {
+        Utils.nonNull(vc);
         if ( !vc.isVariant() ) {
             return Collections.emptyMap();
         }
@@ -40,16 +48,19 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
             }
         }
 
-        if (likelihoods != null) {
-            return calculateAnnotationFromLikelihoods(likelihoods, vc);
+        if (summaries != null) {
+            return calculateAnnotationFromSummaries(summaries, vc);
         }
         return Collections.emptyMap();
     }
 
     protected abstract Map<String, Object> calculateAnnotationFromGTfield(final GenotypesContext genotypes);
 
-    protected abstract Map<String, Object> calculateAnnotationFromLikelihoods(final ReadLikelihoods<Allele> likelihoods,
-                                                                              final VariantContext vc);
+    /**
+     * Calculates the annotation from the per-read summaries shared across annotations.
+     */
+    protected abstract Map<String, Object> calculateAnnotationFromSummaries(final ReadAlleleSummaries summaries,
+                                                                            final VariantContext vc);
 
     /**
      * Create the contingency table by retrieving the per-sample strand bias annotation and adding them together
@@ -121,16 +132,49 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
         if( likelihoods == null || vc == null) {
             return null;
         }
+        return getContingencyTable(new ReadAlleleSummaries(vc, likelihoods), vc, minCount, samples);
+    }
+
+    /**
+     Allocate and fill a 2x2 strand contingency table from the per-read summaries of a site.
+     *             fw      rc
+     *   allele1   #       #
+     *   allele2   #       #
+     * @return a 2x2 contingency table
+     */
+    public static int[][] getContingencyTable( final ReadAlleleSummaries summaries,
+                                               final VariantContext vc,
+                                               final int minCount) {
+        return getContingencyTable(summaries, vc, minCount, summaries.getLikelihoods().samples());
+    }
+
+    /**
+     Allocate and fill a 2x2 strand contingency table from the per-read summaries of a site, for the given samples only.
+     *             fw      rc
+     *   allele1   #       #
+     *   allele2   #       #
+     * @return a 2x2 contingency table
+     */
+    public static int[][] getContingencyTable( final ReadAlleleSummaries summaries,
+                                               final VariantContext vc,
+                                               final int minCount,
+                                               final Collection<String> samples) {
+        if( summaries == null || vc == null) {
+            return null;
+        }
 
         final Allele ref = vc.getReference();
         final List<Allele> allAlts = vc.getAlternateAlleles();
 
         final int[][] table = new int[ARRAY_DIM][ARRAY_DIM];
         for (final String sample : samples) {
+            final int sampleIndex = summaries.indexOfSample(sample);
             final int[] sampleTable = new int[ARRAY_SIZE];
-            likelihoods.bestAlleles(sample).stream()
-                    .filter(ba -> ba.isInformative())
-                    .forEach(ba -> updateTable(sampleTable, ba.allele, ba.read, ref, allAlts));
+            for (int r = 0; r < summaries.sampleReadCount(sampleIndex); r++) {
+                if (summaries.isInformative(sampleIndex, r)) {
+                    updateTable(sampleTable, summaries.getAllele(sampleIndex, r), summaries.isReverseStrand(sampleIndex, r), ref, allAlts);
+                }
+            }
             if (passesMinimumThreshold(sampleTable, minCount)) {
                 copyToMainTable(sampleTable, table);
             }
@@ -152,7 +196,7 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
         mainTable[1][1] += perSampleTable[3];
     }
 
-    private static void updateTable(final int[] table, final Allele allele, final GATKRead read, final Allele ref, final List<Allele> allAlts) {
+    private static void updateTable(final int[] table, final Allele allele, final boolean isReverseStrand, final Allele ref, final List<Allele> allAlts) {
         final boolean matchesRef = allele.equals(ref, true);
         final boolean matchesAnyAlt = allAlts.contains(allele);
 
@@ -160,7 +204,7 @@ public abstract class StrandBiasTest extends InfoFieldAnnotation {
             final int offset = matchesRef ? 0 : ARRAY_DIM;
 
             // a normal read with an actual strand
-            final boolean isFW = !read.isReverseStrand();
+            final boolean isFW = !isReverseStrand;
             table[offset + (isFW ? 0 : 1)]++;
         }
     }
@@ -6,7 +6,6 @@ import htsjdk.variant.variantcontext.GenotypesContext;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import org.broadinstitute.barclay.help.DocumentedFeature;
-import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
@@ -68,8 +67,8 @@ public final class StrandOddsRatio extends StrandBiasTest implements StandardAnn
     }
 
     @Override
-    protected Map<String, Object> calculateAnnotationFromLikelihoods(final ReadLikelihoods<Allele> likelihoods, final VariantContext vc){
-        final int[][] table = getContingencyTable(likelihoods, vc, MIN_COUNT);
+    protected Map<String, Object> calculateAnnotationFromSummaries(final ReadAlleleSummaries summaries, final VariantContext vc){
+        final int[][] table = getContingencyTable(summaries, vc, MIN_COUNT);
         return annotationForOneTable(calculateSOR(table));
     }
 
@@ -255,15 +255,18 @@ public final class VariantAnnotatorEngine {
         Utils.nonNull(vc, "vc cannot be null");
         Utils.nonNull(features, "features cannot be null");
 
+        // per-read best alleles and features are shared by all the annotations at this site
+        final ReadAlleleSummaries summaries = likelihoods == null ? null : new ReadAlleleSummaries(vc, likelihoods);
+
         // annotate genotypes, creating another new VC in the process
         final VariantContextBuilder builder = new VariantContextBuilder(vc);
-        builder.genotypes(annotateGenotypes(ref, vc, likelihoods, addAnnot));
+        builder.genotypes(annotateGenotypes(ref, vc, likelihoods, summaries, addAnnot));
         final VariantContext newGenotypeAnnotatedVC = builder.make();
 
         final Map<String, Object> infoAnnotMap = new LinkedHashMap<>(newGenotypeAnnotatedVC.getAttributes());
         for ( final InfoFieldAnnotation annotationType : this.infoAnnotations) {
             if (addAnnot.test(annotationType)){
-                final Map<String, Object> annotationsFromCurrentType = annotationType.annotate(ref, newGenotypeAnnotatedVC, likelihoods);
+                final Map<String, Object> annotationsFromCurrentType = annotationType.annotate(ref, newGenotypeAnnotatedVC, likelihoods, summaries);
                 if ( annotationsFromCurrentType != null ) {
                     infoAnnotMap.putAll(annotationsFromCurrentType);
                 }
@@ -280,6 +283,7 @@ public final class VariantAnnotatorEngine {
     private GenotypesContext annotateGenotypes(final ReferenceContext ref,
                                                final VariantContext vc,
                                                final ReadLikelihoods<Allele> likelihoods,
+                                               final ReadAlleleSummaries summaries,
                                                final Predicate<VariantAnnotation> addAnnot) {
         if ( genotypeAnnotations.isEmpty() ) {
             return vc.getGenotypes();
@@ -290,7 +294,7 @@ public final class VariantAnnotatorEngine {
             final GenotypeBuilder gb = new GenotypeBuilder(genotype);
             for ( final GenotypeAnnotation annotation : genotypeAnnotations) {
                 if (addAnnot.test(annotation)) {
-                    annotation.annotate(ref, vc, genotype, gb, likelihoods);
+                    annotation.annotate(ref, vc, genotype, gb, likelihoods, summaries);
                 }
             }
             genotypes.add(gb.make());
@@ -4,10 +4,10 @@ import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.tools.walkers.annotator.FisherStrand;
+import org.broadinstitute.hellbender.tools.walkers.annotator.ReadAlleleSummaries;
 import org.broadinstitute.hellbender.tools.walkers.annotator.StrandBiasTest;
 import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
-import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 
@@ -50,10 +50,10 @@ public class AS_FisherStrand extends AS_StrandBiasTest implements AS_StandardAnn
     }
 
     @Override
-    protected Map<String, Object> calculateAnnotationFromLikelihoods(final ReadLikelihoods<Allele> likelihoods,
-                                                                     final VariantContext vc) {
+    protected Map<String, Object> calculateAnnotationFromSummaries(final ReadAlleleSummaries summaries,
+                                                                   final VariantContext vc) {
         // either SNP with no alignment context, or indels: per-read likelihood map needed
-        final int[][] table = StrandBiasTest.getContingencyTable(likelihoods, vc, MIN_COUNT);
+        final int[][] table = StrandBiasTest.getContingencyTable(summaries, vc, MIN_COUNT);
         return table == null ? null : annotationForOneTable(FisherStrand.pValueForContingencyTable(table));
     }
 
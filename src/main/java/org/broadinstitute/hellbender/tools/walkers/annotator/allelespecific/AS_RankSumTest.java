@@ -30,6 +30,14 @@ public abstract class AS_RankSumTest extends RankSumTest implements ReducibleAnn
         return annotateRawData(ref, vc, likelihoods);
     }
 
+    @Override
+    public Map<String, Object> annotate(final ReferenceContext ref,
+                                        final VariantContext vc,
+                                        final ReadLikelihoods<Allele> likelihoods,
+                                        final ReadAlleleSummaries summaries) {
+        return annotateRawData(ref, vc, likelihoods);
+    }
+
     /**
      * Generates an annotation by calling the client implementation of getElementForRead(GATKRead read) over each read
      * given its best assigned allele and returns the value of the allele as a double. This data gets condensed into a
@@ -6,6 +6,7 @@ import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFInfoHeaderLine;
 import org.apache.log4j.Logger;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.tools.walkers.annotator.ReadAlleleSummaries;
 import org.broadinstitute.hellbender.tools.walkers.annotator.StrandBiasTest;
 import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -43,6 +44,14 @@ public abstract class AS_StrandBiasTest extends StrandBiasTest implements Reduci
         return annotateRawData(ref, vc, likelihoods);
     }
 
+    @Override
+    public Map<String, Object> annotate(final ReferenceContext ref,
+                                        final VariantContext vc,
+                                        final ReadLikelihoods<Allele> likelihoods,
+                                        final ReadAlleleSummaries summaries) {
+        return annotateRawData(ref, vc, likelihoods);
+    }
+
     /**
      * Method which determines how the Strand Bias read direction allele data must be combined into a final annotation
      * Must be overridden by client methods.
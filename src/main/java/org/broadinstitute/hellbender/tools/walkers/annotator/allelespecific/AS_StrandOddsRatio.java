@@ -3,8 +3,8 @@ package org.broadinstitute.hellbender.tools.walkers.annotator.allelespecific;
 import htsjdk.variant.variantcontext.Allele;
 import htsjdk.variant.variantcontext.VariantContext;
 import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.tools.walkers.annotator.ReadAlleleSummaries;
 import org.broadinstitute.hellbender.tools.walkers.annotator.StrandOddsRatio;
-import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
 import org.broadinstitute.hellbender.utils.help.HelpConstants;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
 
@@ -66,10 +66,10 @@ public final class AS_StrandOddsRatio extends AS_StrandBiasTest implements AS_St
     }
 
     @Override
-    protected Map<String, Object> calculateAnnotationFromLikelihoods(final ReadLikelihoods<Allele> likelihoods,
-                                                                     final VariantContext vc){
+    protected Map<String, Object> calculateAnnotationFromSummaries(final ReadAlleleSummaries summaries,
+                                                                   final VariantContext vc){
         // either SNP with no alignment context, or indels: per-read likelihood map needed
-        final int[][] table = getContingencyTable(likelihoods, vc, MIN_COUNT);
+        final int[][] table = getContingencyTable(summaries, vc, MIN_COUNT);
         final double ratio = StrandOddsRatio.calculateSOR(table);
         return Collections.singletonMap(getKeyNames().get(0), StrandOddsRatio.formattedValue(ratio));
     }
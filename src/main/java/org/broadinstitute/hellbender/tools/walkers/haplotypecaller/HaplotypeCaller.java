@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.reference.ReferenceSequenceFile;
+import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.writer.VariantContextWriter;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
@@ -16,6 +17,7 @@ import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.fasta.CachingIndexedFastaSequenceFile;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
 import java.io.File;
 import java.io.FileNotFoundException;
@@ -160,6 +162,8 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
 
     private HaplotypeCallerEngine hcEngine;
 
+    private static final InstrumentationRegistry.Timer WRITE_VARIANTS_TIMER = InstrumentationRegistry.global().timer("haplotypeCaller.writeVariants");
+
     @Override
     protected int defaultReadShardSize() { return DEFAULT_READSHARD_SIZE; }
 
@@ -221,7 +225,10 @@ public final class HaplotypeCaller extends AssemblyRegionWalker {
 
     @Override
     public void apply(final AssemblyRegion region, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
-        hcEngine.callRegion(region, featureContext).forEach(vcfWriter::add);
+        final List<VariantContext> calls = hcEngine.callRegion(region, featureContext);
+        final long writeStart = WRITE_VARIANTS_TIMER.start();
+        calls.forEach(vcfWriter::add);
+        WRITE_VARIANTS_TIMER.stop(writeStart);
     }
 
     @Override
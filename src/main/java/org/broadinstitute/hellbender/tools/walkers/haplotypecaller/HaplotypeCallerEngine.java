@@ -37,6 +37,7 @@ import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.haplotype.HaplotypeBAMWriter;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanJavaAligner;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
@@ -134,6 +135,14 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
     private static final List<VariantContext> NO_CALLS = Collections.emptyList();
 
+    // Timers for the sub-steps of callRegion()
+    private static final InstrumentationRegistry.Timer ASSEMBLY_TIMER = InstrumentationRegistry.global().timer("haplotypeCaller.assembly");
+    private static final InstrumentationRegistry.Timer READ_LIKELIHOODS_TIMER = InstrumentationRegistry.global().timer("haplotypeCaller.readLikelihoods");
+    private static final InstrumentationRegistry.Timer REALIGNMENT_TIMER = InstrumentationRegistry.global().timer("haplotypeCaller.realignReads");
+    private static final InstrumentationRegistry.Timer GENOTYPING_TIMER = InstrumentationRegistry.global().timer("haplotypeCaller.genotyping");
+    private static final InstrumentationRegistry.Timer BAM_OUTPUT_TIMER = InstrumentationRegistry.global().timer("haplotypeCaller.bamOutput");
+    private static final InstrumentationRegistry.Timer REFERENCE_CONFIDENCE_TIMER = InstrumentationRegistry.global().timer("haplotypeCaller.referenceConfidence");
+
     private static final Allele FAKE_REF_ALLELE = Allele.create("N", true); // used in isActive function to call into UG Engine. Should never appear anywhere in a VCF file
     private static final Allele FAKE_ALT_ALLELE = Allele.create("<FAKE_ALT>", false); // used in isActive function to call into UG Engine. Should never appear anywhere in a VCF file
 
@@ -502,7 +511,9 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         }
 
         // run the local assembler, getting back a collection of information on how we should proceed
+        final long assemblyStart = ASSEMBLY_TIMER.start();
         final AssemblyResultSet untrimmedAssemblyResult =  AssemblyBasedCallerUtils.assembleReads(region, givenAlleles, hcArgs, readsHeader, samplesList, logger, referenceReader, assemblyEngine, aligner);
+        ASSEMBLY_TIMER.stop(assemblyStart);
 
         final SortedSet<VariantContext> allVariationEvents = untrimmedAssemblyResult.getVariationEvents();
         // TODO - line bellow might be unnecessary : it might be that assemblyResult will always have those alleles anyway
@@ -550,12 +561,16 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         final Map<String,List<GATKRead>> reads = splitReadsBySample(regionForGenotyping.getReads());
 
         // Calculate the likelihoods: CPU intensive part.
+        final long readLikelihoodsStart = READ_LIKELIHOODS_TIMER.start();
         final ReadLikelihoods<Haplotype> readLikelihoods =
                 likelihoodCalculationEngine.computeReadLikelihoods(assemblyResult, samplesList, reads);
+        READ_LIKELIHOODS_TIMER.stop(readLikelihoodsStart);
 
         // Realign reads to their best haplotype.
+        final long realignmentStart = REALIGNMENT_TIMER.start();
         final Map<GATKRead, GATKRead> readRealignments = AssemblyBasedCallerUtils.realignReadsToTheirBestHaplotype(readLikelihoods, assemblyResult.getReferenceHaplotype(), assemblyResult.getPaddedReferenceLoc(), aligner);
         readLikelihoods.changeReads(readRealignments);
+        REALIGNMENT_TIMER.stop(realignmentStart);
 
         // Note: we used to subset down at this point to only the "best" haplotypes in all samples for genotyping, but there
         //  was a bad interaction between that selection and the marginalization that happens over each event when computing
@@ -563,6 +578,7 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         //  haplotype containing C as reference (and vice versa).  Now this is fine if all possible haplotypes are included
         //  in the genotyping, but we lose information if we select down to a few haplotypes.  [EB]
 
+        final long genotypingStart = GENOTYPING_TIMER.start();
         final HaplotypeCallerGenotypingEngine.CalledHaplotypes calledHaplotypes = genotypingEngine.assignGenotypeLikelihoods(
                 haplotypes,
                 readLikelihoods,
@@ -574,14 +590,17 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
                 (hcArgs.assemblerArgs.consensusMode ? Collections.<VariantContext>emptyList() : givenAlleles),
                 emitReferenceConfidence(),
                 readsHeader);
+        GENOTYPING_TIMER.stop(genotypingStart);
 
         if ( haplotypeBAMWriter.isPresent() ) {
+            final long bamOutputStart = BAM_OUTPUT_TIMER.start();
             final Set<Haplotype> calledHaplotypeSet = new HashSet<>(calledHaplotypes.getCalledHaplotypes());
             if ( hcArgs.disableOptimizations ) {
                 calledHaplotypeSet.add(assemblyResult.getReferenceHaplotype());
             }
             haplotypeBAMWriter.get().writeReadsAlignedToHaplotypes(haplotypes, assemblyResult.getPaddedReferenceLoc(), haplotypes,
                                                              calledHaplotypeSet, readLikelihoods);
+            BAM_OUTPUT_TIMER.stop(bamOutputStart);
         }
 
         if( hcArgs.debug) {
@@ -600,9 +619,11 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
                     result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantLeftFlankRegion(), false));
                 }
                 // output variant containing region.
+                final long referenceConfidenceStart = REFERENCE_CONFIDENCE_TIMER.start();
                 result.addAll(referenceConfidenceModel.calculateRefConfidence(assemblyResult.getReferenceHaplotype(),
                         calledHaplotypes.getCalledHaplotypes(), assemblyResult.getPaddedReferenceLoc(), regionForGenotyping,
                         readLikelihoods, genotypingEngine.getPloidyModel(), calledHaplotypes.getCalls()));
+                REFERENCE_CONFIDENCE_TIMER.stop(referenceConfidenceStart);
                 // output right-flanking non-variant section:
                 if (trimmingResult.hasRightFlankingRegion()) {
                     result.addAll(referenceModelForNoVariation(trimmingResult.nonVariantRightFlankRegion(), false));
@@ -1,6 +1,10 @@
 package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
 import com.google.common.annotations.VisibleForTesting;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntMaps;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.*;
@@ -9,11 +13,21 @@ import java.util.*;
  * generic utility class that counts kmers
  *
  * Basically you add kmers to the counter, and it tells you how many occurrences of each kmer it's seen.
+ *
+ * Kmers of length up to {@link SVKmerShort#MAX_KSIZE} made only of upper-case calls are packed 2 bits per base into a
+ * long (using the {@link SVKmerShort} encoding) and counted in a primitive open-addressing table, so that counting the
+ * kmers of a read with {@link #addKmers(byte[])} does not allocate anything. All other kmers (those containing Ns,
+ * lower-case bases, or longer than {@link SVKmerShort#MAX_KSIZE}) are counted as {@link Kmer} objects.
  */
 public final class KMerCounter {
 
     /**
-     * A map of for each kmer to its num occurrences in addKmers
+     * Counts of the kmers that can be packed into a long, or null if kmerLength is too large for that
+     */
+    private final Long2IntOpenHashMap countsByEncodedKmer;
+
+    /**
+     * A map of for each kmer that can't be packed into a long to its num occurrences in addKmers
      */
     private final Map<Kmer, CountedKmer> countsByKMer = new HashMap<>();
     private final int kmerLength;
@@ -26,6 +40,7 @@ public final class KMerCounter {
     public KMerCounter(final int kmerLength) {
         Utils.validateArg( kmerLength > 0, () -> "kmerLength must be > 0 but got " + kmerLength);
         this.kmerLength = kmerLength;
+        this.countsByEncodedKmer = kmerLength <= SVKmerShort.MAX_KSIZE ? new Long2IntOpenHashMap() : null;
     }
 
     /**
@@ -35,15 +50,51 @@ public final class KMerCounter {
      */
     public int getKmerCount(final Kmer kmer) {
         Utils.nonNull(kmer, "kmer cannot be null");
+        final long encodedKmer = encode(kmer);
+        if ( encodedKmer >= 0 ) {
+            return countsByEncodedKmer.get(encodedKmer);
+        }
         final CountedKmer counted = countsByKMer.get(kmer);
         return counted == null ? 0 : counted.count;
     }
 
     /**
      * Get an unordered collection of the counted kmers in this counter
+     *
+     * Note that this creates a {@link Kmer} for every distinct kmer counted, so it should not be used in performance
+     * sensitive code; see {@link #getEncodedKmerCounts} and {@link #getUnencodedCountedKmers} instead.
+     *
      * @return a non-null collection
      */
     public Collection<CountedKmer> getCountedKmers() {
+        if ( countsByEncodedKmer == null || countsByEncodedKmer.isEmpty() ) {
+            return countsByKMer.values();
+        }
+        final List<CountedKmer> result = new ArrayList<>(countsByEncodedKmer.size() + countsByKMer.size());
+        for ( final Long2IntMap.Entry entry : countsByEncodedKmer.long2IntEntrySet() ) {
+            final byte[] bases = new byte[kmerLength];
+            SVKmerShort.toBases(entry.getLongKey(), kmerLength, bases, 0);
+            final CountedKmer countedKmer = new CountedKmer(new Kmer(bases));
+            countedKmer.count = entry.getIntValue();
+            result.add(countedKmer);
+        }
+        result.addAll(countsByKMer.values());
+        return result;
+    }
+
+    /**
+     * Get the counts of the kmers that are packed into longs with the {@link SVKmerShort} encoding.
+     * @return a non-null unmodifiable map from packed kmer to count
+     */
+    Long2IntMap getEncodedKmerCounts() {
+        return countsByEncodedKmer == null ? Long2IntMaps.EMPTY_MAP : Long2IntMaps.unmodifiable(countsByEncodedKmer);
+    }
+
+    /**
+     * Get the counts of the kmers that can't be packed into longs.
+     * @return a non-null unordered collection
+     */
+    Collection<CountedKmer> getUnencodedCountedKmers() {
         return countsByKMer.values();
     }
 
@@ -66,6 +117,9 @@ public final class KMerCounter {
      * Remove all current counts, resetting the counter to an empty state
      */
     public void clear() {
+        if ( countsByEncodedKmer != null ) {
+            countsByEncodedKmer.clear();
+        }
         countsByKMer.clear();
     }
 
@@ -79,6 +133,60 @@ public final class KMerCounter {
         Utils.validateArg(kmer.length() == kmerLength, () -> "bad kmer length " + kmer + " expected size " + kmerLength);
         Utils.validateArg( kmerCount >= 0, () -> "bad kmerCount " + kmerCount);
 
+        final long encodedKmer = encode(kmer);
+        if ( encodedKmer >= 0 ) {
+            countsByEncodedKmer.addTo(encodedKmer, kmerCount);
+        } else {
+            addUnencodedKmer(kmer, kmerCount);
+        }
+    }
+
+    /**
+     * Add one occurrence of each of the kmers in {@code bases}, i.e. of the kmers starting at each offset
+     * from 0 to bases.length - kmerLength.
+     *
+     * @param bases a non-null sequence of bases
+     */
+    public void addKmers(final byte[] bases) {
+        Utils.nonNull(bases, "bases cannot be null");
+        if ( countsByEncodedKmer == null ) {
+            for ( int offset = 0; offset <= bases.length - kmerLength; offset++ ) {
+                addUnencodedKmer(new Kmer(bases, offset, kmerLength), 1);
+            }
+            return;
+        }
+
+        final long mask = SVKmerShort.kSizeMask(kmerLength);
+        long encodedKmer = 0;
+        // number of consecutive upper-case calls ending at the current position
+        int validBases = 0;
+        for ( int i = 0; i < bases.length; i++ ) {
+            final long baseValue = SVKmerShort.baseValue(bases[i]);
+            if ( baseValue < 0 ) {
+                validBases = 0;
+            } else {
+                encodedKmer = SVKmerShort.successor(encodedKmer, baseValue, mask);
+                validBases++;
+            }
+            final int offset = i - kmerLength + 1;
+            if ( offset >= 0 ) {
+                if ( validBases >= kmerLength ) {
+                    countsByEncodedKmer.addTo(encodedKmer, 1);
+                } else {
+                    addUnencodedKmer(new Kmer(bases, offset, kmerLength), 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the kmer packed into a long with the {@link SVKmerShort} encoding, or -1 if it can't be packed
+     */
+    long encode(final Kmer kmer) {
+        return countsByEncodedKmer == null || kmer.length() != kmerLength ? -1L : SVKmerShort.toLong(kmer.bases(), 0, kmerLength);
+    }
+
+    private void addUnencodedKmer(final Kmer kmer, final int kmerCount) {
         CountedKmer countFromMap = countsByKMer.get(kmer);
         if ( countFromMap == null ) {
             countFromMap = new CountedKmer(kmer);
@@ -90,7 +198,7 @@ public final class KMerCounter {
     @Override
     public String toString() {
         final StringBuilder b = new StringBuilder("KMerCounter{");
-        b.append("counting ").append(countsByKMer.size()).append(" distinct kmers");
+        b.append("counting ").append((countsByEncodedKmer == null ? 0 : countsByEncodedKmer.size()) + countsByKMer.size()).append(" distinct kmers");
         b.append("\n}");
         return b.toString();
     }
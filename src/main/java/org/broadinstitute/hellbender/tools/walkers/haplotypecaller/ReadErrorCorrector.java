@@ -1,8 +1,13 @@
 package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
 
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import org.apache.commons.lang3.tuple.Pair;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
 import org.broadinstitute.hellbender.utils.BaseUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
 import org.broadinstitute.hellbender.utils.Utils;
@@ -44,6 +49,10 @@ import java.util.*;
  * -- At the end, each base in read will have a list of corrections associated with it. We can then choose to correct or not.
  *    If read has only consistent corrections, then we can correct base to common base in corrections.
  *
+ *    Kmers are counted and looked up packed into longs whenever possible (see {@link KMerCounter}), and the corrections
+ *    of these packed kmers are stored in flat primitive arrays, so that counting and correcting a read does not allocate
+ *    an object per kmer, and the nearest neighbor search compares kmers with a few bit operations.
+ *
  *    TODO:
  *    todo Q: WHAT QUALITY TO USE??
  *    todo how do we deal with mate pairs?
@@ -57,7 +66,19 @@ public final class ReadErrorCorrector {
      */
     final KMerCounter countsByKMer;
 
-    private final Map<Kmer,Kmer> kmerCorrectionMap = new HashMap<>();
+    /**
+     * Corrections for the correctable kmers that are packed into longs: maps each such kmer to the index i of its entry,
+     * whose differing positions and bases are in [correctionStarts[i], correctionStarts[i+1]) of correctionPositions
+     * and correctionBases. Solid and uncorrectable kmers have no entry.
+     */
+    private final Long2IntOpenHashMap encodedKmerCorrections = new Long2IntOpenHashMap();
+    private final IntArrayList correctionStarts = new IntArrayList();
+    private final IntArrayList correctionPositions = new IntArrayList();
+    private final ByteArrayList correctionBases = new ByteArrayList();
+
+    /**
+     * Corrections for the correctable kmers that can't be packed into longs (eg. because they contain Ns)
+     */
     private final Map<Kmer,Pair<int[],byte[]>> kmerDifferingBases = new HashMap<>();
     private final int kmerLength;
     private final boolean debug;
@@ -103,6 +124,7 @@ public final class ReadErrorCorrector {
                 () -> "qualityOfCorrectedBases must be >= 2 and <= MAX_REASONABLE_Q_SCORE but got " + qualityOfCorrectedBases);
 
         countsByKMer = new KMerCounter(kmerLength);
+        encodedKmerCorrections.defaultReturnValue(-1);
         this.kmerLength = kmerLength;
         this.maxMismatchesToCorrect = maxMismatchesToCorrect;
         this.qualityOfCorrectedBases = qualityOfCorrectedBases;
@@ -137,10 +159,7 @@ public final class ReadErrorCorrector {
             return;
         }
 
-        final byte[] readBases = read.getBases();
-        for (int offset = 0; offset <= readBases.length-kmerLength; offset++ )  {
-            countsByKMer.addKmer(new Kmer(readBases,offset,kmerLength),1);
-        }
+        countsByKMer.addKmers(read.getBases());
     }
 
     /**
@@ -215,8 +234,8 @@ public final class ReadErrorCorrector {
 
                 //  do the actual correction
                 // todo - do we need to clone anything else from read?
-                correctedRead.setBaseQualities(inputRead.getBaseQualities());
-                correctedRead.setBases(inputRead.getBases());
+                correctedRead.setBaseQualities(correctedQuals);
+                correctedRead.setBases(correctedBases);
                 correctedRead.setReadGroup(inputRead.getReadGroup());
                 return correctedRead;
             }
@@ -241,19 +260,42 @@ public final class ReadErrorCorrector {
         Utils.nonNull(correctedBases);
         // array to store list of possible corrections for read
         final CorrectionSet correctionSet = new CorrectionSet(correctedBases.length);
+        final boolean packKmers = kmerLength <= SVKmerShort.MAX_KSIZE;
+        final long mask = packKmers ? SVKmerShort.kSizeMask(kmerLength) : 0L;
+
+        long encodedKmer = 0;
+        int validBases = 0; // number of consecutive upper-case calls ending at the current position
+        for (int i = 0; i < correctedBases.length; i++) {
+            if (packKmers) {
+                final long baseValue = SVKmerShort.baseValue(correctedBases[i]);
+                if (baseValue < 0) {
+                    validBases = 0;
+                } else {
+                    encodedKmer = SVKmerShort.successor(encodedKmer, baseValue, mask);
+                    validBases++;
+                }
+            }
+            final int offset = i - kmerLength + 1;
+            if (offset < 0) {
+                continue;
+            }
 
-        for (int offset = 0; offset <= correctedBases.length-kmerLength; offset++ )  {
-            final Kmer kmer = new Kmer(correctedBases,offset,kmerLength);
-            final Kmer newKmer = kmerCorrectionMap.get(kmer);
-            if (newKmer != null && !newKmer.equals(kmer)){
-                final Pair<int[],byte[]> differingPositions = kmerDifferingBases.get(kmer);
-                final int[] differingIndeces = differingPositions.getLeft();
-                final byte[] differingBases = differingPositions.getRight();
-
-                for (int k=0; k < differingIndeces.length; k++) {
-                    // get list of differing positions for corrected kmer
-                    // for each of these, add correction candidate to correction set
-                    correctionSet.add(offset + differingIndeces[k],differingBases[k]);
+            if (validBases >= kmerLength) {
+                final int entry = encodedKmerCorrections.get(encodedKmer);
+                if (entry >= 0) {
+                    for (int k = correctionStarts.getInt(entry); k < correctionStarts.getInt(entry + 1); k++) {
+                        // for each of the differing positions of the corrected kmer, add correction candidate to correction set
+                        correctionSet.add(offset + correctionPositions.getInt(k), correctionBases.getByte(k));
+                    }
+                }
+            } else {
+                final Pair<int[],byte[]> differingPositions = kmerDifferingBases.get(new Kmer(correctedBases,offset,kmerLength));
+                if (differingPositions != null) {
+                    final int[] differingIndeces = differingPositions.getLeft();
+                    final byte[] differingBases = differingPositions.getRight();
+                    for (int k=0; k < differingIndeces.length; k++) {
+                        correctionSet.add(offset + differingIndeces[k],differingBases[k]);
+                    }
                 }
             }
         }
@@ -282,85 +324,154 @@ public final class ReadErrorCorrector {
 
     /**
      * For each kmer we've seen, do the following:
-     * a) If kmer count > threshold1, this kmer is good, so correction map will be to itself.
+     * a) If kmer count > threshold1, this kmer is good, so it needs no correction.
      * b) If kmer count <= threshold2, this kmer is bad.
      *    In that case, loop through all other kmers. If kmer is good, compute distance, and get minimal distance.
      *    If such distance is < some threshold, map to this kmer, and record differing positions and bases.
      *
      */
     private void computeKmerCorrectionMap() {
-        for (final KMerCounter.CountedKmer storedKmer : countsByKMer.getCountedKmers()) {
+        encodedKmerCorrections.clear();
+        correctionStarts.clear();
+        correctionStarts.add(0);
+        correctionPositions.clear();
+        correctionBases.clear();
+        kmerDifferingBases.clear();
+
+        final Long2IntMap encodedCounts = countsByKMer.getEncodedKmerCounts();
+        final long[] encodedKmers = encodedCounts.keySet().toLongArray();
+        final Collection<KMerCounter.CountedKmer> unencodedKmers = countsByKMer.getUnencodedCountedKmers();
+        final NearestNeighbor nearestNeighbor = new NearestNeighbor(kmerLength, maxMismatchesToCorrect);
+
+        for (final long encodedKmer : encodedKmers) {
+            final int count = encodedCounts.get(encodedKmer);
+            if (count >= minObservationsForKmerToBeSolid) {
+                readErrorCorrectionStats.numSolidKmers++;
+            }
+            else if (count <= maxObservationsForKmerToBeCorrectable) {
+                SVKmerShort.toBases(encodedKmer, kmerLength, nearestNeighbor.query, 0);
+                if (nearestNeighbor.find(encodedKmer, encodedKmers, unencodedKmers)) {
+                    encodedKmerCorrections.put(encodedKmer, correctionStarts.size() - 1);
+                    for (int k = 0; k < nearestNeighbor.distance; k++) {
+                        correctionPositions.add(nearestNeighbor.differingIndices[k]);
+                        correctionBases.add(nearestNeighbor.differingBases[k]);
+                    }
+                    correctionStarts.add(correctionPositions.size());
+                    readErrorCorrectionStats.numCorrectedKmers++;
+                }
+                else {
+                    readErrorCorrectionStats.numUncorrectableKmers++;
+                }
+            }
+        }
+
+        for (final KMerCounter.CountedKmer storedKmer : unencodedKmers) {
             if (storedKmer.getCount() >= minObservationsForKmerToBeSolid) {
-                // this kmer is good: map to itself
-                kmerCorrectionMap.put(storedKmer.getKmer(),storedKmer.getKmer());
-                kmerDifferingBases.put(storedKmer.getKmer(), Pair.of(new int[0],new byte[0])); // dummy empty array
                 readErrorCorrectionStats.numSolidKmers++;
             }
             else if (storedKmer.getCount() <= maxObservationsForKmerToBeCorrectable) {
-                // loop now thru all other kmers to find nearest neighbor
-                final Pair<Kmer,Pair<int[],byte[]>> nearestNeighbor = findNearestNeighbor(storedKmer.getKmer(),countsByKMer,maxMismatchesToCorrect);
-
-                // check if nearest neighbor lies in a close vicinity. If so, log the new bases and the correction map
-                if (nearestNeighbor != null) { // ok, found close neighbor
-                    kmerCorrectionMap.put(storedKmer.getKmer(), nearestNeighbor.getLeft());
-                    kmerDifferingBases.put(storedKmer.getKmer(), nearestNeighbor.getRight());
+                System.arraycopy(storedKmer.getKmer().bases(), 0, nearestNeighbor.query, 0, kmerLength);
+                if (nearestNeighbor.find(-1L, encodedKmers, unencodedKmers)) {
+                    kmerDifferingBases.put(storedKmer.getKmer(), Pair.of(
+                            Arrays.copyOf(nearestNeighbor.differingIndices, nearestNeighbor.distance),
+                            Arrays.copyOf(nearestNeighbor.differingBases, nearestNeighbor.distance)));
                     readErrorCorrectionStats.numCorrectedKmers++;
-//                    if (debug)
-//                        logger.info("Original kmer:" + storedKmer + "\tCorrected kmer:" + nearestNeighbor.first + "\tDistance:" + dist);
                 }
                 else {
                     readErrorCorrectionStats.numUncorrectableKmers++;
                 }
-
             }
-         }
+        }
     }
 
     /**
-     * Finds nearest neighbor of a given k-mer, among a list of counted K-mers, up to a given distance.
-     * If many k-mers share same closest distance, an arbitrary k-mer is picked
-     * @param kmer                        K-mer of interest
-     * @param countsByKMer                KMerCounter storing set of counted k-mers (may include kmer of interest)
-     * @param maxDistance                 Maximum distance to search
-     * @return                            Pair of values: closest K-mer in Hamming distance and list of differing bases.
-     *                                      If no neighbor can be found up to given distance, returns null
+     * Finds nearest neighbor of a given k-mer, among a set of counted K-mers, up to a given distance.
+     * If many k-mers share same closest distance, an arbitrary k-mer is picked.
+     *
+     * Holds the query kmer and the differing positions and bases of the last neighbor found, so that the same
+     * scratch arrays can be reused for every kmer to correct.
      */
-    private Pair<Kmer,Pair<int[],byte[]>> findNearestNeighbor(final Kmer kmer,
-                                                             final KMerCounter  countsByKMer,
-                                                             final int maxDistance) {
-        Utils.nonNull(kmer, "KMER");
-        Utils.nonNull(countsByKMer, "countsByKMer");
-        Utils.validateArg(maxDistance >= 1, "countsByKMer");
-
-        int minimumDistance = Integer.MAX_VALUE;
-        Kmer closestKmer = null;
-
-        final int[] differingIndeces = new int[maxDistance+1];
-        final byte[] differingBases = new byte[maxDistance+1];
-
-        final int[] closestDifferingIndices = new int[maxDistance+1];
-        final byte[] closestDifferingBases = new byte[maxDistance+1];
+    private static final class NearestNeighbor {
+        final int kmerLength;
+        final int maxDistance;
+        final byte[] query;
+        final byte[] candidate;
+        final int[] differingIndices;
+        final byte[] differingBases;
+        final int[] scratchIndices;
+        final byte[] scratchBases;
+        int distance;
+
+        NearestNeighbor(final int kmerLength, final int maxDistance) {
+            Utils.validateArg(maxDistance >= 1, "maxDistance must be >= 1");
+            this.kmerLength = kmerLength;
+            this.maxDistance = maxDistance;
+            query = new byte[kmerLength];
+            candidate = new byte[kmerLength];
+            differingIndices = new int[maxDistance + 1];
+            differingBases = new byte[maxDistance + 1];
+            scratchIndices = new int[maxDistance + 1];
+            scratchBases = new byte[maxDistance + 1];
+        }
 
-        for (final KMerCounter.CountedKmer candidateKmer : countsByKMer.getCountedKmers()) {
-            // skip if candidate set includes test kmer
-            if (candidateKmer.getKmer().equals(kmer)) {
-                continue;
+        /**
+         * Looks for the nearest neighbor of the kmer in {@link #query} (whose packed form is {@code encodedQuery}, or -1 if it
+         * can't be packed). On success, the differing positions and bases of the first {@link #distance} mismatches
+         * with the neighbor are left in {@link #differingIndices} and {@link #differingBases}.
+         *
+         * @return whether a neighbor was found within maxDistance
+         */
+        boolean find(final long encodedQuery, final long[] encodedCandidates, final Collection<KMerCounter.CountedKmer> unencodedCandidates) {
+            distance = Integer.MAX_VALUE;
+            for (final long encodedCandidate : encodedCandidates) {
+                if (encodedCandidate == encodedQuery) {
+                    continue;
+                }
+                if (encodedQuery >= 0) {
+                    // cheap distance on the packed kmers; only spell out the differences when we have a new best
+                    final int hammingDistance = SVKmerShort.hammingDistance(encodedQuery, encodedCandidate);
+                    if (hammingDistance <= maxDistance && hammingDistance < distance) {
+                        distance = hammingDistance;
+                        int d = 0;
+                        for (int i = 0; i < kmerLength; i++) {
+                            final int shift = 2 * (kmerLength - 1 - i);
+                            if (((encodedQuery ^ encodedCandidate) >>> shift & 3L) != 0) {
+                                differingIndices[d] = i;
+                                differingBases[d++] = (byte)BaseUtils.BASE_CHARS[(int)(encodedCandidate >>> shift & 3L)];
+                            }
+                        }
+                    }
+                } else {
+                    SVKmerShort.toBases(encodedCandidate, kmerLength, candidate, 0);
+                    compareBases(candidate);
+                }
             }
-
-            final int hammingDistance  = kmer.getDifferingPositions(candidateKmer.getKmer(), maxDistance, differingIndeces, differingBases);
-            if (hammingDistance < 0) // can't compare kmer? skip
-            {
-                continue;
+            for (final KMerCounter.CountedKmer unencodedCandidate : unencodedCandidates) {
+                final byte[] candidateBases = unencodedCandidate.getKmer().bases();
+                if (!Arrays.equals(candidateBases, query)) {
+                    compareBases(candidateBases);
+                }
             }
+            return distance != Integer.MAX_VALUE;
+        }
 
-            if (hammingDistance < minimumDistance)  {
-                minimumDistance = hammingDistance;
-                closestKmer = candidateKmer.getKmer();
-                System.arraycopy(differingBases,0,closestDifferingBases,0,differingBases.length);
-                System.arraycopy(differingIndeces,0,closestDifferingIndices,0,differingIndeces.length);
+        private void compareBases(final byte[] candidateBases) {
+            int d = 0;
+            for (int i = 0; i < kmerLength; i++) {
+                if (query[i] != candidateBases[i]) {
+                    if (d == maxDistance) {
+                        return;
+                    }
+                    scratchIndices[d] = i;
+                    scratchBases[d++] = candidateBases[i];
+                }
+            }
+            if (d < distance) {
+                distance = d;
+                System.arraycopy(scratchIndices, 0, differingIndices, 0, d);
+                System.arraycopy(scratchBases, 0, differingBases, 0, d);
             }
         }
-        return Pair.of(closestKmer, Pair.of(closestDifferingIndices,closestDifferingBases));
     }
 
 
@@ -59,7 +59,11 @@ class GaussianMixtureModel {
 
     }
 
-    public void initializeRandomModel( final List<VariantDatum> data, final int numKMeansIterations ) {
+    /**
+     * Initializes the model with random means refined by k-means, followed by random covariances.
+     * The random number generator is only used sequentially, so results do not depend on {@code numThreads}.
+     */
+    public void initializeRandomModel( final VariantDataColumns data, final int numKMeansIterations, final int numThreads ) {
 
         // initialize random Gaussian means // BUGBUG: this is broken up this way to match the order of calls to rand.nextDouble() in the old code
         for( final MultivariateGaussian gaussian : gaussians ) {
@@ -68,7 +72,7 @@ class GaussianMixtureModel {
 
         // initialize means using K-means algorithm
         logger.info( "Initializing model with " + numKMeansIterations + " k-means iterations..." );
-        initializeMeansUsingKMeans( data, numKMeansIterations );
+        initializeMeansUsingKMeans( data, numKMeansIterations, numThreads );
 
         // initialize uniform mixture coefficients, random covariance matrices, and initial hyperparameters
         for( final MultivariateGaussian gaussian : gaussians ) {
@@ -81,34 +85,38 @@ class GaussianMixtureModel {
         }
     }
 
-    private void initializeMeansUsingKMeans( final List<VariantDatum> data, final int numIterations ) {
+    private void initializeMeansUsingKMeans( final VariantDataColumns data, final int numIterations, final int numThreads ) {
 
+        // index of the Gaussian each datum is assigned to, or -1 if none
+        final int[] assignments = new int[data.numData()];
         int ttt = 0;
         while( ttt++ < numIterations ) {
             // E step: assign each variant to the nearest cluster
-            for( final VariantDatum datum : data ) {
-                double minDistance = Double.MAX_VALUE;
-                MultivariateGaussian minGaussian = null;
-                datum.assignment = minGaussian;
-                for( final MultivariateGaussian gaussian : gaussians ) {
-                    final double dist = gaussian.calculateDistanceFromMeanSquared( datum );
-                    if( dist < minDistance ) {
-                        minDistance = dist;
-                        minGaussian = gaussian;
+            VariantDataColumns.forEachTask(data.numChunks(), numThreads, chunk -> {
+                for( int row = data.chunkStart(chunk); row < data.chunkEnd(chunk); row++ ) {
+                    double minDistance = Double.MAX_VALUE;
+                    int minGaussian = -1;
+                    for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+                        final double dist = gaussians.get(gaussianIndex).calculateDistanceFromMeanSquared( data, row );
+                        if( dist < minDistance ) {
+                            minDistance = dist;
+                            minGaussian = gaussianIndex;
+                        }
                     }
+                    assignments[row] = minGaussian;
                 }
-                datum.assignment = minGaussian;
-            }
+            });
 
             // M step: update gaussian means based on assigned variants
-            for( final MultivariateGaussian gaussian : gaussians ) {
+            for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+                final MultivariateGaussian gaussian = gaussians.get(gaussianIndex);
                 gaussian.zeroOutMu();
                 int numAssigned = 0;
 
-                for( final VariantDatum datum : data ) {
-                    if( datum.assignment.equals(gaussian) ) {
+                for( int row = 0; row < assignments.length; row++ ) {
+                    if( assignments[row] == gaussianIndex ) {
                         numAssigned++;
-                        gaussian.incrementMu( datum );
+                        gaussian.incrementMu( data, row );
                     }
                 }
                 if( numAssigned != 0 ) {
@@ -120,31 +128,46 @@ class GaussianMixtureModel {
         }
     }
 
-    public void expectationStep( final List<VariantDatum> data ) {
+    /**
+     * Computes the probability of each datum coming from each Gaussian.
+     * Chunks of data are processed concurrently; every datum is evaluated independently so results do not depend on {@code numThreads}.
+     */
+    public void expectationStep( final VariantDataColumns data, final int numThreads ) {
 
         for( final MultivariateGaussian gaussian : gaussians ) {
             gaussian.precomputeDenominatorForVariationalBayes( getSumHyperParameterLambda() );
         }
 
-        for( final VariantDatum datum : data ) {
-            final double[] pVarInGaussianLog10 = gaussians.stream().mapToDouble(g -> g.evaluateDatumLog10(datum)).toArray();
-            final double[] pVarInGaussianNormalized = MathUtils.normalizeLog10DeleteMePlease( pVarInGaussianLog10, false);
-            int gaussianIndex = 0;
-            for( final MultivariateGaussian gaussian : gaussians ) {
-                gaussian.assignPVarInGaussian( pVarInGaussianNormalized[gaussianIndex++] );
+        VariantDataColumns.forEachTask(data.numChunks(), numThreads, chunk -> {
+            final double[] datumAnnotations = new double[data.numAnnotations()];
+            final double[] crossProdTmp = new double[data.numAnnotations()];
+            final double[] pVarInGaussianLog10 = new double[gaussians.size()];
+            for( int row = data.chunkStart(chunk); row < data.chunkEnd(chunk); row++ ) {
+                for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+                    pVarInGaussianLog10[gaussianIndex] = gaussians.get(gaussianIndex).evaluateDatumLog10( data, row, datumAnnotations, crossProdTmp );
+                }
+                final double[] pVarInGaussianNormalized = MathUtils.normalizeLog10DeleteMePlease( pVarInGaussianLog10, false);
+                for( int gaussianIndex = 0; gaussianIndex < gaussians.size(); gaussianIndex++ ) {
+                    gaussians.get(gaussianIndex).setPVarInGaussian( row, pVarInGaussianNormalized[gaussianIndex] );
+                }
             }
-        }
+        });
     }
 
-    public void maximizationStep( final List<VariantDatum> data ) {
-        gaussians.forEach(g -> g.maximizeGaussian( data, empiricalMu, empiricalSigma, shrinkage, dirichletParameter, priorCounts));
+    /**
+     * Updates the parameters of each Gaussian. Gaussians are updated concurrently; each one visits the data in order
+     * so results do not depend on {@code numThreads}.
+     */
+    public void maximizationStep( final VariantDataColumns data, final int numThreads ) {
+        VariantDataColumns.forEachTask(gaussians.size(), numThreads,
+                gaussianIndex -> gaussians.get(gaussianIndex).maximizeGaussian( data, empiricalMu, empiricalSigma, shrinkage, dirichletParameter, priorCounts));
     }
 
     private double getSumHyperParameterLambda() {
         return gaussians.stream().mapToDouble(g -> g.hyperParameter_lambda).sum();
     }
 
-    public void evaluateFinalModelParameters( final List<VariantDatum> data ) {
+    public void evaluateFinalModelParameters( final VariantDataColumns data ) {
         gaussians.forEach(g -> g.evaluateFinalModelParameters(data));
         normalizePMixtureLog10();
     }
@@ -23,13 +23,11 @@ class MultivariateGaussian {
     private double cachedDenomLog10;
     private Matrix cachedSigmaInverse;
     final private double[] pVarInGaussian;
-    int pVarInGaussianIndex;
 
     public MultivariateGaussian( final int numVariants, final int numAnnotations  ) {
         mu = new double[numAnnotations];
         sigma = new Matrix(numAnnotations, numAnnotations);
         pVarInGaussian = new double[numVariants];
-        pVarInGaussianIndex = 0;
     }
 
     public void zeroOutMu() {
@@ -67,17 +65,22 @@ class MultivariateGaussian {
         sigma.setMatrix(0, mu.length - 1, 0, mu.length - 1, tmp);
     }
 
-    public double calculateDistanceFromMeanSquared( final VariantDatum datum ) {
-        return MathUtils.distanceSquared( datum.annotations, mu );
+    public double calculateDistanceFromMeanSquared( final VariantDataColumns data, final int row ) {
+        double sum = 0.0;
+        for( int jjj = 0; jjj < mu.length; jjj++ ) {
+            final double delta = data.get(row, jjj) - mu[jjj];
+            sum += delta * delta;
+        }
+        return sum;
     }
 
-    public void incrementMu( final VariantDatum datum ) {
-        incrementMu( datum, 1.0 );
+    public void incrementMu( final VariantDataColumns data, final int row ) {
+        incrementMu( data, row, 1.0 );
     }
 
-    public void incrementMu( final VariantDatum datum, final double prob ) {
+    public void incrementMu( final VariantDataColumns data, final int row, final double prob ) {
         for( int jjj = 0; jjj < mu.length; jjj++ ) {
-            mu[jjj] += prob * datum.annotations[jjj];
+            mu[jjj] += prob * data.get(row, jjj);
         }
     }
 
@@ -125,42 +128,60 @@ class MultivariateGaussian {
     }
 
     public double evaluateDatumLog10( final VariantDatum datum ) {
+        return evaluateAnnotationsLog10(datum.annotations, new double[mu.length]);
+    }
+
+    /**
+     * Evaluates the datum at {@code row} of {@code data}; same as {@link #evaluateDatumLog10(VariantDatum)}.
+     *
+     * @param datumAnnotations scratch space for the annotations of the datum, of length the number of annotations
+     * @param crossProdTmp scratch space of length the number of annotations
+     */
+    public double evaluateDatumLog10( final VariantDataColumns data, final int row, final double[] datumAnnotations, final double[] crossProdTmp ) {
+        data.copyRow(row, datumAnnotations);
+        return evaluateAnnotationsLog10(datumAnnotations, crossProdTmp);
+    }
+
+    private double evaluateAnnotationsLog10( final double[] annotations, final double[] crossProdTmp ) {
+        final double[][] sigmaInverse = cachedSigmaInverse.getArray();
         double sumKernel = 0.0;
-        final double[] crossProdTmp = new double[mu.length];
         Arrays.fill(crossProdTmp, 0.0);
         for( int iii = 0; iii < mu.length; iii++ ) {
             for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                crossProdTmp[iii] += (datum.annotations[jjj] - mu[jjj]) * cachedSigmaInverse.get(jjj, iii);
+                crossProdTmp[iii] += (annotations[jjj] - mu[jjj]) * sigmaInverse[jjj][iii];
             }
         }
         for( int iii = 0; iii < mu.length; iii++ ) {
-            sumKernel += crossProdTmp[iii] * (datum.annotations[iii] - mu[iii]);
+            sumKernel += crossProdTmp[iii] * (annotations[iii] - mu[iii]);
         }
 
         return (( -0.5 * sumKernel ) / Math.log(10.0)) + cachedDenomLog10; // This is the definition of a Gaussian PDF Log10
     }
 
-    public void assignPVarInGaussian( final double pVar ) {
-        pVarInGaussian[pVarInGaussianIndex++] = pVar;
+    /**
+     * Sets the probability of the datum at {@code datumIndex} coming from this Gaussian.
+     * Different data can be set concurrently.
+     */
+    public void setPVarInGaussian( final int datumIndex, final double pVar ) {
+        pVarInGaussian[datumIndex] = pVar;
     }
 
     public void resetPVarInGaussian() {
         Arrays.fill(pVarInGaussian, 0.0);
-        pVarInGaussianIndex = 0;
     }
 
-    public void maximizeGaussian(final List<VariantDatum> data, final double[] empiricalMu, final Matrix empiricalSigma,
+    public void maximizeGaussian(final VariantDataColumns data, final double[] empiricalMu, final Matrix empiricalSigma,
                                  final double SHRINKAGE, final double DIRICHLET_PARAMETER, final double DEGREES_OF_FREEDOM ) {
         sumProb = 1E-10;
         final Matrix wishart = new Matrix(mu.length, mu.length);
         zeroOutMu();
         zeroOutSigma();
 
-        int datumIndex = 0;
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
+        final int numData = data.numData();
+        for( int datumIndex = 0; datumIndex < numData; datumIndex++ ) {
+            final double prob = pVarInGaussian[datumIndex];
             sumProb += prob;
-            incrementMu( datum, prob );
+            incrementMu( data, datumIndex, prob );
         }
         divideEqualsMu( sumProb );
 
@@ -172,18 +193,7 @@ class MultivariateGaussian {
             }
         }
 
-        datumIndex = 0;
-        final Matrix pVarSigma = new Matrix(mu.length, mu.length);
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
-            for( int iii = 0; iii < mu.length; iii++ ) {
-                double deltaMu = prob * (datum.annotations[iii]-mu[iii]);
-                for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                    pVarSigma.set(iii, jjj, deltaMu * (datum.annotations[jjj]-mu[jjj]));
-                }
-            }
-            sigma.plusEquals( pVarSigma );
-        }
+        accumulateSigma( data );
 
         sigma.plusEquals( empiricalSigma );
         sigma.plusEquals( wishart );
@@ -199,32 +209,39 @@ class MultivariateGaussian {
         resetPVarInGaussian(); // clean up some memory
     }
 
-    public void evaluateFinalModelParameters( final List<VariantDatum> data ) {
+    public void evaluateFinalModelParameters( final VariantDataColumns data ) {
         sumProb = 0.0;
         zeroOutMu();
         zeroOutSigma();
 
-        int datumIndex = 0;
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
+        final int numData = data.numData();
+        for( int datumIndex = 0; datumIndex < numData; datumIndex++ ) {
+            final double prob = pVarInGaussian[datumIndex];
             sumProb += prob;
-            incrementMu( datum, prob );
+            incrementMu( data, datumIndex, prob );
         }
         divideEqualsMu( sumProb );
 
-        datumIndex = 0;
-        final Matrix pVarSigma = new Matrix(mu.length, mu.length);
-        for( final VariantDatum datum : data ) {
-            final double prob = pVarInGaussian[datumIndex++];
+        accumulateSigma( data );
+        sigma.timesEquals( 1.0 / sumProb );
+
+        resetPVarInGaussian(); // clean up some memory
+    }
+
+    // adds the probability-weighted outer product of every datum's deviation from mu to sigma
+    private void accumulateSigma( final VariantDataColumns data ) {
+        final double[][] sigmaArray = sigma.getArray();
+        final double[] datumAnnotations = new double[mu.length];
+        final int numData = data.numData();
+        for( int datumIndex = 0; datumIndex < numData; datumIndex++ ) {
+            final double prob = pVarInGaussian[datumIndex];
+            data.copyRow(datumIndex, datumAnnotations);
             for( int iii = 0; iii < mu.length; iii++ ) {
+                final double deltaMu = prob * (datumAnnotations[iii]-mu[iii]);
                 for( int jjj = 0; jjj < mu.length; jjj++ ) {
-                    pVarSigma.set(iii, jjj, prob * (datum.annotations[iii]-mu[iii]) * (datum.annotations[jjj]-mu[jjj]));
+                    sigmaArray[iii][jjj] += deltaMu * (datumAnnotations[jjj]-mu[jjj]);
                 }
             }
-            sigma.plusEquals( pVarSigma );
         }
-        sigma.timesEquals( 1.0 / sumProb );
-
-        resetPVarInGaussian(); // clean up some memory
     }
 }
\ No newline at end of file
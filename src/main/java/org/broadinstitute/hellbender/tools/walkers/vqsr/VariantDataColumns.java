@@ -0,0 +1,116 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Column-oriented copy of the annotation values of a list of {@link VariantDatum}s used to train a
+ * {@link GaussianMixtureModel}: one {@code double[]} per annotation, indexed by the position of the datum in the list.
+ *
+ * Training visits every datum for every Gaussian on every EM iteration, so keeping the values in a few flat arrays
+ * avoids chasing a pointer per datum. Rows are grouped into fixed-size chunks that can be processed concurrently;
+ * since the chunking does not depend on the number of threads, neither do the results.
+ *
+ * Package private because it's not usable outside of VQSR.
+ */
+final class VariantDataColumns {
+
+    /**
+     * Number of data processed together by one fork-join task.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    private final double[][] columns;
+    private final int numData;
+
+    private VariantDataColumns(final double[][] columns, final int numData) {
+        this.columns = columns;
+        this.numData = numData;
+    }
+
+    /**
+     * Copies the annotations of {@code data} into columns. All data must have the same number of annotations.
+     */
+    public static VariantDataColumns of(final List<VariantDatum> data) {
+        Utils.nonEmpty(data, "data must not be empty");
+        final int numAnnotations = data.get(0).annotations.length;
+        final double[][] columns = new double[numAnnotations][data.size()];
+        int row = 0;
+        for (final VariantDatum datum : data) {
+            Utils.validateArg(datum.annotations.length == numAnnotations, "all data must have the same number of annotations");
+            for (int jjj = 0; jjj < numAnnotations; jjj++) {
+                columns[jjj][row] = datum.annotations[jjj];
+            }
+            row++;
+        }
+        return new VariantDataColumns(columns, data.size());
+    }
+
+    public int numData() {
+        return numData;
+    }
+
+    public int numAnnotations() {
+        return columns.length;
+    }
+
+    /**
+     * @return the value of annotation {@code annotation} for the datum at {@code row}
+     */
+    public double get(final int row, final int annotation) {
+        return columns[annotation][row];
+    }
+
+    /**
+     * Copies the annotations of the datum at {@code row} into {@code destination}.
+     */
+    public void copyRow(final int row, final double[] destination) {
+        for (int jjj = 0; jjj < columns.length; jjj++) {
+            destination[jjj] = columns[jjj][row];
+        }
+    }
+
+    public int numChunks() {
+        return (numData + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    public int chunkStart(final int chunk) {
+        return chunk * CHUNK_SIZE;
+    }
+
+    public int chunkEnd(final int chunk) {
+        return Math.min(numData, (chunk + 1) * CHUNK_SIZE);
+    }
+
+    /**
+     * Calls {@code task} on every index in {@code [0, numTasks)}, using up to {@code numThreads} threads.
+     * The tasks must be independent of each other; with a single thread they are run in order on the calling thread.
+     */
+    static void forEachTask(final int numTasks, final int numThreads, final IntConsumer task) {
+        Utils.validateArg(numThreads > 0, "Number of execution threads must be positive");
+        if (numThreads == 1 || numTasks <= 1) {
+            IntStream.range(0, numTasks).forEach(task);
+            return;
+        }
+        final ForkJoinPool forkJoinPool = new ForkJoinPool(numThreads);
+        try {
+            forkJoinPool.submit(() -> IntStream.range(0, numTasks).parallel().forEach(task)).get();
+        } catch (final ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new GATKException("Failure in concurrent Gaussian mixture model training", ex.getCause());
+        } catch (final InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted during concurrent Gaussian mixture model training", ex);
+        } finally {
+            forkJoinPool.shutdown();
+        }
+    }
+}
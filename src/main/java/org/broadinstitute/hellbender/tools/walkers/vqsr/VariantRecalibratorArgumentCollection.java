@@ -49,6 +49,15 @@ final class VariantRecalibratorArgumentCollection {
     @Argument(fullName = "maxNegativeGaussians", shortName = "mNG", doc = "Max number of Gaussians for the negative model", optional = true)
     public int MAX_GAUSSIANS_FOR_NEGATIVE_MODEL = 2;
 
+    /**
+     * Number of threads used to train the Gaussian mixture models. The data are split into fixed-size chunks for the
+     * expectation step and the Gaussians are updated independently in the maximization step, so the resulting models
+     * do not depend on the number of threads.
+     */
+    @Advanced
+    @Argument(fullName = "numTrainingThreads", shortName = "trainingThreads", doc = "Number of threads to use for Gaussian mixture model training", optional = true, minValue = 1)
+    public int NUM_TRAINING_THREADS = 1;
+
     /**
      * This parameter determines the maximum number of VBEM iterations to be performed in the variational Bayes algorithm.
      * The procedure will normally end when convergence is detected.
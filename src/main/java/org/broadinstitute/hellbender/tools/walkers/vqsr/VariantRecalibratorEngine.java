@@ -44,7 +44,7 @@ public class VariantRecalibratorEngine {
                 VRAC.SHRINKAGE,
                 VRAC.DIRICHLET_PARAMETER,
                 VRAC.PRIOR_COUNTS );
-        variationalBayesExpectationMaximization( model, data );
+        variationalBayesExpectationMaximization( model, VariantDataColumns.of(data) );
         return model;
     }
 
@@ -99,21 +99,21 @@ public class VariantRecalibratorEngine {
     // Private Methods used for generating a GaussianMixtureModel
     /////////////////////////////
 
-    private void variationalBayesExpectationMaximization( final GaussianMixtureModel model, final List<VariantDatum> data ) {
+    private void variationalBayesExpectationMaximization( final GaussianMixtureModel model, final VariantDataColumns data ) {
 
-        model.initializeRandomModel( data, VRAC.NUM_KMEANS_ITERATIONS );
+        model.initializeRandomModel( data, VRAC.NUM_KMEANS_ITERATIONS, VRAC.NUM_TRAINING_THREADS );
 
         // The VBEM loop
         model.normalizePMixtureLog10();
-        model.expectationStep( data );
+        model.expectationStep( data, VRAC.NUM_TRAINING_THREADS );
         double currentChangeInMixtureCoefficients;
         int iteration = 0;
         logger.info("Finished iteration " + iteration + ".");
         while( iteration < VRAC.MAX_ITERATIONS ) {
             iteration++;
-            model.maximizationStep( data );
+            model.maximizationStep( data, VRAC.NUM_TRAINING_THREADS );
             currentChangeInMixtureCoefficients = model.normalizePMixtureLog10();
-            model.expectationStep( data );
+            model.expectationStep( data, VRAC.NUM_TRAINING_THREADS );
             if( iteration % 5 == 0 ) { // cut down on the number of output lines so that users can read the warning messages
                 logger.info("Finished iteration " + iteration + ". \tCurrent change in mixture coefficients = " + String.format("%.5f", currentChangeInMixtureCoefficients));
             }
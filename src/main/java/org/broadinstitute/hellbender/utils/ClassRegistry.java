@@ -0,0 +1,173 @@
+package org.broadinstitute.hellbender.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.ClassFinder;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the classes in a package (and its subpackages) that extend or implement a given class, like
+ * {@link ClassFinder#find(String, Class)}, but from a registry generated at build time when possible.
+ *
+ * <p>
+ *     Scanning the classpath with {@link ClassFinder} opens every jar and directory on it and loads every class in the
+ *     package, which takes seconds when the jars live on a shared filesystem.  Instead, the registry resource
+ *     ({@link #REGISTRY_RESOURCE}) lists the result of each scan that was run when the jar was built (see {@link #main}),
+ *     so that only the classes found need to be loaded.  Scans that are not in the registry, or whose classes can not
+ *     be loaded, fall back to {@link ClassFinder}; so does everything when the resource is absent (e.g., when running
+ *     from the build directories rather than a jar, where test classes may be on the classpath as well).
+ * </p>
+ *
+ * <p>
+ *     The registry has one line for each scan, with tab-separated columns for the name of the super class, the name of
+ *     the package and the comma-separated names of the classes found (possibly none).
+ * </p>
+ */
+public final class ClassRegistry {
+    private static final Logger logger = LogManager.getLogger(ClassRegistry.class);
+
+    /**
+     * Name of the registry resource, relative to this class
+     */
+    public static final String REGISTRY_RESOURCE = "classRegistry.tsv";
+
+    private static final String COLUMN_SEPARATOR = "\t";
+    private static final String CLASS_NAME_SEPARATOR = ",";
+
+    private ClassRegistry() {}
+
+    /**
+     * Registered scans, keyed by {@link #key}, loaded the first time they are needed
+     */
+    private static final class RegistryHolder {
+        private static final Map<String, List<String>> REGISTRY = loadRegistry();
+    }
+
+    /**
+     * Finds the classes in a package and its subpackages that extend or implement the given class, the class itself
+     * included, as {@link ClassFinder#find(String, Class)} does.
+     *
+     * @param packageName package to search
+     * @param superClass class that the classes found must be assignable to
+     * @return a modifiable set of the classes found
+     */
+    public static Set<Class<?>> find(final String packageName, final Class<?> superClass) {
+        Utils.nonNull(packageName, "package name");
+        Utils.nonNull(superClass, "super class");
+        final List<String> classNames = RegistryHolder.REGISTRY.get(key(superClass.getName(), packageName));
+        if (classNames != null) {
+            try {
+                final Set<Class<?>> classes = new LinkedHashSet<>(classNames.size());
+                for (final String className : classNames) {
+                    classes.add(Class.forName(className, false, ClassRegistry.class.getClassLoader()));
+                }
+                return classes;
+            } catch (final ClassNotFoundException | LinkageError e) {
+                logger.debug("The class registry is out of date, scanning package " + packageName + " instead", e);
+            }
+        }
+        final ClassFinder finder = new ClassFinder();
+        finder.find(packageName, superClass);
+        return finder.getClasses();
+    }
+
+    /**
+     * Finds the classes in several packages as {@link #find(String, Class)} does.
+     *
+     * @param packageNames packages to search
+     * @param superClass class that the classes found must be assignable to
+     * @return a modifiable set of the classes found
+     */
+    public static Set<Class<?>> find(final Collection<String> packageNames, final Class<?> superClass) {
+        Utils.nonNull(packageNames, "package names");
+        final Set<Class<?>> classes = new LinkedHashSet<>();
+        for (final String packageName : packageNames) {
+            classes.addAll(find(packageName, superClass));
+        }
+        return classes;
+    }
+
+    private static String key(final String superClassName, final String packageName) {
+        return superClassName + COLUMN_SEPARATOR + packageName;
+    }
+
+    private static Map<String, List<String>> loadRegistry() {
+        final InputStream inputStream = ClassRegistry.class.getResourceAsStream(REGISTRY_RESOURCE);
+        if (inputStream == null) {
+            return Collections.emptyMap();
+        }
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            return readRegistry(reader);
+        } catch (final IOException | IllegalArgumentException e) {
+            logger.warn("Could not read the class registry, classes will be found by scanning the classpath instead", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    static Map<String, List<String>> readRegistry(final BufferedReader reader) throws IOException {
+        final Map<String, List<String>> registry = new HashMap<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            final String[] columns = line.split(COLUMN_SEPARATOR, -1);
+            Utils.validateArg(columns.length == 3, "Malformed class registry line: " + line);
+            final List<String> classNames = columns[2].isEmpty() ? Collections.emptyList()
+                    : Arrays.asList(columns[2].split(CLASS_NAME_SEPARATOR));
+            registry.put(key(columns[0], columns[1]), classNames);
+        }
+        return registry;
+    }
+
+    static void writeRegistry(final Writer writer, final Map<String, List<String>> packagesBySuperClassName) throws IOException {
+        for (final Map.Entry<String, List<String>> entry : packagesBySuperClassName.entrySet()) {
+            final Class<?> superClass;
+            try {
+                superClass = Class.forName(entry.getKey(), false, ClassRegistry.class.getClassLoader());
+            } catch (final ClassNotFoundException e) {
+                throw new GATKException("Unknown super class " + entry.getKey(), e);
+            }
+            for (final String packageName : entry.getValue()) {
+                final ClassFinder finder = new ClassFinder();
+                finder.find(packageName, superClass);
+                final String classNames = finder.getClasses().stream().map(Class::getName).sorted()
+                        .collect(Collectors.joining(CLASS_NAME_SEPARATOR));
+                writer.write(String.join(COLUMN_SEPARATOR, superClass.getName(), packageName, classNames));
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * Generates the registry at build time by scanning the classpath.
+     *
+     * @param args the output root directory, under which the registry resource is written at the path of this
+     *             class's package, followed by one argument per super class of the form
+     *             {@code superClassName:packageName[,packageName...]}
+     */
+    public static void main(final String[] args) throws IOException {
+        Utils.validateArg(args.length >= 1, "Usage: ClassRegistry <output directory> <super class>:<package>[,<package>...]...");
+        final Map<String, List<String>> packagesBySuperClassName = new LinkedHashMap<>();
+        for (int i = 1; i < args.length; i++) {
+            final String[] superClassAndPackages = args[i].split(":", -1);
+            Utils.validateArg(superClassAndPackages.length == 2 && !superClassAndPackages[1].isEmpty(),
+                    "Malformed scan argument: " + args[i]);
+            packagesBySuperClassName.computeIfAbsent(superClassAndPackages[0], k -> new ArrayList<>())
+                    .addAll(Arrays.asList(superClassAndPackages[1].split(",")));
+        }
+        final Path output = Paths.get(args[0], ClassRegistry.class.getPackage().getName().replace('.', '/'), REGISTRY_RESOURCE);
+        Files.createDirectories(output.getParent());
+        try (final Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            writeRegistry(writer, packagesBySuperClassName);
+        }
+    }
+}
@@ -1,29 +1,186 @@
 package org.broadinstitute.hellbender.utils.bwa;
 
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.spark.api.java.JavaSparkContext;
-import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
 import java.util.*;
 
 /**
  * Manage a global collection of {@link BwaMemIndex} instances.
+ * <p>
+ *     The native code maps index images into memory read-only, so all the processes (e.g., Spark executors) on a
+ *     machine that open the same image file share its pages in the page cache. For this to work, give the image as
+ *     a path on node-local disk that is the same for all executors, rather than distributing it with the Spark job.
+ * </p>
+ * <p>
+ *     Instances are loaded at most once per image file. Loading an image doesn't block access to other images that
+ *     are already loaded, and the time taken is logged and recorded by the "bwa.indexLoad" timer of the
+ *     {@link InstrumentationRegistry#global global instrumentation registry}.
+ * </p>
+ * <p>
+ *     Code that only needs an index for a while (such as a task that uses several indexes in turn) can use
+ *     {@link #acquireInstance} and {@link #releaseInstance}, so that indexes no longer in use can be evicted to keep at
+ *     most {@link #setMaxIdleInstances maxIdleInstances} of them open (the PathSeq tools set it on the executors from
+ *     their maxIdleBwaImages argument). Instances obtained by {@link #getInstance} are never evicted.
+ * </p>
  */
 public class BwaMemIndexCache {
 
-    private final static Map<String, BwaMemIndex> instances = new HashMap<>();
+    private static final Logger logger = LogManager.getLogger(BwaMemIndexCache.class);
+    private static final InstrumentationRegistry.Timer loadTimer = InstrumentationRegistry.global().timer("bwa.indexLoad");
+
+    // insertion order is the order in which instances became idle, least recent first
+    private final static Map<String, CachedIndex> instances = new LinkedHashMap<>();
+    private static int maxIdleInstances = Integer.MAX_VALUE;
+
+    /**
+     * An index image file, loaded on first use. Pinned entries were returned by {@link #getInstance}.
+     */
+    private static final class CachedIndex {
+        private final String indexImageFile;
+        private BwaMemIndex index; // guarded by this
+        private boolean closed = false; // guarded by this
+        private int referenceCount = 0; // guarded by BwaMemIndexCache.class
+        private boolean pinned = false; // guarded by BwaMemIndexCache.class
+
+        CachedIndex( final String indexImageFile ) {
+            this.indexImageFile = indexImageFile;
+        }
+
+        synchronized BwaMemIndex get() {
+            Utils.validate(!closed, () -> "the index for " + indexImageFile + " was closed while it was being opened");
+            if ( index == null ) {
+                final long startNanos = System.nanoTime();
+                index = new BwaMemIndex(indexImageFile);
+                final long elapsedNanos = System.nanoTime() - startNanos;
+                loadTimer.record(elapsedNanos);
+                logger.info(String.format("Loaded BWA index image %s in %.1f seconds", indexImageFile, elapsedNanos / 1e9));
+            }
+            return index;
+        }
+
+        synchronized void close() {
+            closed = true;
+            if ( index != null ) {
+                index.close();
+                index = null;
+            }
+        }
+
+        synchronized boolean holds( final BwaMemIndex instance ) {
+            return index == instance;
+        }
+
+        synchronized boolean isLoaded() {
+            return index != null;
+        }
+    }
 
     /**
      * Returns a {@link BwaMemIndex} instance that corresponds to  given index image file.
+     * The instance stays open until it's closed explicitly.
      * @param indexImageFile the target image file.
      * @return never {@code null}.
      */
-    public static synchronized BwaMemIndex getInstance( final String indexImageFile ) {
+    public static BwaMemIndex getInstance( final String indexImageFile ) {
         Utils.nonNull(indexImageFile, "the index image file name provided cannot be null");
-        if (!instances.containsKey(indexImageFile)) {
-            instances.put(indexImageFile, new BwaMemIndex(indexImageFile));
+        final CachedIndex entry;
+        synchronized ( BwaMemIndexCache.class ) {
+            entry = instances.computeIfAbsent(indexImageFile, CachedIndex::new);
+            entry.pinned = true;
         }
-        return instances.get(indexImageFile);
+        return entry.get();
+    }
+
+    /**
+     * Returns a {@link BwaMemIndex} instance that corresponds to given index image file, which won't be evicted until
+     * there is a matching call to {@link #releaseInstance}.
+     * @param indexImageFile the target image file.
+     * @return never {@code null}.
+     */
+    public static BwaMemIndex acquireInstance( final String indexImageFile ) {
+        Utils.nonNull(indexImageFile, "the index image file name provided cannot be null");
+        final CachedIndex entry;
+        synchronized ( BwaMemIndexCache.class ) {
+            entry = instances.computeIfAbsent(indexImageFile, CachedIndex::new);
+            entry.referenceCount += 1;
+        }
+        try {
+            return entry.get();
+        } catch ( final RuntimeException e ) {
+            synchronized ( BwaMemIndexCache.class ) {
+                entry.referenceCount -= 1;
+                // forget an index that failed to load, so that the next attempt loads it again
+                if ( !entry.isLoaded() && instances.get(indexImageFile) == entry ) {
+                    instances.remove(indexImageFile);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Gives back an instance obtained by {@link #acquireInstance}. Once no one holds an instance, it is idle, and the
+     * least recently used idle instances are closed if there are more than {@link #setMaxIdleInstances maxIdleInstances}.
+     * <p>
+     *     Releasing an instance that is not present in the cache won't have any effect.
+     * </p>
+     * @param indexImageFile the same file name that was passed to {@link #acquireInstance}.
+     */
+    public static synchronized void releaseInstance( final String indexImageFile ) {
+        Utils.nonNull(indexImageFile, "the input image file cannot be null");
+        final CachedIndex entry = instances.get(indexImageFile);
+        if ( entry == null || entry.referenceCount == 0 ) {
+            return;
+        }
+        entry.referenceCount -= 1;
+        if ( entry.referenceCount == 0 ) {
+            // move it to the most recently idle end
+            instances.remove(indexImageFile);
+            instances.put(indexImageFile, entry);
+            evictIdleInstances();
+        }
+    }
+
+    /**
+     * Sets the number of idle instances (i.e., acquired and then released by everyone) to keep open in this VM.
+     * The default is to keep all of them.
+     */
+    public static synchronized void setMaxIdleInstances( final int maxIdleInstances ) {
+        Utils.validateArg(maxIdleInstances >= 0, "the maximum number of idle instances cannot be negative");
+        BwaMemIndexCache.maxIdleInstances = maxIdleInstances;
+        evictIdleInstances();
+    }
+
+    private static void evictIdleInstances() {
+        long nIdle = instances.values().stream().filter(BwaMemIndexCache::isIdle).count();
+        final Iterator<CachedIndex> it = instances.values().iterator();
+        while ( nIdle > maxIdleInstances && it.hasNext() ) {
+            final CachedIndex entry = it.next();
+            if ( isIdle(entry) ) {
+                logger.info("Closing idle BWA index image " + entry.indexImageFile);
+                entry.close();
+                it.remove();
+                nIdle -= 1;
+            }
+        }
+    }
+
+    private static boolean isIdle( final CachedIndex entry ) {
+        return entry.referenceCount == 0 && !entry.pinned;
+    }
+
+    /**
+     * @return the number of holders of the instance for an image file, or -1 if the cache has no such instance
+     */
+    @VisibleForTesting
+    static synchronized int getReferenceCount( final String indexImageFile ) {
+        final CachedIndex entry = instances.get(indexImageFile);
+        return entry == null ? -1 : entry.referenceCount;
     }
 
     /**
@@ -39,9 +196,9 @@ public class BwaMemIndexCache {
      */
     public static synchronized void closeInstance(final String indexImageFile) {
         Utils.nonNull(indexImageFile, "the input image file cannot be null");
-        if (instances.containsKey(indexImageFile)) {
-            instances.get(indexImageFile).close();
-            instances.remove(indexImageFile);
+        final CachedIndex entry = instances.remove(indexImageFile);
+        if ( entry != null ) {
+            entry.close();
         }
     }
 
@@ -55,9 +212,13 @@ public class BwaMemIndexCache {
      */
     public static synchronized void closeInstance(final BwaMemIndex instance) {
         Utils.nonNull(instance, "the input index cannot be null");
-        if (instances.values().contains(instance)) {
-            instance.close();
-            instances.values().remove(instance);
+        final Iterator<CachedIndex> it = instances.values().iterator();
+        while ( it.hasNext() ) {
+            final CachedIndex entry = it.next();
+            if ( entry.holds(instance) ) {
+                entry.close();
+                it.remove();
+            }
         }
     }
 
@@ -65,22 +226,42 @@ public class BwaMemIndexCache {
      * Closes all instances in the VM.
      */
     public static synchronized void closeInstances() {
-        final Iterator<BwaMemIndex> it = instances.values().iterator();
+        final Iterator<CachedIndex> it = instances.values().iterator();
         while (it.hasNext()) {
             it.next().close();
             it.remove();
         }
     }
 
+    /**
+     * Opens the instance for an index image file in all the VMs involved in the spark context provided, so that the
+     * image is loaded on every executor before the tasks that need it start. The image file must be available at
+     * the same path on all executors.
+     * @param ctx the spark context.
+     * @param indexImageFile the target image file.
+     */
+    public static void openAllDistributedInstances( final JavaSparkContext ctx, final String indexImageFile ) {
+        Utils.nonNull(ctx, "the context provided cannot be null");
+        Utils.nonNull(indexImageFile, "the index image file name provided cannot be null");
+        runOnAllExecutors(ctx, () -> getInstance(indexImageFile));
+    }
+
     /**
      * Closes all instances in all the VMs involved in the spark context provided.
      * @param ctx the spark context.
      */
     public static void closeAllDistributedInstances( final JavaSparkContext ctx ) {
         Utils.nonNull(ctx, "the context provided cannot be null");
+        runOnAllExecutors(ctx, BwaMemIndexCache::closeInstances);
+    }
+
+    private static void runOnAllExecutors( final JavaSparkContext ctx, final SerializableRunnable action ) {
         int nJobs = ctx.defaultParallelism();
         final List<Integer> jobList = new ArrayList<>(nJobs);
         for ( int idx = 0; idx != nJobs; ++idx ) jobList.add(idx);
-        ctx.parallelize(jobList, nJobs).foreach(idx -> closeInstances());
+        ctx.parallelize(jobList, nJobs).foreach(idx -> action.run());
     }
+
+    @FunctionalInterface
+    private interface SerializableRunnable extends Runnable, java.io.Serializable {}
 }
@@ -0,0 +1,258 @@
+package org.broadinstitute.hellbender.utils.hmm;
+
+import org.broadinstitute.hellbender.utils.GATKProtectedMathUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Performs the forward-backward algorithm for an {@link IndexedHMM} working on primitive arrays only,
+ * in memory proportional to the square root of the sequence length.
+ *
+ * <p>
+ * {@link ForwardBackwardAlgorithm} keeps the full forward and backward matrices so that its result can answer
+ * arbitrary queries afterwards.  This engine instead streams the posterior probabilities of each hidden state
+ * (and, optionally, of each pair of hidden states at consecutive positions) to the caller as it goes, which is all
+ * that EM-style callers need.  The forward pass keeps only the forward probabilities at every
+ * {@code ceil(sqrt(L))}th position; the backward pass then goes through the sequence one such block at a time from
+ * the end, recomputing the block's forward probabilities from its checkpoint.  Thus, for a sequence of length
+ * {@code L} and {@code N} hidden states, the time is still {@code O(L*(N^2))} (the forward pass is done twice) but
+ * the memory is {@code O(sqrt(L)*(N^2))} rather than {@code O(L*N)}.
+ * </p>
+ * <p>
+ * All probabilities are in log scale.
+ * </p>
+ */
+public final class IndexedForwardBackwardAlgorithm {
+
+    /**
+     * Receives the posterior probabilities of the hidden states at a position.
+     */
+    @FunctionalInterface
+    public interface PosteriorConsumer {
+        /**
+         * @param position the position index.
+         * @param logPosteriors the log posterior probability of each hidden state at {@code position};
+         *                      a buffer that is overwritten after this call returns.
+         */
+        void accept(final int position, final double[] logPosteriors);
+    }
+
+    /**
+     * Receives the joint posterior probabilities of the hidden states at a position and the next.
+     */
+    @FunctionalInterface
+    public interface TransitionPosteriorConsumer {
+        /**
+         * @param position the departure position index.
+         * @param logPosteriors {@code logPosteriors[from * numStates + to]} is the log posterior probability of
+         *                      state {@code from} at {@code position} and state {@code to} at {@code position + 1};
+         *                      a buffer that is overwritten after this call returns.
+         */
+        void accept(final int position, final double[] logPosteriors);
+    }
+
+    private IndexedForwardBackwardAlgorithm() {}
+
+    /**
+     * Calculates the likelihood of the data given the model.  This only requires the forward pass, and
+     * memory proportional to the number of hidden states.
+     *
+     * @param model the model.
+     * @return a valid probability in log scale (from -Inf to 0).
+     * @throws IllegalArgumentException if {@code model} is {@code null}.
+     */
+    public static double logDataLikelihood(final IndexedHMM model) {
+        Utils.nonNull(model, "the input model cannot be null");
+        final int length = model.length();
+        if (length == 0) {
+            return 0;
+        }
+        final int numStates = model.numStates();
+        double[] forward = new double[numStates];
+        double[] nextForward = new double[numStates];
+        final double[] transitions = new double[numStates * numStates];
+        final double[] emissions = new double[numStates];
+        final double[] logSumBuffer = new double[numStates];
+        initialForward(model, forward, emissions);
+        for (int position = 1; position < length; position++) {
+            model.logTransitionProbabilities(position - 1, transitions);
+            model.logEmissionProbabilities(position, emissions);
+            forwardStep(forward, transitions, emissions, nextForward, logSumBuffer);
+            final double[] swap = forward; forward = nextForward; nextForward = swap;
+        }
+        return GATKProtectedMathUtils.logSumExp(forward);
+    }
+
+    /**
+     * Runs the forward-backward algorithm, passing the posterior probabilities to the consumers.
+     * <p>
+     *     Positions are visited from the last to the first.  At each position the transition posteriors out of
+     *     that position (if requested) are passed before the state posteriors.
+     * </p>
+     *
+     * @param model the model.
+     * @param posteriorConsumer receives the state posteriors at each position.
+     * @param transitionPosteriorConsumer receives the transition posteriors for each pair of consecutive positions;
+     *                                    {@code null} if they're not needed.
+     * @return the likelihood of the data in log scale (from -Inf to 0).
+     * @throws IllegalArgumentException if {@code model} or {@code posteriorConsumer} is {@code null}.
+     */
+    public static double apply(final IndexedHMM model,
+                               final PosteriorConsumer posteriorConsumer,
+                               final TransitionPosteriorConsumer transitionPosteriorConsumer) {
+        Utils.nonNull(model, "the input model cannot be null");
+        Utils.nonNull(posteriorConsumer, "the posterior consumer cannot be null");
+        final int length = model.length();
+        if (length == 0) {
+            return 0;
+        }
+        final int numStates = model.numStates();
+        final int blockLength = (int) Math.ceil(Math.sqrt(length));
+        final int numBlocks = (length + blockLength - 1) / blockLength;
+        final double[] logSumBuffer = new double[numStates];
+
+        // forward pass, keeping only the forward probabilities at the start of each block:
+        final double[][] checkpoints = new double[numBlocks][];
+        double[] forward = new double[numStates];
+        double[] nextForward = new double[numStates];
+        final double[] transitions = new double[numStates * numStates];
+        final double[] emissions = new double[numStates];
+        initialForward(model, forward, emissions);
+        checkpoints[0] = forward.clone();
+        for (int position = 1; position < length; position++) {
+            model.logTransitionProbabilities(position - 1, transitions);
+            model.logEmissionProbabilities(position, emissions);
+            forwardStep(forward, transitions, emissions, nextForward, logSumBuffer);
+            final double[] swap = forward; forward = nextForward; nextForward = swap;
+            if (position % blockLength == 0) {
+                checkpoints[position / blockLength] = forward.clone();
+            }
+        }
+        final double logDataLikelihood = GATKProtectedMathUtils.logSumExp(forward);
+
+        // backward pass, one block at a time from the last:
+        final double[][] blockForward = new double[blockLength][numStates];
+        final double[][] blockEmissions = new double[blockLength][numStates];
+        final double[][] blockTransitions = new double[blockLength][numStates * numStates]; // out of each position
+        double[] backward = new double[numStates]; // log(1) at the last position
+        double[] previousBackward = new double[numStates];
+        final double[] nextEmissions = new double[numStates];
+        final double[] posteriors = new double[numStates];
+        final double[] transitionPosteriors = transitionPosteriorConsumer == null ? null : new double[numStates * numStates];
+        for (int block = numBlocks - 1; block >= 0; block--) {
+            final int start = block * blockLength;
+            final int end = Math.min(length, start + blockLength);
+            System.arraycopy(checkpoints[block], 0, blockForward[0], 0, numStates);
+            model.logEmissionProbabilities(start, blockEmissions[0]);
+            for (int position = start + 1; position < end; position++) {
+                final int offset = position - start;
+                model.logTransitionProbabilities(position - 1, blockTransitions[offset - 1]);
+                model.logEmissionProbabilities(position, blockEmissions[offset]);
+                forwardStep(blockForward[offset - 1], blockTransitions[offset - 1], blockEmissions[offset],
+                        blockForward[offset], logSumBuffer);
+            }
+            if (end < length) {
+                model.logTransitionProbabilities(end - 1, blockTransitions[end - 1 - start]);
+            }
+            checkpoints[block] = null;
+
+            for (int position = end - 1; position >= start; position--) {
+                final int offset = position - start;
+                final double[] positionForward = blockForward[offset];
+                if (position < length - 1) {
+                    // backward currently holds the backward probabilities at position + 1:
+                    final double[] positionTransitions = blockTransitions[offset];
+                    for (int thisStateIndex = 0, transitionIndex = 0; thisStateIndex < numStates; thisStateIndex++) {
+                        for (int nextStateIndex = 0; nextStateIndex < numStates; nextStateIndex++, transitionIndex++) {
+                            logSumBuffer[nextStateIndex] = positionTransitions[transitionIndex]
+                                    + nextEmissions[nextStateIndex] + backward[nextStateIndex];
+                            if (transitionPosteriors != null) {
+                                transitionPosteriors[transitionIndex] = positionForward[thisStateIndex]
+                                        + logSumBuffer[nextStateIndex] - logDataLikelihood;
+                            }
+                        }
+                        previousBackward[thisStateIndex] = GATKProtectedMathUtils.logSumExp(logSumBuffer);
+                    }
+                    if (transitionPosteriors != null) {
+                        transitionPosteriorConsumer.accept(position, transitionPosteriors);
+                    }
+                    final double[] swap = backward; backward = previousBackward; previousBackward = swap;
+                }
+                for (int stateIndex = 0; stateIndex < numStates; stateIndex++) {
+                    posteriors[stateIndex] = positionForward[stateIndex] + backward[stateIndex] - logDataLikelihood;
+                }
+                posteriorConsumer.accept(position, posteriors);
+                System.arraycopy(blockEmissions[offset], 0, nextEmissions, 0, numStates);
+            }
+        }
+        return logDataLikelihood;
+    }
+
+    /**
+     * Runs the forward-backward algorithm and returns the posterior probabilities of the hidden states.
+     *
+     * @param model the model.
+     * @return a {@code length x numStates} array of log posterior probabilities.
+     * @throws IllegalArgumentException if {@code model} is {@code null}.
+     */
+    public static double[][] logPosteriors(final IndexedHMM model) {
+        Utils.nonNull(model, "the input model cannot be null");
+        final double[][] result = new double[model.length()][];
+        apply(model, (position, logPosteriors) -> result[position] = logPosteriors.clone(), null);
+        return result;
+    }
+
+    /**
+     * Runs the forward-backward algorithm on several independent models (e.g. the chains of different samples)
+     * concurrently, on the common fork-join pool.
+     *
+     * @param models the models.
+     * @param posteriorConsumers given the index of a model, returns the consumer of its state posteriors.
+     *                           Each model's consumer is only called from one thread at a time, but different models'
+     *                           consumers may be called concurrently.
+     * @param transitionPosteriorConsumers given the index of a model, returns the consumer of its transition
+     *                                     posteriors; {@code null} if they're not needed.
+     * @return the log likelihood of the data for each model, in the same order as {@code models}.
+     * @throws IllegalArgumentException if {@code models} or {@code posteriorConsumers} is {@code null}.
+     */
+    public static double[] applyInParallel(final List<? extends IndexedHMM> models,
+                                           final IntFunction<PosteriorConsumer> posteriorConsumers,
+                                           final IntFunction<TransitionPosteriorConsumer> transitionPosteriorConsumers) {
+        Utils.nonNull(models, "the input models cannot be null");
+        Utils.nonNull(posteriorConsumers, "the posterior consumers cannot be null");
+        return IntStream.range(0, models.size()).parallel()
+                .mapToDouble(modelIndex -> apply(models.get(modelIndex), posteriorConsumers.apply(modelIndex),
+                        transitionPosteriorConsumers == null ? null : transitionPosteriorConsumers.apply(modelIndex)))
+                .toArray();
+    }
+
+    /**
+     * Sets the forward probabilities at the first position; {@code emissions} is used as a buffer.
+     */
+    private static void initialForward(final IndexedHMM model, final double[] forward, final double[] emissions) {
+        model.logPriorProbabilities(forward);
+        model.logEmissionProbabilities(0, emissions);
+        for (int stateIndex = 0; stateIndex < forward.length; stateIndex++) {
+            forward[stateIndex] += emissions[stateIndex];
+        }
+    }
+
+    /**
+     * Calculates the forward probabilities at a position from those at the previous position,
+     * the transitions between them and the emissions at the position.
+     */
+    private static void forwardStep(final double[] previousForward, final double[] transitions,
+                                    final double[] emissions, final double[] result, final double[] logSumBuffer) {
+        final int numStates = previousForward.length;
+        for (int thisStateIndex = 0; thisStateIndex < numStates; thisStateIndex++) {
+            for (int previousStateIndex = 0; previousStateIndex < numStates; previousStateIndex++) {
+                logSumBuffer[previousStateIndex] = previousForward[previousStateIndex]
+                        + transitions[previousStateIndex * numStates + thisStateIndex];
+            }
+            result[thisStateIndex] = GATKProtectedMathUtils.logSumExp(logSumBuffer) + emissions[thisStateIndex];
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package org.broadinstitute.hellbender.utils.hmm;
+
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A hidden Markov model over a fixed-length sequence of observations whose hidden states are
+ * the integers {@code 0 .. numStates() - 1}.
+ *
+ * <p>
+ * Unlike {@link HMM}, which is queried one state and one position at a time through object states,
+ * this interface hands out whole vectors and matrices of log probabilities per position, so that
+ * implementations can compute (or cache) them in bulk and the engine in {@link IndexedForwardBackwardAlgorithm}
+ * can work on primitive arrays.
+ * </p>
+ * <p>
+ * The data and the positions are part of the model, so position arguments are plain indexes into the
+ * observation sequence.
+ * </p>
+ */
+public interface IndexedHMM {
+
+    /**
+     * Returns the number of hidden states; at least one.
+     */
+    int numStates();
+
+    /**
+     * Returns the number of observations in the sequence.
+     */
+    int length();
+
+    /**
+     * Fills in the log prior probability of each hidden state at the first position.
+     *
+     * @param result an array of length {@link #numStates()}, to be overwritten.
+     */
+    void logPriorProbabilities(final double[] result);
+
+    /**
+     * Fills in the log transition probabilities from the hidden states at one position to those at the next.
+     *
+     * @param position the departure position index, from 0 to {@code length() - 2}.
+     * @param result an array of length {@code numStates() * numStates()}, to be overwritten so that
+     *               {@code result[from * numStates() + to]} is the log probability of the transition from
+     *               state {@code from} at {@code position} to state {@code to} at {@code position + 1}.
+     */
+    void logTransitionProbabilities(final int position, final double[] result);
+
+    /**
+     * Fills in the log emission probability of the datum at a position given each hidden state.
+     *
+     * @param position the position index, from 0 to {@code length() - 1}.
+     * @param result an array of length {@link #numStates()}, to be overwritten.
+     */
+    void logEmissionProbabilities(final int position, final double[] result);
+
+    /**
+     * Presents an {@link HMM} applied to a data and position sequence as an indexed model.  Hidden state
+     * {@code i} is the {@code i}th element of {@link HMM#hiddenStates()}.
+     *
+     * @param model the model.
+     * @param data the observed data sequence.
+     * @param positions the observation positions.
+     * @param <D> the observed data type.
+     * @param <T> the observation position type.
+     * @param <S> the hidden state type.
+     * @return never {@code null}.
+     * @throws IllegalArgumentException if any argument is {@code null} or {@code data} and {@code positions} have
+     *   different lengths.
+     */
+    static <D, T, S> IndexedHMM of(final HMM<D, T, S> model, final List<D> data, final List<T> positions) {
+        Utils.nonNull(model, "the input model cannot be null");
+        Utils.nonNull(data, "the input data sequence cannot be null.");
+        Utils.nonNull(positions, "the input position sequence cannot be null.");
+        Utils.validateArg(data.size() == positions.size(), "the data sequence and position sequence must have the same number of elements");
+        final List<S> states = Collections.unmodifiableList(new ArrayList<>(model.hiddenStates()));
+        Utils.validateArg(!states.isEmpty(), "the model must have at least one hidden state");
+        final int numStates = states.size();
+
+        return new IndexedHMM() {
+            @Override
+            public int numStates() {
+                return numStates;
+            }
+
+            @Override
+            public int length() {
+                return data.size();
+            }
+
+            @Override
+            public void logPriorProbabilities(final double[] result) {
+                final T position0 = positions.get(0);
+                for (int stateIndex = 0; stateIndex < numStates; stateIndex++) {
+                    result[stateIndex] = model.logPriorProbability(states.get(stateIndex), position0);
+                }
+            }
+
+            @Override
+            public void logTransitionProbabilities(final int position, final double[] result) {
+                final T thisPosition = positions.get(position);
+                final T nextPosition = positions.get(position + 1);
+                for (int thisStateIndex = 0, offset = 0; thisStateIndex < numStates; thisStateIndex++) {
+                    final S thisState = states.get(thisStateIndex);
+                    for (int nextStateIndex = 0; nextStateIndex < numStates; nextStateIndex++) {
+                        result[offset++] = model.logTransitionProbability(thisState, thisPosition,
+                                states.get(nextStateIndex), nextPosition);
+                    }
+                }
+            }
+
+            @Override
+            public void logEmissionProbabilities(final int position, final double[] result) {
+                final D datum = data.get(position);
+                final T thisPosition = positions.get(position);
+                for (int stateIndex = 0; stateIndex < numStates; stateIndex++) {
+                    result[stateIndex] = model.logEmissionProbability(datum, states.get(stateIndex), thisPosition);
+                }
+            }
+        };
+    }
+}
@@ -190,20 +190,22 @@ public class HMMSegmentProcessor<DATA, STATE extends CallStringProducer & Scalar
      * @return a map from sample names to a list of segments
      */
     private Map<String, List<HiddenStateSegment<STATE, TARGET>>> calculateBestPathSegments() {
-        final Map<String, List<HiddenStateSegment<STATE, TARGET>>> allSegments = new LinkedHashMap<>(sampleNames.size());
-        IntStream.range(0, numSamples).parallel()
-                .forEach(sampleIndex -> {
+        /* samples are processed concurrently and collected in order */
+        final List<List<HiddenStateSegment<STATE, TARGET>>> segmentsPerSample = IntStream.range(0, numSamples).parallel()
+                .mapToObj(sampleIndex -> {
                     logger.info("Current sample: " + sampleNames.get(sampleIndex) + "...");
-                    final String sampleName = sampleNames.get(sampleIndex);
                     final TargetCollection<TARGET> targets = sampleTargets.get(sampleIndex);
                     final List<STATE> bestPath = sampleBestPaths.get(sampleIndex);
                     final ForwardBackwardAlgorithm.Result<DATA, TARGET, STATE> fbResult = sampleForwardBackwardResults.get(sampleIndex);
                     final List<Pair<IndexRange, STATE>> bestPathTargetIndexRanges =
                             condenseBestPathIntoTargetIndexAndStatePairs(bestPath, targets);
-                    final List<HiddenStateSegment<STATE, TARGET>> bestPathSegmentList =
-                            composeSegments(sampleIndex, fbResult, bestPathTargetIndexRanges);
-                    allSegments.put(sampleName, bestPathSegmentList);
-                });
+                    return composeSegments(sampleIndex, fbResult, bestPathTargetIndexRanges);
+                })
+                .collect(Collectors.toList());
+        final Map<String, List<HiddenStateSegment<STATE, TARGET>>> allSegments = new LinkedHashMap<>(sampleNames.size());
+        for (int sampleIndex = 0; sampleIndex < numSamples; sampleIndex++) {
+            allSegments.put(sampleNames.get(sampleIndex), segmentsPerSample.get(sampleIndex));
+        }
         return allSegments;
     }
 
@@ -263,9 +265,12 @@ public class HMMSegmentProcessor<DATA, STATE extends CallStringProducer & Scalar
             final int sampleIndex,
             final ForwardBackwardAlgorithm.Result<DATA, TARGET, STATE> fbResult,
             final List<Pair<IndexRange, STATE>> bestPathSegments) {
-        return bestPathSegments.stream()
-                .map(ir -> composeHiddenStateSegmentFromTargetIndexRange(sampleIndex, fbResult, ir.getLeft(),
-                        ir.getRight()))
+        final ScalarPosteriorPrefixSums<STATE, TARGET> posteriorPrefixSums =
+                new ScalarPosteriorPrefixSums<>(fbResult, INDEPENDENT_TARGETS_SEPARATION_THRESHOLD);
+        /* segments are composed concurrently and collected in order */
+        return bestPathSegments.parallelStream()
+                .map(ir -> composeHiddenStateSegmentFromTargetIndexRange(sampleIndex, fbResult, posteriorPrefixSums,
+                        ir.getLeft(), ir.getRight()))
                 .collect(Collectors.toList());
     }
 
@@ -274,6 +279,7 @@ public class HMMSegmentProcessor<DATA, STATE extends CallStringProducer & Scalar
      *
      * @param sampleIndex sample index (used for inferring the reference state)
      * @param fbResult the {@link ForwardBackwardAlgorithm} execution result object.
+     * @param posteriorPrefixSums posterior hidden state value sums on {@code fbResult}.
      * @param targetIndexRange the target position index range of the segment.
      * @param call the call for the segment.
      * @return never {@code null}
@@ -281,12 +287,13 @@ public class HMMSegmentProcessor<DATA, STATE extends CallStringProducer & Scalar
     private HiddenStateSegment<STATE, TARGET> composeHiddenStateSegmentFromTargetIndexRange(
             final int sampleIndex,
             final ForwardBackwardAlgorithm.Result<DATA, TARGET, STATE> fbResult,
+            final ScalarPosteriorPrefixSums<STATE, TARGET> posteriorPrefixSums,
             final IndexRange targetIndexRange,
             final STATE call) {
 
         final int segmentLength = targetIndexRange.size();
-        final double mean = calculateSegmentMean(targetIndexRange.from, segmentLength, fbResult);
-        final double stdDev = FastMath.sqrt(calculateSegmentVariance(targetIndexRange.from, segmentLength, fbResult));
+        final double mean = posteriorPrefixSums.segmentMean(targetIndexRange.from, segmentLength);
+        final double stdDev = FastMath.sqrt(posteriorPrefixSums.segmentVariance(targetIndexRange.from, segmentLength));
 
         final List<TARGET> targets = fbResult.positions().subList(targetIndexRange.from, targetIndexRange.to);
         final double logExactProbability = fbResult.logProbability(targetIndexRange.from, targetIndexRange.to, call);
@@ -517,58 +524,8 @@ public class HMMSegmentProcessor<DATA, STATE extends CallStringProducer & Scalar
             final int segmentLength,
             final ForwardBackwardAlgorithm.Result<?, TARGET, STATE> fbResult) {
         Utils.validateArg(segmentLength >= 0, "Segment length must be non-negative");
-        /* trivial case when the segment has length 0 */
-        if (segmentLength == 0) {
-            return Double.NaN;
-        } else {
-            final List<STATE> hiddenStates = fbResult.model().hiddenStates();
-            final int numHiddenStates = hiddenStates.size();
-            final double[] hiddenStateValues = hiddenStates.stream().mapToDouble(STATE::getScalar).toArray();
-            final double[] means = new double[segmentLength];
-            double diagonalCorrSum = 0, crossCorrSum;
-
-            /* diagonal contribution to cross correlation sum, and individual target means */
-            for (int ti = firstTargetIndex; ti < firstTargetIndex + segmentLength; ti++) {
-                final int tif = ti; /* finalized to use in lambda */
-                final double[] posteriorProbabilities = IntStream.range(0, numHiddenStates)
-                        .mapToDouble(si -> FastMath.exp(fbResult.logProbability(tif, hiddenStates.get(si))))
-                        .toArray();
-                diagonalCorrSum += IntStream.range(0, numHiddenStates)
-                        .mapToDouble(si -> hiddenStateValues[si] * hiddenStateValues[si] * posteriorProbabilities[si])
-                        .sum();
-                means[ti - firstTargetIndex] = IntStream.range(0, numHiddenStates)
-                        .mapToDouble(si -> hiddenStateValues[si] * posteriorProbabilities[si])
-                        .sum();
-            }
-
-            /* cross terms */
-            crossCorrSum = diagonalCorrSum;
-            for (int ti0 = firstTargetIndex; ti0 < firstTargetIndex + segmentLength; ti0++) {
-                for (int ti1 = ti0 + 1; ti1 < firstTargetIndex + segmentLength; ti1++) {
-                    final double distance = Target.calculateDistance(fbResult.positions().get(ti0),
-                            fbResult.positions().get(ti1));
-                    if (distance > INDEPENDENT_TARGETS_SEPARATION_THRESHOLD) {
-                        /* independent state approximation */
-                        crossCorrSum += 2 * means[ti0 - firstTargetIndex] * means[ti1 - firstTargetIndex];
-                    } else {
-                        for (int si0 = 0; si0 < numHiddenStates; si0++) {
-                            for (int si1 = 0; si1 < numHiddenStates; si1++) {
-                                crossCorrSum += 2 * hiddenStateValues[si0] * hiddenStateValues[si1] *
-                                        FastMath.exp(fbResult.logJointProbability(ti0, ti1, hiddenStates.get(si0),
-                                                hiddenStates.get(si1)));
-                            }
-                        }
-                    }
-                }
-            }
-            if (segmentLength == 1) { /* return the variance on the only state */
-                return diagonalCorrSum - means[0] * means[0];
-            } else {
-                /* correct for bias by multiplying with segmentLength / (segmentLength - 1) */
-                return FastMath.max(diagonalCorrSum / (segmentLength - 1)
-                        - crossCorrSum / (segmentLength * (segmentLength - 1)), 0);
-            }
-        }
+        return new ScalarPosteriorPrefixSums<>(fbResult, firstTargetIndex, firstTargetIndex + segmentLength,
+                INDEPENDENT_TARGETS_SEPARATION_THRESHOLD).segmentVariance(firstTargetIndex, segmentLength);
     }
 
     /**
@@ -0,0 +1,204 @@
+package org.broadinstitute.hellbender.utils.hmm.segmentation;
+
+import org.apache.commons.math3.util.FastMath;
+import org.broadinstitute.hellbender.tools.exome.Target;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.hmm.ForwardBackwardAlgorithm;
+import org.broadinstitute.hellbender.utils.hmm.interfaces.ScalarProducer;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Prefix sums of the posterior expectations of hidden state values (see {@link ScalarProducer}) along a range of
+ * target indices of a forward-backward result.
+ *
+ * <p>
+ *     The posterior mean of the hidden state values on any segment within the range is then calculated in constant
+ *     time.  So is the posterior variance, except for the contribution of pairs of targets that are not farther apart
+ *     than a separation threshold and are therefore not assumed to be independent; those are enumerated explicitly
+ *     (see {@link #segmentVariance}).
+ * </p>
+ *
+ * @param <STATE> type of hidden state
+ * @param <TARGET> type of target
+ */
+final class ScalarPosteriorPrefixSums<STATE extends ScalarProducer, TARGET extends Target> {
+
+    private final ForwardBackwardAlgorithm.Result<?, TARGET, STATE> fbResult;
+    private final List<STATE> hiddenStates;
+    private final double[] hiddenStateValues;
+    private final double independentTargetsSeparationThreshold;
+
+    /**
+     * First target index in the range
+     */
+    private final int from;
+
+    /**
+     * Posterior expectation of the hidden state value at each target in the range
+     */
+    private final double[] means;
+
+    /**
+     * Element {@code i} is the sum over the first {@code i} targets in the range of the expectation of the
+     * hidden state value, its square, and of the squared hidden state value respectively
+     */
+    private final double[] meanSums;
+    private final double[] squaredMeanSums;
+    private final double[] secondMomentSums;
+
+    /**
+     * Calculates the prefix sums over all the targets of a forward-backward result.
+     *
+     * @param fbResult result of forward-backward algorithm
+     * @param independentTargetsSeparationThreshold hidden states are assumed independent on targets that are
+     *                                              farther apart than this (see {@link Target#calculateDistance})
+     */
+    ScalarPosteriorPrefixSums(final ForwardBackwardAlgorithm.Result<?, TARGET, STATE> fbResult,
+                              final double independentTargetsSeparationThreshold) {
+        this(fbResult, 0, Utils.nonNull(fbResult).positions().size(), independentTargetsSeparationThreshold);
+    }
+
+    /**
+     * Calculates the prefix sums over a range of targets of a forward-backward result.
+     *
+     * @param fbResult result of forward-backward algorithm
+     * @param from first target index in the range
+     * @param to target index after the last in the range
+     * @param independentTargetsSeparationThreshold hidden states are assumed independent on targets that are
+     *                                              farther apart than this (see {@link Target#calculateDistance})
+     */
+    ScalarPosteriorPrefixSums(final ForwardBackwardAlgorithm.Result<?, TARGET, STATE> fbResult,
+                              final int from, final int to,
+                              final double independentTargetsSeparationThreshold) {
+        this.fbResult = Utils.nonNull(fbResult);
+        Utils.validateArg(0 <= from && from <= to && to <= fbResult.positions().size(), "Invalid target index range");
+        this.from = from;
+        this.independentTargetsSeparationThreshold = independentTargetsSeparationThreshold;
+        hiddenStates = fbResult.model().hiddenStates();
+        hiddenStateValues = hiddenStates.stream().mapToDouble(STATE::getScalar).toArray();
+        final int numHiddenStates = hiddenStates.size();
+        means = new double[to - from];
+        meanSums = new double[to - from + 1];
+        squaredMeanSums = new double[to - from + 1];
+        secondMomentSums = new double[to - from + 1];
+        for (int ti = from; ti < to; ti++) {
+            double mean = 0, secondMoment = 0;
+            for (int si = 0; si < numHiddenStates; si++) {
+                final double posteriorProbability = FastMath.exp(fbResult.logProbability(ti, hiddenStates.get(si)));
+                mean += hiddenStateValues[si] * posteriorProbability;
+                secondMoment += hiddenStateValues[si] * hiddenStateValues[si] * posteriorProbability;
+            }
+            final int offset = ti - from;
+            means[offset] = mean;
+            meanSums[offset + 1] = meanSums[offset] + mean;
+            squaredMeanSums[offset + 1] = squaredMeanSums[offset] + mean * mean;
+            secondMomentSums[offset + 1] = secondMomentSums[offset] + secondMoment;
+        }
+    }
+
+    /**
+     * Calculates the posterior expectation of the mean of hidden state values on a segment
+     *
+     * @param firstTargetIndex first target index of the segment
+     * @param segmentLength length of the segment
+     * @return segment mean; {@link Double#NaN} if the segment is empty
+     */
+    double segmentMean(final int firstTargetIndex, final int segmentLength) {
+        final int start = validSegmentOffset(firstTargetIndex, segmentLength);
+        if (segmentLength == 0) {
+            return Double.NaN;
+        }
+        return (meanSums[start + segmentLength] - meanSums[start]) / segmentLength;
+    }
+
+    /**
+     * Calculates the posterior expectation of the variance of hidden state values on a segment:
+     *
+     *      E[\sigma^2] = (1/T) \sum_{t} E[S_t^2] - (1/T^2) \sum_{t1,t2} E[S_t1 S_t2]
+     *
+     * Here, T = {@code segmentLength}.  The cross terms are calculated as if all pairs of targets were independent,
+     * i.e. (\sum_{t} E[S_t])^2 - \sum_{t} E[S_t]^2, and then corrected for the pairs that are not.
+     *
+     * @param firstTargetIndex first target index of the segment
+     * @param segmentLength length of the segment
+     * @return segment variance; {@link Double#NaN} if the segment is empty
+     */
+    double segmentVariance(final int firstTargetIndex, final int segmentLength) {
+        final int start = validSegmentOffset(firstTargetIndex, segmentLength);
+        final int end = start + segmentLength;
+        if (segmentLength == 0) {
+            return Double.NaN;
+        }
+        final double diagonalCorrSum = secondMomentSums[end] - secondMomentSums[start];
+        if (segmentLength == 1) { /* return the variance on the only state */
+            return diagonalCorrSum - means[start] * means[start];
+        }
+        final double meanSum = meanSums[end] - meanSums[start];
+        final double crossCorrSum = diagonalCorrSum + meanSum * meanSum - (squaredMeanSums[end] - squaredMeanSums[start])
+                + dependentTargetsCorrection(start, end);
+        /* correct for bias by multiplying with segmentLength / (segmentLength - 1) */
+        return FastMath.max(diagonalCorrSum / (segmentLength - 1)
+                - crossCorrSum / (segmentLength * (segmentLength - 1)), 0);
+    }
+
+    /**
+     * Calculates the difference between the exact cross correlation terms and their independent state approximation
+     * for all pairs of targets in a segment that are not farther apart than the separation threshold.
+     * <p>
+     *     Targets are visited in order of their midpoints (the measure of {@link Target#calculateDistance}), so that
+     *     only pairs that fall within the threshold are visited.
+     * </p>
+     *
+     * @param start offset of the first target of the segment
+     * @param end offset after the last target of the segment
+     */
+    private double dependentTargetsCorrection(final int start, final int end) {
+        final List<TARGET> targets = fbResult.positions();
+        final Integer[] offsetsByMidpoint = IntStream.range(start, end).boxed().toArray(Integer[]::new);
+        final double[] midpoints = new double[end - start];
+        for (int offset = start; offset < end; offset++) {
+            final Target target = targets.get(from + offset);
+            Utils.validateArg(target.getInterval() != null, () -> String.format("The target (%s) has missing" +
+                    " interval annotation and its distance to other targets can not be calculated", target));
+            midpoints[offset - start] = (target.getStart() + target.getEnd()) / 2;
+        }
+        final Comparator<Integer> byContig = Comparator.comparing(offset -> targets.get(from + offset).getContig());
+        Arrays.sort(offsetsByMidpoint, byContig.thenComparingDouble(offset -> midpoints[offset - start]));
+
+        final int numHiddenStates = hiddenStates.size();
+        double correction = 0;
+        for (int i = 0; i < offsetsByMidpoint.length; i++) {
+            final int offset0 = offsetsByMidpoint[i];
+            for (int j = i + 1; j < offsetsByMidpoint.length; j++) {
+                final int offset1 = offsetsByMidpoint[j];
+                if (Target.calculateDistance(targets.get(from + offset0), targets.get(from + offset1))
+                        > independentTargetsSeparationThreshold) {
+                    break;
+                }
+                final int ti0 = from + FastMath.min(offset0, offset1);
+                final int ti1 = from + FastMath.max(offset0, offset1);
+                double jointExpectation = 0;
+                for (int si0 = 0; si0 < numHiddenStates; si0++) {
+                    for (int si1 = 0; si1 < numHiddenStates; si1++) {
+                        jointExpectation += hiddenStateValues[si0] * hiddenStateValues[si1] *
+                                FastMath.exp(fbResult.logJointProbability(ti0, ti1, hiddenStates.get(si0),
+                                        hiddenStates.get(si1)));
+                    }
+                }
+                correction += 2 * (jointExpectation - means[offset0] * means[offset1]);
+            }
+        }
+        return correction;
+    }
+
+    private int validSegmentOffset(final int firstTargetIndex, final int segmentLength) {
+        Utils.validateArg(segmentLength >= 0, "Segment length must be non-negative");
+        ParamUtils.inRange(firstTargetIndex - from, 0, means.length - segmentLength, "segment start target index");
+        return firstTargetIndex - from;
+    }
+}
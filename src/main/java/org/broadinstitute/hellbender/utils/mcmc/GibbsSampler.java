@@ -21,12 +21,13 @@ import java.util.stream.Collectors;
  */
 public final class GibbsSampler<V extends Enum<V> & ParameterEnum, S extends ParameterizedState<V>, T extends DataCollection> {
     private static final int RANDOM_SEED = 42;
-    private static final RandomGenerator rng =
-            RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
 
     private static final Logger logger = LogManager.getLogger(GibbsSampler.class);
     private static final int NUMBER_OF_SAMPLES_PER_LOG_ENTRY = 25;
 
+    //not shared between samplers, so that different chains can be run concurrently
+    private final RandomGenerator rng = RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
+
     private final int numSamples;
     private int numSamplesPerLogEntry;
 
@@ -0,0 +1,63 @@
+package org.broadinstitute.hellbender.utils.mcmc;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.RandomGeneratorFactory;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
+
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Samples blocks of parameters that are conditionally independent given the rest of a {@link ParameterizedState}
+ * (e.g., per-segment parameters given the global parameters of a model) concurrently, within a single Gibbs step.
+ *
+ * <p>
+ *     Each block is sampled with its own {@link RandomGenerator}, seeded by a number drawn from the generator
+ *     of the Gibbs step before any block is sampled.  Therefore, the samples depend only on the state of that
+ *     generator and not on the number of threads or on the order in which blocks are scheduled; in particular,
+ *     a {@link GibbsSampler} run remains deterministic.
+ * </p>
+ */
+public final class ParallelBlockSampler {
+    private ParallelBlockSampler() {}
+
+    /**
+     * Generates a random sample of a block of parameters.
+     * @param <U>   type of the sample
+     */
+    @FunctionalInterface
+    public interface BlockSampler<U> {
+        /**
+         * Returns a random sample of a block.  Implementations may be called concurrently for different blocks,
+         * and so must only read shared state.
+         * @param rng           RandomGenerator to use in generating the random sample, exclusive to this call
+         * @param blockIndex    index of the block to sample
+         * @return              random sample of the block
+         */
+        U sample(final RandomGenerator rng, final int blockIndex);
+    }
+
+    /**
+     * Samples blocks concurrently on the common fork-join pool.
+     * @param rng           RandomGenerator of the Gibbs step, used to seed the generator of each block
+     * @param numBlocks     number of blocks; must be non-negative
+     * @param blockSampler  generates the sample of each block
+     * @param <U>           type of the sample of each block
+     * @return              samples of each block, in block-index order
+     */
+    public static <U> List<U> sample(final RandomGenerator rng, final int numBlocks, final BlockSampler<U> blockSampler) {
+        Utils.nonNull(rng);
+        ParamUtils.isPositiveOrZero(numBlocks, "Number of blocks must be non-negative.");
+        Utils.nonNull(blockSampler);
+        final long[] seeds = new long[numBlocks];
+        for (int block = 0; block < numBlocks; block++) {
+            seeds[block] = rng.nextLong();
+        }
+        return IntStream.range(0, numBlocks).parallel()
+                .mapToObj(block -> blockSampler.sample(RandomGeneratorFactory.createRandomGenerator(new Random(seeds[block])), block))
+                .collect(Collectors.toList());
+    }
+}
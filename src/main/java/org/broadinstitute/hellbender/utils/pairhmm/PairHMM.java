@@ -12,6 +12,7 @@ import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 
 import java.io.Closeable;
 import java.util.Arrays;
@@ -139,6 +140,9 @@ public abstract class PairHMM implements Closeable{
     protected long threadLocalPairHMMComputeTimeDiff = 0;
     protected long startTime = 0;
 
+    private static final InstrumentationRegistry.Counter CELLS_COUNTER = InstrumentationRegistry.global().counter("pairHMM.cellsComputed");
+    private static final InstrumentationRegistry.Counter READ_HAPLOTYPE_PAIRS_COUNTER = InstrumentationRegistry.global().counter("pairHMM.readHaplotypePairs");
+
     /**
      * Initialize this PairHMM, making it suitable to run against a read and haplotype with given lengths
      *
@@ -257,6 +261,28 @@ public abstract class PairHMM implements Closeable{
                 pairHMMComputeTime += threadLocalPairHMMComputeTimeDiff;
             }
         }
+        recordWorkDone(processedReads, alleles);
+    }
+
+    /**
+     * Record in the {@link InstrumentationRegistry#global} registry the number of read/haplotype pairs and of
+     * matrix cells (read length times haplotype length, summed over all pairs) evaluated by one call to
+     * {@link #computeLog10Likelihoods}.
+     */
+    protected static void recordWorkDone(final List<GATKRead> processedReads, final List<? extends Allele> alleles) {
+        if ( ! InstrumentationRegistry.global().isEnabled() ) {
+            return;
+        }
+        long totalReadLength = 0;
+        for ( final GATKRead read : processedReads ) {
+            totalReadLength += read.getLength();
+        }
+        long totalAlleleLength = 0;
+        for ( final Allele allele : alleles ) {
+            totalAlleleLength += allele.length();
+        }
+        CELLS_COUNTER.add(totalReadLength * totalAlleleLength);
+        READ_HAPLOTYPE_PAIRS_COUNTER.add((long) processedReads.size() * alleles.size());
     }
 
     /**
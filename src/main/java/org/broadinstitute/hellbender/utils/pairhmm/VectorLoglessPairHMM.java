@@ -168,6 +168,7 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
             pairHMMComputeTime += threadLocalPairHMMComputeTimeDiff;
             pairHMMSetupTime += threadLocalSetupTimeDiff;
         }
+        recordWorkDone(processedReads, logLikelihoods.alleles());
     }
 
 
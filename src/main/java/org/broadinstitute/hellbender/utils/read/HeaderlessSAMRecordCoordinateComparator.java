@@ -58,6 +58,15 @@ public final class HeaderlessSAMRecordCoordinateComparator implements Comparator
         }
     }
 
+    /**
+     * @return a primitive key for {@code samRecord} that orders records consistently with this comparator, as
+     * described in {@link ReadCoordinateComparator#coordinateSortKey}
+     */
+    public static long coordinateSortKey( final SAMRecord samRecord, final SAMFileHeader header ) {
+        return ReadCoordinateComparator.packCoordinateSortKey(header.getSequenceIndex(samRecord.getReferenceName()),
+                samRecord.getAlignmentStart(), samRecord.getReadNegativeStrandFlag());
+    }
+
     /**
      * Compare the coordinates of two reads. If a read is paired and unmapped, use its mate mapping
      * as its position.
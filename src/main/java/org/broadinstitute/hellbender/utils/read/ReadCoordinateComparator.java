@@ -42,10 +42,9 @@ public final class ReadCoordinateComparator implements Comparator<GATKRead>, Ser
             return first.isReverseStrand()? 1: -1;
         }
 
-        if ( first.getName() != null && second.getName() != null ) {
-            result = first.getName().compareTo(second.getName());
-            if ( result != 0 ) { return result; }
-        }
+        // reads with no name sort before named reads, so that the ordering stays total
+        result = NAME_ORDER.compare(first.getName(), second.getName());
+        if ( result != 0 ) { return result; }
         result = Integer.compare(ReadUtils.getSAMFlagsForRead(first), ReadUtils.getSAMFlagsForRead(second));
         if ( result != 0 ) { return result; }
         result = Integer.compare(first.getMappingQuality(), second.getMappingQuality());
@@ -79,4 +78,42 @@ public final class ReadCoordinateComparator implements Comparator<GATKRead>, Ser
 
         return Integer.compare(first.getAssignedStart(), second.getAssignedStart());
     }
+
+    /**
+     * Packs the leading fields of this comparator (assigned contig, assigned start and strand) into a single
+     * non-negative long. Keys are ordered consistently with {@link #compare}: if the key of a read is less than the key
+     * of another, the comparator orders the reads the same way; reads with equal keys must be compared with
+     * {@link #compare} to order them completely. Useful for shuffling reads by a primitive key rather than by the reads
+     * themselves.
+     *
+     * Reads with no assigned contig all share one key per strand (see {@link #isUnplacedSortKey}); callers that need to
+     * spread them out should break ties by name, which is the next field this comparator sorts them by.
+     */
+    public static long coordinateSortKey( final GATKRead read, final SAMFileHeader header ) {
+        return packCoordinateSortKey(ReadUtils.getAssignedReferenceIndex(read, header), read.getAssignedStart(), read.isReverseStrand());
+    }
+
+    /**
+     * @return true if {@code key} is the {@link #coordinateSortKey} of a read with no assigned contig
+     */
+    public static boolean isUnplacedSortKey( final long key ) {
+        return (key & UNPLACED_KEY_PREFIX) == UNPLACED_KEY_PREFIX;
+    }
+
+    /**
+     * Key layout: reference index in bits 32-62 (all ones for unplaced reads), start position in bits 1-31 (zero for
+     * unplaced reads) and strand in bit 0. Positions are clamped at zero, which keeps the keys ordered consistently
+     * with the comparators at the cost of an occasional spurious tie.
+     */
+    static long packCoordinateSortKey( final int referenceIndex, final int start, final boolean reverseStrand ) {
+        final long strand = reverseStrand ? 1L : 0L;
+        if ( referenceIndex == -1 ) {
+            return UNPLACED_KEY_PREFIX | strand;
+        }
+        return ((long) referenceIndex << 32) | ((long) Math.max(start, 0) << 1) | strand;
+    }
+
+    private static final long UNPLACED_KEY_PREFIX = 0x7FFFFFFFL << 32;
+
+    private static final Comparator<String> NAME_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
 }
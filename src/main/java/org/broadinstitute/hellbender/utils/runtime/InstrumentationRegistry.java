@@ -0,0 +1,319 @@
+package org.broadinstitute.hellbender.utils.runtime;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Registry of named timers, counters and gauges used to find out where the engine spends its time.
+ *
+ * Instrumented code gets a handle once (typically into a static field) via {@link #timer}, {@link #counter} or
+ * {@link #gauge} on the {@link #global} registry, and updates it as it goes. Handles stay valid for the lifetime of the
+ * registry, so {@link #reset} zeroes their values rather than forgetting them.
+ *
+ * The registry is disabled by default, in which case timers don't query the clock and all updates are no-ops.
+ * {@link org.broadinstitute.hellbender.engine.GATKTool} enables it when one of its instrumentation outputs is requested,
+ * and {@link org.broadinstitute.hellbender.engine.ProgressMeter} writes snapshots of it in JSON and/or in the Prometheus
+ * text exposition format alongside its progress updates.
+ *
+ * All operations are thread-safe.
+ */
+public final class InstrumentationRegistry {
+
+    private static final InstrumentationRegistry GLOBAL = new InstrumentationRegistry();
+
+    /**
+     * Prefix of the names of the metrics in the Prometheus output.
+     */
+    public static final String PROMETHEUS_PREFIX = "gatk_";
+
+    private volatile boolean enabled = false;
+
+    private final Map<String, Timer> timers = new ConcurrentSkipListMap<>();
+    private final Map<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentSkipListMap<>();
+
+    /**
+     * @return the registry shared by the whole engine
+     */
+    public static InstrumentationRegistry global() {
+        return GLOBAL;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Zeroes all timers, counters and gauges. Previously obtained handles remain valid.
+     */
+    public void reset() {
+        timers.values().forEach(Timer::reset);
+        counters.values().forEach(Counter::reset);
+        gauges.values().forEach(Gauge::reset);
+    }
+
+    /**
+     * @return the timer called {@code name}, creating it if needed
+     */
+    public Timer timer(final String name) {
+        Utils.nonEmpty(name, "timer name must not be empty");
+        return timers.computeIfAbsent(name, n -> new Timer(this));
+    }
+
+    /**
+     * @return the counter called {@code name}, creating it if needed
+     */
+    public Counter counter(final String name) {
+        Utils.nonEmpty(name, "counter name must not be empty");
+        return counters.computeIfAbsent(name, n -> new Counter(this));
+    }
+
+    /**
+     * @return the gauge called {@code name}, creating it if needed
+     */
+    public Gauge gauge(final String name) {
+        Utils.nonEmpty(name, "gauge name must not be empty");
+        return gauges.computeIfAbsent(name, n -> new Gauge(this));
+    }
+
+    /**
+     * Accumulates the wall-clock time spent in a phase and the number of times the phase was entered.
+     *
+     * Usage: {@code final long start = timer.start(); ...; timer.stop(start);}
+     */
+    public static final class Timer {
+        private final InstrumentationRegistry registry;
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+
+        private Timer(final InstrumentationRegistry registry) {
+            this.registry = registry;
+        }
+
+        /**
+         * @return a start timestamp to pass to {@link #stop}, or 0 if the registry is disabled
+         */
+        public long start() {
+            return registry.enabled ? System.nanoTime() : 0L;
+        }
+
+        /**
+         * Records the time elapsed since {@code startNanos}, as returned by {@link #start}.
+         */
+        public void stop(final long startNanos) {
+            if (registry.enabled && startNanos != 0L) {
+                record(System.nanoTime() - startNanos);
+            }
+        }
+
+        /**
+         * Records one entry into the phase that lasted {@code elapsedNanos} nanoseconds.
+         */
+        public void record(final long elapsedNanos) {
+            if (registry.enabled) {
+                nanos.add(elapsedNanos);
+                count.increment();
+            }
+        }
+
+        public long getTotalNanos() {
+            return nanos.sum();
+        }
+
+        public double getTotalSeconds() {
+            return nanos.sum() / 1e9;
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        private void reset() {
+            nanos.reset();
+            count.reset();
+        }
+    }
+
+    /**
+     * Monotonically increasing count of events.
+     */
+    public static final class Counter {
+        private final InstrumentationRegistry registry;
+        private final LongAdder value = new LongAdder();
+
+        private Counter(final InstrumentationRegistry registry) {
+            this.registry = registry;
+        }
+
+        public void increment() {
+            if (registry.enabled) {
+                value.increment();
+            }
+        }
+
+        public void add(final long amount) {
+            if (registry.enabled) {
+                value.add(amount);
+            }
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        private void reset() {
+            value.reset();
+        }
+    }
+
+    /**
+     * Value that is set rather than accumulated, such as the number of records processed so far.
+     */
+    public static final class Gauge {
+        private final InstrumentationRegistry registry;
+        private volatile double value = 0.0;
+
+        private Gauge(final InstrumentationRegistry registry) {
+            this.registry = registry;
+        }
+
+        public void set(final double value) {
+            if (registry.enabled) {
+                this.value = value;
+            }
+        }
+
+        public double get() {
+            return value;
+        }
+
+        private void reset() {
+            value = 0.0;
+        }
+    }
+
+    /**
+     * @return a JSON object with the current value of every timer, counter and gauge, keyed by name:
+     * {@code {"timers": {name: {"seconds": s, "count": n}}, "counters": {name: n}, "gauges": {name: x}}}
+     */
+    public String toJson() {
+        final StringBuilder json = new StringBuilder("{\n  \"timers\": {");
+        String separator = "\n";
+        for (final Map.Entry<String, Timer> entry : timers.entrySet()) {
+            json.append(separator).append("    ").append(jsonString(entry.getKey()))
+                    .append(": {\"seconds\": ").append(jsonNumber(entry.getValue().getTotalSeconds()))
+                    .append(", \"count\": ").append(entry.getValue().getCount()).append('}');
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"counters\": {");
+        separator = "\n";
+        for (final Map.Entry<String, Counter> entry : counters.entrySet()) {
+            json.append(separator).append("    ").append(jsonString(entry.getKey())).append(": ").append(entry.getValue().get());
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"gauges\": {");
+        separator = "\n";
+        for (final Map.Entry<String, Gauge> entry : gauges.entrySet()) {
+            json.append(separator).append("    ").append(jsonString(entry.getKey())).append(": ").append(jsonNumber(entry.getValue().get()));
+            separator = ",\n";
+        }
+        return json.append("\n  }\n}\n").toString();
+    }
+
+    /**
+     * @return the current value of every timer, counter and gauge in the Prometheus text exposition format.
+     * Metric names are given as the value of a label, so they need not be valid Prometheus identifiers.
+     */
+    public String toPrometheus() {
+        final StringBuilder text = new StringBuilder();
+        text.append("# HELP ").append(PROMETHEUS_PREFIX).append("phase_seconds_total Wall-clock seconds spent in an engine phase\n");
+        text.append("# TYPE ").append(PROMETHEUS_PREFIX).append("phase_seconds_total counter\n");
+        timers.forEach((name, timer) -> appendPrometheusSample(text, "phase_seconds_total", "phase", name, prometheusNumber(timer.getTotalSeconds())));
+        text.append("# HELP ").append(PROMETHEUS_PREFIX).append("phase_calls_total Number of times an engine phase was entered\n");
+        text.append("# TYPE ").append(PROMETHEUS_PREFIX).append("phase_calls_total counter\n");
+        timers.forEach((name, timer) -> appendPrometheusSample(text, "phase_calls_total", "phase", name, Long.toString(timer.getCount())));
+        text.append("# HELP ").append(PROMETHEUS_PREFIX).append("events_total Number of engine events\n");
+        text.append("# TYPE ").append(PROMETHEUS_PREFIX).append("events_total counter\n");
+        counters.forEach((name, counter) -> appendPrometheusSample(text, "events_total", "name", name, Long.toString(counter.get())));
+        text.append("# HELP ").append(PROMETHEUS_PREFIX).append("value Current value of an engine gauge\n");
+        text.append("# TYPE ").append(PROMETHEUS_PREFIX).append("value gauge\n");
+        gauges.forEach((name, gauge) -> appendPrometheusSample(text, "value", "name", name, prometheusNumber(gauge.get())));
+        return text.toString();
+    }
+
+    /**
+     * Writes {@link #toJson} to {@code file}, replacing its previous contents in a single step so that readers never
+     * see a partially written snapshot.
+     */
+    public void writeJson(final File file) {
+        writeAtomically(file, toJson());
+    }
+
+    /**
+     * Writes {@link #toPrometheus} to {@code file}, replacing its previous contents in a single step so that a
+     * scraper (such as the node exporter text-file collector) never sees a partially written snapshot.
+     */
+    public void writePrometheus(final File file) {
+        writeAtomically(file, toPrometheus());
+    }
+
+    private static void writeAtomically(final File file, final String contents) {
+        Utils.nonNull(file);
+        final Path target = file.toPath().toAbsolutePath();
+        final Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            Files.write(temp, contents.getBytes(StandardCharsets.UTF_8));
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(file, "could not write instrumentation snapshot", e);
+        }
+    }
+
+    private static void appendPrometheusSample(final StringBuilder text, final String metric, final String label, final String name, final String value) {
+        text.append(PROMETHEUS_PREFIX).append(metric).append('{').append(label).append("=\"")
+                .append(name.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n"))
+                .append("\"} ").append(value).append('\n');
+    }
+
+    private static String prometheusNumber(final double value) {
+        return Double.isNaN(value) ? "NaN" : Double.isInfinite(value) ? (value > 0 ? "+Inf" : "-Inf") : Double.toString(value);
+    }
+
+    private static String jsonNumber(final double value) {
+        return Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value);
+    }
+
+    private static String jsonString(final String value) {
+        final StringBuilder json = new StringBuilder("\"");
+        for (final char c : value.toCharArray()) {
+            switch (c) {
+                case '"': json.append("\\\""); break;
+                case '\\': json.append("\\\\"); break;
+                case '\n': json.append("\\n"); break;
+                case '\t': json.append("\\t"); break;
+                case '\r': json.append("\\r"); break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+}
@@ -1,13 +1,19 @@
 package org.broadinstitute.hellbender.utils.spark;
 
+import com.google.common.collect.Iterators;
+import com.google.common.collect.PeekingIterator;
 import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMFileWriterImpl;
 import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMRecordSparkCodec;
 import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.SAMTextHeaderCodec;
 import htsjdk.samtools.util.BinaryCodec;
 import htsjdk.samtools.util.BlockCompressedOutputStream;
 import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.RuntimeIOException;
+import htsjdk.samtools.util.SortingCollection;
 import org.apache.commons.io.FileUtils;
 import org.apache.hadoop.fs.Path;
 import org.apache.hadoop.fs.FileSystem;
@@ -24,7 +30,12 @@ import scala.Tuple2;
 
 
 import java.io.*;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
  * Miscellaneous Spark-related utilities
@@ -32,6 +43,9 @@ import java.util.Comparator;
 public final class SparkUtils {
     private static final Logger logger = Logger.getLogger(SparkUtils.class);
 
+    /** Runs of reads that share a shuffle key longer than this are sorted on disk rather than in memory. */
+    static final int MAX_RUN_RECORDS_IN_RAM = SAMFileWriterImpl.getDefaultMaxRecordsInRam();
+
     /** Sometimes Spark has trouble destroying a broadcast variable, but we'd like the app to continue anyway. */
     public static <T> void destroyBroadcast(final Broadcast<T> broadcast, final String whatBroadcast ) {
         try {
@@ -121,6 +135,13 @@ public final class SparkUtils {
 
     /**
      * Sorts the given reads in coordinate sort order.
+     *
+     * Rather than shuffling the reads themselves and comparing them with a {@link ReadCoordinateComparator}, each read
+     * is shuffled as its BAM encoding keyed by its {@link ReadCoordinateComparator#coordinateSortKey}, so the shuffle
+     * sorts primitive keys and the reads are only decoded once they reach their final partition. Reads with no assigned
+     * contig also carry their name in the key, so that they are spread across partitions by name. Reads that share a
+     * key are then put in order with the full comparator, so the result is the same as sorting with the comparator.
+     *
      * @param reads the reads to sort
      * @param header the reads header, which must specify coordinate sort order
      * @param numReducers the number of reducers to use; a value of 0 means use the default number of reducers
@@ -129,29 +150,44 @@ public final class SparkUtils {
     public static JavaRDD<GATKRead> coordinateSortReads(final JavaRDD<GATKRead> reads, final SAMFileHeader header, final int numReducers) {
         Utils.validate(header.getSortOrder().equals(SAMFileHeader.SortOrder.coordinate), "Header must specify coordinate sort order, but was" + header.getSortOrder());
 
-        // Turn into key-value pairs so we can sort (by key). Values are null so there is no overhead in the amount
-        // of data going through the shuffle.
-        final JavaPairRDD<GATKRead, Void> rddReadPairs = reads.mapToPair(read -> new Tuple2<>(read, (Void) null));
+        final JavaPairRDD<Tuple2<Long, String>, byte[]> keyedReads = reads.mapPartitionsToPair(readIterator -> {
+            final BinaryRecordCodec codec = new BinaryRecordCodec();
+            return Iterators.transform(readIterator, read -> {
+                final Tuple2<Long, String> key = shuffleKey(ReadCoordinateComparator.coordinateSortKey(read, header), read.getName());
+                return new Tuple2<>(key, codec.toBytes(read.convertToSAMRecord(null)));
+            });
+        });
 
-        // do a total sort so that all the reads in partition i are less than those in partition i+1
-        final Comparator<GATKRead> comparator = new ReadCoordinateComparator(header);
-        final JavaPairRDD<GATKRead, Void> readVoidPairs;
-        if (numReducers > 0) {
-            readVoidPairs = rddReadPairs.sortByKey(comparator, true, numReducers);
-        } else {
-            readVoidPairs = rddReadPairs.sortByKey(comparator);
-        }
-        return readVoidPairs.keys();
+        final ReadCoordinateComparator readComparator = new ReadCoordinateComparator(header);
+        return sortByKey(keyedReads, numReducers).mapPartitions(keyedReadIterator -> {
+            final Comparator<SAMRecord> comparator = (first, second) ->
+                    readComparator.compare(SAMRecordToGATKReadAdapter.headerlessReadAdapter(first), SAMRecordToGATKReadAdapter.headerlessReadAdapter(second));
+            return Iterators.transform(new KeyRunSortingIterator<>(keyedReadIterator, comparator, MAX_RUN_RECORDS_IN_RAM), SAMRecordToGATKReadAdapter::headerlessReadAdapter);
+        });
     }
 
     /**
-     * Sorts the given reads according to the sort order in the header.
+     * Sorts the given reads according to the sort order in the header. Coordinate sorting shuffles the reads in binary
+     * form keyed by position, as in {@link #coordinateSortReads}.
      * @param reads the reads to sort
      * @param header the header specifying the sort order
      * @param numReducers the number of reducers to use; a vlue of 0 means use the default number of reducers
      * @return a sorted RDD of reads
      */
     public static JavaRDD<SAMRecord> sortReads(final JavaRDD<SAMRecord> reads, final SAMFileHeader header, final int numReducers) {
+        if (header.getSortOrder() == SAMFileHeader.SortOrder.coordinate) {
+            final JavaPairRDD<Tuple2<Long, String>, byte[]> keyedReads = reads.mapPartitionsToPair(readIterator -> {
+                final BinaryRecordCodec codec = new BinaryRecordCodec();
+                return Iterators.transform(readIterator, read -> {
+                    final Tuple2<Long, String> key = shuffleKey(HeaderlessSAMRecordCoordinateComparator.coordinateSortKey(read, header), read.getReadName());
+                    return new Tuple2<>(key, codec.toBytes(read));
+                });
+            });
+            final Comparator<SAMRecord> comparator = new HeaderlessSAMRecordCoordinateComparator(header);
+            return sortByKey(keyedReads, numReducers).mapPartitions(keyedReadIterator ->
+                    new KeyRunSortingIterator<>(keyedReadIterator, comparator, MAX_RUN_RECORDS_IN_RAM));
+        }
+
         // Turn into key-value pairs so we can sort (by key). Values are null so there is no overhead in the amount
         // of data going through the shuffle.
         final JavaPairRDD<SAMRecord, Void> rddReadPairs = reads.mapToPair(read -> new Tuple2<>(read, (Void) null));
@@ -169,6 +205,186 @@ public final class SparkUtils {
         return readVoidPairs.keys();
     }
 
+    /**
+     * @return the shuffle key of a read with the given {@link ReadCoordinateComparator#coordinateSortKey} and name.
+     * Reads with no assigned contig share one coordinate key per strand, so they also carry their full name, which is
+     * the next field the coordinate comparators order them by; other reads don't need it.
+     */
+    static Tuple2<Long, String> shuffleKey(final long coordinateSortKey, final String name) {
+        return new Tuple2<>(coordinateSortKey, ReadCoordinateComparator.isUnplacedSortKey(coordinateSortKey) ? name : null);
+    }
+
+    // do a total sort so that all the keys in partition i are less than those in partition i+1
+    private static JavaPairRDD<Tuple2<Long, String>, byte[]> sortByKey(final JavaPairRDD<Tuple2<Long, String>, byte[]> keyedReads, final int numReducers) {
+        final ShuffleKeyComparator comparator = new ShuffleKeyComparator();
+        return numReducers > 0 ? keyedReads.sortByKey(comparator, true, numReducers) : keyedReads.sortByKey(comparator);
+    }
+
+    /**
+     * Orders the keys made by {@link #shuffleKey} by coordinate sort key and then by name, with missing names first as
+     * in {@link ReadCoordinateComparator}.
+     */
+    static final class ShuffleKeyComparator implements Comparator<Tuple2<Long, String>>, Serializable {
+        private static final long serialVersionUID = 1L;
+        private static final Comparator<String> NAME_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+        @Override
+        public int compare(final Tuple2<Long, String> first, final Tuple2<Long, String> second) {
+            final int result = Long.compare(first._1(), second._1());
+            return result != 0 ? result : NAME_ORDER.compare(first._2(), second._2());
+        }
+    }
+
+    /**
+     * Converts headerless SAMRecords to and from their BAM encoding followed by their reference and mate reference
+     * names, which are kept in the same way as in {@link org.broadinstitute.hellbender.engine.spark.SAMRecordSerializer}.
+     * Works on byte arrays for the shuffle and on streams for spilling to disk. Not thread-safe, so use one instance per
+     * partition.
+     */
+    static final class BinaryRecordCodec implements SortingCollection.Codec<SAMRecord> {
+        private final SAMRecordSparkCodec codec = new SAMRecordSparkCodec();
+        private final BinaryCodec namesCodec = new BinaryCodec();
+        private final ByteArrayOutputStream outputBytes = new ByteArrayOutputStream();
+
+        @Override
+        public void setOutputStream(final OutputStream outputStream) {
+            codec.setOutputStream(outputStream);
+            namesCodec.setOutputStream(outputStream);
+        }
+
+        @Override
+        public void setInputStream(final InputStream inputStream) {
+            codec.setInputStream(inputStream);
+            namesCodec.setInputStream(inputStream);
+        }
+
+        @Override
+        public void encode(final SAMRecord record) {
+            codec.encode(record);
+            namesCodec.writeString(record.getReferenceName(), true, false);
+            namesCodec.writeString(record.getMateReferenceName(), true, false);
+
+            // clear indexing bin after encoding to ensure all SAMRecords compare properly
+            record.setFlags(record.getFlags());
+        }
+
+        @Override
+        public SAMRecord decode() {
+            final SAMRecord record = codec.decode();
+            if (record == null) {
+                return null;
+            }
+            // interned so that decoded records share their reference names, and so that "*" is recognized as such
+            final String referenceName = namesCodec.readLengthAndString(false).intern();
+            final String mateReferenceName = namesCodec.readLengthAndString(false).intern();
+
+            // clear indexing bin after decoding to ensure all SAMRecords compare properly
+            record.setFlags(record.getFlags());
+            record.setReferenceName(referenceName);
+            record.setMateReferenceName(mateReferenceName);
+            record.setHeaderStrict(null);
+            return record;
+        }
+
+        @Override
+        public BinaryRecordCodec clone() {
+            return new BinaryRecordCodec();
+        }
+
+        byte[] toBytes(final SAMRecord record) {
+            outputBytes.reset();
+            setOutputStream(outputBytes);
+            encode(record);
+            return outputBytes.toByteArray();
+        }
+
+        SAMRecord fromBytes(final byte[] bytes) {
+            setInputStream(new ByteArrayInputStream(bytes));
+            return decode();
+        }
+    }
+
+    /**
+     * Decodes the records of an iterator of key-value pairs sorted by key, and puts each run of records that share a
+     * key in order with a comparator that refines the key order. Only one run is held at a time: a run of up to
+     * {@code maxRecordsInRam} records is sorted in memory, and a longer one is sorted in a {@link SortingCollection}
+     * that spills to temporary files.
+     */
+    static final class KeyRunSortingIterator<K> implements Iterator<SAMRecord> {
+        private final PeekingIterator<Tuple2<K, byte[]>> keyedRecords;
+        private final Comparator<SAMRecord> comparator;
+        private final int maxRecordsInRam;
+        private final BinaryRecordCodec codec = new BinaryRecordCodec();
+        private final List<SAMRecord> run = new ArrayList<>();
+        private Iterator<SAMRecord> runIterator = Collections.emptyIterator();
+        private SortingCollection<SAMRecord> spilledRun = null;
+        private CloseableIterator<SAMRecord> spilledRunIterator = null;
+
+        KeyRunSortingIterator(final Iterator<Tuple2<K, byte[]>> keyedRecords, final Comparator<SAMRecord> comparator, final int maxRecordsInRam) {
+            Utils.validateArg(maxRecordsInRam > 0, "maxRecordsInRam must be positive");
+            this.keyedRecords = Iterators.peekingIterator(keyedRecords);
+            this.comparator = comparator;
+            this.maxRecordsInRam = maxRecordsInRam;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (runIterator.hasNext()) {
+                return true;
+            }
+            releaseSpilledRun();
+            return keyedRecords.hasNext();
+        }
+
+        @Override
+        public SAMRecord next() {
+            if (!runIterator.hasNext()) {
+                fillRun();
+            }
+            return runIterator.next();
+        }
+
+        private void fillRun() {
+            if (!keyedRecords.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            releaseSpilledRun();
+            run.clear();
+            final K key = keyedRecords.peek()._1();
+            while (keyedRecords.hasNext() && keyedRecords.peek()._1().equals(key)) {
+                final SAMRecord record = codec.fromBytes(keyedRecords.next()._2());
+                if (spilledRun == null && run.size() == maxRecordsInRam) {
+                    spilledRun = SortingCollection.newInstance(SAMRecord.class, new BinaryRecordCodec(), comparator, maxRecordsInRam);
+                    run.forEach(spilledRun::add);
+                    run.clear();
+                }
+                if (spilledRun == null) {
+                    run.add(record);
+                } else {
+                    spilledRun.add(record);
+                }
+            }
+
+            if (spilledRun == null) {
+                run.sort(comparator);
+                runIterator = run.iterator();
+            } else {
+                spilledRun.doneAdding();
+                spilledRunIterator = spilledRun.iterator();
+                runIterator = spilledRunIterator;
+            }
+        }
+
+        private void releaseSpilledRun() {
+            if (spilledRun != null) {
+                spilledRunIterator.close();
+                spilledRun.cleanup();
+                spilledRun = null;
+                spilledRunIterator = null;
+            }
+        }
+    }
+
     //Returns the comparator to use or null if no sorting is required.
     private static Comparator<SAMRecord> getSAMRecordComparator(final SAMFileHeader header) {
         switch (header.getSortOrder()){
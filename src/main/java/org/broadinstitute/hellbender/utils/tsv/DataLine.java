@@ -37,9 +37,24 @@ public final class DataLine {
 
     /**
      * Holds the values for the data line in construction.
+     * <p>
+     * For data-lines read from a table this is filled lazily from {@link #sourceLine} as values are requested.
+     * </p>
      */
     private final String[] values;
 
+    /**
+     * The input line this data-line's values are extracted from; {@code null} if the values are not backed by
+     * an input line.
+     */
+    private final String sourceLine;
+
+    /**
+     * The end position of each value in {@link #sourceLine} as returned by {@link TableLineParser#valueEnds};
+     * {@code null} iff {@link #sourceLine} is {@code null}.
+     */
+    private final int[] sourceValueEnds;
+
     /**
      * Next appending index used by {@link #append append} methods.
      */
@@ -86,11 +101,40 @@ public final class DataLine {
         this.values = Utils.nonNull(values, "the value array cannot be null");
         this.columns = Utils.nonNull(columns, "the columns cannot be null");
         this.formatErrorFactory = Utils.nonNull(formatErrorFactory, "the format error factory cannot be null");
+        this.sourceLine = null;
+        this.sourceValueEnds = null;
         if (values.length != columns.columnCount()) {
             throw new IllegalArgumentException("mismatching value length and column count");
         }
     }
 
+    /**
+     * Creates a new data-line instance backed by an input line.
+     * <p>
+     * Values are only extracted from the line as {@link String}s when requested as such; numeric values are
+     * decoded directly from the line.
+     * </p>
+     *
+     * @param lineNumber the line number for this data-line, {@link #NO_LINE_NUMBER} when this is unspecified.
+     * @param sourceLine the input line.
+     * @param sourceValueEnds the end position of each value in {@code sourceLine} as returned by {@link TableLineParser#valueEnds}.
+     * @param columns            the columns of the table that will enclose this data-line instance.
+     * @param formatErrorFactory to be used when there is a column formatting error based on the requested data-type.
+     * @throws IllegalArgumentException if any argument is {@code null} or the number of values does not match the
+     *   number of columns.
+     */
+    DataLine(final long lineNumber, final String sourceLine, final int[] sourceValueEnds, final TableColumnCollection columns, final Function<String, RuntimeException> formatErrorFactory) {
+        this.lineNumber = lineNumber;
+        this.sourceLine = Utils.nonNull(sourceLine, "the source line cannot be null");
+        this.sourceValueEnds = Utils.nonNull(sourceValueEnds, "the source value ends cannot be null");
+        this.columns = Utils.nonNull(columns, "the columns cannot be null");
+        this.formatErrorFactory = Utils.nonNull(formatErrorFactory, "the format error factory cannot be null");
+        if (sourceValueEnds.length != columns.columnCount()) {
+            throw new IllegalArgumentException("mismatching value length and column count");
+        }
+        this.values = new String[sourceValueEnds.length];
+    }
+
     /**
      * Creates a new data-line instance.
      *
@@ -145,7 +189,7 @@ public final class DataLine {
      */
     String[] unpack() {
         for (int i = 0; i < values.length; i++) {
-            if (values[i] == null) {
+            if (value(i) == null) {
                 throw new IllegalStateException(String.format("some data line value remains undefined: e.g. column '%s' index %d", columns.nameAt(i), i));
             }
         }
@@ -283,10 +327,33 @@ public final class DataLine {
      */
     public String get(final int index) {
         Utils.validIndex(index, values.length);
-        Utils.validate(values[index] != null, () -> "requested column value at " + index + " has not been initialized yet");
+        Utils.validate(value(index) != null, () -> "requested column value at " + index + " has not been initialized yet");
+        return values[index];
+    }
+
+    /**
+     * Returns the value at an index, extracting it from the source line if necessary.
+     *
+     * @param index a valid column index.
+     * @return {@code null} if the value is undefined.
+     */
+    private String value(final int index) {
+        if (values[index] == null && sourceLine != null) {
+            values[index] = sourceLine.substring(TableLineParser.valueStart(sourceValueEnds, index), sourceValueEnds[index]);
+        }
         return values[index];
     }
 
+    /**
+     * Checks whether the value at an index has yet to be extracted from the source line,
+     * so that it can be decoded directly from it.
+     *
+     * @param index a valid column index.
+     */
+    private boolean isOnlyInSourceLine(final int index) {
+        return values[index] == null && sourceLine != null;
+    }
+
     /**
      * Returns the int value in a column by its index.
      *
@@ -300,6 +367,10 @@ public final class DataLine {
      */
     public int getInt(final int index) {
         try {
+            Utils.validIndex(index, values.length);
+            if (isOnlyInSourceLine(index)) {
+                return TableLineParser.parseInt(sourceLine, TableLineParser.valueStart(sourceValueEnds, index), sourceValueEnds[index]);
+            }
             return Integer.parseInt(get(index));
         } catch (final NumberFormatException ex) {
             throw formatErrorFactory.apply(String.format("expected int value for column %s but found %s", columns.nameAt(index), get(index)));
@@ -319,6 +390,10 @@ public final class DataLine {
      */
     public long getLong(final int index) {
         try {
+            Utils.validIndex(index, values.length);
+            if (isOnlyInSourceLine(index)) {
+                return TableLineParser.parseLong(sourceLine, TableLineParser.valueStart(sourceValueEnds, index), sourceValueEnds[index]);
+            }
             return Long.parseLong(get(index));
         } catch (final NumberFormatException ex) {
             throw formatErrorFactory.apply(String.format("expected long value for column %s but found %s", columns.nameAt(index), get(index)));
@@ -378,6 +453,10 @@ public final class DataLine {
      */
     public double getDouble(final int index, final Function<String, RuntimeException> formatErrorFactory) {
         try {
+            Utils.validIndex(index, values.length);
+            if (isOnlyInSourceLine(index)) {
+                return TableLineParser.parseDouble(sourceLine, TableLineParser.valueStart(sourceValueEnds, index), sourceValueEnds[index]);
+            }
             return Double.parseDouble(get(index));
         } catch (final NumberFormatException ex) {
             if (formatErrorFactory != null) {
@@ -398,7 +477,7 @@ public final class DataLine {
      */
     public String get(final String columnName) {
         final int index = columnIndex(columnName);
-        Utils.validate(values[index] != null, () -> String.format("the value for column '%s' is undefined", columnName));
+        Utils.validate(value(index) != null, () -> String.format("the value for column '%s' is undefined", columnName));
         return values[index];
     }
 
@@ -414,7 +493,7 @@ public final class DataLine {
         if (index < 0) {
             return defaultValue;
         } else {
-            return values[index];
+            return value(index);
         }
     }
 
@@ -776,6 +855,9 @@ public final class DataLine {
      * @return never {@code null}, but it can contain {@code null}s.
      */
     public String[] toArray() {
+        for (int i = 0; i < values.length; i++) {
+            value(i);
+        }
         return values.clone();
     }
 
@@ -0,0 +1,249 @@
+package org.broadinstitute.hellbender.utils.tsv;
+
+/**
+ * Low level parsing of tab separated value lines that do not require quote or escape processing.
+ * <p>
+ * Instead of splitting a line into an array of {@link String}s, {@link #valueEnds} returns the position where
+ * each value ends within the line so that values can be extracted or decoded on demand. Numeric values are decoded
+ * directly from the line characters by {@link #parseInt}, {@link #parseLong} and {@link #parseDouble}; these accept
+ * and return exactly the same as their {@link Integer#parseInt}, {@link Long#parseLong} and {@link Double#parseDouble}
+ * counterparts, to which they defer for any input that is not plain decimal notation.
+ * </p>
+ */
+final class TableLineParser {
+
+    /**
+     * Maximum number of digits of an int that cannot overflow.
+     */
+    private static final int MAX_SAFE_INT_DIGITS = 9;
+
+    /**
+     * Maximum number of digits of a long that cannot overflow.
+     */
+    private static final int MAX_SAFE_LONG_DIGITS = 18;
+
+    /**
+     * Maximum number of significant digits in a decimal mantissa that is guaranteed to be exactly
+     * represented by a double (i.e. less than 2^53).
+     */
+    private static final int MAX_EXACT_DOUBLE_DIGITS = 15;
+
+    /**
+     * Maximum number of exponent digits considered in the fast path of {@link #parseDouble}.
+     */
+    private static final int MAX_EXPONENT_DIGITS = 4;
+
+    /**
+     * Powers of ten that are exactly represented by a double.
+     * <p>
+     * Multiplying or dividing an exactly represented mantissa by one of these is a single correctly rounded
+     * operation, and so it gives the same result as {@link Double#parseDouble}.
+     * </p>
+     */
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+    private TableLineParser() {}
+
+    /**
+     * Splits a line into values.
+     *
+     * @param line the input line without the line terminator.
+     * @return {@code null} if the line contains quote or escape characters, and so it needs to be parsed
+     *      by a full CSV parser; otherwise an array with the (exclusive) end position of each value in {@code line}.
+     *      Each value starts right after the separator that ends the previous one.
+     */
+    static int[] valueEnds(final String line) {
+        final int length = line.length();
+        int numValues = 1;
+        for (int i = 0; i < length; i++) {
+            final char c = line.charAt(i);
+            if (c == TableUtils.COLUMN_SEPARATOR) {
+                numValues++;
+            } else if (c == TableUtils.QUOTE_CHARACTER || c == TableUtils.ESCAPE_CHARACTER) {
+                return null;
+            }
+        }
+        final int[] result = new int[numValues];
+        int nextValue = 0;
+        for (int i = 0; i < length; i++) {
+            if (line.charAt(i) == TableUtils.COLUMN_SEPARATOR) {
+                result[nextValue++] = i;
+            }
+        }
+        result[nextValue] = length;
+        return result;
+    }
+
+    /**
+     * Returns the position where a value starts.
+     *
+     * @param valueEnds the value end positions as returned by {@link #valueEnds}.
+     * @param index the value index.
+     * @return 0 or greater.
+     */
+    static int valueStart(final int[] valueEnds, final int index) {
+        return index == 0 ? 0 : valueEnds[index - 1] + 1;
+    }
+
+    /**
+     * Extracts all the values in a line.
+     *
+     * @param line the input line.
+     * @param valueEnds the value end positions as returned by {@link #valueEnds}.
+     * @return never {@code null}.
+     */
+    static String[] values(final String line, final int[] valueEnds) {
+        final String[] result = new String[valueEnds.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = line.substring(valueStart(valueEnds, i), valueEnds[i]);
+        }
+        return result;
+    }
+
+    /**
+     * Checks whether a value is equal to a string without extracting it.
+     */
+    static boolean valueEquals(final String line, final int[] valueEnds, final int index, final String string) {
+        final int start = valueStart(valueEnds, index);
+        return valueEnds[index] - start == string.length() && line.regionMatches(start, string, 0, string.length());
+    }
+
+    /**
+     * Decodes an int value.
+     *
+     * @param s the string containing the value.
+     * @param start the start position of the value (inclusive).
+     * @param end the end position of the value (exclusive).
+     * @return the same as {@code Integer.parseInt(s.substring(start, end))}.
+     * @throws NumberFormatException under the same circumstances as {@link Integer#parseInt}.
+     */
+    static int parseInt(final String s, final int start, final int end) {
+        final int digitsStart = isSign(s, start, end) ? start + 1 : start;
+        if (end - digitsStart > MAX_SAFE_INT_DIGITS) {
+            return Integer.parseInt(s.substring(start, end));
+        }
+        return (int) parseDigits(s, start, digitsStart, end);
+    }
+
+    /**
+     * Decodes a long value.
+     *
+     * @param s the string containing the value.
+     * @param start the start position of the value (inclusive).
+     * @param end the end position of the value (exclusive).
+     * @return the same as {@code Long.parseLong(s.substring(start, end))}.
+     * @throws NumberFormatException under the same circumstances as {@link Long#parseLong}.
+     */
+    static long parseLong(final String s, final int start, final int end) {
+        final int digitsStart = isSign(s, start, end) ? start + 1 : start;
+        if (end - digitsStart > MAX_SAFE_LONG_DIGITS) {
+            return Long.parseLong(s.substring(start, end));
+        }
+        return parseDigits(s, start, digitsStart, end);
+    }
+
+    /**
+     * Decodes an optionally signed sequence of decimal digits that cannot overflow a long.
+     * Defers to {@link Long#parseLong} (which throws) if there is no digit or there are other characters.
+     */
+    private static long parseDigits(final String s, final int start, final int digitsStart, final int end) {
+        if (digitsStart == end) {
+            return Long.parseLong(s.substring(start, end));
+        }
+        long result = 0;
+        for (int i = digitsStart; i < end; i++) {
+            final int digit = s.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.parseLong(s.substring(start, end));
+            }
+            result = result * 10 + digit;
+        }
+        return s.charAt(start) == '-' ? -result : result;
+    }
+
+    private static boolean isSign(final String s, final int start, final int end) {
+        return start < end && (s.charAt(start) == '-' || s.charAt(start) == '+');
+    }
+
+    /**
+     * Decodes a double value.
+     * <p>
+     * Values in plain decimal notation (with an optional sign, fraction and exponent) whose mantissa has at most
+     * {@value #MAX_EXACT_DOUBLE_DIGITS} significant digits and whose exponent is small enough are decoded directly;
+     * anything else is passed on to {@link Double#parseDouble}.
+     * </p>
+     *
+     * @param s the string containing the value.
+     * @param start the start position of the value (inclusive).
+     * @param end the end position of the value (exclusive).
+     * @return the same as {@code Double.parseDouble(s.substring(start, end))}.
+     * @throws NumberFormatException under the same circumstances as {@link Double#parseDouble}.
+     */
+    static double parseDouble(final String s, final int start, final int end) {
+        final boolean negative = start < end && s.charAt(start) == '-';
+        int i = isSign(s, start, end) ? start + 1 : start;
+        long mantissa = 0;
+        int numSignificantDigits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        boolean inFraction = false;
+        for (; i < end; i++) {
+            final char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                anyDigit = true;
+                if (mantissa != 0 || c != '0') {
+                    if (++numSignificantDigits > MAX_EXACT_DOUBLE_DIGITS) {
+                        return Double.parseDouble(s.substring(start, end));
+                    }
+                    mantissa = mantissa * 10 + (c - '0');
+                }
+                if (inFraction) {
+                    exponent--;
+                }
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else {
+                break;
+            }
+        }
+        if (!anyDigit) {
+            return Double.parseDouble(s.substring(start, end));
+        }
+        if (i < end && (s.charAt(i) == 'e' || s.charAt(i) == 'E')) {
+            i++;
+            final boolean negativeExponent = i < end && s.charAt(i) == '-';
+            if (isSign(s, i, end)) {
+                i++;
+            }
+            final int exponentDigitsStart = i;
+            int explicitExponent = 0;
+            for (; i < end && s.charAt(i) >= '0' && s.charAt(i) <= '9'; i++) {
+                explicitExponent = explicitExponent * 10 + (s.charAt(i) - '0');
+                if (i - exponentDigitsStart >= MAX_EXPONENT_DIGITS) {
+                    return Double.parseDouble(s.substring(start, end));
+                }
+            }
+            if (i == exponentDigitsStart) {
+                return Double.parseDouble(s.substring(start, end));
+            }
+            exponent += negativeExponent ? -explicitExponent : explicitExponent;
+        }
+        if (i != end) {
+            // e.g. type suffixes, white spaces, "NaN" or "Infinity":
+            return Double.parseDouble(s.substring(start, end));
+        }
+        final double result;
+        if (mantissa == 0) {
+            result = 0.0;
+        } else if (exponent >= 0 && exponent < EXACT_POWERS_OF_TEN.length) {
+            result = mantissa * EXACT_POWERS_OF_TEN[exponent];
+        } else if (exponent < 0 && -exponent < EXACT_POWERS_OF_TEN.length) {
+            result = mantissa / EXACT_POWERS_OF_TEN[-exponent];
+        } else {
+            return Double.parseDouble(s.substring(start, end));
+        }
+        return negative ? -result : result;
+    }
+}
@@ -1,12 +1,14 @@
 package org.broadinstitute.hellbender.utils.tsv;
 
-import com.opencsv.CSVReader;
+import com.opencsv.CSVParser;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.Utils;
 
 import java.io.*;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -34,6 +36,17 @@ import java.util.stream.Stream;
  * any special formatting characters like a new-line, the quote character itself, the column separator character or
  * the escape character {@link TableUtils#ESCAPE_CHARACTER}.</p>
  * <p>Within quotes, especial characters must be escaped using the {@link TableUtils#ESCAPE_CHARACTER}</p>
+ * <h3>Parsing</h3>
+ * <p>
+ * Lines that contain no quote or escape characters (the vast majority in practice) are split without creating
+ * a {@link String} per value: their {@link DataLine} only extracts values as strings when these are requested, and
+ * decodes numeric values (e.g. {@link DataLine#getDouble}) directly from the line. Other lines are parsed by a full CSV
+ * parser.
+ * </p>
+ * <p>
+ * Readers whose {@link #createRecord} is thread-safe can use {@link #forEachInParallel} or {@link #toListInParallel} to create the records of
+ * large inputs in parallel.
+ * </p>
  * <h3>Implementing your own reader</h3>
  * <p>
  * Implementations control how instances of {@link R} are instantiated by extending
@@ -113,10 +126,20 @@ public abstract class TableReader<R> implements Closeable, Iterable<R> {
     private TableColumnCollection columns;
 
     /**
-     * Holds a reference to the csvReader object use to read and parse the input
-     * into {@link String} arrays.
+     * Parser used for lines that need quote and escape processing, possibly spanning several input lines.
+     */
+    private final CSVParser csvParser;
+
+    /**
+     * Number of data lines whose records are created at once by {@link #forEachInParallel}.
      */
-    private CSVReader csvReader;
+    private static final int PARALLEL_BATCH_SIZE = 10_000;
+
+    /**
+     * Data line whose record is being created by the current thread within {@link #forEachInParallel}, so that
+     * {@link #formatException} reports its location rather than the reader's.
+     */
+    private final ThreadLocal<DataLine> dataLineInProcess = new ThreadLocal<>();
 
     /**
      * Indicates whether the reader has tried to fetch the next record.
@@ -183,7 +206,7 @@ public abstract class TableReader<R> implements Closeable, Iterable<R> {
 
         this.source = sourceName;
         this.reader = sourceReader instanceof LineNumberReader ? (LineNumberReader) sourceReader : new LineNumberReader(sourceReader);
-        this.csvReader = new CSVReader(this.reader, TableUtils.COLUMN_SEPARATOR, TableUtils.QUOTE_CHARACTER, TableUtils.ESCAPE_CHARACTER);
+        this.csvParser = new CSVParser(TableUtils.COLUMN_SEPARATOR, TableUtils.QUOTE_CHARACTER, TableUtils.ESCAPE_CHARACTER);
         findAndProcessHeaderLine();
         this.nextRecordFetched = false;
     }
@@ -207,6 +230,10 @@ public abstract class TableReader<R> implements Closeable, Iterable<R> {
 
     /**
      * Checks whether a line is a comment line or not.
+     * <p>
+     * Lines without quote or escape characters are only passed to this method if they start
+     * with {@link TableUtils#COMMENT_PREFIX}.
+     * </p>
      *
      * @param line input line already split into line-values.
      * @return {@code true} if {@code line} seems to be a comment line.
@@ -251,11 +278,23 @@ public abstract class TableReader<R> implements Closeable, Iterable<R> {
      * @return never {@code null}.
      */
     private String formatExceptionMessageWithLocationInfo(final String message) {
+        final DataLine dataLine = dataLineInProcess.get();
+        return formatExceptionMessageWithLocationInfo(message, dataLine == null ? reader.getLineNumber() : dataLine.getLineNumber());
+    }
+
+    /**
+     * Composes the error exception message string for a given line.
+     *
+     * @param message custom error message.
+     * @param lineNumber the line number of the formatting error.
+     * @return never {@code null}.
+     */
+    private String formatExceptionMessageWithLocationInfo(final String message, final long lineNumber) {
         final String explanation = message == null ? "" : ": " + message;
         if (source == null) {
-            return String.format("format error at line %d" + explanation, reader.getLineNumber());
+            return String.format("format error at line %d" + explanation, lineNumber);
         } else {
-            return String.format("format error in '%s' at line %d" + explanation, source, reader.getLineNumber());
+            return String.format("format error in '%s' at line %d" + explanation, source, lineNumber);
         }
     }
 
@@ -323,7 +362,7 @@ public abstract class TableReader<R> implements Closeable, Iterable<R> {
      */
     public final R readRecord(final String line) {
         try {
-            final String[] fields = csvReader.getParser().parseLine(line);
+            final String[] fields = csvParser.parseLine(line);
             if (isCommentLine(fields) || isHeaderLine(fields)) {
                 return null;
             } else if (fields.length != columns.columnCount()) {
@@ -344,24 +383,102 @@ public abstract class TableReader<R> implements Closeable, Iterable<R> {
      */
     private R fetchNextRecord() throws IOException {
         nextRecordFetched = true;
-        String[] line;
-        while ((line = csvReader.readNext()) != null) {
-            if (isCommentLine(line)) {
-                processCommentLine(line, reader.getLineNumber());
-            } else if (!isHeaderLine(line)) {
-                if (line.length != columns.columnCount()) {
-                    throw formatException(String.format("mismatch between number of values in line (%d) and number of columns (%d)", line.length, columns.columnCount()));
-                } else {
-                    final R result = createRecord(new DataLine(reader.getLineNumber(), line, columns, this::formatException));
-                    if (result != null) {
-                        return result;
-                    }
+        DataLine dataLine;
+        while ((dataLine = fetchNextDataLine()) != null) {
+            final R result = createRecord(dataLine);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Fetch the next data line from the source, skipping comment lines and repetitions of the header.
+     *
+     * @return {@code null} if there is no more data lines in the input.
+     * @throws IOException if a {@link IOException} was thrown when reading from the input.
+     */
+    private DataLine fetchNextDataLine() throws IOException {
+        String line;
+        while ((line = reader.readLine()) != null) {
+            final int[] valueEnds = TableLineParser.valueEnds(line);
+            if (valueEnds == null) {
+                final String[] values = parseQuotedLine(line);
+                if (isCommentLine(values)) {
+                    processCommentLine(values, reader.getLineNumber());
+                } else if (!isHeaderLine(values)) {
+                    checkNumberOfValues(values.length);
+                    return new DataLine(reader.getLineNumber(), values, columns, lineFormatExceptionFactory(reader.getLineNumber()));
                 }
+            } else if (line.startsWith(TableUtils.COMMENT_PREFIX) && isCommentLine(TableLineParser.values(line, valueEnds))) {
+                processCommentLine(line.substring(TableUtils.COMMENT_PREFIX.length()), reader.getLineNumber());
+            } else if (!(valueEnds.length == columns.columnCount() && TableLineParser.valueEquals(line, valueEnds, 0, columns.nameAt(0))
+                    && isHeaderLine(TableLineParser.values(line, valueEnds)))) {
+                checkNumberOfValues(valueEnds.length);
+                return new DataLine(reader.getLineNumber(), line, valueEnds, columns, lineFormatExceptionFactory(reader.getLineNumber()));
             }
         }
         return null;
     }
 
+    private void checkNumberOfValues(final int numberOfValues) {
+        if (numberOfValues != columns.columnCount()) {
+            throw formatException(String.format("mismatch between number of values in line (%d) and number of columns (%d)", numberOfValues, columns.columnCount()));
+        }
+    }
+
+    /**
+     * Returns the format exception factory for a data line; unlike {@link #formatException}, it reports the
+     * line's own number even when the record is created after other lines have been read.
+     */
+    private Function<String, RuntimeException> lineFormatExceptionFactory(final long lineNumber) {
+        return message -> new UserException.BadInput(formatExceptionMessageWithLocationInfo(message, lineNumber));
+    }
+
+    /**
+     * Reads the values of the next line from the source (whether a comment, header or data line).
+     *
+     * @return {@code null} if we reached the end of the source.
+     * @throws IOException if it was raised when reading for the source.
+     */
+    private String[] readNextLineValues() throws IOException {
+        final String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        final int[] valueEnds = TableLineParser.valueEnds(line);
+        return valueEnds == null ? parseQuotedLine(line) : TableLineParser.values(line, valueEnds);
+    }
+
+    /**
+     * Parses a line that requires quote and escape processing.
+     * <p>
+     * Quoted values may contain new-lines, in which case the following lines in the source are read and
+     * parsed as well until the quote is closed.
+     * </p>
+     *
+     * @param line the first input line.
+     * @return never {@code null}.
+     * @throws IOException if it was raised when reading for the source.
+     */
+    private String[] parseQuotedLine(final String line) throws IOException {
+        String[] result = csvParser.parseLineMulti(line);
+        while (csvParser.isPending()) {
+            final String nextLine = reader.readLine();
+            if (nextLine == null) {
+                return result;
+            }
+            final String[] nextValues = csvParser.parseLineMulti(nextLine);
+            if (nextValues.length > 0) {
+                final String[] combined = Arrays.copyOf(result, result.length + nextValues.length);
+                System.arraycopy(nextValues, 0, combined, result.length, nextValues.length);
+                result = combined;
+            }
+        }
+        return result;
+    }
+
     private void processCommentLine(final String[] line, final long lineNumber) {
         final StringBuilder builder = new StringBuilder();
         builder.append(line[0].substring(TableUtils.COMMENT_PREFIX.length()));
@@ -394,6 +511,10 @@ public abstract class TableReader<R> implements Closeable, Iterable<R> {
      *     extending classes may change what is interpretated as a repetition of the header (e.g. just treat such
      *     lines as regular data line)
      * </p>
+     * <p>
+     *     Lines without quote or escape characters are only passed to this method if they have as many values
+     *     as columns and the first one is the first column name.
+     * </p>
      * @param line the input line.
      * @return {@code true} if the input line is a header line and it should be ignored.
      */
@@ -412,7 +533,7 @@ public abstract class TableReader<R> implements Closeable, Iterable<R> {
      */
     private String[] skipCommentLines() throws IOException {
         String[] line;
-        while ((line = csvReader.readNext()) != null) {
+        while ((line = readNextLineValues()) != null) {
             if (isCommentLine(line)) {
                 processCommentLine(line, reader.getLineNumber());
             } else {
@@ -438,7 +559,7 @@ public abstract class TableReader<R> implements Closeable, Iterable<R> {
 
     @Override
     public void close() throws IOException {
-        csvReader.close();
+        reader.close();
     }
 
     /**
@@ -518,6 +639,85 @@ public abstract class TableReader<R> implements Closeable, Iterable<R> {
         return stream().collect(Collectors.toList());
     }
 
+    /**
+     * Read the remaining records into a list, creating the records of batches of data lines in parallel
+     * (see {@link #forEachInParallel}).
+     * <p>
+     *     The order of the records is the same as that of {@link #toList}.
+     *     Notice that this operation does not close the reader.
+     * </p>
+     *
+     * @return never {@code null}, but potentially empty.
+     * @throws UncheckedIOException if an {@link IOException} was thrown when reading from the input.
+     */
+    public List<R> toListInParallel() {
+        final List<R> result = new ArrayList<>();
+        forEachInParallel(result::add);
+        return result;
+    }
+
+    /**
+     * Passes the remaining records to a consumer, creating the records of batches of data lines in parallel.
+     * <p>
+     *     Lines are still read and split sequentially, as are calls to {@link #processCommentLine(String, long)},
+     *     but the calls to {@link #createRecord} for the lines of a batch are made concurrently on the common
+     *     fork-join pool. Therefore this can only be used if {@link #createRecord} is thread-safe.
+     * </p>
+     * <p>
+     *     The records are passed to the consumer on the calling thread, in the same order as {@link #toList}, as
+     *     soon as their batch is complete; so only the records of one batch are held at a time.
+     *     Notice that this operation does not close the reader.
+     * </p>
+     *
+     * @param consumer receives each record.
+     * @throws UncheckedIOException if an {@link IOException} was thrown when reading from the input.
+     */
+    public void forEachInParallel(final Consumer<? super R> consumer) {
+        Utils.nonNull(consumer);
+        if (nextRecordFetched) {
+            nextRecordFetched = false;
+            if (nextRecord == null) {
+                return;
+            }
+            consumer.accept(nextRecord);
+        }
+        try {
+            final List<DataLine> batch = new ArrayList<>(PARALLEL_BATCH_SIZE);
+            DataLine dataLine;
+            do {
+                dataLine = fetchNextDataLine();
+                if (dataLine != null) {
+                    batch.add(dataLine);
+                }
+                if (batch.size() == PARALLEL_BATCH_SIZE || (dataLine == null && !batch.isEmpty())) {
+                    batch.parallelStream()
+                            .map(this::createRecordInParallel)
+                            .collect(Collectors.toList())
+                            .stream()
+                            .filter(Objects::nonNull)
+                            .forEach(consumer);
+                    batch.clear();
+                }
+            } while (dataLine != null);
+        } catch (final IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        nextRecordFetched = true;
+        nextRecord = null;
+    }
+
+    /**
+     * Calls {@link #createRecord} on behalf of {@link #forEachInParallel}.
+     */
+    private R createRecordInParallel(final DataLine dataLine) {
+        dataLineInProcess.set(dataLine);
+        try {
+            return createRecord(dataLine);
+        } finally {
+            dataLineInProcess.remove();
+        }
+    }
+
     /**
      * Returns the reader source name.
      *
@@ -26,6 +26,7 @@ import org.broadinstitute.hellbender.cmdline.TestProgramGroup;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
+import org.broadinstitute.hellbender.utils.runtime.InstrumentationRegistry;
 import org.broadinstitute.hellbender.utils.test.ArgumentsBuilder;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.testng.Assert;
@@ -145,6 +146,19 @@ public final class GATKToolUnitTest extends GATKBaseTest {
         }
     }
 
+    @CommandLineProgramProperties(
+            summary = "TestGATKToolWithFailingTraversal",
+            oneLineSummary = "TestGATKToolWithFailingTraversal",
+            programGroup = TestProgramGroup.class
+    )
+    private static final class TestGATKToolWithFailingTraversal extends GATKTool{
+
+        @Override
+        public void traverse() {
+            throw new IllegalStateException("traversal failed");
+        }
+    }
+
     @CommandLineProgramProperties(
             summary = "TestGATKToolWithVariants",
             oneLineSummary = "TestGATKToolWithVariants",
@@ -743,6 +757,19 @@ public final class GATKToolUnitTest extends GATKBaseTest {
         assertContains(commandLineString,"Date=");
     }
 
+    @Test
+    public void testInstrumentationOutputFailureKeepsTraversalException() {
+        final File unwritable = new File(createTempDir("instrumentation"), "no/such/dir/instrumentation.json");
+        final String[] args = {"--" + GATKTool.INSTRUMENTATION_JSON_OUTPUT_NAME, unwritable.getAbsolutePath()};
+        try {
+            new TestGATKToolWithFailingTraversal().instanceMain(args);
+            Assert.fail("the traversal exception was not thrown");
+        } catch (final IllegalStateException e) {
+            Assert.assertEquals(e.getMessage(), "traversal failed");
+        }
+        Assert.assertFalse(InstrumentationRegistry.global().isEnabled());
+    }
+
     private void writeHeaderAndBadVariant(final VariantContextWriter writer) {
         final VariantContextBuilder vcBuilder = new VariantContextBuilder(
                 "chr1","1", 1, 1, Arrays.asList(Allele.create("A", true)));
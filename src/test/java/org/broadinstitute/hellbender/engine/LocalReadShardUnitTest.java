@@ -104,6 +104,15 @@ public class LocalReadShardUnitTest extends GATKBaseTest {
         final LocalReadShard downsampledShard = new LocalReadShard(new SimpleInterval("1", 1, 5000), new SimpleInterval("1", 1, 5000), readsSource);
         downsampledShard.setDownsampler(readsBAndCOnlyDownsampler);
 
+        final ReadFilter keepReadAOrBOnly = new ReadFilter() {
+            private static final long serialVersionUID = 1l;
+            @Override
+            public boolean test( GATKRead read ) { return read.getName().equals("a") || read.getName().equals("b"); };
+        };
+        final LocalReadShard preFilterDownsampledShard = new LocalReadShard(new SimpleInterval("1", 200, 210), new SimpleInterval("1", 200, 210), readsSource);
+        preFilterDownsampledShard.setPreFilterDownsampler(new KeepReadsBAndCOnlyDownsampler());
+        preFilterDownsampledShard.setReadFilter(keepReadAOrBOnly);
+
         return new Object[][] {
                 {new LocalReadShard(new SimpleInterval("1", 200, 210), new SimpleInterval("1", 200, 210), readsSource), Arrays.asList("a", "b", "c") },
                 {new LocalReadShard(new SimpleInterval("1", 200, 209), new SimpleInterval("1", 200, 209), readsSource), Arrays.asList("a", "b") },
@@ -112,7 +121,8 @@ public class LocalReadShardUnitTest extends GATKBaseTest {
                 {new LocalReadShard(new SimpleInterval("1", 200, 204), new SimpleInterval("1", 200, 205), readsSource), Arrays.asList("a", "b") },
                 {new LocalReadShard(new SimpleInterval("1", 400, 500), new SimpleInterval("1", 400, 500), readsSource), Collections.<String>emptyList() },
                 { filteredShard, Arrays.asList("b") },
-                { downsampledShard, Arrays.asList("b", "c")}
+                { downsampledShard, Arrays.asList("b", "c")},
+                { preFilterDownsampledShard, Arrays.asList("b")}
         };
     }
 
@@ -316,6 +326,25 @@ public class LocalReadShardUnitTest extends GATKBaseTest {
         };
     }
 
+    @Test
+    public void testPreFilterDownsamplingHappensBeforeFiltering() {
+        final ReadsDataSource readsSource = new ReadsDataSource(IOUtils.getPath(publicTestDir + "org/broadinstitute/hellbender/engine/reads_data_source_test1.bam"));
+        final List<String> filteredReadNames = new ArrayList<>();
+        final ReadFilter recordingFilter = new ReadFilter() {
+            private static final long serialVersionUID = 1l;
+            @Override
+            public boolean test( GATKRead read ) { filteredReadNames.add(read.getName()); return true; };
+        };
+
+        final LocalReadShard shard = new LocalReadShard(new SimpleInterval("1", 200, 210), new SimpleInterval("1", 200, 210), readsSource);
+        shard.setPreFilterDownsampler(new KeepReadsBAndCOnlyDownsampler());
+        shard.setReadFilter(recordingFilter);
+        shard.setDownsampler(new KeepReadsBAndCOnlyDownsampler());
+        shard.loadAllReads();
+
+        Assert.assertEquals(filteredReadNames, Arrays.asList("b", "c"), "reads discarded before filtering should never reach the read filter");
+    }
+
     @Test(dataProvider = "DivideIntervalIntoShardsInvalidTestData", expectedExceptions = IllegalArgumentException.class)
     public void testDivideIntervalIntoShardInvalidArgument( final SimpleInterval originalInterval, final int shardSize, final int shardStep, final int shardPadding, final ReadsDataSource readsSource, final SAMSequenceDictionary dictionary ) {
         LocalReadShard.divideIntervalIntoShards(originalInterval, shardSize, shardStep, shardPadding, readsSource, dictionary);
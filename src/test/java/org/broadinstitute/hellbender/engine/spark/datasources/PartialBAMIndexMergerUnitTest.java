@@ -0,0 +1,193 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import htsjdk.samtools.*;
+import htsjdk.samtools.util.BinaryCodec;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import htsjdk.samtools.util.CloseableIterator;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.seqdoop.hadoop_bam.SAMFormat;
+import org.seqdoop.hadoop_bam.util.SAMOutputPreparer;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class PartialBAMIndexMergerUnitTest extends GATKBaseTest {
+
+    @Test
+    public void testMergedIndexMatchesIndexOfMergedFile() throws IOException {
+        // has reads on two contigs, unmapped reads placed next to their mates and unplaced unmapped reads
+        final File inputBam = new File(publicTestDir + "org/broadinstitute/hellbender/utils/read/comparator_test_with_unmapped.bam");
+        final List<SAMRecord> records = new ArrayList<>();
+        final SAMFileHeader header;
+        try (final SamReader reader = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT).open(inputBam)) {
+            header = reader.getFileHeader();
+            reader.forEach(records::add);
+        }
+
+        // split the reads into parts, one of which is empty, the way they would be written from Spark
+        final File[] files = writeMergedAndExpected(header, records, new int[]{400, 400, 1200, records.size()});
+
+        try (final SamReader actual = openWithIndex(files[0], files[1]);
+             final SamReader expected = openWithIndex(files[2], files[3])) {
+            Assert.assertTrue(actual.hasIndex());
+            final BAMIndex actualIndex = actual.indexing().getIndex();
+            final BAMIndex expectedIndex = expected.indexing().getIndex();
+            for (int contig = 0; contig < header.getSequenceDictionary().size(); contig++) {
+                final BAMIndexMetaData actualMetaData = actualIndex.getMetaData(contig);
+                final BAMIndexMetaData expectedMetaData = expectedIndex.getMetaData(contig);
+                Assert.assertEquals(actualMetaData.getAlignedRecordCount(), expectedMetaData.getAlignedRecordCount());
+                Assert.assertEquals(actualMetaData.getUnalignedRecordCount(), expectedMetaData.getUnalignedRecordCount());
+                Assert.assertEquals(actualIndex.getSpanOverlapping(contig, 1, Integer.MAX_VALUE).getFirstOffset(),
+                        expectedIndex.getSpanOverlapping(contig, 1, Integer.MAX_VALUE).getFirstOffset());
+
+                final String contigName = header.getSequence(contig).getSequenceName();
+                for (final int queryStart : new int[]{1, 9_999_000, 10_000_000, 10_000_500, 10_001_000}) {
+                    Assert.assertEquals(queryNames(actual, contigName, queryStart, queryStart + 200),
+                            queryNames(expected, contigName, queryStart, queryStart + 200), contigName + ":" + queryStart);
+                }
+                Assert.assertEquals(queryNames(actual, contigName, 1, 0), queryNames(expected, contigName, 1, 0));
+            }
+            Assert.assertEquals(unplacedNames(actual).size(), 5);
+            Assert.assertEquals(unplacedNames(actual), unplacedNames(expected));
+        }
+    }
+
+    @Test
+    public void testPartBoundaryInsideLinearIndexWindow() throws IOException {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1_000_000);
+        header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+        // the parts start inside the first 16 kb window, and the first record of the second part, which is at offset 0
+        // within its part, is also the first record of the second window
+        final List<SAMRecord> records = Arrays.asList(
+                ArtificialReadUtils.createArtificialSAMRecord(header, "a", 0, 100, 100),
+                ArtificialReadUtils.createArtificialSAMRecord(header, "b", 0, 200, 100),
+                ArtificialReadUtils.createArtificialSAMRecord(header, "c", 0, 16_300, 200),
+                ArtificialReadUtils.createArtificialSAMRecord(header, "d", 0, 16_350, 20),
+                ArtificialReadUtils.createArtificialSAMRecord(header, "e", 0, 16_360, 10),
+                ArtificialReadUtils.createArtificialSAMRecord(header, "f", 0, 16_400, 100),
+                ArtificialReadUtils.createArtificialSAMRecord(header, "g", 0, 50_000, 100));
+        final File[] files = writeMergedAndExpected(header, records, new int[]{2, 4, records.size()});
+
+        Assert.assertEquals(readLinearIndexes(files[1]), readLinearIndexes(files[3]));
+        try (final SamReader actual = openWithIndex(files[0], files[1]);
+             final SamReader expected = openWithIndex(files[2], files[3])) {
+            for (final int queryStart : new int[]{1, 16_000, 16_450, 40_000, 50_050}) {
+                Assert.assertEquals(queryNames(actual, "1", queryStart, queryStart + 10),
+                        queryNames(expected, "1", queryStart, queryStart + 10), "1:" + queryStart);
+            }
+            Assert.assertEquals(queryNames(actual, "1", 16_450, 16_460), Arrays.asList("c/0", "f/0"));
+        }
+    }
+
+    // the linear index of each reference of a BAI
+    private static List<List<Long>> readLinearIndexes(final File index) {
+        final List<List<Long>> linearIndexes = new ArrayList<>();
+        try (final BinaryCodec input = new BinaryCodec(index, false)) {
+            input.readBytes(new byte[4]);
+            final int numReferences = input.readInt();
+            for (int reference = 0; reference < numReferences; reference++) {
+                final int numBins = input.readInt();
+                for (int bin = 0; bin < numBins; bin++) {
+                    input.readInt();
+                    final int numChunks = input.readInt();
+                    input.readBytes(new byte[numChunks * 16]);
+                }
+                final List<Long> linearIndex = new ArrayList<>();
+                final int numWindows = input.readInt();
+                for (int window = 0; window < numWindows; window++) {
+                    linearIndex.add(input.readLong());
+                }
+                linearIndexes.add(linearIndex);
+            }
+        }
+        return linearIndexes;
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMismatchedPartLengths() throws IOException {
+        PartialBAMIndexMerger.mergePartialIndexes(Arrays.asList(createTempFile("a", ".bai").toPath()), new ArrayList<>(), 0, new FileOutputStream(createTempFile("b", ".bai")));
+    }
+
+    /**
+     * Writes the records as parts ending at {@code partEnds}, merges the parts and their partial indexes, and copies the
+     * merged file to index it with {@link BAMIndexer}.
+     *
+     * @return the merged file, its merged index, the copy and the index written by {@link BAMIndexer}
+     */
+    private File[] writeMergedAndExpected(final SAMFileHeader header, final List<SAMRecord> records, final int[] partEnds) throws IOException {
+        final File directory = createTempDir("partialBAMIndexes");
+        final List<Path> parts = new ArrayList<>();
+        final List<Path> partialIndexes = new ArrayList<>();
+        final List<Long> partLengths = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < partEnds.length; i++) {
+            final File part = new File(directory, String.format("part-r-%05d.bam", i));
+            final File partialIndex = new File(directory, PartialBAMIndexMerger.getPartialIndexName(part.getName()));
+            try (final OutputStream partOutput = new FileOutputStream(part)) {
+                final IndexingBAMRecordEncoder encoder = new IndexingBAMRecordEncoder(partOutput, new FileOutputStream(partialIndex), header);
+                records.subList(start, partEnds[i]).forEach(encoder::encode);
+                encoder.finish();
+            }
+            parts.add(part.toPath());
+            partialIndexes.add(partialIndex.toPath());
+            partLengths.add(part.length());
+            start = partEnds[i];
+        }
+
+        final File mergedBam = new File(directory, "merged.bam");
+        final long headerLength;
+        try (final OutputStream output = new FileOutputStream(mergedBam)) {
+            new SAMOutputPreparer().prepareForRecords(output, SAMFormat.BAM, header);
+            output.flush();
+            headerLength = mergedBam.length();
+            for (final Path part : parts) {
+                Files.copy(part, output);
+            }
+            output.write(BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK);
+        }
+        final File mergedIndex = new File(directory, "merged.bai");
+        try (final OutputStream output = new FileOutputStream(mergedIndex)) {
+            PartialBAMIndexMerger.mergePartialIndexes(partialIndexes, partLengths, headerLength, output);
+        }
+
+        final File expectedBam = new File(directory, "expected.bam");
+        Files.copy(mergedBam.toPath(), expectedBam.toPath());
+        final File expectedIndex = new File(directory, "expected.bai");
+        try (final SamReader reader = SamReaderFactory.makeDefault().enable(SamReaderFactory.Option.INCLUDE_SOURCE_IN_RECORDS)
+                .validationStringency(ValidationStringency.SILENT).open(expectedBam)) {
+            BAMIndexer.createIndex(reader, expectedIndex);
+        }
+        return new File[]{mergedBam, mergedIndex, expectedBam, expectedIndex};
+    }
+
+    private static SamReader openWithIndex(final File bam, final File index) {
+        return SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT)
+                .open(SamInputResource.of(bam).index(index));
+    }
+
+    private static List<String> unplacedNames(final SamReader reader) {
+        final List<String> names = new ArrayList<>();
+        try (final CloseableIterator<SAMRecord> it = reader.queryUnmapped()) {
+            it.forEachRemaining(read -> names.add(read.getReadName()));
+        }
+        return names;
+    }
+
+    private static List<String> queryNames(final SamReader reader, final String contig, final int start, final int end) {
+        final List<String> names = new ArrayList<>();
+        try (final CloseableIterator<SAMRecord> it = reader.queryOverlapping(contig, start, end)) {
+            it.forEachRemaining(read -> names.add(read.getReadName() + "/" + read.getFlags()));
+        }
+        return names;
+    }
+}
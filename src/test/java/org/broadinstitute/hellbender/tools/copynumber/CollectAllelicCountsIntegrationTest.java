@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.copynumber;
 
+import org.broadinstitute.barclay.argparser.CommandLineException;
 import org.broadinstitute.hellbender.CommandLineProgramTest;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.tools.copynumber.allelic.alleliccount.AllelicCount;
@@ -12,7 +13,9 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 /**
  * Integration test for {@link CollectAllelicCounts}.  Uses a BAM with sites generated from hg19mini using wgsim.
@@ -28,6 +31,7 @@ public final class CollectAllelicCountsIntegrationTest extends CommandLineProgra
     private static final File REFERENCE_FILE = new File(hg19MiniReference);
     private static final String NORMAL_SAMPLE_NAME_EXPECTED = "20";
     private static final String TUMOR_SAMPLE_NAME_EXPECTED = "20";
+    private static final String MAX_DEPTH_PER_SAMPLE_LONG_NAME = "maxDepthPerSample";
 
     @DataProvider(name = "testData")
     public Object[][] testData() {
@@ -115,4 +119,40 @@ public final class CollectAllelicCountsIntegrationTest extends CommandLineProgra
         final AllelicCountCollection countsResult = new AllelicCountCollection(outputFile);
         Assert.assertEquals(countsExpected, countsResult);
     }
+
+    @DataProvider(name = "bamFiles")
+    public Object[][] bamFiles() {
+        return new Object[][]{{NORMAL_BAM_FILE}, {TUMOR_BAM_FILE}};
+    }
+
+    /**
+     * Downsampling to a depth above the maximum coverage at the sites leaves every pileup intact, so counts collected
+     * from pileups (used when --maxDepthPerSample is given) must match counts collected directly from the reads.
+     */
+    @Test(dataProvider = "bamFiles")
+    public void testMaxDepthPerSampleAboveCoverageGivesSameCounts(final File inputBAMFile) {
+        final File outputFile = createTempFile("collect-allelic-counts-test-output", ".tsv");
+        runCommandLine(makeArguments(inputBAMFile, outputFile));
+        final File downsampledOutputFile = createTempFile("collect-allelic-counts-test-downsampled-output", ".tsv");
+        final List<String> downsampledArguments = new ArrayList<>(makeArguments(inputBAMFile, downsampledOutputFile));
+        downsampledArguments.addAll(Arrays.asList("--" + MAX_DEPTH_PER_SAMPLE_LONG_NAME, "1000"));
+        runCommandLine(downsampledArguments);
+        Assert.assertEquals(new AllelicCountCollection(downsampledOutputFile), new AllelicCountCollection(outputFile));
+    }
+
+    @Test(expectedExceptions = CommandLineException.BadArgumentValue.class)
+    public void testNegativeMaxDepthPerSample() {
+        final File outputFile = createTempFile("collect-allelic-counts-test-output", ".tsv");
+        final List<String> arguments = new ArrayList<>(makeArguments(NORMAL_BAM_FILE, outputFile));
+        arguments.addAll(Arrays.asList("--" + MAX_DEPTH_PER_SAMPLE_LONG_NAME, "-1"));
+        runCommandLine(arguments);
+    }
+
+    private static List<String> makeArguments(final File inputBAMFile, final File outputFile) {
+        return Arrays.asList(
+                "-" + StandardArgumentDefinitions.INPUT_SHORT_NAME, inputBAMFile.getAbsolutePath(),
+                "-L", SITES_FILE.getAbsolutePath(),
+                "-" + StandardArgumentDefinitions.REFERENCE_SHORT_NAME, REFERENCE_FILE.getAbsolutePath(),
+                "-" + StandardArgumentDefinitions.OUTPUT_SHORT_NAME, outputFile.getAbsolutePath());
+    }
 }
\ No newline at end of file
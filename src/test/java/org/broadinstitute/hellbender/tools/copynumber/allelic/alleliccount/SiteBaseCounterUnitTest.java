@@ -0,0 +1,119 @@
+package org.broadinstitute.hellbender.tools.copynumber.allelic.alleliccount;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+/**
+ * Unit tests for {@link SiteBaseCounter}.
+ */
+public final class SiteBaseCounterUnitTest extends GATKBaseTest {
+    private static final SAMFileHeader HEADER = ArtificialReadUtils.createArtificialSamHeader(2, 1, 1000);
+    private static final int MIN_BASE_QUALITY = 20;
+
+    private static GATKRead read(final String contig, final int start, final String bases, final String cigar) {
+        final byte[] quals = new byte[bases.length()];
+        Arrays.fill(quals, (byte) 30);
+        return ArtificialReadUtils.createArtificialRead(HEADER, "read", contig, start, bases.getBytes(), quals, cigar);
+    }
+
+    @Test
+    public void testCounts() {
+        final List<SimpleInterval> intervals = Arrays.asList(
+                new SimpleInterval("1", 5, 7),
+                new SimpleInterval("1", 20, 20),
+                new SimpleInterval("1", 100, 100),
+                new SimpleInterval("2", 10, 12));
+        final Map<SimpleInterval, int[]> countsByInterval = new LinkedHashMap<>();
+        final SiteBaseCounter counter = new SiteBaseCounter(intervals, HEADER.getSequenceDictionary(), MIN_BASE_QUALITY,
+                (interval, baseCounts) -> countsByInterval.put(interval, baseCounts));
+
+        //read bases at sites: 5:C, 6:G, 7:T
+        counter.addRead(read("1", 3, "AACGTAC", "7M"));
+        //6 is deleted: 5:C, 7:T
+        counter.addRead(read("1", 4, "ACTTG", "2M1D3M"));
+        //soft clip and insertion are skipped: 5:G, 6:C, and 7:T with low quality
+        final GATKRead lowQualityRead = read("1", 5, "GGAACT", "1S1M2I2M");
+        lowQualityRead.setBaseQualities(new byte[]{30, 30, 30, 30, 30, MIN_BASE_QUALITY - 1});
+        counter.addRead(lowQualityRead);
+        Assert.assertTrue(countsByInterval.isEmpty());
+        //20:G; the first interval is passed on when this read is added
+        counter.addRead(read("1", 18, "ANGTA", "5M"));
+        Assert.assertEquals(countsByInterval.keySet(), Collections.singleton(intervals.get(0)));
+        //20:N is not counted
+        counter.addRead(read("1", 20, "NA", "2M"));
+        //10:C, 11:G, 12:T
+        counter.addRead(read("2", 1, "ACGTACGTACGTACGTACGT", "20M"));
+        counter.finish();
+
+        Assert.assertEquals(new ArrayList<>(countsByInterval.keySet()), intervals);
+        //counts of A, C, G, T at each site
+        Assert.assertEquals(countsByInterval.get(intervals.get(0)), new int[]{0, 2, 1, 0, 0, 1, 1, 0, 0, 0, 0, 2});
+        Assert.assertEquals(countsByInterval.get(intervals.get(1)), new int[]{0, 0, 1, 0});
+        Assert.assertEquals(countsByInterval.get(intervals.get(2)), new int[]{0, 0, 0, 0});
+        Assert.assertEquals(countsByInterval.get(intervals.get(3)), new int[]{0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1});
+    }
+
+    @Test
+    public void testBlocks() {
+        final int maxBlockSize = 4;
+        final List<SimpleInterval> intervals = Arrays.asList(new SimpleInterval("1", 1, 1000), new SimpleInterval("2", 5, 8));
+        final Map<SimpleInterval, int[]> countsByBlock = new LinkedHashMap<>();
+        final SiteBaseCounter counter = new SiteBaseCounter(intervals, HEADER.getSequenceDictionary(), MIN_BASE_QUALITY,
+                (block, baseCounts) -> countsByBlock.put(block, baseCounts), maxBlockSize);
+
+        //spans the blocks 1:1-4 and 1:5-8: 3:A, 4:C, 5:G, 6:T
+        counter.addRead(read("1", 3, "ACGT", "4M"));
+        Assert.assertTrue(countsByBlock.isEmpty());
+        //the blocks before the read are passed on as soon as the read is added: 499:C
+        counter.addRead(read("1", 499, "C", "1M"));
+        Assert.assertEquals(countsByBlock.size(), 124);
+        counter.finish();
+
+        //the whole of each interval is covered by consecutive blocks
+        Assert.assertEquals(countsByBlock.size(), 251);
+        final List<SimpleInterval> blocks = new ArrayList<>(countsByBlock.keySet());
+        Assert.assertEquals(blocks.get(0), new SimpleInterval("1", 1, 4));
+        Assert.assertEquals(blocks.get(249), new SimpleInterval("1", 997, 1000));
+        Assert.assertEquals(blocks.get(250), intervals.get(1));
+        for (int i = 1; i < 250; i++) {
+            Assert.assertEquals(blocks.get(i).getStart(), blocks.get(i - 1).getEnd() + 1);
+            Assert.assertEquals(blocks.get(i).size(), maxBlockSize);
+        }
+        Assert.assertEquals(countsByBlock.get(blocks.get(0)), new int[]{0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0});
+        Assert.assertEquals(countsByBlock.get(blocks.get(1)), new int[]{0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0});
+        Assert.assertEquals(countsByBlock.get(blocks.get(124)), new int[]{0, 0, 0, 0, 0, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0});
+        Assert.assertEquals(countsByBlock.get(blocks.get(2)), new int[maxBlockSize * AllelicCountCollector.BASES.size()]);
+    }
+
+    @Test
+    public void testNoReads() {
+        final List<SimpleInterval> intervals = Arrays.asList(new SimpleInterval("1", 1, 2), new SimpleInterval("2", 1, 1));
+        final List<SimpleInterval> intervalsPassedOn = new ArrayList<>();
+        final SiteBaseCounter counter = new SiteBaseCounter(intervals, HEADER.getSequenceDictionary(), MIN_BASE_QUALITY,
+                (interval, baseCounts) -> {
+                    Assert.assertEquals(baseCounts, new int[interval.size() * AllelicCountCollector.BASES.size()]);
+                    intervalsPassedOn.add(interval);
+                });
+        counter.finish();
+        Assert.assertEquals(intervalsPassedOn, intervals);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testUnsortedIntervals() {
+        new SiteBaseCounter(Arrays.asList(new SimpleInterval("2", 1, 1), new SimpleInterval("1", 1, 1)),
+                HEADER.getSequenceDictionary(), MIN_BASE_QUALITY, (interval, baseCounts) -> {});
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testOverlappingIntervals() {
+        new SiteBaseCounter(Arrays.asList(new SimpleInterval("1", 1, 5), new SimpleInterval("1", 5, 10)),
+                HEADER.getSequenceDictionary(), MIN_BASE_QUALITY, (interval, baseCounts) -> {});
+    }
+}
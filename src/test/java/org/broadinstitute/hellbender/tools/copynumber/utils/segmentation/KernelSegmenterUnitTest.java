@@ -143,6 +143,44 @@ public final class KernelSegmenterUnitTest extends GATKBaseTest {
         Assert.assertEquals(changepoints.subList(0, changepointsExpected.size()), changepointsExpected);
     }
 
+    /**
+     * Segments several shuffled copies of the multimodal test data (standing in for data on different contigs)
+     * in parallel and checks that the changepoints for each are the same as those found when segmenting it alone.
+     */
+    @Test
+    public void testKernelSegmenterInParallel() {
+        final int maxNumChangepoints = 25;
+        final int kernelApproximationDimension = 20;
+        final List<Integer> windowSizes = Arrays.asList(8, 16, 32, 64);
+        final double numChangepointsPenaltyLinearFactor = 2.;
+        final double numChangepointsPenaltyLogLinearFactor = 2.;
+        final BiFunction<Double, Double, Double> gaussianKernel = (x, y) -> Math.exp(-(x - y) * (x - y));
+
+        final Random rng = new Random(RANDOM_SEED);
+        final List<List<Double>> dataSequences = IntStream.range(0, 8).boxed()
+                .map(j -> {
+                    final List<Integer> means = IntStream.range(0, 2 + j).boxed().collect(Collectors.toList());
+                    Collections.shuffle(means, rng);
+                    return IntStream.range(0, 100 * means.size()).boxed()
+                            .map(i -> 2 * (rng.nextBoolean() ? -1 : 1) * means.get(i / 100) + 0.1 * rng.nextGaussian())
+                            .collect(Collectors.toList());
+                })
+                .collect(Collectors.toList());
+
+        final List<List<Integer>> changepoints = KernelSegmenter.findChangepointsInParallel(dataSequences,
+                maxNumChangepoints, gaussianKernel, kernelApproximationDimension, windowSizes,
+                numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, ChangepointSortOrder.INDEX);
+
+        Assert.assertEquals(changepoints.size(), dataSequences.size());
+        for (int j = 0; j < dataSequences.size(); j++) {
+            final List<Integer> changepointsExpected = new KernelSegmenter<>(dataSequences.get(j))
+                    .findChangepoints(maxNumChangepoints, gaussianKernel, kernelApproximationDimension, windowSizes,
+                            numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, ChangepointSortOrder.INDEX);
+            Assert.assertEquals(changepoints.get(j), changepointsExpected);
+            Assert.assertEquals(changepoints.get(j).size(), 1 + j);
+        }
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testKernelSegmenterEmptyWindowSizes() {
         final int maxNumChangepoints = 25;
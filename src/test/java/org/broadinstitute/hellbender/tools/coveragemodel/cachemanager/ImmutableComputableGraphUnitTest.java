@@ -862,6 +862,72 @@ public class ImmutableComputableGraphUnitTest extends GATKBaseTest {
         }
     }
 
+    /**
+     * Tests that an in-place graph goes through the same states as an immutable graph under the same sequence of
+     * random mutations and cache updates, and that it always returns itself
+     */
+    @Test(dataProvider = "allPossibleNodeFlags")
+    public void testInPlaceUpdates(final boolean f_caching, final boolean f_external,
+                                   final boolean g_caching, final boolean g_external,
+                                   final boolean h_caching, final boolean h_external) {
+        final int NUM_OPERATIONS = 50;
+        generateNewRandomFunctionalComposition();
+        for (final boolean cacheAutoUpdate : new boolean[] {true, false}) {
+            ImmutableComputableGraph icg = getTestICGBuilder(f_caching, f_external, g_caching, g_external,
+                    h_caching, h_external).build();
+            final ImmutableComputableGraphUtils.ImmutableComputableGraphBuilder inPlaceBuilder = getTestICGBuilder(
+                    f_caching, f_external, g_caching, g_external, h_caching, h_external).withInPlaceUpdates();
+            final ImmutableComputableGraph inPlaceICG = (cacheAutoUpdate ? inPlaceBuilder.withCacheAutoUpdate() : inPlaceBuilder).build();
+            if (cacheAutoUpdate) {
+                icg = getTestICGBuilder(f_caching, f_external, g_caching, g_external, h_caching, h_external)
+                        .withCacheAutoUpdate().build();
+            }
+            Assert.assertFalse(icg.updatesInPlace());
+            Assert.assertTrue(inPlaceICG.updatesInPlace());
+
+            final List<CacheNode.NodeKey> externalNodes = new ArrayList<>(Arrays.asList(X_KEY, Y_KEY, Z_KEY));
+            if (f_external) externalNodes.add(F_KEY);
+            if (g_external) externalNodes.add(G_KEY);
+            if (h_external) externalNodes.add(H_KEY);
+            final List<CacheNode.NodeKey> allNodes = new ArrayList<>(ALL_NODES);
+
+            for (int i = 0; i < NUM_OPERATIONS; i++) {
+                final ImmutableComputableGraph result;
+                switch (rng.nextInt(3)) {
+                    case 0:
+                        final CacheNode.NodeKey key = getRandomChoice(externalNodes);
+                        final Duplicable value = key.equals(Y_KEY)
+                                ? new DuplicableNumber<>(getRandomDouble())
+                                : new DuplicableNDArray(getRandomINDArray());
+                        icg = icg.setValue(key, value);
+                        result = inPlaceICG.setValue(key, value);
+                        break;
+                    case 1:
+                        icg = icg.updateAllCachesIfPossible();
+                        result = inPlaceICG.updateAllCachesIfPossible();
+                        break;
+                    default:
+                        final CacheNode.NodeKey nodeKey = getRandomChoice(allNodes);
+                        icg = icg.updateCachesForNodeIfPossible(nodeKey);
+                        result = inPlaceICG.updateCachesForNodeIfPossible(nodeKey);
+                }
+                Assert.assertSame(result, inPlaceICG);
+                for (final CacheNode.NodeKey nodeKey : ALL_NODES) {
+                    Assert.assertEquals(inPlaceICG.isValueDirectlyAvailable(nodeKey), icg.isValueDirectlyAvailable(nodeKey));
+                    if (icg.isValueDirectlyAvailable(nodeKey)) {
+                        final Object expected = icg.fetchDirectly(nodeKey).value();
+                        final Object actual = inPlaceICG.fetchDirectly(nodeKey).value();
+                        if (expected instanceof INDArray) {
+                            MathObjectAsserts.assertNDArrayEquals((INDArray) actual, (INDArray) expected);
+                        } else {
+                            Assert.assertEquals(actual, expected);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
     @Test
     public void testUninitializedPrimitiveNode() {
         final ImmutableComputableGraph icg = getTestICGBuilder(true, false, true, false, true, false).build()
@@ -351,6 +351,41 @@ public final class CalculateTargetCoverageIntegrationTest extends CommandLinePro
     }
 
 
+    @Test
+    public void testHDF5Output() throws IOException {
+        for (final CalculateTargetCoverage.Transform transform : CalculateTargetCoverage.Transform.values()) {
+            final File tsvOutputFile = createTempFile("cohort-output-tsv");
+            final File hdf5OutputFile = createTempFile("cohort-output-hdf5");
+            for (final CalculateTargetCoverage.OutputFormat outputFormat : CalculateTargetCoverage.OutputFormat.values()) {
+                final List<String> arguments = new ArrayList<>(Arrays.asList(
+                        "-" + StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+                        (outputFormat == CalculateTargetCoverage.OutputFormat.HDF5 ? hdf5OutputFile : tsvOutputFile).getAbsolutePath(),
+                        "-" + CalculateTargetCoverage.OUTPUT_FORMAT_SHORT_NAME, outputFormat.name(),
+                        "-" + CalculateTargetCoverage.TRANSFORM_SHORT_NAME, transform.name(),
+                        "-" + CalculateTargetCoverage.TARGET_OUT_INFO_SHORT_NAME, CalculateTargetCoverage.TargetOutInfo.FULL.name(),
+                        "-" + CalculateTargetCoverage.TARGET_FILE_SHORT_NAME, INTERVALS_BED.getAbsolutePath()
+                ));
+                for (final File bam : ALL_BAMS) {
+                    arguments.add("-" + StandardArgumentDefinitions.INPUT_SHORT_NAME);
+                    arguments.add(bam.getAbsolutePath());
+                }
+                runCommandLine(arguments);
+            }
+            final ReadCountCollection expected = ReadCountCollectionUtils.parse(tsvOutputFile);
+            final ReadCountCollection actual = ReadCountCollectionUtils.parse(hdf5OutputFile);
+            Assert.assertEquals(actual.targets(), expected.targets());
+            Assert.assertEquals(actual.columnNames(), expected.columnNames());
+            final double[][] expectedCounts = expected.counts().getData();
+            final double[][] actualCounts = actual.counts().getData();
+            for (int i = 0; i < expectedCounts.length; i++) {
+                for (int j = 0; j < expectedCounts[i].length; j++) {
+                    //the table only has 4 significant digits of the proportional coverage
+                    Assert.assertEquals(actualCounts[i][j], expectedCounts[i][j], 1e-3 * expectedCounts[i][j], "transform " + transform);
+                }
+            }
+        }
+    }
+
     @Test(dataProvider = "correctRunData")
     public void testCorrectRun(final File[] bamFiles, final File intervalFile, final File expectedOutputFile, final File expectedRowOutputFile,
                                final File expectedColumnOutputFile, final CalculateTargetCoverage.Transform transform,
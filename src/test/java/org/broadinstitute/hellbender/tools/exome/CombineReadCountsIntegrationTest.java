@@ -153,6 +153,35 @@ public class CombineReadCountsIntegrationTest extends CommandLineProgramTest {
         output.delete();
     }
 
+    @Test(dataProvider="testData")
+    public void testOneSampleOneFileFullTargetInfoHDF5(final List<Target> targets, final List<String> sampleNames, final double[][] counts) throws IOException {
+        final List<File> inputFiles = createInputCountFiles(targets, sampleNames, counts, true, true);
+        final File targetFile = createTargetFile(targets);
+        final File output = runTool(targetFile, inputFiles, null, CombineReadCounts.OutputFormat.HDF5);
+        Assert.assertFalse(inputFiles.stream().anyMatch(f -> !f.canRead()));
+        inputFiles.forEach(File::delete);
+        targetFile.delete();
+        Assert.assertTrue(output.canRead());
+        assertOutputContents(output, targets, sampleNames, counts);
+        output.delete();
+    }
+
+    @Test(dataProvider="testData")
+    public void testArbitraryTargetOrderHDF5(final List<Target> targets, final List<String> sampleNames, final double[][] counts) throws IOException {
+        final List<Target> finalTargets = new ArrayList<>(targets);
+        Collections.shuffle(finalTargets, new Random(13));
+        final List<File> inputFiles = createInputCountFiles(finalTargets, sampleNames, counts, true, false);
+        final File targetFile = createTargetFile(targets);
+        final File output = runTool(targetFile, inputFiles, null, CombineReadCounts.OutputFormat.HDF5);
+        inputFiles.forEach(File::delete);
+        targetFile.delete();
+        final List<Target> outputTargets = ReadCountCollectionUtils.parse(output).targets();
+        Assert.assertEquals(outputTargets, finalTargets);
+        Assert.assertEquals(outputTargets.stream().map(Target::getInterval).collect(Collectors.toList()),
+                finalTargets.stream().map(Target::getInterval).collect(Collectors.toList()));
+        output.delete();
+    }
+
     @Test(dataProvider="testData")
     public void testOneSampleOneFileOnlyNames(final List<Target> targets, final List<String> sampleNames, final double[][] counts) throws IOException {
         final List<File> inputFiles = createInputCountFiles(targets, sampleNames, counts, true, false);
@@ -238,6 +267,11 @@ public class CombineReadCountsIntegrationTest extends CommandLineProgramTest {
     }
 
     private File runTool(final File targetFile, final List<File> inputFiles, final File inputFileList) {
+        return runTool(targetFile, inputFiles, inputFileList, CombineReadCounts.OutputFormat.TSV);
+    }
+
+    private File runTool(final File targetFile, final List<File> inputFiles, final File inputFileList,
+                         final CombineReadCounts.OutputFormat outputFormat) {
         final List<String> args = new ArrayList<>();
         if (targetFile != null) {
             args.add("-" + TargetArgumentCollection.TARGET_FILE_SHORT_NAME);
@@ -256,6 +290,8 @@ public class CombineReadCountsIntegrationTest extends CommandLineProgramTest {
         args.add(outputFile.getAbsolutePath());
         args.add("-" + CombineReadCounts.MAX_GROUP_SIZE_SHORT_NAME);
         args.add("7");
+        args.add("-" + CombineReadCounts.OUTPUT_FORMAT_SHORT_NAME);
+        args.add(outputFormat.name());
         runCommandLine(args);
         return outputFile;
     }
@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.stream.Collectors;
@@ -172,6 +173,41 @@ public class ReadCountCollectionUtilsUnitTest {
         Assert.assertEquals(counts.getEntry(1, 1), -2.2E-8, 0.000000001);
     }
 
+    @Test
+    public void testHDF5WriteAndRead() throws IOException {
+        final List<Target> targets = Arrays.asList(new Target("tgt_0", new SimpleInterval("1", 100, 200)),
+                new Target("tgt_1", new SimpleInterval("1", 300, 400)), new Target("tgt_2", new SimpleInterval("2", 200, 300)));
+        final RealMatrix counts = new Array2DRowRealMatrix(new double[][] {{1, 2}, {3, 0}, {0.5, 1e-7}});
+        final ReadCountCollection expected = new ReadCountCollection(targets, Arrays.asList("SAMPLE1", "SAMPLE2"), counts);
+        final File testFile = createTempFile();
+        ReadCountCollectionUtils.writeHDF5(testFile, expected);
+
+        final ReadCountCollection subject = ReadCountCollectionUtils.parse(testFile);
+        Assert.assertEquals(subject.columnNames(), expected.columnNames());
+        Assert.assertEquals(subject.targets(), targets);
+        Assert.assertEquals(subject.targets().stream().map(Target::getInterval).collect(Collectors.toList()),
+                targets.stream().map(Target::getInterval).collect(Collectors.toList()));
+        Assert.assertEquals(subject.counts(), counts);
+        Assert.assertEquals(ReadCountCollectionUtils.retrieveSampleNamesFromReadCountsFile(testFile), expected.columnNames());
+
+        // resolving against a target collection drops missing targets only if asked to:
+        final TargetCollection<Target> targetCollection = new HashedListTargetCollection<>(Arrays.asList(targets.get(0), targets.get(2)));
+        Assert.assertEquals(ReadCountCollectionUtils.parse(testFile, targetCollection, false).targets(), targets);
+        final ReadCountCollection subset = ReadCountCollectionUtils.parse(testFile, targetCollection, true);
+        Assert.assertEquals(subset.targets(), targetCollection.targets());
+        Assert.assertEquals(subset.counts().getRow(1), counts.getRow(2));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testHDF5ReadWithConflictingTargetNames() throws IOException {
+        final List<Target> targets = Collections.singletonList(new Target("tgt_0", new SimpleInterval("1", 100, 200)));
+        final File testFile = createTempFile();
+        ReadCountCollectionUtils.writeHDF5(testFile, new ReadCountCollection(targets, Collections.singletonList("SAMPLE1"),
+                new Array2DRowRealMatrix(new double[][] {{1}})));
+        ReadCountCollectionUtils.parse(testFile, new HashedListTargetCollection<>(
+                Collections.singletonList(new Target("other", new SimpleInterval("1", 100, 200)))), false);
+    }
+
     @Test
     public void testReadTargetNameOnlyFormattedFile() throws IOException {
         final File testFile = createTempFile();
@@ -0,0 +1,78 @@
+package org.broadinstitute.hellbender.tools.spark.bwa;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+public final class BwaSparkEngineUnitTest extends GATKBaseTest {
+    private static final SAMFileHeader HEADER = ArtificialReadUtils.createArtificialSamHeader();
+
+    private static List<GATKRead> reads( final int... lengths ) {
+        final List<GATKRead> reads = new ArrayList<>(lengths.length);
+        for ( int idx = 0; idx != lengths.length; ++idx ) {
+            reads.add(ArtificialReadUtils.createArtificialRead(HEADER, "read" + idx / 2, 0, 1, lengths[idx]));
+        }
+        return reads;
+    }
+
+    private static List<List<GATKRead>> readBatches( final List<GATKRead> reads, final long batchSizeInBases, final boolean alignsPairs ) {
+        final Iterator<GATKRead> readItr = reads.iterator();
+        final List<List<GATKRead>> batches = new ArrayList<>();
+        List<GATKRead> batch;
+        while ( !(batch = BwaSparkEngine.readBatch(readItr, batchSizeInBases, alignsPairs)).isEmpty() ) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+
+    @DataProvider(name = "batches")
+    public Object[][] batches() {
+        return new Object[][] {
+                // everything fits in one batch
+                { reads(100, 100, 100, 100), 1000L, false, Arrays.asList(4) },
+                { reads(100, 100, 100, 100), 1000L, true, Arrays.asList(4) },
+                // a batch is closed by the read that reaches the batch size
+                { reads(100, 100, 100, 100), 200L, false, Arrays.asList(2, 2) },
+                { reads(100, 100, 100, 100), 150L, false, Arrays.asList(2, 2) },
+                { reads(100, 100, 100, 100, 100), 100L, false, Arrays.asList(1, 1, 1, 1, 1) },
+                // the batch boundary would fall between the reads of a pair, so the batch takes the whole pair
+                { reads(100, 100, 100, 100, 100, 100), 100L, true, Arrays.asList(2, 2, 2) },
+                { reads(100, 100, 100, 100, 100, 100), 300L, true, Arrays.asList(4, 2) },
+                { reads(250, 50, 100, 100), 200L, true, Arrays.asList(2, 2) },
+                { reads(), 100L, true, Arrays.asList() }
+        };
+    }
+
+    @Test(dataProvider = "batches")
+    public void testReadBatch( final List<GATKRead> reads, final long batchSizeInBases, final boolean alignsPairs, final List<Integer> expectedBatchSizes ) {
+        final List<List<GATKRead>> batches = readBatches(reads, batchSizeInBases, alignsPairs);
+        final List<Integer> batchSizes = new ArrayList<>();
+        final List<GATKRead> concatenatedBatches = new ArrayList<>();
+        for ( final List<GATKRead> batch : batches ) {
+            batchSizes.add(batch.size());
+            concatenatedBatches.addAll(batch);
+            if ( alignsPairs ) {
+                for ( int idx = 0; idx < batch.size(); idx += 2 ) {
+                    Assert.assertEquals(batch.get(idx).getName(), batch.get(idx + 1).getName());
+                }
+            }
+        }
+        Assert.assertEquals(batchSizes, expectedBatchSizes);
+        Assert.assertEquals(concatenatedBatches, reads);
+    }
+
+    @Test(expectedExceptions = GATKException.class)
+    public void testReadBatchWithUnpairedRead() {
+        readBatches(reads(100, 100, 100), 100L, true);
+    }
+}
@@ -60,4 +60,29 @@ public final class BwaSparkIntegrationTest extends CommandLineProgramTest {
         SamAssertionUtils.assertSamsEqual(new File(output, "part-r-00000.bam"), expectedSam);
     }
 
+    @Test
+    public void testSingleEndOneReadPerBatch() throws Exception {
+        // single-end alignments don't depend on the other reads of the batch, so aligning each read by itself has to
+        // give the same output as aligning them all together
+        final File expectedSam = getTestFile("seBwa.bam");
+
+        final File ref = getTestFile("ref.fa");
+        final File input = getTestFile("seR.bam");
+        final File output = createTempFile("bwa", ".bam");
+        Assert.assertTrue(output.delete());
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addFileArgument(StandardArgumentDefinitions.REFERENCE_LONG_NAME, ref);
+        args.addFileArgument(StandardArgumentDefinitions.INPUT_LONG_NAME, input);
+        args.add(StandardArgumentDefinitions.DISABLE_SEQUENCE_DICT_VALIDATION_NAME + "=true"); // disable since input does not have a sequence dictionary
+        args.addArgument("shardedOutput", "true");
+        args.add("numReducers=1");
+        args.addOutput(output);
+        args.add("--" + BwaSpark.SINGLE_END_ALIGNMENT_FULL_NAME);
+        args.addArgument(BwaSpark.BATCH_SIZE_IN_BASES_FULL_NAME, "1");
+        this.runCommandLine(args.getArgsArray());
+
+        SamAssertionUtils.assertSamsEqual(new File(output, "part-r-00000.bam"), expectedSam);
+    }
+
 }
@@ -0,0 +1,104 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class PSKmerSortedTableTest extends GATKBaseTest {
+
+    @DataProvider(name = "tableSizes")
+    public Object[][] getTableSizes() {
+        return new Object[][]{{0}, {1}, {10}, {100000}};
+    }
+
+    @Test(dataProvider = "tableSizes")
+    public void testContains(final int numKmers) {
+        final int kSize = 31;
+        final SVKmerShort mask = SVKmerShort.getMask(new byte[]{3, 20, 25}, kSize);
+        final Random rand = new Random(573849393L);
+
+        // several records, with duplicates within and between them
+        final Set<Long> truthSet = new HashSet<>();
+        final List<long[]> records = new ArrayList<>();
+        for (int record = 0; record < 3; record++) {
+            final long[] kmers = new long[numKmers];
+            for (int i = 0; i < numKmers; i++) {
+                kmers[i] = i % 7 == 0 && i > 0 ? kmers[i - 1] :
+                        PSKmerCollection.canonicalizeAndMask(new SVKmerShort(rand.nextLong() >>> 2), kSize, mask);
+                truthSet.add(kmers[i]);
+            }
+            records.add(kmers);
+        }
+        records.add(records.get(0).clone());
+
+        final File tableFile = createTempFile("kmers", PSKmerUtils.SORTED_TABLE_EXTENSION);
+        PSKmerUtils.writeKmerSortedTable(tableFile.getPath(), records, kSize, mask);
+        final PSKmerCollection table = PSKmerUtils.readKmerFilter(tableFile.getPath());
+
+        Assert.assertTrue(table instanceof PSKmerSortedTable);
+        Assert.assertEquals(((PSKmerSortedTable) table).setSize(), truthSet.size());
+        Assert.assertEquals(table.kmerSize(), kSize);
+        Assert.assertEquals(table.getMask(), mask);
+        Assert.assertEquals(table.getFalsePositiveProbability(), 0.0);
+        for (final long kmer : truthSet) {
+            Assert.assertTrue(table.contains(new SVKmerShort(kmer)));
+        }
+        for (int i = 0; i < 100000; i++) {
+            final SVKmerShort kmer = new SVKmerShort(rand.nextLong() >>> 2);
+            Assert.assertEquals(table.contains(kmer), truthSet.contains(PSKmerCollection.canonicalizeAndMask(kmer, kSize, mask)));
+        }
+    }
+
+    @Test
+    public void testShortKmers() throws IOException {
+        // every possible masked 5-mer
+        final int kSize = 5;
+        final SVKmerShort mask = SVKmerShort.getMask(new byte[]{}, kSize);
+        final long[] kmers = new long[1 << (2 * kSize)];
+        for (int i = 0; i < kmers.length; i++) {
+            kmers[i] = PSKmerCollection.canonicalizeAndMask(new SVKmerShort((long) i), kSize, mask);
+        }
+        final File tableFile = createTempFile("kmers", PSKmerUtils.SORTED_TABLE_EXTENSION);
+        try (final OutputStream output = new FileOutputStream(tableFile)) {
+            PSKmerSortedTable.write(Arrays.asList(kmers), kSize, mask, output);
+        }
+        final PSKmerSortedTable table = PSKmerSortedTable.open(tableFile.getPath());
+        Assert.assertEquals(table.setSize(), Arrays.stream(kmers).distinct().count());
+        for (int i = 0; i < kmers.length; i++) {
+            Assert.assertTrue(table.contains(new SVKmerShort((long) i)));
+        }
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testNotATable() throws IOException {
+        final File file = createTempFile("notATable", PSKmerUtils.SORTED_TABLE_EXTENSION);
+        Files.write(file.toPath(), new byte[PSKmerSortedTable.HEADER_LENGTH]);
+        PSKmerSortedTable.open(file.getPath());
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testTruncatedTable() throws IOException {
+        final File file = createTempFile("truncated", PSKmerUtils.SORTED_TABLE_EXTENSION);
+        try (final OutputStream output = new FileOutputStream(file)) {
+            PSKmerSortedTable.write(Arrays.asList(new long[]{1L, 2L, 3L}), 31, SVKmerShort.getMask(new byte[]{}, 31), output);
+        }
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        Files.write(file.toPath(), Arrays.copyOf(bytes, bytes.length - 8));
+        PSKmerSortedTable.open(file.getPath());
+    }
+}
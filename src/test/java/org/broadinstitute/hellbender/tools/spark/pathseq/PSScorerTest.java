@@ -3,6 +3,7 @@ package org.broadinstitute.hellbender.tools.spark.pathseq;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryo.io.Output;
 import com.google.cloud.dataflow.sdk.options.PipelineOptions;
+import com.google.common.collect.Lists;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMSequenceRecord;
 import org.apache.spark.api.java.JavaRDD;
@@ -263,6 +264,52 @@ public class PSScorerTest extends CommandLineProgramTest {
         Assert.assertEquals(infoSA.numMates, 2);
     }
 
+    @Test(dataProvider = "mapPairs")
+    public void testScorePartition(final int readLength, final List<Integer> NM1, final List<Integer> NM2,
+                                   final List<Integer> clip1, final List<Integer> clip2,
+                                   final List<Integer> insert1, final List<Integer> insert2,
+                                   final List<Integer> delete1, final List<Integer> delete2,
+                                   final List<String> contig1, final List<String> contig2,
+                                   final List<Integer> truthTax) {
+        final PSTree tree = new PSTree(10);
+        tree.addNode(1, "n1", 10, 100, "species");
+        tree.addNode(2, "n2", 10, 200, "species");
+        tree.addNode(3, "n3", 10, 300, "species");
+        final PSTaxonomyDatabase database = new PSTaxonomyDatabase(tree, refNameToTax);
+
+        final Iterable<GATKRead> pair = generateReadPair(readLength, NM1, NM2, clip1, clip2, insert1, insert2, delete1, delete2, contig1, contig2, "XA");
+        final Iterator<Tuple2<GATKRead, Map<Integer, PSPathogenTaxonScore>>> result = PSScorer.scorePartition(
+                Collections.singletonList(pair).iterator(), database, MIN_IDENT, IDENT_MARGIN, true);
+        //The reads come first, each in its own record, followed by the scores
+        final List<GATKRead> reads = new ArrayList<>();
+        Tuple2<GATKRead, Map<Integer, PSPathogenTaxonScore>> record = result.next();
+        while (record._1 != null) {
+            Assert.assertNull(record._2);
+            reads.add(record._1);
+            record = result.next();
+        }
+        Assert.assertFalse(result.hasNext());
+        Assert.assertEquals(reads, Lists.newArrayList(pair));
+        final Tuple2<GATKRead, Map<Integer, PSPathogenTaxonScore>> partition = record;
+
+        final Map<Integer, PSPathogenTaxonScore> expectedScores = scoreIteratorToMap(PSScorer.computeTaxScores(
+                Collections.singletonList(new PSPathogenAlignmentHit(truthTax, 2)).iterator(), database, true));
+        final Map<Integer, PSPathogenTaxonScore> scores = PSScorer.addTaxScores(new HashMap<>(), partition._2);
+        Assert.assertEquals(scores.keySet(), expectedScores.keySet());
+        for (final int taxId : scores.keySet()) {
+            Assert.assertEquals(scores.get(taxId).getSelfScore(), expectedScores.get(taxId).getSelfScore(), SCORE_ABSOLUTE_ERROR_TOLERANCE);
+            Assert.assertEquals(scores.get(taxId).getDescendentScore(), expectedScores.get(taxId).getDescendentScore(), SCORE_ABSOLUTE_ERROR_TOLERANCE);
+            Assert.assertEquals(scores.get(taxId).getTotalReads(), expectedScores.get(taxId).getTotalReads());
+            Assert.assertEquals(scores.get(taxId).getUnambiguousReads(), expectedScores.get(taxId).getUnambiguousReads());
+        }
+
+        //Adding a partition's scores twice doubles them
+        final Map<Integer, PSPathogenTaxonScore> doubledScores = PSScorer.addTaxScores(PSScorer.addTaxScores(new HashMap<>(), partition._2), partition._2);
+        for (final int taxId : scores.keySet()) {
+            Assert.assertEquals(doubledScores.get(taxId).getTotalReads(), 2 * scores.get(taxId).getTotalReads());
+        }
+    }
+
     @DataProvider(name = "mapUnpaired")
     public Object[][] getMapPairDataUnpaired() {
         return new Object[][]{
@@ -129,6 +129,24 @@ public final class FindBreakpointEvidenceSparkUnitTest extends GATKBaseTest {
         Assert.assertEquals(actualAssemblyQNames, expectedAssemblyQNames);
     }
 
+    @Test(groups = "sv")
+    public void extractEvidenceReadsTest() {
+        final JavaRDD<GATKRead> evidenceReads = FindBreakpointEvidenceSpark.extractEvidenceReads(reads, filter);
+        Assert.assertEquals(evidenceReads.getNumPartitions(), reads.getNumPartitions());
+
+        final Set<String> actualQNames = new HashSet<>();
+        FindBreakpointEvidenceSpark.getQNames(params, ctx, broadcastMetadata, expectedIntervalList, evidenceReads, filter)
+                .stream()
+                .map(QNameAndInterval::getKey)
+                .forEach(actualQNames::add);
+        Assert.assertEquals(actualQNames, expectedQNames);
+        Assert.assertEquals(
+                FindBreakpointEvidenceSpark.getIntervalsAndEvidenceTargetLinks(params,broadcastMetadata,
+                        broadcastExternalEvidence,header,evidenceReads,filter,logger)._1(),
+                expectedIntervalList);
+        evidenceReads.unpersist();
+    }
+
     @Test(groups = "sv")
     public void generateFastqsTest() {
         final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNameMultiMap =
@@ -0,0 +1,139 @@
+package org.broadinstitute.hellbender.tools.spark.sv.evidence;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection.FindBreakpointEvidenceSparkArgumentCollection;
+import org.broadinstitute.hellbender.tools.spark.sv.evidence.FindBreakpointEvidenceSpark.EvidenceScanResults;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVInterval;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.IntHistogramTest;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.testng.Assert;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+import scala.Tuple2;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class SVStageCheckpointsUnitTest extends GATKBaseTest {
+    private final static LibraryStatistics LIBRARY_STATISTICS =
+            new LibraryStatistics(IntHistogramTest.genLogNormalSample(400, 175, 10000).getCDF(),
+                    60000000000L, 600000000L, 1200000000000L, 3000000000L);
+
+    private File readsFile;
+
+    @BeforeMethod
+    public void createReadsFile() throws IOException {
+        readsFile = createTempFile("reads", ".bam");
+        Files.write(readsFile.toPath(), new byte[]{1, 2, 3});
+    }
+
+    private SVStageCheckpoints newCheckpoints( final String dir, final SAMFileHeader header,
+                                               final FindBreakpointEvidenceSparkArgumentCollection params ) {
+        return new SVStageCheckpoints(dir, header, Collections.singletonList(readsFile.getAbsolutePath()), null,
+                new SVReadFilter(params), params);
+    }
+
+    private static ReadMetadata makeReadMetadata( final SAMFileHeader header ) {
+        return new ReadMetadata(Collections.singleton(1), header, LIBRARY_STATISTICS,
+                new ReadMetadata.PartitionBounds[0], 1L, 1L, 1);
+    }
+
+    @Test(groups = "sv")
+    public void testReadMetadataCheckpoint() {
+        final String dir = createTempDir("checkpoints").getAbsolutePath();
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeaderWithGroups(2, 1, 10000000, 1);
+        final FindBreakpointEvidenceSparkArgumentCollection params = new FindBreakpointEvidenceSparkArgumentCollection();
+        Assert.assertNull(newCheckpoints(dir, header, params).loadReadMetadata());
+
+        final ReadMetadata readMetadata = makeReadMetadata(header);
+        newCheckpoints(dir, header, params).saveReadMetadata(readMetadata);
+        final ReadMetadata readMetadata2 = newCheckpoints(dir, header, params).loadReadMetadata();
+        Assert.assertNotNull(readMetadata2);
+        Assert.assertEquals(readMetadata2.getCrossContigIgnoreSet(), readMetadata.getCrossContigIgnoreSet());
+        Assert.assertEquals(readMetadata2.getContigNameMap(), readMetadata.getContigNameMap());
+        Assert.assertEquals(readMetadata2.getNReads(), readMetadata.getNReads());
+
+        // arguments that the metadata doesn't depend on don't matter
+        params.maxFASTQSize += 1;
+        params.minEvidenceWeight += 1;
+        Assert.assertNotNull(newCheckpoints(dir, header, params).loadReadMetadata());
+
+        // but those it does depend on do
+        params.minEvidenceMapQ += 1;
+        Assert.assertNull(newCheckpoints(dir, header, params).loadReadMetadata());
+
+        // and so does the header
+        final SAMFileHeader header2 = ArtificialReadUtils.createArtificialSamHeaderWithGroups(3, 1, 10000000, 1);
+        Assert.assertNull(newCheckpoints(dir, header2, new FindBreakpointEvidenceSparkArgumentCollection()).loadReadMetadata());
+    }
+
+    @Test(groups = "sv")
+    public void testReadsIdentifyCheckpoint() throws IOException {
+        final String dir = createTempDir("checkpoints").getAbsolutePath();
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeaderWithGroups(2, 1, 10000000, 1);
+        final FindBreakpointEvidenceSparkArgumentCollection params = new FindBreakpointEvidenceSparkArgumentCollection();
+        final List<String> readInputs = Collections.singletonList(readsFile.getAbsolutePath());
+        final List<SimpleInterval> intervals = Collections.singletonList(new SimpleInterval("1", 1, 1000));
+        final SVReadFilter readFilter = new SVReadFilter(params);
+        new SVStageCheckpoints(dir, header, readInputs, intervals, readFilter, params).saveReadMetadata(makeReadMetadata(header));
+        Assert.assertNotNull(new SVStageCheckpoints(dir, header, readInputs, intervals, readFilter, params).loadReadMetadata());
+
+        // different intervals
+        Assert.assertNull(new SVStageCheckpoints(dir, header, readInputs, null, readFilter, params).loadReadMetadata());
+        Assert.assertNull(new SVStageCheckpoints(dir, header, readInputs,
+                Collections.singletonList(new SimpleInterval("1", 1, 2000)), readFilter, params).loadReadMetadata());
+
+        // a different read filter
+        final FindBreakpointEvidenceSparkArgumentCollection filterParams = new FindBreakpointEvidenceSparkArgumentCollection();
+        filterParams.minEvidenceMatchLength += 1;
+        Assert.assertNull(new SVStageCheckpoints(dir, header, readInputs, intervals, new SVReadFilter(filterParams), params).loadReadMetadata());
+
+        // a different reads input with the same header
+        final File otherReadsFile = createTempFile("otherReads", ".bam");
+        Files.write(otherReadsFile.toPath(), new byte[]{1, 2, 3});
+        Assert.assertNull(new SVStageCheckpoints(dir, header, Collections.singletonList(otherReadsFile.getAbsolutePath()),
+                intervals, readFilter, params).loadReadMetadata());
+
+        // the same reads input, rewritten
+        Assert.assertTrue(readsFile.setLastModified(readsFile.lastModified() - 60000L));
+        Assert.assertNull(new SVStageCheckpoints(dir, header, readInputs, intervals, readFilter, params).loadReadMetadata());
+    }
+
+    @Test(groups = "sv")
+    public void testEvidenceCheckpoint() {
+        final String dir = createTempDir("checkpoints").getAbsolutePath();
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeaderWithGroups(2, 1, 10000000, 1);
+        final FindBreakpointEvidenceSparkArgumentCollection params = new FindBreakpointEvidenceSparkArgumentCollection();
+        final ReadMetadata readMetadata = makeReadMetadata(header);
+        final List<SVInterval> intervals = Arrays.asList(new SVInterval(0, 1000, 2000), new SVInterval(1, 500, 700));
+        final List<AlignedAssemblyOrExcuse> excuses =
+                Collections.singletonList(new AlignedAssemblyOrExcuse(1, "no reads"));
+        newCheckpoints(dir, header, params).saveEvidence(
+                new EvidenceScanResults(readMetadata, intervals, Collections.emptyList(), null), excuses);
+
+        // changing assembly arguments keeps the evidence
+        params.maxFASTQSize += 1;
+        params.checkpointDir = dir;
+        final Tuple2<EvidenceScanResults, List<AlignedAssemblyOrExcuse>> restored =
+                newCheckpoints(dir, header, params).loadEvidence(readMetadata);
+        Assert.assertNotNull(restored);
+        Assert.assertSame(restored._1().readMetadata, readMetadata);
+        Assert.assertEquals(restored._1().intervals, intervals);
+        Assert.assertTrue(restored._1().evidenceTargetLinks.isEmpty());
+        Assert.assertNull(restored._1().qNamesForAssemblyMultiMap);
+        Assert.assertEquals(restored._2().size(), 1);
+        Assert.assertEquals(restored._2().get(0).getAssemblyId(), 1);
+        Assert.assertEquals(restored._2().get(0).getErrorMessage(), "no reads");
+
+        // changing evidence arguments doesn't
+        params.minEvidenceWeight += 1;
+        Assert.assertNull(newCheckpoints(dir, header, params).loadEvidence(readMetadata));
+        Assert.assertTrue(new File(dir).isDirectory());
+    }
+}
@@ -0,0 +1,102 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+public class PackedKmerCountsUnitTest extends GATKBaseTest {
+    private static final int KMER_SIZE = 51;
+
+    private static SVKmerLong randomKmer( final Random random, final int nDistinct ) {
+        // a limited number of distinct kmers, so that there are lots of duplicates
+        final Random kmerRandom = new Random(random.nextInt(nDistinct));
+        final byte[] bases = new byte[KMER_SIZE];
+        for ( int idx = 0; idx != KMER_SIZE; ++idx ) {
+            bases[idx] = (byte)"ACGT".charAt(kmerRandom.nextInt(4));
+        }
+        return (SVKmerLong)SVKmerizer.toKmer(bases, new SVKmerLong(KMER_SIZE));
+    }
+
+    private static Map<SVKmer, Integer> asMap( final PackedKmerCounts kmerCounts ) {
+        final Map<SVKmer, Integer> result = new HashMap<>();
+        for ( int idx = 0; idx != kmerCounts.size(); ++idx ) {
+            Assert.assertNull(result.put(kmerCounts.getKmer(idx), kmerCounts.getCount(idx)), "duplicate kmer");
+        }
+        return result;
+    }
+
+    @Test(groups = "sv")
+    public void countAndCollapseTest() {
+        final Random random = new Random(17L);
+        final Map<SVKmer, Integer> expected = new HashMap<>();
+        // a small capacity, so that the counts are collapsed and grown several times along the way
+        final PackedKmerCounts kmerCounts = new PackedKmerCounts(10);
+        for ( int idx = 0; idx != 100000; ++idx ) {
+            final SVKmerLong kmer = randomKmer(random, 3000);
+            expected.merge(kmer, 1, Integer::sum);
+            kmerCounts.add(kmer);
+        }
+        kmerCounts.collapse();
+        Assert.assertEquals(kmerCounts.size(), expected.size());
+        Assert.assertEquals(asMap(kmerCounts), expected);
+        for ( int idx = 1; idx < kmerCounts.size(); ++idx ) {
+            Assert.assertTrue(kmerCounts.getKmer(idx - 1).compareTo(kmerCounts.getKmer(idx)) < 0);
+        }
+    }
+
+    @Test(groups = "sv")
+    public void splitAndMergeTest() {
+        final Random random = new Random(23L);
+        final int nParts = 7;
+        final PackedKmerCounts kmerCounts1 = new PackedKmerCounts(100);
+        final PackedKmerCounts kmerCounts2 = new PackedKmerCounts(100);
+        final Map<SVKmer, Integer> expected = new HashMap<>();
+        for ( int idx = 0; idx != 20000; ++idx ) {
+            final SVKmerLong kmer = randomKmer(random, 1000);
+            expected.merge(kmer, 1, Integer::sum);
+            (idx % 3 == 0 ? kmerCounts1 : kmerCounts2).add(kmer);
+        }
+        final PackedKmerCounts[] parts1 = kmerCounts1.split(nParts);
+        final PackedKmerCounts[] parts2 = kmerCounts2.split(nParts);
+        final Map<SVKmer, Integer> merged = new HashMap<>();
+        for ( int part = 0; part != nParts; ++part ) {
+            final PackedKmerCounts mergedPart = new PackedKmerCounts(0);
+            mergedPart.addAll(parts1[part]);
+            mergedPart.addAll(parts2[part]);
+            mergedPart.collapse();
+            for ( final Map.Entry<SVKmer, Integer> entry : asMap(mergedPart).entrySet() ) {
+                // each kmer is in the part a HashPartitioner would choose
+                Assert.assertEquals(Math.floorMod(entry.getKey().hashCode(), nParts), part);
+                Assert.assertNull(merged.put(entry.getKey(), entry.getValue()));
+            }
+        }
+        Assert.assertEquals(merged, expected);
+    }
+
+    @Test(groups = "sv")
+    public void serializationTest() {
+        final Random random = new Random(5L);
+        final PackedKmerCounts kmerCounts = new PackedKmerCounts(100);
+        for ( int idx = 0; idx != 1000; ++idx ) {
+            kmerCounts.add(randomKmer(random, 200));
+        }
+        final Kryo kryo = new Kryo();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Output output = new Output(bytes);
+        kryo.writeObject(output, kmerCounts);
+        output.close();
+        final PackedKmerCounts kmerCounts2 =
+                kryo.readObject(new Input(new ByteArrayInputStream(bytes.toByteArray())), PackedKmerCounts.class);
+        Assert.assertEquals(kmerCounts2.size(), kmerCounts.size());
+        kmerCounts.collapse();
+        kmerCounts2.collapse();
+        Assert.assertEquals(asMap(kmerCounts2), asMap(kmerCounts));
+    }
+}
@@ -0,0 +1,106 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.*;
+
+public class SVIntervalIndexTest extends GATKBaseTest {
+
+    @DataProvider(name = "treeSizes")
+    public Object[][] getTreeSizes() {
+        return new Object[][]{{0}, {1}, {2}, {7}, {16}, {17}, {1000}, {4097}};
+    }
+
+    private static SVIntervalTree<Integer> randomTree( final int size, final Random random ) {
+        final SVIntervalTree<Integer> tree = new SVIntervalTree<>();
+        while ( tree.size() < size ) {
+            final int start = random.nextInt(10000);
+            // mostly short intervals, with a few long ones
+            final int length = random.nextInt(10) == 0 ? random.nextInt(5000) : random.nextInt(100);
+            tree.put(new SVInterval(random.nextInt(3), start, start + length), tree.size());
+        }
+        return tree;
+    }
+
+    private static List<SVInterval> overlappingIntervals( final Iterator<SVIntervalTree.Entry<Integer>> itr ) {
+        final List<SVInterval> result = new ArrayList<>();
+        itr.forEachRemaining(entry -> result.add(entry.getInterval()));
+        return result;
+    }
+
+    @Test(groups = "sv", dataProvider = "treeSizes")
+    public void overlappersMatchTreeTest( final int size ) {
+        final Random random = new Random(47L + size);
+        final SVIntervalTree<Integer> tree = randomTree(size, random);
+        final SVIntervalIndex<Integer> index = new SVIntervalIndex<>(tree);
+        Assert.assertEquals(index.size(), size);
+
+        int idx = 0;
+        for ( final SVIntervalTree.Entry<Integer> entry : tree ) {
+            Assert.assertEquals(index.getInterval(idx), entry.getInterval());
+            Assert.assertEquals(index.getValue(idx), entry.getValue());
+            idx += 1;
+        }
+
+        for ( int query = 0; query != 2000; ++query ) {
+            final int start = random.nextInt(11000) - 500;
+            final SVInterval interval = new SVInterval(random.nextInt(4), start, start + random.nextInt(300));
+            final List<SVInterval> expected = overlappingIntervals(tree.overlappers(interval));
+            Assert.assertEquals(overlappingIntervals(index.overlappers(interval)), expected, interval.toString());
+            Assert.assertEquals(index.hasOverlapper(interval), tree.hasOverlapper(interval));
+        }
+    }
+
+    @Test(groups = "sv")
+    public void duplicateIntervalsTest() {
+        final SVInterval interval = new SVInterval(1, 100, 200);
+        final SVIntervalIndex<String> index = new SVIntervalIndex<>(
+                Arrays.asList(new SVInterval(0, 100, 200), interval, interval, new SVInterval(1, 199, 300)),
+                Arrays.asList("a", "b", "c", "d"));
+        final List<String> values = new ArrayList<>();
+        index.overlappers(new SVInterval(1, 150, 160)).forEachRemaining(entry -> values.add(entry.getValue()));
+        Assert.assertEquals(values, Arrays.asList("b", "c"));
+        Assert.assertFalse(index.hasOverlapper(new SVInterval(1, 0, 100)));
+        Assert.assertFalse(index.hasOverlapper(new SVInterval(2, 100, 200)));
+    }
+
+    @Test(groups = "sv", expectedExceptions = IllegalArgumentException.class)
+    public void unsortedIntervalsTest() {
+        new SVIntervalIndex<>(Arrays.asList(new SVInterval(1, 100, 200), new SVInterval(0, 100, 200)), Arrays.asList(1, 2));
+    }
+
+    @Test(groups = "sv", expectedExceptions = UnsupportedOperationException.class)
+    public void immutableTest() {
+        final SVIntervalIndex<Integer> index = new SVIntervalIndex<>(Collections.singletonList(new SVInterval(0, 1, 2)), Collections.singletonList(1));
+        index.iterator().next().setValue(2);
+    }
+
+    @Test(groups = "sv")
+    public void serializationTest() {
+        final Random random = new Random(3L);
+        final SVIntervalIndex<Integer> index = new SVIntervalIndex<>(randomTree(500, random));
+        final Kryo kryo = new Kryo();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Output output = new Output(bytes);
+        kryo.writeObject(output, index);
+        output.close();
+
+        @SuppressWarnings("unchecked")
+        final SVIntervalIndex<Integer> index2 = kryo.readObject(new Input(new ByteArrayInputStream(bytes.toByteArray())), SVIntervalIndex.class);
+        Assert.assertEquals(index2.size(), index.size());
+        for ( int idx = 0; idx != index.size(); ++idx ) {
+            Assert.assertEquals(index2.getInterval(idx), index.getInterval(idx));
+            Assert.assertEquals(index2.getValue(idx), index.getValue(idx));
+        }
+        final SVInterval query = new SVInterval(1, 2000, 2100);
+        Assert.assertEquals(overlappingIntervals(index2.overlappers(query)), overlappingIntervals(index.overlappers(query)));
+    }
+}
@@ -198,4 +198,37 @@ public class SVKmerShortUnitTest {
         Assert.assertEquals(kmerizer.next(), SVKmerizer.toKmer("TTTTT", new SVKmerShort(5)));
         Assert.assertTrue(!kmerizer.hasNext());
     }
-}
\ No newline at end of file
+
+    @Test(groups = "sv")
+    public void testPrimitiveEncoding() {
+        final String bases = "ACGTTGCAACGTAGCTAGCTAGGATCCATGC";
+        final int kSize = bases.length();
+        final long val = SVKmerShort.toLong(bases.getBytes(), 0, kSize);
+        Assert.assertEquals(val, ((SVKmerShort)SVKmerizer.toKmer(bases, new SVKmerShort(kSize))).getLong());
+        Assert.assertEquals(new SVKmerShort(val).toString(kSize), bases);
+
+        final byte[] decoded = new byte[kSize + 2];
+        SVKmerShort.toBases(val, kSize, decoded, 1);
+        Assert.assertEquals(new String(decoded, 1, kSize), bases);
+
+        Assert.assertEquals(SVKmerShort.toLong("ACGNT".getBytes(), 0, 5), -1L);
+        Assert.assertEquals(SVKmerShort.toLong("ACGtT".getBytes(), 0, 5), -1L);
+        Assert.assertEquals(SVKmerShort.toLong("NACGTN".getBytes(), 1, 4), SVKmerShort.toLong("ACGT".getBytes(), 0, 4));
+
+        long rolled = 0;
+        final long mask = SVKmerShort.kSizeMask(5);
+        for ( final byte base : "TTACGTA".getBytes() ) {
+            rolled = SVKmerShort.successor(rolled, SVKmerShort.baseValue(base), mask);
+        }
+        Assert.assertEquals(rolled, SVKmerShort.toLong("ACGTA".getBytes(), 0, 5));
+    }
+
+    @Test(groups = "sv")
+    public void testHammingDistance() {
+        final long val = SVKmerShort.toLong("ACGTACGTACG".getBytes(), 0, 11);
+        Assert.assertEquals(SVKmerShort.hammingDistance(val, val), 0);
+        Assert.assertEquals(SVKmerShort.hammingDistance(val, SVKmerShort.toLong("ACGTACGTACT".getBytes(), 0, 11)), 1);
+        Assert.assertEquals(SVKmerShort.hammingDistance(val, SVKmerShort.toLong("TCGTACCTACG".getBytes(), 0, 11)), 2);
+        Assert.assertEquals(SVKmerShort.hammingDistance(val, SVKmerShort.toLong("TGCATGCATGC".getBytes(), 0, 11)), 11);
+    }
+}
@@ -0,0 +1,137 @@
+package org.broadinstitute.hellbender.tools.walkers.annotator;
+
+import htsjdk.variant.variantcontext.*;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.genotyper.ReadLikelihoods;
+import org.broadinstitute.hellbender.utils.read.AlignmentUtils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.test.ArtificialAnnotationUtils;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public final class ReadAlleleSummariesUnitTest extends GATKBaseTest {
+
+    private static final Allele REF = Allele.create("A", true);
+    private static final Allele ALT = Allele.create("C");
+    private static final List<Allele> ALLELES = Arrays.asList(REF, ALT);
+    private static final String SAMPLE = "sample1";
+
+    private static List<GATKRead> makeReads(final int n, final int qual, final int mappingQuality, final boolean reverse,
+                                            final int firstStart, final String cigar) {
+        return IntStream.range(0, n).mapToObj(i -> {
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(cigar);
+            read.setPosition(read.getContig(), firstStart + i % 3);
+            read.setMappingQuality(mappingQuality);
+            read.setBaseQualities(Utils.dupBytes((byte) (qual + i), read.getLength()));
+            read.setIsReverseStrand(reverse);
+            return read;
+        }).collect(Collectors.toList());
+    }
+
+    private static VariantContext makeVC() {
+        final Genotype g = new GenotypeBuilder(SAMPLE, ALLELES).make();
+        return new VariantContextBuilder("test", "1", 5, 5, ALLELES).genotypes(Collections.singletonList(g)).make();
+    }
+
+    private static ReadLikelihoods<Allele> makeLikelihoods() {
+        final List<GATKRead> refReads = new ArrayList<>(makeReads(7, 30, 40, false, 1, "10M"));
+        refReads.addAll(makeReads(4, 35, 50, true, 2, "10M"));
+        final List<GATKRead> altReads = new ArrayList<>(makeReads(3, 20, 60, false, 1, "3H10M"));
+        altReads.addAll(makeReads(5, 25, 55, true, 3, "1H10M"));
+        final List<GATKRead> uninformativeReads = makeReads(6, 10, 20, false, 1, "10M");
+        return ArtificialAnnotationUtils.makeLikelihoods(SAMPLE, refReads, altReads, uninformativeReads, -100.0, -100.0, -1.0, REF, ALT);
+    }
+
+    @Test
+    public void testSummariesMatchBestAlleles() {
+        final VariantContext vc = makeVC();
+        final ReadLikelihoods<Allele> likelihoods = makeLikelihoods();
+        final ReadAlleleSummaries summaries = new ReadAlleleSummaries(vc, likelihoods);
+
+        Assert.assertSame(summaries.getLikelihoods(), likelihoods);
+        Assert.assertEquals(summaries.getRefLoc(), vc.getStart());
+        Assert.assertTrue(summaries.likelihoodAllelesMatchVariant());
+        Assert.assertEquals(summaries.numberOfSamples(), 1);
+
+        final List<ReadLikelihoods<Allele>.BestAllele> bestAlleles = new ArrayList<>(likelihoods.bestAlleles(SAMPLE));
+        final int sampleIndex = summaries.indexOfSample(SAMPLE);
+        Assert.assertEquals(summaries.sampleReadCount(sampleIndex), bestAlleles.size());
+        for (int r = 0; r < bestAlleles.size(); r++) {
+            final ReadLikelihoods<Allele>.BestAllele expected = bestAlleles.get(r);
+            final GATKRead read = expected.read;
+            Assert.assertSame(summaries.getRead(sampleIndex, r), read);
+            Assert.assertEquals(summaries.getAllele(sampleIndex, r), expected.allele);
+            Assert.assertEquals(summaries.isInformative(sampleIndex, r), expected.isInformative());
+            Assert.assertEquals(summaries.isReverseStrand(sampleIndex, r), read.isReverseStrand());
+            Assert.assertEquals(summaries.getMappingQuality(sampleIndex, r), read.getMappingQuality());
+            Assert.assertEquals(summaries.getHardClippedBases(sampleIndex, r), AlignmentUtils.getNumHardClippedBases(read));
+            Assert.assertEquals(summaries.getBaseQuality(sampleIndex, r), BaseQualityRankSumTest.getReadBaseQuality(read, vc.getStart()));
+            Assert.assertEquals(summaries.getReadPosition(sampleIndex, r), ReadPosRankSumTest.getReadPosition(read, vc.getStart()));
+        }
+    }
+
+    @Test
+    public void testAllelesNotMatchingVariant() {
+        final VariantContext vc = new VariantContextBuilder(makeVC()).alleles(Arrays.asList(REF, ALT, Allele.create("G"))).make();
+        Assert.assertFalse(new ReadAlleleSummaries(vc, makeLikelihoods()).likelihoodAllelesMatchVariant());
+    }
+
+    @DataProvider(name = "infoAnnotations")
+    public Object[][] infoAnnotations() {
+        // expected values computed by the implementations that walked the likelihoods of every read themselves
+        return new Object[][]{
+                {new FisherStrand(), GATKVCFConstants.FISHER_STRAND_KEY, 4.320},
+                {new StrandOddsRatio(), GATKVCFConstants.STRAND_ODDS_RATIO_KEY, 0.971},
+                {new BaseQualityRankSumTest(), GATKVCFConstants.BASE_QUAL_RANK_SUM_KEY, -3.595},
+                {new MappingQualityRankSumTest(), GATKVCFConstants.MAP_QUAL_RANK_SUM_KEY, 3.829},
+                {new ReadPosRankSumTest(), GATKVCFConstants.READ_POS_RANK_SUM_KEY, -1.661},
+                {new ClippingRankSumTest(), GATKVCFConstants.CLIPPING_RANK_SUM_KEY, 4.145},
+                {new LikelihoodRankSumTest(), GATKVCFConstants.LIKELIHOOD_RANK_SUM_KEY, 0.0},
+        };
+    }
+
+    @Test(dataProvider = "infoAnnotations")
+    public void testInfoAnnotationValues(final InfoFieldAnnotation annotation, final String key, final double expected) {
+        final VariantContext vc = makeVC();
+        final ReadLikelihoods<Allele> likelihoods = makeLikelihoods();
+        for (final Map<String, Object> result : Arrays.asList(
+                annotation.annotate(null, vc, likelihoods, new ReadAlleleSummaries(vc, likelihoods)),
+                annotation.annotate(null, vc, likelihoods))) {
+            Assert.assertEquals(result.keySet(), Collections.singleton(key));
+            Assert.assertEquals(Double.parseDouble(result.get(key).toString()), expected, 1e-3);
+        }
+    }
+
+    @Test
+    public void testGenotypeAnnotationValues() {
+        final VariantContext vc = makeVC();
+        final ReadLikelihoods<Allele> likelihoods = makeLikelihoods();
+        final Genotype g = vc.getGenotype(SAMPLE);
+        for (final boolean withSummaries : new boolean[]{true, false}) {
+            final GenotypeBuilder adBuilder = new GenotypeBuilder(g);
+            final GenotypeBuilder sbBuilder = new GenotypeBuilder(g);
+            if (withSummaries) {
+                final ReadAlleleSummaries summaries = new ReadAlleleSummaries(vc, likelihoods);
+                new DepthPerAlleleBySample().annotate(null, vc, g, adBuilder, likelihoods, summaries);
+                new StrandBiasBySample().annotate(null, vc, g, sbBuilder, likelihoods, summaries);
+            } else {
+                new DepthPerAlleleBySample().annotate(null, vc, g, adBuilder, likelihoods);
+                new StrandBiasBySample().annotate(null, vc, g, sbBuilder, likelihoods);
+            }
+            Assert.assertEquals(adBuilder.make().getAD(), new int[]{11, 8});
+            Assert.assertEquals(sbBuilder.make().getExtendedAttribute(GATKVCFConstants.STRAND_BIAS_BY_SAMPLE_KEY), Arrays.asList(7, 4, 3, 5));
+        }
+    }
+}
@@ -86,4 +86,41 @@ public final class KMerCounterUnitTest extends GATKBaseTest {
         Assert.assertEquals(list.get(0).getKmer().bases(), kmer2.getBytes());
         Assert.assertEquals(list.get(1).getKmer().bases(), kmer1.getBytes());
     }
+
+    @Test
+    public void testAddKmersFromSequence() {
+        final String sequence = "ACGTACGTNACGTTACGTAc";
+        for ( final int kmerLength : new int[]{1, 4, 7} ) {
+            final KMerCounter counter = new KMerCounter(kmerLength);
+            counter.addKmers(sequence.getBytes());
+
+            final KMerCounter expected = new KMerCounter(kmerLength);
+            for ( int offset = 0; offset <= sequence.length() - kmerLength; offset++ ) {
+                expected.addKmer(sequence.substring(offset, offset + kmerLength), 1);
+            }
+            assertSameCounts(counter, expected);
+        }
+    }
+
+    @Test
+    public void testKmersTooLongToPack() {
+        final String sequence = "ACGTACGTACGTACGTACGTACGTACGTACGTACGTACGTACGT";
+        final KMerCounter counter = new KMerCounter(35);
+        counter.addKmers(sequence.getBytes());
+        counter.addKmers(sequence.getBytes());
+        Assert.assertEquals(counter.getCountedKmers().size(), 4);
+        testCounting(counter, sequence.substring(0, 35), 6);
+        testCounting(counter, sequence.substring(2, 37), 4);
+    }
+
+    private static void assertSameCounts(final KMerCounter actual, final KMerCounter expected) {
+        final Map<Kmer, Integer> actualCounts = new HashMap<>();
+        actual.getCountedKmers().forEach(ck -> actualCounts.put(ck.getKmer(), ck.getCount()));
+        final Map<Kmer, Integer> expectedCounts = new HashMap<>();
+        expected.getCountedKmers().forEach(ck -> expectedCounts.put(ck.getKmer(), ck.getCount()));
+        Assert.assertEquals(actualCounts, expectedCounts);
+        for ( final Kmer kmer : expectedCounts.keySet() ) {
+            Assert.assertEquals(actual.getKmerCount(kmer), (int) expectedCounts.get(kmer));
+        }
+    }
 }
@@ -132,13 +132,58 @@ public final class ReadErrorCorrectorUnitTest {
         // now correct all reads
         final ReadErrorCorrector readErrorCorrector = new ReadErrorCorrector(kmerLengthForReadErrorCorrection,(byte)6,10, debug,refChunkHard.getBytes());
         readErrorCorrector.addReadsToKmers(finalizedReadList);
-        readErrorCorrector.correctReads(finalizedReadList);
+        final List<GATKRead> correctedReads = readErrorCorrector.correctReads(finalizedReadList);
 
         // check that corrected reads have exactly same content as original reads
         for (int k=0; k < NUM_BAD_READS; k++) {
-            final byte[] badBases = finalizedReadList.get(k).getBases();
+            final byte[] correctedBases = correctedReads.get(NUM_GOOD_READS + k).getBases();
             final byte[] originalBases = finalizedReadList.get(k).getBases();
-            Assert.assertTrue(Arrays.equals(badBases,originalBases));
+            Assert.assertTrue(Arrays.equals(correctedBases,originalBases));
         }
     }
+
+    @Test
+    public void TestCorrectionOfSubstitutionErrors() {
+        final int NUM_GOOD_READS = 200;
+        final int READ_LENGTH = 15;
+        final int kmerLengthForReadErrorCorrection = 10;
+        final byte[] quals = new byte[READ_LENGTH];
+        Arrays.fill(quals,(byte)30);
+
+        final List<GATKRead> reads = new ArrayList<>();
+        int offset = 0;
+        for (int k=0; k < NUM_GOOD_READS; k++) {
+            final byte[] bases = Arrays.copyOfRange(refChunk.getBytes(),offset,offset+READ_LENGTH);
+            reads.add(ArtificialReadUtils.createArtificialRead(bases, quals, READ_LENGTH + "M"));
+            offset = (offset + 1) % (refChunk.length() - READ_LENGTH + 1);
+        }
+
+        // one read with a substitution error in the middle, and one with an N
+        final byte[] trueBases = Arrays.copyOfRange(refChunk.getBytes(), 2, 2 + READ_LENGTH);
+        final byte[] substitution = trueBases.clone();
+        substitution[7] = (byte)(substitution[7] == 'A' ? 'C' : 'A');
+        final byte[] withN = trueBases.clone();
+        withN[9] = 'N';
+        reads.add(ArtificialReadUtils.createArtificialRead(substitution, quals, READ_LENGTH + "M"));
+        reads.add(ArtificialReadUtils.createArtificialRead(withN, quals, READ_LENGTH + "M"));
+
+        final ReadErrorCorrector readErrorCorrector = new ReadErrorCorrector(kmerLengthForReadErrorCorrection,(byte)6,10, debug,refChunk.getBytes());
+        readErrorCorrector.addReadsToKmers(reads);
+        final List<GATKRead> correctedReads = readErrorCorrector.correctReads(reads);
+
+        Assert.assertEquals(correctedReads.size(), reads.size());
+        for (int k=0; k < NUM_GOOD_READS; k++) {
+            Assert.assertSame(correctedReads.get(k), reads.get(k));
+        }
+        // reads with errors are corrected through both the packed kmers and the ones with an N: the substituted base
+        // and the N are both replaced by the true base, with the quality of corrected bases
+        Assert.assertNotSame(correctedReads.get(NUM_GOOD_READS), reads.get(NUM_GOOD_READS));
+        Assert.assertEquals(correctedReads.get(NUM_GOOD_READS).getBases(), trueBases);
+        Assert.assertEquals(correctedReads.get(NUM_GOOD_READS).getBaseQualities(), quals);
+        Assert.assertNotSame(correctedReads.get(NUM_GOOD_READS + 1), reads.get(NUM_GOOD_READS + 1));
+        Assert.assertEquals(correctedReads.get(NUM_GOOD_READS + 1).getBases(), trueBases);
+        Assert.assertEquals(correctedReads.get(NUM_GOOD_READS + 1).getBaseQualities(), quals);
+        Assert.assertEquals(reads.get(NUM_GOOD_READS).getBases(), substitution, "the input read should not be modified");
+        Assert.assertEquals(reads.get(NUM_GOOD_READS + 1).getBases(), withN, "the input read should not be modified");
+    }
 }
@@ -0,0 +1,80 @@
+package org.broadinstitute.hellbender.tools.walkers.vqsr;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public final class VariantDataColumnsUnitTest extends GATKBaseTest {
+
+    private static List<VariantDatum> makeData(final int numData, final int numAnnotations) {
+        final Random rng = new Random(13);
+        final List<VariantDatum> data = new ArrayList<>(numData);
+        for (int i = 0; i < numData; i++) {
+            final VariantDatum datum = new VariantDatum();
+            datum.annotations = new double[numAnnotations];
+            datum.isNull = new boolean[numAnnotations];
+            final double center = i % 2 == 0 ? -2.0 : 2.0;
+            for (int j = 0; j < numAnnotations; j++) {
+                datum.annotations[j] = center + rng.nextGaussian();
+            }
+            data.add(datum);
+        }
+        return data;
+    }
+
+    @Test
+    public void testLayout() {
+        final List<VariantDatum> data = makeData(VariantDataColumns.CHUNK_SIZE + 10, 3);
+        final VariantDataColumns columns = VariantDataColumns.of(data);
+        Assert.assertEquals(columns.numData(), data.size());
+        Assert.assertEquals(columns.numAnnotations(), 3);
+        Assert.assertEquals(columns.numChunks(), 2);
+        Assert.assertEquals(columns.chunkStart(1), VariantDataColumns.CHUNK_SIZE);
+        Assert.assertEquals(columns.chunkEnd(1), data.size());
+
+        final double[] row = new double[3];
+        for (int i = 0; i < data.size(); i++) {
+            columns.copyRow(i, row);
+            Assert.assertEquals(row, data.get(i).annotations);
+            Assert.assertEquals(columns.get(i, 2), data.get(i).annotations[2]);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInconsistentNumberOfAnnotations() {
+        final List<VariantDatum> data = makeData(5, 3);
+        data.get(3).annotations = new double[2];
+        VariantDataColumns.of(data);
+    }
+
+    @Test
+    public void testModelDoesNotDependOnNumberOfThreads() {
+        final List<VariantDatum> data = makeData(3 * VariantDataColumns.CHUNK_SIZE + 17, 2);
+
+        final List<MultivariateGaussian> singleThreaded = trainModel(data, 1).getModelGaussians();
+        final List<MultivariateGaussian> multiThreaded = trainModel(data, 4).getModelGaussians();
+
+        Assert.assertEquals(multiThreaded.size(), singleThreaded.size());
+        for (int k = 0; k < singleThreaded.size(); k++) {
+            Assert.assertEquals(multiThreaded.get(k).pMixtureLog10, singleThreaded.get(k).pMixtureLog10);
+            Assert.assertEquals(multiThreaded.get(k).mu, singleThreaded.get(k).mu);
+            for (int i = 0; i < data.get(0).annotations.length; i++) {
+                Assert.assertEquals(multiThreaded.get(k).sigma.getArray()[i], singleThreaded.get(k).sigma.getArray()[i]);
+            }
+        }
+    }
+
+    private static GaussianMixtureModel trainModel(final List<VariantDatum> data, final int numThreads) {
+        final VariantRecalibratorArgumentCollection VRAC = new VariantRecalibratorArgumentCollection();
+        VRAC.NUM_TRAINING_THREADS = numThreads;
+        VRAC.MAX_ITERATIONS = 10;
+        VRAC.NUM_KMEANS_ITERATIONS = 5;
+        Utils.resetRandomGenerator();
+        return new VariantRecalibratorEngine(VRAC).generateModel(data, 2);
+    }
+}
@@ -0,0 +1,56 @@
+package org.broadinstitute.hellbender.utils;
+
+import htsjdk.tribble.FeatureCodec;
+import org.broadinstitute.barclay.argparser.ClassFinder;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.tools.walkers.annotator.Annotation;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.*;
+import java.util.stream.Collectors;
+
+public final class ClassRegistryUnitTest extends GATKBaseTest {
+
+    private static final String CODEC_PACKAGE = "org.broadinstitute.hellbender.utils.codecs";
+    private static final String ANNOTATION_PACKAGE = Annotation.class.getPackage().getName();
+
+    private static Set<Class<?>> scan(final String packageName, final Class<?> superClass) {
+        final ClassFinder finder = new ClassFinder();
+        finder.find(packageName, superClass);
+        return finder.getClasses();
+    }
+
+    @Test
+    public void testRegistryRoundTrip() throws IOException {
+        final Map<String, List<String>> packagesBySuperClassName = new LinkedHashMap<>();
+        packagesBySuperClassName.put(FeatureCodec.class.getName(), Arrays.asList(CODEC_PACKAGE, "no.such.package"));
+        packagesBySuperClassName.put(Annotation.class.getName(), Collections.singletonList(ANNOTATION_PACKAGE));
+        final StringWriter writer = new StringWriter();
+        ClassRegistry.writeRegistry(writer, packagesBySuperClassName);
+        final Map<String, List<String>> registry = ClassRegistry.readRegistry(new BufferedReader(new StringReader(writer.toString())));
+
+        Assert.assertEquals(registry.size(), 3);
+        Assert.assertEquals(new HashSet<>(registry.get(FeatureCodec.class.getName() + "\t" + CODEC_PACKAGE)),
+                scan(CODEC_PACKAGE, FeatureCodec.class).stream().map(Class::getName).collect(Collectors.toSet()));
+        Assert.assertEquals(new HashSet<>(registry.get(Annotation.class.getName() + "\t" + ANNOTATION_PACKAGE)),
+                scan(ANNOTATION_PACKAGE, Annotation.class).stream().map(Class::getName).collect(Collectors.toSet()));
+        Assert.assertEquals(registry.get(FeatureCodec.class.getName() + "\tno.such.package"), Collections.emptyList());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMalformedRegistry() throws IOException {
+        ClassRegistry.readRegistry(new BufferedReader(new StringReader("htsjdk.tribble.FeatureCodec\n")));
+    }
+
+    @Test
+    public void testFindScansUnregisteredPackages() {
+        Assert.assertEquals(ClassRegistry.find(CODEC_PACKAGE, FeatureCodec.class), scan(CODEC_PACKAGE, FeatureCodec.class));
+        Assert.assertEquals(ClassRegistry.find(Arrays.asList(CODEC_PACKAGE, ANNOTATION_PACKAGE), FeatureCodec.class),
+                scan(CODEC_PACKAGE, FeatureCodec.class));
+    }
+}
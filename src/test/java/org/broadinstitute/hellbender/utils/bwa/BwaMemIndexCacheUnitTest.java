@@ -0,0 +1,86 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+public final class BwaMemIndexCacheUnitTest extends GATKBaseTest {
+    private static final String IMAGE_A = toolsTestDir + "spark/bwa/BwaSpark/ref.fa.img";
+    private static final String IMAGE_B = toolsTestDir + "spark/pathseq/PathSeqPipelineSpark/e_coli_k12_mini.fa.img";
+
+    @AfterMethod
+    public void resetCache() {
+        BwaMemIndexCache.closeInstances();
+        BwaMemIndexCache.setMaxIdleInstances(Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void testReferenceCounting() {
+        final BwaMemIndex index = BwaMemIndexCache.acquireInstance(IMAGE_A);
+        Assert.assertSame(BwaMemIndexCache.acquireInstance(IMAGE_A), index);
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_A), 2);
+        BwaMemIndexCache.setMaxIdleInstances(0);
+
+        BwaMemIndexCache.releaseInstance(IMAGE_A);
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_A), 1);
+        Assert.assertSame(BwaMemIndexCache.acquireInstance(IMAGE_A), index);
+        BwaMemIndexCache.releaseInstance(IMAGE_A);
+        BwaMemIndexCache.releaseInstance(IMAGE_A);
+
+        // no one holds it anymore, so it's evicted
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_A), -1);
+        // and releasing it again has no effect
+        BwaMemIndexCache.releaseInstance(IMAGE_A);
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_A), -1);
+    }
+
+    @Test
+    public void testEvictionOrder() {
+        BwaMemIndexCache.setMaxIdleInstances(1);
+        final BwaMemIndex indexA = BwaMemIndexCache.acquireInstance(IMAGE_A);
+        final BwaMemIndex indexB = BwaMemIndexCache.acquireInstance(IMAGE_B);
+        BwaMemIndexCache.releaseInstance(IMAGE_B);
+        BwaMemIndexCache.releaseInstance(IMAGE_A);
+
+        // A became idle last, so B is the one evicted
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_B), -1);
+        Assert.assertSame(BwaMemIndexCache.acquireInstance(IMAGE_A), indexA);
+        Assert.assertNotSame(BwaMemIndexCache.acquireInstance(IMAGE_B), indexB);
+        BwaMemIndexCache.releaseInstance(IMAGE_A);
+        BwaMemIndexCache.releaseInstance(IMAGE_B);
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_A), -1);
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_B), 0);
+
+        // lowering the limit evicts idle instances right away
+        BwaMemIndexCache.setMaxIdleInstances(0);
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_B), -1);
+    }
+
+    @Test
+    public void testInstancesFromGetInstanceAreNotEvicted() {
+        BwaMemIndexCache.setMaxIdleInstances(0);
+        final BwaMemIndex index = BwaMemIndexCache.getInstance(IMAGE_A);
+        Assert.assertSame(BwaMemIndexCache.acquireInstance(IMAGE_A), index);
+        BwaMemIndexCache.releaseInstance(IMAGE_A);
+        Assert.assertSame(BwaMemIndexCache.getInstance(IMAGE_A), index);
+        Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_A), 0);
+    }
+
+    @Test
+    public void testFailedLoad() {
+        final String missingImage = createTempDir("bwaMemIndexCache").getAbsolutePath() + "/missing.img";
+        final BwaMemIndex index = BwaMemIndexCache.acquireInstance(IMAGE_A);
+        for ( int attempt = 0; attempt != 2; ++attempt ) {
+            try {
+                BwaMemIndexCache.acquireInstance(missingImage);
+                Assert.fail("a missing image was loaded");
+            } catch ( final RuntimeException e ) {
+                // the failed instance is not kept, and the other instances are not affected
+                Assert.assertEquals(BwaMemIndexCache.getReferenceCount(missingImage), -1);
+                Assert.assertEquals(BwaMemIndexCache.getReferenceCount(IMAGE_A), 1);
+            }
+        }
+        Assert.assertSame(BwaMemIndexCache.acquireInstance(IMAGE_A), index);
+    }
+}
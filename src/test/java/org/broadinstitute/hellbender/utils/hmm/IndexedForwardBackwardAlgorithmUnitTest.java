@@ -0,0 +1,115 @@
+package org.broadinstitute.hellbender.utils.hmm;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Unit tests for {@link IndexedForwardBackwardAlgorithm}, checked against {@link ForwardBackwardAlgorithm}.
+ */
+public final class IndexedForwardBackwardAlgorithmUnitTest extends GATKBaseTest {
+
+    private static final double EPSILON = 1e-8;
+
+    private static final TestHMM MODEL = TestHMM.fromPhredProbabilities(
+            30.1, 0.6, 10.2, // priors
+            0.7, 30.3, 10.4, // transition
+            10.5, 0.4, 30.6,
+            30.7, 10.8, 0.5,
+            0.3, 10.9, 20.1, // emission
+            40.2, 0.2, 10.3,
+            5.5, 5.4, 0.1);
+
+    private static List<Integer> positions(final int length) {
+        return IntStream.range(0, length).boxed().collect(Collectors.toList());
+    }
+
+    private static List<TestHMM.Datum> randomData(final int length, final Random random) {
+        return length == 0 ? Collections.emptyList() : MODEL.generate(positions(length), random).getSecond();
+    }
+
+    @DataProvider(name = "lengths")
+    public Object[][] lengths() {
+        // including perfect squares and lengths just beyond them, so that the last block is full or has one position
+        return new Object[][] {{0}, {1}, {2}, {3}, {9}, {10}, {50}, {257}};
+    }
+
+    @Test(dataProvider = "lengths")
+    public void testPosteriors(final int length) {
+        final List<TestHMM.Datum> data = randomData(length, new Random(length + 11));
+        final List<Integer> positions = positions(length);
+        final ForwardBackwardAlgorithm.Result<TestHMM.Datum, Integer, TestHMM.State> expected =
+                ForwardBackwardAlgorithm.apply(data, positions, MODEL);
+        final List<TestHMM.State> states = MODEL.hiddenStates();
+        final int numStates = states.size();
+        final boolean[] visitedStates = new boolean[length];
+        final boolean[] visitedTransitions = new boolean[Math.max(0, length - 1)];
+
+        final double logDataLikelihood = IndexedForwardBackwardAlgorithm.apply(IndexedHMM.of(MODEL, data, positions),
+                (position, logPosteriors) -> {
+                    Assert.assertFalse(visitedStates[position]);
+                    visitedStates[position] = true;
+                    for (int stateIndex = 0; stateIndex < numStates; stateIndex++) {
+                        Assert.assertEquals(logPosteriors[stateIndex],
+                                expected.logProbability((int) position, states.get(stateIndex)), EPSILON);
+                    }
+                },
+                (position, logPosteriors) -> {
+                    Assert.assertFalse(visitedTransitions[position]);
+                    visitedTransitions[position] = true;
+                    for (int from = 0; from < numStates; from++) {
+                        for (int to = 0; to < numStates; to++) {
+                            Assert.assertEquals(logPosteriors[from * numStates + to],
+                                    expected.logProbability(position, Arrays.asList(states.get(from), states.get(to))), EPSILON);
+                        }
+                    }
+                });
+
+        for (final boolean visited : visitedStates) {
+            Assert.assertTrue(visited);
+        }
+        for (final boolean visited : visitedTransitions) {
+            Assert.assertTrue(visited);
+        }
+        Assert.assertEquals(logDataLikelihood, expected.logDataLikelihood(), EPSILON);
+        Assert.assertEquals(IndexedForwardBackwardAlgorithm.logDataLikelihood(IndexedHMM.of(MODEL, data, positions)),
+                expected.logDataLikelihood(), EPSILON);
+    }
+
+    @Test
+    public void testApplyInParallel() {
+        final Random random = new Random(31);
+        final List<IndexedHMM> models = new ArrayList<>();
+        final List<ForwardBackwardAlgorithm.Result<TestHMM.Datum, Integer, TestHMM.State>> expected = new ArrayList<>();
+        for (int modelIndex = 0; modelIndex < 16; modelIndex++) {
+            final int length = 1 + random.nextInt(300);
+            final List<TestHMM.Datum> data = randomData(length, random);
+            models.add(IndexedHMM.of(MODEL, data, positions(length)));
+            expected.add(ForwardBackwardAlgorithm.apply(data, positions(length), MODEL));
+        }
+        final double[][][] logPosteriors = new double[models.size()][][];
+        for (int modelIndex = 0; modelIndex < models.size(); modelIndex++) {
+            logPosteriors[modelIndex] = new double[models.get(modelIndex).length()][];
+        }
+        final double[] logDataLikelihoods = IndexedForwardBackwardAlgorithm.applyInParallel(models,
+                modelIndex -> (position, posteriors) -> logPosteriors[modelIndex][position] = posteriors.clone(), null);
+
+        final List<TestHMM.State> states = MODEL.hiddenStates();
+        for (int modelIndex = 0; modelIndex < models.size(); modelIndex++) {
+            Assert.assertEquals(logDataLikelihoods[modelIndex], expected.get(modelIndex).logDataLikelihood(), EPSILON);
+            final double[][] sequentialLogPosteriors = IndexedForwardBackwardAlgorithm.logPosteriors(models.get(modelIndex));
+            for (int position = 0; position < models.get(modelIndex).length(); position++) {
+                Assert.assertEquals(logPosteriors[modelIndex][position], sequentialLogPosteriors[position]);
+                for (int stateIndex = 0; stateIndex < states.size(); stateIndex++) {
+                    Assert.assertEquals(logPosteriors[modelIndex][position][stateIndex],
+                            expected.get(modelIndex).logProbability(position, states.get(stateIndex)), EPSILON);
+                }
+            }
+        }
+    }
+}
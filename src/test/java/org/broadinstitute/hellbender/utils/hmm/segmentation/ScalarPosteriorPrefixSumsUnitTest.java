@@ -0,0 +1,137 @@
+package org.broadinstitute.hellbender.utils.hmm.segmentation;
+
+import org.apache.commons.math3.util.FastMath;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.tools.exome.Target;
+import org.broadinstitute.hellbender.tools.exome.germlinehmm.CopyNumberTriState;
+import org.broadinstitute.hellbender.tools.exome.germlinehmm.xhmm.XHMMEmissionData;
+import org.broadinstitute.hellbender.tools.exome.germlinehmm.xhmm.XHMMModel;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.hmm.ForwardBackwardAlgorithm;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+/**
+ * Unit tests for {@link ScalarPosteriorPrefixSums}, checked against summing over all targets and pairs of targets
+ * of each segment.
+ */
+public final class ScalarPosteriorPrefixSumsUnitTest extends GATKBaseTest {
+
+    private static final double EPSILON = 1e-8;
+
+    private static final XHMMModel MODEL = new XHMMModel(1e-3, 20_000, -3, 3);
+
+    /**
+     * Targets on two contigs; every fifth target is followed by a shorter one with the same midpoint,
+     * so that some pairs are within any separation threshold.
+     */
+    private static List<Target> targets() {
+        final List<Target> result = new ArrayList<>();
+        for (final String contig : new String[] {"1", "2"}) {
+            for (int i = 0; i < 60; i++) {
+                final int start = 1 + i * 1000;
+                result.add(new Target(contig + "_" + i, new SimpleInterval(contig, start, start + 99)));
+                if (i % 5 == 0) {
+                    result.add(new Target(contig + "_" + i + "_nested", new SimpleInterval(contig, start + 10, start + 89)));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static ForwardBackwardAlgorithm.Result<XHMMEmissionData, Target, CopyNumberTriState> forwardBackwardResult() {
+        final List<Target> targets = targets();
+        final Random random = new Random(13);
+        final List<XHMMEmissionData> data = targets.stream()
+                .map(t -> new XHMMEmissionData(random.nextGaussian() + (t.getStart() > 20_000 && t.getStart() < 35_000 ? -3 : 0)))
+                .collect(Collectors.toList());
+        return ForwardBackwardAlgorithm.apply(data, targets, MODEL);
+    }
+
+    @DataProvider(name = "thresholds")
+    public Object[][] thresholds() {
+        return new Object[][] {{0.}, {1000.}, {Double.POSITIVE_INFINITY}};
+    }
+
+    @Test(dataProvider = "thresholds")
+    public void testSegmentMeanAndVariance(final double threshold) {
+        final ForwardBackwardAlgorithm.Result<XHMMEmissionData, Target, CopyNumberTriState> fbResult = forwardBackwardResult();
+        final int numTargets = fbResult.positions().size();
+        final ScalarPosteriorPrefixSums<CopyNumberTriState, Target> prefixSums =
+                new ScalarPosteriorPrefixSums<>(fbResult, threshold);
+        final Random random = new Random(17);
+        for (int trial = 0; trial < 100; trial++) {
+            final int from = random.nextInt(numTargets);
+            final int length = trial < 10 ? trial % 2 : random.nextInt(FastMath.min(numTargets - from, 40) + 1);
+            Assert.assertEquals(prefixSums.segmentMean(from, length), expectedMean(fbResult, from, length), EPSILON);
+            Assert.assertEquals(prefixSums.segmentVariance(from, length), expectedVariance(fbResult, from, length, threshold), EPSILON);
+            Assert.assertEquals(new ScalarPosteriorPrefixSums<>(fbResult, from, from + length, threshold).segmentVariance(from, length),
+                    expectedVariance(fbResult, from, length, threshold), EPSILON);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSegmentOutOfRange() {
+        final ForwardBackwardAlgorithm.Result<XHMMEmissionData, Target, CopyNumberTriState> fbResult = forwardBackwardResult();
+        new ScalarPosteriorPrefixSums<>(fbResult, 10, 20, 0).segmentMean(15, 10);
+    }
+
+    private static double expectedMean(final ForwardBackwardAlgorithm.Result<XHMMEmissionData, Target, CopyNumberTriState> fbResult,
+                                       final int from, final int length) {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (int ti = from; ti < from + length; ti++) {
+            sum += mean(fbResult, ti);
+        }
+        return sum / length;
+    }
+
+    private static double expectedVariance(final ForwardBackwardAlgorithm.Result<XHMMEmissionData, Target, CopyNumberTriState> fbResult,
+                                           final int from, final int length, final double threshold) {
+        if (length == 0) {
+            return Double.NaN;
+        }
+        double diagonalCorrSum = 0;
+        for (int ti = from; ti < from + length; ti++) {
+            for (final CopyNumberTriState state : CopyNumberTriState.values()) {
+                diagonalCorrSum += state.getScalar() * state.getScalar() * FastMath.exp(fbResult.logProbability(ti, state));
+            }
+        }
+        if (length == 1) {
+            return diagonalCorrSum - mean(fbResult, from) * mean(fbResult, from);
+        }
+        double crossCorrSum = diagonalCorrSum;
+        for (int ti0 = from; ti0 < from + length; ti0++) {
+            for (int ti1 = ti0 + 1; ti1 < from + length; ti1++) {
+                if (Target.calculateDistance(fbResult.positions().get(ti0), fbResult.positions().get(ti1)) > threshold) {
+                    crossCorrSum += 2 * mean(fbResult, ti0) * mean(fbResult, ti1);
+                } else {
+                    for (final CopyNumberTriState state0 : CopyNumberTriState.values()) {
+                        for (final CopyNumberTriState state1 : CopyNumberTriState.values()) {
+                            crossCorrSum += 2 * state0.getScalar() * state1.getScalar() *
+                                    FastMath.exp(fbResult.logJointProbability(ti0, ti1, state0, state1));
+                        }
+                    }
+                }
+            }
+        }
+        return FastMath.max(diagonalCorrSum / (length - 1) - crossCorrSum / (length * (length - 1)), 0);
+    }
+
+    private static double mean(final ForwardBackwardAlgorithm.Result<XHMMEmissionData, Target, CopyNumberTriState> fbResult,
+                               final int targetIndex) {
+        double result = 0;
+        for (final CopyNumberTriState state : CopyNumberTriState.values()) {
+            result += state.getScalar() * FastMath.exp(fbResult.logProbability(targetIndex, state));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,83 @@
+package org.broadinstitute.hellbender.utils.mcmc;
+
+import org.apache.commons.math3.distribution.NormalDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.RandomGeneratorFactory;
+import org.apache.commons.math3.stat.descriptive.moment.Mean;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link ParallelBlockSampler}.
+ */
+public final class ParallelBlockSamplerUnitTest {
+    private static final int RANDOM_SEED = 42;
+    private static final int NUM_BLOCKS = 200;
+    private static final int NUM_SAMPLES_PER_BLOCK = 1000;
+
+    //each block draws several numbers so that sharing a generator between blocks would change the result
+    private static final ParallelBlockSampler.BlockSampler<List<Double>> GAUSSIAN_BLOCK_SAMPLER = (rng, block) -> {
+        final List<Double> samples = new ArrayList<>(NUM_SAMPLES_PER_BLOCK);
+        for (int i = 0; i < NUM_SAMPLES_PER_BLOCK; i++) {
+            samples.add(block + rng.nextGaussian());
+        }
+        return samples;
+    };
+
+    private static RandomGenerator newRandomGenerator() {
+        return RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
+    }
+
+    /**
+     * Tests that samples are returned in block order, are reproducible given the seed, and are the same as if
+     * the blocks were sampled one after another, each with a generator seeded from the Gibbs-step generator.
+     */
+    @Test
+    public void testDeterminism() {
+        final List<List<Double>> samples = ParallelBlockSampler.sample(newRandomGenerator(), NUM_BLOCKS, GAUSSIAN_BLOCK_SAMPLER);
+        Assert.assertEquals(ParallelBlockSampler.sample(newRandomGenerator(), NUM_BLOCKS, GAUSSIAN_BLOCK_SAMPLER), samples);
+
+        final RandomGenerator rng = newRandomGenerator();
+        final long[] seeds = new long[NUM_BLOCKS];
+        for (int block = 0; block < NUM_BLOCKS; block++) {
+            seeds[block] = rng.nextLong();
+        }
+        Assert.assertEquals(samples.size(), NUM_BLOCKS);
+        for (int block = 0; block < NUM_BLOCKS; block++) {
+            Assert.assertEquals(samples.get(block),
+                    GAUSSIAN_BLOCK_SAMPLER.sample(RandomGeneratorFactory.createRandomGenerator(new Random(seeds[block])), block));
+        }
+    }
+
+    @Test
+    public void testNoBlocks() {
+        Assert.assertEquals(ParallelBlockSampler.sample(newRandomGenerator(), 0, GAUSSIAN_BLOCK_SAMPLER), Collections.emptyList());
+    }
+
+    /**
+     * Tests slice sampling of independent normal distributions, one per block.  Checks that the means are
+     * recovered by 1000 samples to an absolute error of 0.1.
+     */
+    @Test
+    public void testSliceSamplingOfIndependentBlocks() {
+        final double standardDeviation = 0.75;
+        final List<List<Double>> samples = ParallelBlockSampler.sample(newRandomGenerator(), NUM_BLOCKS, (rng, block) -> {
+            final NormalDistribution normalDistribution = new NormalDistribution(block, standardDeviation);
+            return new SliceSampler(rng, normalDistribution::logDensity, 0.5).sample(block + 1., NUM_SAMPLES_PER_BLOCK);
+        });
+        for (int block = 0; block < NUM_BLOCKS; block++) {
+            final double sampleMean = new Mean().evaluate(samples.get(block).stream().mapToDouble(Double::doubleValue).toArray());
+            Assert.assertEquals(sampleMean, block, 0.1);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNegativeNumberOfBlocks() {
+        ParallelBlockSampler.sample(newRandomGenerator(), -1, GAUSSIAN_BLOCK_SAMPLER);
+    }
+}
@@ -63,4 +63,29 @@ public class HeaderlessSAMRecordCoordinateComparatorUnitTest extends GATKBaseTes
             Assert.assertEquals(actualRead, expectedRead, "Ordering produced by HeaderlessSAMRecordCoordinateComparator does not match the ordering produced by SAMRecordCoordinateComparator");
         }
     }
+
+    @Test
+    public void testCoordinateSortKeyIsConsistentWithComparator() throws IOException {
+        final String inputBam = publicTestDir + "org/broadinstitute/hellbender/utils/read/comparator_test_with_unmapped.bam";
+        final List<SAMRecord> reads = new ArrayList<>();
+        SAMFileHeader header = null;
+
+        try ( final SamReader reader = SamReaderFactory.makeDefault().validationStringency(ValidationStringency.SILENT).open(new File(inputBam)) ) {
+            header = reader.getFileHeader();
+            for ( SAMRecord read : reader ) {
+                read.setHeaderStrict(null);
+                reads.add(read);
+            }
+        }
+
+        Collections.shuffle(reads);
+        Collections.sort(reads, new HeaderlessSAMRecordCoordinateComparator(header));
+
+        long previousKey = -1;
+        for ( final SAMRecord read : reads ) {
+            final long key = HeaderlessSAMRecordCoordinateComparator.coordinateSortKey(read, header);
+            Assert.assertTrue(key >= previousKey, "Sort key out of order for " + read.getSAMString());
+            previousKey = key;
+        }
+    }
 }
@@ -55,6 +55,36 @@ public final class ReadCoordinateComparatorUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test
+    public void testCoordinateSortKeyIsConsistentWithComparator() throws IOException {
+        final String inputBam = publicTestDir + "org/broadinstitute/hellbender/utils/read/comparator_test_with_unmapped.bam";
+        final List<GATKRead> reads = new ArrayList<>();
+        SAMFileHeader header = null;
+
+        try ( final ReadsDataSource readsSource = new ReadsDataSource(IOUtils.getPath(inputBam)) ) {
+            header = readsSource.getHeader();
+            for ( GATKRead read : readsSource ) {
+                reads.add(read);
+            }
+        }
+        for ( final String name : new String[]{"b", "ab", "a", "abcde", "abcd", "\u00e9", null} ) {
+            final GATKRead unplaced = ArtificialReadUtils.createArtificialUnmappedRead(header, new byte[]{'A'}, new byte[]{30});
+            unplaced.setName(name);
+            unplaced.setIsReverseStrand(name != null && name.length() % 2 == 0);
+            reads.add(unplaced);
+        }
+
+        Collections.shuffle(reads);
+        Collections.sort(reads, new ReadCoordinateComparator(header));
+
+        long previousKey = -1;
+        for ( final GATKRead read : reads ) {
+            final long key = ReadCoordinateComparator.coordinateSortKey(read, header);
+            Assert.assertTrue(key >= previousKey, "Sort key out of order for " + read);
+            previousKey = key;
+        }
+    }
+
     @Test
     public void testEqual() throws Exception {
         final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
@@ -65,6 +95,19 @@ public final class ReadCoordinateComparatorUnitTest extends GATKBaseTest {
         Assert.assertEquals(comp.compare(r2, r1), 0);
     }
 
+    @Test
+    public void testNullNameSortsFirst() throws Exception {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        ReadCoordinateComparator comp= new ReadCoordinateComparator(header);
+        final GATKRead unnamed = ArtificialReadUtils.createArtificialUnmappedRead(header, new byte[]{'A'}, new byte[]{30});
+        unnamed.setName(null);
+        final GATKRead named = ArtificialReadUtils.createArtificialUnmappedRead(header, new byte[]{'A'}, new byte[]{30});
+        named.setName("a");
+        Assert.assertEquals(comp.compare(unnamed, named), -1);
+        Assert.assertEquals(comp.compare(named, unnamed), 1);
+        Assert.assertEquals(comp.compare(unnamed, unnamed), 0);
+    }
+
     @Test
     public void testReverse() throws Exception {
         final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
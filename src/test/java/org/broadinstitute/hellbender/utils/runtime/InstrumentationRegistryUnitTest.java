@@ -0,0 +1,91 @@
+package org.broadinstitute.hellbender.utils.runtime;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+public final class InstrumentationRegistryUnitTest extends GATKBaseTest {
+
+    @Test
+    public void testDisabledRegistryRecordsNothing() {
+        final InstrumentationRegistry registry = new InstrumentationRegistry();
+        final InstrumentationRegistry.Timer timer = registry.timer("phase");
+        final InstrumentationRegistry.Counter counter = registry.counter("events");
+        final InstrumentationRegistry.Gauge gauge = registry.gauge("value");
+
+        final long start = timer.start();
+        Assert.assertEquals(start, 0L);
+        timer.stop(start);
+        timer.record(10L);
+        counter.increment();
+        counter.add(5);
+        gauge.set(3.0);
+
+        Assert.assertEquals(timer.getCount(), 0L);
+        Assert.assertEquals(timer.getTotalNanos(), 0L);
+        Assert.assertEquals(counter.get(), 0L);
+        Assert.assertEquals(gauge.get(), 0.0);
+    }
+
+    @Test
+    public void testEnabledRegistryAndReset() {
+        final InstrumentationRegistry registry = new InstrumentationRegistry();
+        registry.setEnabled(true);
+        final InstrumentationRegistry.Timer timer = registry.timer("phase");
+        final InstrumentationRegistry.Counter counter = registry.counter("events");
+
+        timer.record(1_000_000_000L);
+        timer.record(500_000_000L);
+        timer.stop(timer.start());
+        counter.increment();
+        counter.add(41);
+
+        Assert.assertSame(registry.timer("phase"), timer);
+        Assert.assertSame(registry.counter("events"), counter);
+        Assert.assertEquals(timer.getCount(), 3L);
+        Assert.assertTrue(timer.getTotalNanos() >= 1_500_000_000L);
+        Assert.assertEquals(counter.get(), 42L);
+
+        registry.reset();
+        Assert.assertSame(registry.timer("phase"), timer);
+        Assert.assertEquals(timer.getCount(), 0L);
+        Assert.assertEquals(counter.get(), 0L);
+    }
+
+    @Test
+    public void testJsonAndPrometheusOutput() throws IOException {
+        final InstrumentationRegistry registry = new InstrumentationRegistry();
+        registry.setEnabled(true);
+        registry.timer("haplotypeCaller.assembly").record(2_500_000_000L);
+        registry.counter("readFilter.\"quoted\"").add(7);
+        registry.gauge("progress.readsProcessed").set(100);
+
+        final String json = registry.toJson();
+        Assert.assertTrue(json.contains("\"haplotypeCaller.assembly\": {\"seconds\": 2.5, \"count\": 1}"), json);
+        Assert.assertTrue(json.contains("\"readFilter.\\\"quoted\\\"\": 7"), json);
+        Assert.assertTrue(json.contains("\"progress.readsProcessed\": 100.0"), json);
+
+        final String prometheus = registry.toPrometheus();
+        Assert.assertTrue(prometheus.contains("gatk_phase_seconds_total{phase=\"haplotypeCaller.assembly\"} 2.5\n"), prometheus);
+        Assert.assertTrue(prometheus.contains("gatk_phase_calls_total{phase=\"haplotypeCaller.assembly\"} 1\n"), prometheus);
+        Assert.assertTrue(prometheus.contains("gatk_events_total{name=\"readFilter.\\\"quoted\\\"\"} 7\n"), prometheus);
+        Assert.assertTrue(prometheus.contains("gatk_value{name=\"progress.readsProcessed\"} 100.0\n"), prometheus);
+
+        final File jsonFile = createTempFile("instrumentation", ".json");
+        final File prometheusFile = createTempFile("instrumentation", ".prom");
+        registry.writeJson(jsonFile);
+        registry.writePrometheus(prometheusFile);
+        Assert.assertEquals(new String(Files.readAllBytes(jsonFile.toPath()), StandardCharsets.UTF_8), json);
+        Assert.assertEquals(new String(Files.readAllBytes(prometheusFile.toPath()), StandardCharsets.UTF_8), prometheus);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testEmptyName() {
+        new InstrumentationRegistry().counter("");
+    }
+}
@@ -8,14 +8,26 @@ import org.apache.spark.api.java.JavaSparkContext;
 import org.broadinstitute.hellbender.engine.ReadsDataSource;
 import org.broadinstitute.hellbender.engine.spark.SparkContextFactory;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.HeaderlessSAMRecordCoordinateComparator;
+import org.broadinstitute.hellbender.utils.read.ReadCoordinateComparator;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.utils.test.MiniClusterUtils;
 import org.testng.Assert;
+import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
+import scala.Tuple2;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class SparkUtilsUnitTest extends GATKBaseTest {
 
@@ -54,6 +66,158 @@ public class SparkUtilsUnitTest extends GATKBaseTest {
         Assert.assertEquals(actualCount, expectedReadCount, "Wrong number of reads in final BAM file");
     }
 
+    @Test(groups = "spark")
+    public void testCoordinateSortReadsMatchesComparator() throws IOException {
+        final String inputBam = publicTestDir + "org/broadinstitute/hellbender/utils/read/comparator_test_with_unmapped.bam";
+        final List<GATKRead> reads = new ArrayList<>();
+        SAMFileHeader header = null;
+        try ( final ReadsDataSource readsSource = new ReadsDataSource(IOUtils.getPath(inputBam)) ) {
+            header = readsSource.getHeader();
+            for ( final GATKRead read : readsSource ) {
+                // Clear the indexing bin so that it doesn't affect the equality checks below
+                final SAMRecord record = read.convertToSAMRecord(header);
+                record.setFlags(record.getFlags());
+                reads.add(read);
+            }
+        }
+        header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+
+        final List<GATKRead> expectedReads = new ArrayList<>(reads);
+        Collections.sort(expectedReads, new ReadCoordinateComparator(header));
+
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        Collections.shuffle(reads);
+        final List<GATKRead> sortedReads = SparkUtils.coordinateSortReads(ctx.parallelize(reads, 4), header, 3).collect();
+        Assert.assertEquals(sortedReads.size(), expectedReads.size());
+        for ( int i = 0; i < sortedReads.size(); i++ ) {
+            Assert.assertEquals(sortedReads.get(i).convertToSAMRecord(header), expectedReads.get(i).convertToSAMRecord(header));
+        }
+
+        final List<SAMRecord> expectedRecords = new ArrayList<>();
+        for ( final GATKRead read : expectedReads ) {
+            expectedRecords.add(read.convertToSAMRecord(header));
+        }
+        final List<SAMRecord> records = new ArrayList<>(expectedRecords);
+        Collections.shuffle(records);
+        final List<SAMRecord> sortedRecords = SparkUtils.sortReads(ctx.parallelize(records, 4), header, 3).collect();
+        Collections.sort(expectedRecords, new HeaderlessSAMRecordCoordinateComparator(header));
+        Assert.assertEquals(sortedRecords.size(), expectedRecords.size());
+        for ( int i = 0; i < sortedRecords.size(); i++ ) {
+            final SAMRecord sortedRecord = sortedRecords.get(i);
+            sortedRecord.setHeaderStrict(header);
+            Assert.assertEquals(sortedRecord, expectedRecords.get(i));
+        }
+    }
+
+    private static List<GATKRead> makeUnplacedReadsSharingANamePrefix(final SAMFileHeader header, final int numReads) {
+        final List<GATKRead> reads = new ArrayList<>();
+        for ( int i = 0; i < numReads; i++ ) {
+            final GATKRead read = ArtificialReadUtils.createArtificialUnmappedRead(header, new byte[]{'A'}, new byte[]{30});
+            read.setName("HWI-ST1234:8:1101:" + i);
+            read.setIsReverseStrand(i % 2 == 0);
+            reads.add(read);
+        }
+        return reads;
+    }
+
+    @Test
+    public void testShuffleKeysAreConsistentWithComparator() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        final List<GATKRead> reads = makeUnplacedReadsSharingANamePrefix(header, 100);
+        for ( int i = 0; i < 10; i++ ) {
+            final GATKRead unnamed = ArtificialReadUtils.createArtificialUnmappedRead(header, new byte[]{'A'}, new byte[]{30});
+            unnamed.setName(null);
+            unnamed.setIsReverseStrand(i % 2 == 0);
+            reads.add(unnamed);
+        }
+        for ( int i = 0; i < 10; i++ ) {
+            final GATKRead placed = ArtificialReadUtils.createArtificialRead(header, "read" + i, 0, 1 + i / 2, 10);
+            reads.add(placed);
+        }
+        Collections.shuffle(reads);
+        Collections.sort(reads, new ReadCoordinateComparator(header));
+
+        final SparkUtils.ShuffleKeyComparator keyComparator = new SparkUtils.ShuffleKeyComparator();
+        final Set<Tuple2<Long, String>> unplacedKeys = new HashSet<>();
+        Tuple2<Long, String> previousKey = null;
+        for ( final GATKRead read : reads ) {
+            final Tuple2<Long, String> key = SparkUtils.shuffleKey(ReadCoordinateComparator.coordinateSortKey(read, header), read.getName());
+            if ( previousKey != null ) {
+                Assert.assertTrue(keyComparator.compare(previousKey, key) <= 0, "Shuffle key out of order for " + read);
+            }
+            if ( read.isUnmapped() && read.getName() != null ) {
+                unplacedKeys.add(key);
+            }
+            previousKey = key;
+        }
+        // unplaced reads are keyed by their full names, so reads that only share a prefix don't share a key
+        Assert.assertEquals(unplacedKeys.size(), 100);
+    }
+
+    @DataProvider(name = "maxRecordsInRam")
+    public Object[][] maxRecordsInRam() {
+        return new Object[][]{ {1000}, {7}, {1} };
+    }
+
+    @Test(dataProvider = "maxRecordsInRam")
+    public void testKeyRunSortingIterator(final int maxRecordsInRam) {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+        final List<SAMRecord> records = new ArrayList<>();
+        for ( int i = 0; i < 60; i++ ) {
+            // one run per strand of reads at the same position, and one per strand of unplaced reads
+            final GATKRead read = i < 40 ? ArtificialReadUtils.createArtificialRead(header, "10M")
+                    : ArtificialReadUtils.createArtificialUnmappedRead(header, new byte[]{'A'}, new byte[]{30});
+            read.setName("read" + (i * 7919 % 60));
+            read.setIsReverseStrand(i % 2 == 0);
+            read.setMappingQuality(i % 5);
+            final SAMRecord record = read.convertToSAMRecord(header);
+            record.setHeaderStrict(null);
+            records.add(record);
+        }
+
+        final HeaderlessSAMRecordCoordinateComparator comparator = new HeaderlessSAMRecordCoordinateComparator(header);
+        final SparkUtils.BinaryRecordCodec codec = new SparkUtils.BinaryRecordCodec();
+        final List<Tuple2<Long, byte[]>> keyedRecords = new ArrayList<>();
+        for ( final SAMRecord record : records ) {
+            keyedRecords.add(new Tuple2<>(HeaderlessSAMRecordCoordinateComparator.coordinateSortKey(record, header), codec.toBytes(record)));
+        }
+        keyedRecords.sort(Comparator.comparing(Tuple2::_1));
+
+        final List<SAMRecord> sortedRecords = new ArrayList<>();
+        new SparkUtils.KeyRunSortingIterator<>(keyedRecords.iterator(), comparator, maxRecordsInRam).forEachRemaining(sortedRecords::add);
+
+        final List<SAMRecord> expectedRecords = new ArrayList<>(records);
+        expectedRecords.sort(comparator);
+        Assert.assertEquals(sortedRecords.size(), expectedRecords.size());
+        for ( int i = 0; i < sortedRecords.size(); i++ ) {
+            Assert.assertEquals(sortedRecords.get(i).getSAMString(), expectedRecords.get(i).getSAMString());
+        }
+    }
+
+    @Test(groups = "spark")
+    public void testCoordinateSortReadsSpreadsUnplacedReadsSharingANamePrefix() {
+        final SAMFileHeader header = ArtificialReadUtils.createArtificialSamHeader();
+        header.setSortOrder(SAMFileHeader.SortOrder.coordinate);
+        final List<GATKRead> reads = makeUnplacedReadsSharingANamePrefix(header, 2000);
+        final List<GATKRead> expectedReads = new ArrayList<>(reads);
+        Collections.sort(expectedReads, new ReadCoordinateComparator(header));
+
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        Collections.shuffle(reads);
+        final List<List<GATKRead>> partitions = SparkUtils.coordinateSortReads(ctx.parallelize(reads, 4), header, 4).glom().collect();
+        Assert.assertEquals(partitions.size(), 4);
+        final List<GATKRead> sortedReads = new ArrayList<>();
+        for ( final List<GATKRead> partition : partitions ) {
+            Assert.assertTrue(partition.size() < reads.size() / 2, "Unplaced reads were not spread across partitions: " + partition.size());
+            sortedReads.addAll(partition);
+        }
+        Assert.assertEquals(sortedReads.size(), expectedReads.size());
+        for ( int i = 0; i < sortedReads.size(); i++ ) {
+            Assert.assertEquals(sortedReads.get(i).getName(), expectedReads.get(i).getName());
+        }
+    }
+
     @Test
     public void testPathExists() throws Exception {
         MiniClusterUtils.runOnIsolatedMiniCluster( cluster -> {
@@ -0,0 +1,114 @@
+package org.broadinstitute.hellbender.utils.tsv;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link TableLineParser}.
+ */
+public final class TableLineParserUnitTest extends GATKBaseTest {
+
+    private static final String[] NUMBER_STRINGS = {
+            "0", "1", "-1", "+1", "-0", "+0", "007", "42", "-2147483648", "2147483647", "2147483648", "-2147483649",
+            "123456789", "1234567890", "9223372036854775807", "-9223372036854775808", "9223372036854775808",
+            "123456789012345678", "1234567890123456789",
+            "1.", ".5", "-.5", "0.0", "-0.0", "1.5", "0.1", "0.3", "3.14159", "1e-7", "2.2E-2", "1E22", "1e23", "1e-22",
+            "1e-23", "123456789012345", "1234567890123456", "0.1234567890123456789", "9007199254740993",
+            "1.7976931348623157E308", "4.9E-324", "1e400", "1e-400", "1e+5", "1e00005", "0e99999", "000000000000000000001.5",
+            "NaN", "-NaN", "Infinity", "-Infinity", "+Infinity", "1d", "1f", "1D", "0x1p3", " 1", "1 ", "1e", "1e-", "1e+",
+            "", "-", "+", ".", "-.", "e5", "a1", "1a", "1.5.", "1..5", "--1", "+-1", "1-"};
+
+    @DataProvider(name = "numberStrings")
+    public Object[][] numberStrings() {
+        final List<Object[]> result = new ArrayList<>();
+        for (final String s : NUMBER_STRINGS) {
+            result.add(new Object[]{s});
+        }
+        final Random random = new Random(13);
+        for (int i = 0; i < 100; i++) {
+            final double value = random.nextGaussian() * Math.pow(10, random.nextInt(40) - 20);
+            result.add(new Object[]{Double.toString(value)});
+            result.add(new Object[]{String.format("%.4f", value)});
+            result.add(new Object[]{String.format("%.6e", value)});
+            result.add(new Object[]{Integer.toString(random.nextInt())});
+            result.add(new Object[]{Long.toString(random.nextLong())});
+        }
+        return result.toArray(new Object[result.size()][]);
+    }
+
+    @Test(dataProvider = "numberStrings")
+    public void testParseInt(final String s) {
+        assertSameResult(() -> Integer.parseInt(s), () -> TableLineParser.parseInt("x\t" + s + "\ty", 2, 2 + s.length()));
+    }
+
+    @Test(dataProvider = "numberStrings")
+    public void testParseLong(final String s) {
+        assertSameResult(() -> Long.parseLong(s), () -> TableLineParser.parseLong("x\t" + s + "\ty", 2, 2 + s.length()));
+    }
+
+    @Test(dataProvider = "numberStrings")
+    public void testParseDouble(final String s) {
+        assertSameResult(() -> Double.parseDouble(s), () -> TableLineParser.parseDouble("x\t" + s + "\ty", 2, 2 + s.length()));
+    }
+
+    private static void assertSameResult(final NumberSupplier expected, final NumberSupplier actual) {
+        Number expectedValue;
+        try {
+            expectedValue = expected.get();
+        } catch (final NumberFormatException ex) {
+            expectedValue = null;
+        }
+        try {
+            final Number actualValue = actual.get();
+            Assert.assertNotNull(expectedValue, "expected a NumberFormatException but got " + actualValue);
+            // compare bit patterns so that -0.0 and 0.0 are told apart:
+            if (expectedValue instanceof Double) {
+                Assert.assertEquals(Double.doubleToLongBits(actualValue.doubleValue()), Double.doubleToLongBits(expectedValue.doubleValue()));
+            } else {
+                Assert.assertEquals(actualValue, expectedValue);
+            }
+        } catch (final NumberFormatException ex) {
+            Assert.assertNull(expectedValue, "unexpected NumberFormatException");
+        }
+    }
+
+    @FunctionalInterface
+    private interface NumberSupplier {
+        Number get();
+    }
+
+    @DataProvider(name = "lines")
+    public Object[][] lines() {
+        return new Object[][]{
+                {"", new String[]{""}},
+                {"a", new String[]{"a"}},
+                {"a\tbb\tccc", new String[]{"a", "bb", "ccc"}},
+                {"\t", new String[]{"", ""}},
+                {"a\t\tc\t", new String[]{"a", "", "c", ""}},
+                {"a\t\"b\"", null},
+                {"a\tb\\c", null}
+        };
+    }
+
+    @Test(dataProvider = "lines")
+    public void testValueEnds(final String line, final String[] expectedValues) {
+        final int[] valueEnds = TableLineParser.valueEnds(line);
+        if (expectedValues == null) {
+            Assert.assertNull(valueEnds);
+            return;
+        }
+        Assert.assertNotNull(valueEnds);
+        Assert.assertEquals(TableLineParser.values(line, valueEnds), expectedValues);
+        for (int i = 0; i < expectedValues.length; i++) {
+            Assert.assertEquals(valueEnds[i] - TableLineParser.valueStart(valueEnds, i), expectedValues[i].length());
+            Assert.assertTrue(TableLineParser.valueEquals(line, valueEnds, i, expectedValues[i]));
+            Assert.assertFalse(TableLineParser.valueEquals(line, valueEnds, i, expectedValues[i] + "x"));
+        }
+    }
+}
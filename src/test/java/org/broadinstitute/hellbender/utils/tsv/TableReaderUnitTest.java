@@ -47,6 +47,10 @@ public class TableReaderUnitTest extends GATKBaseTest {
             return String.join("" + TableUtils.COLUMN_SEPARATOR, strValue, Integer.toString(intValue), Double.toString(dblValue));
         }
 
+        public String toTabFileLineWithAlterString(final String replace) {
+            return String.join("" + TableUtils.COLUMN_SEPARATOR, replace, Integer.toString(intValue), Double.toString(dblValue));
+        }
+
         public String toTabFileLineWithAlterInt(final String replace) {
             return String.join("" + TableUtils.COLUMN_SEPARATOR, strValue, replace, Double.toString(dblValue));
         }
@@ -158,6 +162,87 @@ public class TableReaderUnitTest extends GATKBaseTest {
         reader.close();
     }
 
+    @Test(dataProvider = "ordinaryValuesData")
+    public void testToListInParallel(final String[] lines) throws IOException {
+        final File testFile = createTestInput(lines);
+        final TableReader<TestTuple> reader = new TestTupleReader(testFile);
+        final TestTuple first = reader.readRecord();
+        final List<TestTuple> actual = new ArrayList<>();
+        actual.add(first);
+        actual.addAll(reader.toListInParallel());
+        Assert.assertSame(reader.readRecord(), null);
+        Assert.assertEquals(actual, Arrays.asList(ORDINARY_VALUE_TEST_TUPLES));
+        reader.close();
+    }
+
+    @Test
+    public void testToListInParallelLargeInput() throws IOException {
+        final String header = String.join("" + TableUtils.COLUMN_SEPARATOR, "col1.str", "col2.int", "col3.dbl");
+        final List<String> lines = new ArrayList<>();
+        final List<TestTuple> expected = new ArrayList<>();
+        lines.add(header);
+        for (int i = 0; i < 25_123; i++) {
+            // some values need quotes, and there are some comments and header repetitions in between:
+            final boolean quoted = i % 1000 == 0;
+            final TestTuple tuple = new TestTuple((quoted ? "str\t" : "str") + i, i - 1000, i * 0.001 - 0.5);
+            expected.add(tuple);
+            lines.add(quoted ? tuple.toTabFileLineWithAlterString(TableUtils.QUOTE_CHARACTER + tuple.strValue + TableUtils.QUOTE_CHARACTER)
+                    : tuple.toTabFileLine());
+            if (i % 3000 == 0) {
+                lines.add(TableUtils.COMMENT_PREFIX + "comment" + i);
+                lines.add(header);
+            }
+        }
+        final File testFile = createTestInput(lines.toArray(new String[lines.size()]));
+        try (final TableReader<TestTuple> reader = new TestTupleReader(testFile)) {
+            Assert.assertEquals(reader.toListInParallel(), expected);
+        }
+        try (final TableReader<TestTuple> reader = new TestTupleReader(testFile)) {
+            Assert.assertEquals(reader.toList(), expected);
+        }
+        try (final TableReader<TestTuple> reader = new TestTupleReader(testFile)) {
+            final Thread callingThread = Thread.currentThread();
+            final List<TestTuple> actual = new ArrayList<>();
+            reader.forEachInParallel(tuple -> {
+                Assert.assertSame(Thread.currentThread(), callingThread);
+                actual.add(tuple);
+            });
+            Assert.assertEquals(actual, expected);
+        }
+    }
+
+    @Test
+    public void testToListInParallelFormatErrorLineNumber() throws IOException {
+        final String header = String.join("" + TableUtils.COLUMN_SEPARATOR, "col1.str", "col2.int", "col3.dbl");
+        final String[] lines = new String[20_001];
+        lines[0] = header;
+        for (int i = 1; i < lines.length; i++) {
+            lines[i] = i == 12_345 ? ORDINARY_VALUE_TEST_TUPLES[0].toTabFileLineWithAlterInt("no-int") : ORDINARY_VALUE_TEST_TUPLES[0].toTabFileLine();
+        }
+        final File testFile = createTestInput(lines);
+        try (final TableReader<TestTuple> reader = new TestTupleReader(testFile)) {
+            reader.toListInParallel();
+            Assert.fail("expected a format error");
+        } catch (final UserException.BadInput ex) {
+            Assert.assertTrue(ex.getMessage().contains("at line 12346"), ex.getMessage());
+        }
+        // errors reported by createRecord itself:
+        try (final TableReader<TestTuple> reader = new TestTupleReader(testFile) {
+                @Override
+                protected TestTuple createRecord(final DataLine dataLine) {
+                    if (dataLine.getLineNumber() == 5_432) {
+                        throw formatException("bad record");
+                    }
+                    return super.createRecord(dataLine);
+                }
+            }) {
+            reader.toListInParallel();
+            Assert.fail("expected a format error");
+        } catch (final UserException.BadInput ex) {
+            Assert.assertTrue(ex.getMessage().contains("at line 5432: bad record"), ex.getMessage());
+        }
+    }
+
     @Test(dataProvider = "ordinaryValuesData")
     public void testStandardValuesUsingReader(final String[] lines) throws IOException {
         final File testFile = createTestInput(lines);